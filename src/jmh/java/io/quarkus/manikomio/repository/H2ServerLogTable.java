@@ -0,0 +1,83 @@
+package io.quarkus.manikomio.repository;
+
+import io.quarkus.manikomio.model.LogEventType;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Tabela server_logs no H2 embarcado com o mesmo esquema e índices da entidade ServerLog,
+ * para os benchmarks de banco. As linhas são geradas de forma determinística a partir do id.
+ */
+final class H2ServerLogTable implements AutoCloseable {
+
+    static final int GUILDS = 10;
+    static final long GUILD_BASE = 300_000_000_000_000_000L;
+    static final long SPOOL_ID = 0x5eed_5eedL;
+
+    private static final String INSERT = "INSERT INTO server_logs (id, event_type, description, message, user_id, "
+            + "channel_id, guild_id, created_at, ingest_spool, ingest_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    final Connection connection;
+    final OffsetDateTime base = OffsetDateTime.now(ZoneOffset.UTC).minusDays(30);
+    private final PreparedStatement insert;
+    private long nextId;
+
+    H2ServerLogTable(String name, int preloadedRows) throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS server_logs");
+            ddl.execute("CREATE TABLE server_logs (id BIGINT NOT NULL PRIMARY KEY, event_type SMALLINT NOT NULL, "
+                    + "description VARCHAR(255), message VARCHAR(4000), user_id BIGINT, channel_id BIGINT, "
+                    + "guild_id BIGINT, created_at TIMESTAMP(6) WITH TIME ZONE, ingest_spool BIGINT, ingest_key BIGINT)");
+            ddl.execute("CREATE INDEX idx_server_logs_guild_created ON server_logs (guild_id, created_at)");
+            ddl.execute("CREATE INDEX idx_server_logs_user_created ON server_logs (user_id, created_at)");
+            ddl.execute("CREATE INDEX idx_server_logs_channel_created ON server_logs (channel_id, created_at)");
+            ddl.execute("CREATE INDEX idx_server_logs_type_created ON server_logs (event_type, created_at)");
+            ddl.execute("CREATE UNIQUE INDEX uk_server_logs_ingest ON server_logs (ingest_spool, ingest_key, created_at)");
+        }
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement(INSERT);
+        for (int i = 0; i < preloadedRows; i += 1000) {
+            insertBatch(Math.min(1000, preloadedRows - i));
+        }
+    }
+
+    // Um lote por transação, como o persistBatch do write-behind
+    void insertBatch(int rows) throws SQLException {
+        for (int i = 0; i < rows; i++) {
+            long id = nextId++;
+            insert.setLong(1, id);
+            insert.setShort(2, LogEventType.values()[(int) (id % LogEventType.values().length)].code());
+            insert.setString(3, "Mensagem enviada no canal geral");
+            insert.setString(4, "Mensagem de teste com um pouco de texto para simular uma conversa");
+            insert.setLong(5, 100_000_000_000_000_000L + id % 500);
+            insert.setLong(6, 200_000_000_000_000_000L + id % 20);
+            insert.setLong(7, GUILD_BASE + id % GUILDS);
+            insert.setObject(8, createdAt(id));
+            insert.setLong(9, SPOOL_ID);
+            insert.setLong(10, id);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+
+    OffsetDateTime createdAt(long id) {
+        return base.plusNanos(id * 1_000_000L);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE server_logs");
+        }
+        connection.commit();
+        connection.close();
+    }
+}
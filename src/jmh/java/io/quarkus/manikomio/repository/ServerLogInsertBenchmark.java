@@ -0,0 +1,50 @@
+package io.quarkus.manikomio.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserção em lote de server_logs no H2 embarcado, com JDBC direto e o mesmo SQL do Hibernate:
+ * mede o custo do banco sem o overhead do ORM. Cada operação é um lote (linhas/s = ops/s × batchSize).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServerLogInsertBenchmark {
+
+    @Param({"1", "50", "200"})
+    int batchSize;
+
+    private H2ServerLogTable table;
+
+    @Setup
+    public void setUp() throws SQLException {
+        table = new H2ServerLogTable("jmh-insert", 100_000);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        table.close();
+    }
+
+    @Benchmark
+    public void insertBatch() throws SQLException {
+        table.insertBatch(batchSize);
+    }
+}
@@ -0,0 +1,89 @@
+package io.quarkus.manikomio.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas paginadas (keyset) de server_logs no H2 embarcado, com o SQL que o Hibernate gera
+ * para ServerLog.findPage: primeira página da guild e uma página no meio do histórico via cursor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServerLogQueryBenchmark {
+
+    private static final int PRELOADED_ROWS = 100_000;
+    private static final int PAGE_SIZE = 10;
+
+    private static final String COLUMNS = "SELECT id, event_type, description, message, user_id, channel_id, guild_id, "
+            + "created_at FROM server_logs ";
+
+    private H2ServerLogTable table;
+    private PreparedStatement firstPage;
+    private PreparedStatement nextPage;
+
+    @Setup
+    public void setUp() throws SQLException {
+        table = new H2ServerLogTable("jmh-query", PRELOADED_ROWS);
+        // Busca um registro a mais para saber se há próxima página, como o findPage
+        firstPage = table.connection.prepareStatement(COLUMNS
+                + "WHERE guild_id = ? ORDER BY created_at DESC, id DESC LIMIT ?");
+        nextPage = table.connection.prepareStatement(COLUMNS
+                + "WHERE guild_id = ? AND (created_at < ? OR (created_at = ? AND id < ?)) "
+                + "ORDER BY created_at DESC, id DESC LIMIT ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        table.close();
+    }
+
+    @Benchmark
+    public void firstPage(Blackhole blackhole) throws SQLException {
+        firstPage.setLong(1, H2ServerLogTable.GUILD_BASE + 3);
+        firstPage.setInt(2, PAGE_SIZE + 1);
+        consume(firstPage, blackhole);
+    }
+
+    @Benchmark
+    public void keysetPage(Blackhole blackhole) throws SQLException {
+        long cursorId = PRELOADED_ROWS / 2;
+        OffsetDateTime cursorCreatedAt = table.createdAt(cursorId);
+        nextPage.setLong(1, H2ServerLogTable.GUILD_BASE + cursorId % H2ServerLogTable.GUILDS);
+        nextPage.setObject(2, cursorCreatedAt);
+        nextPage.setObject(3, cursorCreatedAt);
+        nextPage.setLong(4, cursorId);
+        nextPage.setInt(5, PAGE_SIZE + 1);
+        consume(nextPage, blackhole);
+    }
+
+    private static void consume(PreparedStatement query, Blackhole blackhole) throws SQLException {
+        try (ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                blackhole.consume(rows.getLong(1));
+                blackhole.consume(rows.getString(3));
+                blackhole.consume(rows.getObject(8, OffsetDateTime.class));
+            }
+        }
+        query.getConnection().commit();
+    }
+}
@@ -0,0 +1,115 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.ServerLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rajada de comandos nas faixas de comandos, com um quinto deles consultando o banco. O banco é um
+ * pool de CONNECTIONS conexões em que cada consulta leva QUERY_MS; os demais comandos só formatam
+ * uma resposta em memória. Mede o tempo da rajada e, ao final, o p99 dos comandos em memória e o
+ * pico de threads da JVM. No modo BLOCKING as consultas seguram a faixa; no ASYNC elas vão para o
+ * pool do LogQueryExecutor e a faixa segue com a fila.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandConcurrencyBenchmark {
+
+    private static final int STRIPES = 4;
+    private static final int CONNECTIONS = 4;
+    private static final int QUERY_MS = 5;
+    private static final int BURST = 200;
+
+    @Param({"BLOCKING", "ASYNC"})
+    public LogQueryExecutor.Mode mode;
+
+    private StripedExecutor commands;
+    private LogQueryExecutor queries;
+    private final Semaphore connections = new Semaphore(CONNECTIONS);
+    private final List<ServerLog> logs = new ArrayList<>();
+    private LatencyRecorder inMemoryLatency;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        commands = new StripedExecutor("bench-commands", STRIPES, BURST, false);
+        queries = new LogQueryExecutor();
+        queries.mode = mode;
+        queries.threads = CONNECTIONS;
+        queries.queueCapacity = BURST;
+        queries.init();
+        for (int i = 0; i < 10; i++) {
+            logs.add(IngestBenchmark.buildLog());
+        }
+        inMemoryLatency = new LatencyRecorder();
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        LatencyRecorder.Summary summary = inMemoryLatency.summary();
+        System.out.printf("%n[%s] comandos em memória: p50=%dus p99=%dus max=%dus; pico de threads=%d%n", mode,
+                summary.p50(), summary.p99(), summary.max(), ManagementFactory.getThreadMXBean().getPeakThreadCount());
+        commands.close(1000);
+        queries.onShutdown(null);
+    }
+
+    // Consulta ao banco: espera uma conexão livre e o tempo do servidor
+    private List<ServerLog> query() {
+        connections.acquireUninterruptibly();
+        try {
+            Thread.sleep(QUERY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connections.release();
+        }
+        return logs;
+    }
+
+    @Benchmark
+    public void burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(BURST);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < BURST; i++) {
+            long guild = random.nextLong();
+            long enqueued = System.nanoTime();
+            if (i % 5 == 0) {
+                commands.execute(guild, () -> queries.submit(this::query)
+                        .subscribe().with(page -> {
+                            LogResponseFormatter.format(page, "Logs", null);
+                            done.countDown();
+                        }, error -> done.countDown()));
+            } else {
+                commands.execute(guild, () -> {
+                    LogResponseFormatter.format(logs, "Logs", null);
+                    inMemoryLatency.record((System.nanoTime() - enqueued) / 1000);
+                    done.countDown();
+                });
+            }
+        }
+        done.await();
+    }
+}
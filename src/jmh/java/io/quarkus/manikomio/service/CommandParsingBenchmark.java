@@ -0,0 +1,41 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing dos comandos recebidos em processCommand: separação dos argumentos e montagem do LogQuery.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandParsingBenchmark {
+
+    private static final String SIMPLE_COMMAND = "!logs user <@!123456789012345678>";
+    private static final String FILTER_COMMAND =
+            "!logs filter user:<@!123456789012345678> channel:<#223456789012345678> type:message_sent period:24h limit:10 order:desc";
+
+    @Benchmark
+    public String[] splitSimpleCommand() {
+        return DiscordBotService.splitCommand(SIMPLE_COMMAND);
+    }
+
+    @Benchmark
+    public LogQuery parseFilterCommand() {
+        String[] args = DiscordBotService.splitCommand(FILTER_COMMAND);
+        return LogFilterParser.parse(323456789012345678L, args, 2, 10);
+    }
+}
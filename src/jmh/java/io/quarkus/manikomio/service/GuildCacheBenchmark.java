@@ -0,0 +1,178 @@
+package io.quarkus.manikomio.service;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.dv8tion.jda.api.requests.RestConfig;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.SelfUserImpl;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import net.dv8tion.jda.internal.utils.config.MetaConfig;
+import net.dv8tion.jda.internal.utils.config.SessionConfig;
+import net.dv8tion.jda.internal.utils.config.ThreadingConfig;
+import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carga dos GUILD_CREATE de um shard cheio no cache do JDA, com o perfil do createDefault e com o
+ * perfil leve do DiscordBotService. Mede o tempo de montagem e imprime o heap retido pelo cache.
+ * Usa classes internas do JDA para montar as guilds sem conectar ao gateway.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GuildCacheBenchmark {
+
+    private static final long BOT_ID = 900000000000000001L;
+    private static final int ROLES = 25;
+    private static final int CHANNELS = 40;
+    private static final int EMOJIS = 60;
+    private static final int STICKERS = 5;
+
+    @Param({"default", "light"})
+    String profile;
+
+    // O Discord pede um shard a cada 2500 guilds
+    @Param({"2500"})
+    int guilds;
+
+    // Membros no GUILD_CREATE; um em cada quatro está em um canal de voz
+    @Param({"40"})
+    int membersPerGuild;
+
+    private final List<DataObject> payloads = new ArrayList<>();
+    private final List<TLongObjectMap<DataObject>> members = new ArrayList<>();
+    private JDAImpl jda;
+    private long baseline;
+
+    @Setup(Level.Trial)
+    public void buildPayloads() {
+        for (int g = 0; g < guilds; g++) {
+            long guildId = 100000000000000000L + g * 100000L;
+            TLongObjectMap<DataObject> guildMembers = new TLongObjectHashMap<>();
+            payloads.add(guild(guildId, guildMembers));
+            members.add(guildMembers);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void newSession() {
+        boolean light = profile.equals("light");
+        EnumSet<CacheFlag> flags = light ? DiscordBotService.CACHE_FLAGS : EnumSet.complementOf(CacheFlag.getPrivileged());
+        MetaConfig meta = new MetaConfig(2048, new ConcurrentHashMap<>(), flags, ConfigFlag.getDefault());
+        jda = new JDAImpl(new AuthorizationConfig("benchmark"), SessionConfig.getDefault(), ThreadingConfig.getDefault(),
+                meta, new RestConfig());
+        jda.setMemberCachePolicy(light ? DiscordBotService.MEMBER_CACHE_POLICY : MemberCachePolicy.DEFAULT);
+        SelfUserImpl self = new SelfUserImpl(BOT_ID, jda);
+        self.setName("bot");
+        jda.setSelfUser(self);
+        baseline = usedHeap();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportHeap() {
+        long retained = usedHeap() - baseline;
+        System.out.printf("%n%s: %.1f MB retidos, %.1f KB por guild, %d membros em cache%n", profile,
+                retained / 1048576.0, retained / 1024.0 / guilds, jda.getGuildCache().stream()
+                        .mapToLong(guild -> guild.getMemberCache().size()).sum());
+        jda = null;
+    }
+
+    @Benchmark
+    public JDAImpl loadGuilds() {
+        for (int g = 0; g < guilds; g++) {
+            DataObject payload = payloads.get(g);
+            jda.getEntityBuilder().createGuild(payload.getLong("id"), payload, members.get(g), payload.getInt("member_count"));
+        }
+        return jda;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private DataObject guild(long guildId, TLongObjectMap<DataObject> guildMembers) {
+        DataArray roles = DataArray.empty().add(role(guildId, "@everyone", 0));
+        for (int i = 1; i <= ROLES; i++) {
+            roles.add(role(guildId + i, "cargo-" + i, i));
+        }
+        DataArray channels = DataArray.empty();
+        for (int i = 0; i < CHANNELS; i++) {
+            DataArray overrides = DataArray.empty();
+            for (int o = 1; o <= 3; o++) {
+                overrides.add(DataObject.empty().put("id", guildId + o).put("type", 0).put("allow", "1024").put("deny", "2048"));
+            }
+            channels.add(DataObject.empty().put("id", guildId + 100 + i).put("type", i % 5 == 4 ? 2 : 0)
+                    .put("name", "canal-" + i).put("position", i).put("topic", "Tópico do canal " + i)
+                    .put("permission_overwrites", overrides).put("nsfw", false).put("rate_limit_per_user", 0)
+                    .put("bitrate", 64000).put("user_limit", 0));
+        }
+        DataArray emojis = DataArray.empty();
+        for (int i = 0; i < EMOJIS; i++) {
+            emojis.add(DataObject.empty().put("id", guildId + 200 + i).put("name", "emoji_" + i).put("roles", DataArray.empty())
+                    .put("animated", false).put("available", true).put("managed", false).put("require_colons", true));
+        }
+        DataArray stickers = DataArray.empty();
+        for (int i = 0; i < STICKERS; i++) {
+            stickers.add(DataObject.empty().put("id", guildId + 300 + i).put("name", "sticker-" + i).put("description", "figurinha")
+                    .put("tags", "figurinha").put("type", 2).put("format_type", 1).put("available", true).put("guild_id", guildId));
+        }
+        DataArray memberList = DataArray.empty();
+        DataArray voiceStates = DataArray.empty();
+        for (int i = 0; i <= membersPerGuild; i++) {
+            long userId = i == membersPerGuild ? BOT_ID : guildId + 50000 + i;
+            DataObject member = DataObject.empty()
+                    .put("user", DataObject.empty().put("id", userId).put("username", "usuario" + i).put("discriminator", "0")
+                            .put("global_name", "Usuário " + i).put("avatar", "a1b2c3d4e5f6a1b2c3d4e5f6a1b2c3d4"))
+                    .put("roles", DataArray.empty().add(guildId + 1 + i % ROLES))
+                    .put("joined_at", "2023-01-01T00:00:00.000000+00:00").put("deaf", false).put("mute", false).put("flags", 0);
+            memberList.add(member);
+            guildMembers.put(userId, member);
+            if (i % 4 == 1) {
+                voiceStates.add(DataObject.empty().put("user_id", userId).put("channel_id", guildId + 104).put("session_id", "s" + userId)
+                        .put("self_mute", false).put("self_deaf", false).put("mute", false).put("deaf", false).put("suppress", false));
+            }
+        }
+        return DataObject.empty().put("id", guildId).put("name", "guild-" + guildId).put("owner_id", guildId + 50000)
+                .put("roles", roles).put("channels", channels).put("emojis", emojis).put("stickers", stickers)
+                .put("members", memberList).put("voice_states", voiceStates).put("member_count", 500 + membersPerGuild)
+                .put("large", membersPerGuild > 50).put("threads", DataArray.empty()).put("guild_scheduled_events", DataArray.empty())
+                .put("features", DataArray.empty()).put("afk_timeout", 300).put("system_channel_flags", 0)
+                .put("verification_level", 1).put("default_message_notifications", 1).put("explicit_content_filter", 2)
+                .put("mfa_level", 0).put("nsfw_level", 0).put("premium_tier", 1).put("preferred_locale", "pt-BR");
+    }
+
+    private static DataObject role(long id, String name, int position) {
+        return DataObject.empty().put("id", id).put("name", name).put("color", 0).put("position", position)
+                .put("permissions", "104324673").put("hoist", false).put("managed", false).put("mentionable", false)
+                .put("tags", DataObject.empty());
+    }
+}
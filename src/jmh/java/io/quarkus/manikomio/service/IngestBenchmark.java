@@ -0,0 +1,111 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.ServerLog;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Caminho quente do createLog: avaliar as regras de ingestão, montar o ServerLog, anexar ao spool e
+ * montar o embed do espelhamento.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngestBenchmark {
+
+    private static final String CONTENT = "Mensagem de teste com um pouco de texto para simular uma conversa normal no servidor";
+
+    private LogMirrorService mirrorService;
+    private ServerLog log;
+    private Path spoolDirectory;
+    private LogSpool spool;
+    private LogPolicyEngine policyEngine;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mirrorService = new LogMirrorService();
+        log = buildLog();
+        policyEngine = new LogPolicyEngine();
+        policyEngine.enabled = true;
+        policyEngine.rules = Optional.of(List.of("VOICE_MOVED=coalesce:60s", "*@1=drop", "MESSAGE_SENT#2=sample:10"));
+        policyEngine.coalesceSlots = 4096;
+        policyEngine.init();
+    }
+
+    // Spool novo a cada iteração para o tamanho do diretório não influenciar a medição
+    @Setup(Level.Iteration)
+    public void openSpool() throws IOException {
+        spoolDirectory = Files.createTempDirectory("jmh-spool");
+        spool = new LogSpool(spoolDirectory, 64L * 1024 * 1024, Long.MAX_VALUE, LogSpool.FsyncPolicy.NEVER, 0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeSpool() throws IOException {
+        spool.close();
+        try (Stream<Path> files = Files.walk(spoolDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    static ServerLog buildLog() {
+        ServerLog log = new ServerLog();
+        log.setEventType(LogEventType.MESSAGE_SENT);
+        log.setDescription("Mensagem enviada no canal geral");
+        log.setMessage(CONTENT);
+        log.setUserId(123456789012345678L);
+        log.setUsername("fulano");
+        log.setChannelId(223456789012345678L);
+        log.setChannelName("geral");
+        log.setGuildId(323456789012345678L);
+        log.setCreatedAt(OffsetDateTime.now());
+        return log;
+    }
+
+    @Benchmark
+    public ServerLog createLogEntity() {
+        return buildLog();
+    }
+
+    @Benchmark
+    public MessageEmbed buildEmbed() {
+        return mirrorService.buildEmbed(log);
+    }
+
+    // Regra mais específica para um MESSAGE_SENT sem regra própria; gc.alloc.rate.norm deve ficar em 0
+    @Benchmark
+    public boolean evaluatePolicy() {
+        return policyEngine.admit(log.eventType, log.userId, log.username, log.channelId, log.channelName, log.guildId,
+                log.description, log.message, now++, summary -> { });
+    }
+
+    @Benchmark
+    public long appendToSpool() throws IOException {
+        return spool.append(log);
+    }
+}
@@ -0,0 +1,58 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.ServerLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatação das respostas do !logs e divisão em mensagens de até 2000 caracteres.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int logCount;
+
+    private List<ServerLog> logs;
+
+    @Setup
+    public void setUp() {
+        LogEventType[] types = LogEventType.values();
+        OffsetDateTime now = OffsetDateTime.now();
+        logs = new ArrayList<>(logCount);
+        for (int i = 0; i < logCount; i++) {
+            ServerLog log = new ServerLog();
+            log.setEventType(types[i % types.length]);
+            log.setDescription("Mensagem enviada no canal geral-" + (i % 7));
+            log.setUsername("usuario" + (i % 50));
+            log.setChannelName("geral-" + (i % 7));
+            log.setCreatedAt(now.minusSeconds(i));
+            logs.add(log);
+        }
+    }
+
+    @Benchmark
+    public List<String> format() {
+        return LogResponseFormatter.format(logs, "Logs filtrados", "!logs filter type:MESSAGE_SENT after:abc.1");
+    }
+}
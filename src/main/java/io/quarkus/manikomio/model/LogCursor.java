@@ -0,0 +1,44 @@
+package io.quarkus.manikomio.model;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Posição de continuação da paginação por keyset (createdAt DESC, id DESC).
+ * O token é o par (microssegundos desde a época, id) em base 36.
+ */
+public record LogCursor(OffsetDateTime createdAt, long id) {
+
+    private static final char SEPARATOR = '.';
+
+    public static LogCursor of(ServerLog log) {
+        return new LogCursor(log.createdAt, log.id);
+    }
+
+    public String encode() {
+        Instant instant = createdAt.toInstant();
+        long micros = instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+        return Long.toString(micros, 36) + SEPARATOR + Long.toString(id, 36);
+    }
+
+    /**
+     * Decodifica um token gerado por {@link #encode()}.
+     * Lança IllegalArgumentException se o token for inválido.
+     */
+    public static LogCursor decode(String token) {
+        int separator = token == null ? -1 : token.indexOf(SEPARATOR);
+        if (separator <= 0 || separator == token.length() - 1) {
+            throw new IllegalArgumentException("Cursor inválido: " + token);
+        }
+        try {
+            long micros = Long.parseLong(token.substring(0, separator), 36);
+            long id = Long.parseLong(token.substring(separator + 1), 36);
+            Instant instant = Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                    Math.floorMod(micros, 1_000_000L) * 1_000L);
+            return new LogCursor(OffsetDateTime.ofInstant(instant, ZoneOffset.UTC), id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.quarkus.manikomio.model;
+
+import java.util.Locale;
+
+/**
+ * Tipos de evento registrados. O código numérico é o que vai para o banco (SMALLINT)
+ * e nunca deve ser reaproveitado ou alterado.
+ */
+public enum LogEventType {
+    MESSAGE_SENT(1, "✉️"),
+    MESSAGE_EDITED(2, "📝"),
+    MESSAGE_DELETED(3, "🗑️"),
+    MEMBER_JOINED(4, "👋"),
+    MEMBER_LEFT(5, "👋"),
+    MEMBER_BANNED(6, "🔨"),
+    MEMBER_UNBANNED(7, "🔓"),
+    MEMBER_TIMEOUT(8, "⏰"),
+    CHANNEL_CREATED(9, "📝"),
+    CHANNEL_DELETED(10, "🗑️"),
+    VOICE_JOINED(11, "🎤"),
+    VOICE_LEFT(12, "🎤"),
+    VOICE_MOVED(13, "🔄"),
+    // Saídas que o audit log mostrou serem expulsões; gravadas antes como MEMBER_LEFT
+    MEMBER_KICKED(14, "👢");
+
+    private static final LogEventType[] BY_CODE = new LogEventType[64];
+
+    static {
+        for (LogEventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final short code;
+    private final String emoji;
+
+    LogEventType(int code, String emoji) {
+        this.code = (short) code;
+        this.emoji = emoji;
+    }
+
+    public short code() {
+        return code;
+    }
+
+    public String emoji() {
+        return emoji;
+    }
+
+    public static LogEventType fromCode(short code) {
+        LogEventType type = code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (type == null) {
+            throw new IllegalArgumentException("Código de tipo de evento desconhecido: " + code);
+        }
+        return type;
+    }
+
+    /**
+     * Converte o nome digitado pelo usuário (sem diferenciar maiúsculas) no tipo correspondente.
+     */
+    public static LogEventType parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tipo de evento desconhecido: " + name);
+        }
+    }
+}
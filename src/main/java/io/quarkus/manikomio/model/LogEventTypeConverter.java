@@ -0,0 +1,18 @@
+package io.quarkus.manikomio.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class LogEventTypeConverter implements AttributeConverter<LogEventType, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(LogEventType type) {
+        return type == null ? null : type.code();
+    }
+
+    @Override
+    public LogEventType convertToEntityAttribute(Short code) {
+        return code == null ? null : LogEventType.fromCode(code);
+    }
+}
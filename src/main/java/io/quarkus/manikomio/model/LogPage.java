@@ -0,0 +1,18 @@
+package io.quarkus.manikomio.model;
+
+import java.util.List;
+
+/**
+ * Uma página de logs ordenada por createdAt DESC, id DESC.
+ * nextCursor é nulo quando não há mais resultados.
+ */
+public record LogPage(List<ServerLog> logs, String nextCursor) {
+
+    public static LogPage empty() {
+        return new LogPage(List.of(), null);
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
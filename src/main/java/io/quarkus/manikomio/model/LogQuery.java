@@ -0,0 +1,126 @@
+package io.quarkus.manikomio.model;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Critérios de busca de logs. Todos os filtros são opcionais e combinados com AND;
+ * o limite e a ordenação são aplicados no banco.
+ */
+public class LogQuery {
+
+    public static final int DEFAULT_LIMIT = 10;
+
+    public enum SortOrder {
+        NEWEST_FIRST,
+        OLDEST_FIRST
+    }
+
+    private Long guildId;
+    private Long userId;
+    private Long channelId;
+    private LogEventType eventType;
+    private OffsetDateTime from;
+    private OffsetDateTime to;
+    private int limit = DEFAULT_LIMIT;
+    private SortOrder sortOrder = SortOrder.NEWEST_FIRST;
+    private String cursor;
+
+    public static LogQuery forGuild(Long guildId) {
+        return new LogQuery().guild(guildId);
+    }
+
+    public LogQuery guild(Long guildId) {
+        this.guildId = guildId;
+        return this;
+    }
+
+    public LogQuery user(Long userId) {
+        this.userId = userId;
+        return this;
+    }
+
+    public LogQuery channel(Long channelId) {
+        this.channelId = channelId;
+        return this;
+    }
+
+    public LogQuery eventType(LogEventType eventType) {
+        this.eventType = eventType;
+        return this;
+    }
+
+    public LogQuery from(OffsetDateTime from) {
+        this.from = from;
+        return this;
+    }
+
+    public LogQuery to(OffsetDateTime to) {
+        this.to = to;
+        return this;
+    }
+
+    public LogQuery between(OffsetDateTime from, OffsetDateTime to) {
+        return from(from).to(to);
+    }
+
+    public LogQuery limit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("O limite deve ser positivo");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    public LogQuery sort(SortOrder sortOrder) {
+        this.sortOrder = sortOrder;
+        return this;
+    }
+
+    public LogQuery after(String cursor) {
+        this.cursor = cursor == null || cursor.isEmpty() ? null : cursor;
+        return this;
+    }
+
+    public Long getGuildId() {
+        return guildId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getChannelId() {
+        return channelId;
+    }
+
+    public LogEventType getEventType() {
+        return eventType;
+    }
+
+    public OffsetDateTime getFrom() {
+        return from;
+    }
+
+    public OffsetDateTime getTo() {
+        return to;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public SortOrder getSortOrder() {
+        return sortOrder;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    @Override
+    public String toString() {
+        return "LogQuery{guildId=" + guildId + ", userId=" + userId + ", channelId=" + channelId
+                + ", eventType=" + eventType + ", from=" + from + ", to=" + to + ", limit=" + limit
+                + ", sortOrder=" + sortOrder + ", cursor=" + cursor + "}";
+    }
+}
@@ -0,0 +1,77 @@
+package io.quarkus.manikomio.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Contagem agregada de eventos por hora ou dia, para uma guild e uma dimensão
+ * (tipo de evento, canal ou usuário). Atualizada incrementalmente pelo LogRollupService.
+ */
+@Entity
+@Table(name = "log_rollups",
+    uniqueConstraints = @UniqueConstraint(name = "uk_log_rollups_bucket",
+        columnNames = {"granularity", "bucket_start", "guild_id", "dimension", "dimension_value"}),
+    indexes = {
+        @Index(name = "idx_log_rollups_lookup",
+            columnList = "guild_id, dimension, granularity, bucket_start"),
+        // Totais históricos de um valor em todas as guilds (countByEventType, countByUserId...)
+        @Index(name = "idx_log_rollups_value",
+            columnList = "dimension, dimension_value, granularity")
+    })
+@Getter
+@Setter
+public class LogRollup extends PanacheEntity {
+
+    public enum Granularity {
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public OffsetDateTime bucketOf(OffsetDateTime time) {
+            return time.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(unit);
+        }
+    }
+
+    public enum Dimension {
+        EVENT_TYPE,
+        CHANNEL,
+        USER
+    }
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", length = 8, nullable = false)
+    public Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    public OffsetDateTime bucketStart;
+
+    @Column(name = "guild_id", nullable = false)
+    public Long guildId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", length = 16, nullable = false)
+    public Dimension dimension;
+
+    @Column(name = "dimension_value", nullable = false)
+    public String dimensionValue;
+
+    @Column(name = "event_count", nullable = false)
+    public long eventCount;
+}
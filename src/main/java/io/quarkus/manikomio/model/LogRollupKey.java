@@ -0,0 +1,15 @@
+package io.quarkus.manikomio.model;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Chave de um contador de rollup: granularidade, início do intervalo (UTC), guild e valor da dimensão.
+ */
+public record LogRollupKey(LogRollup.Granularity granularity, OffsetDateTime bucketStart, Long guildId,
+                           LogRollup.Dimension dimension, String dimensionValue) {
+
+    public static LogRollupKey of(LogRollup.Granularity granularity, OffsetDateTime time, Long guildId,
+                                  LogRollup.Dimension dimension, String dimensionValue) {
+        return new LogRollupKey(granularity, granularity.bucketOf(time), guildId, dimension, dimensionValue);
+    }
+}
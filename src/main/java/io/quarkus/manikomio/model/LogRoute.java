@@ -0,0 +1,40 @@
+package io.quarkus.manikomio.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Canal do Discord que recebe o espelhamento dos logs de uma guild. Sem tipo, vale para todos os
+ * eventos da guild; com tipo, só para aquele tipo e tem precedência sobre a rota da guild.
+ */
+@Entity
+@Table(name = "log_routes",
+    uniqueConstraints = @UniqueConstraint(name = "uk_log_routes_guild_type", columnNames = {"guild_id", "event_type"}))
+@Getter
+@Setter
+public class LogRoute extends PanacheEntity {
+
+    @Column(name = "guild_id", nullable = false)
+    public Long guildId;
+
+    // Gravado como SMALLINT pelo LogEventTypeConverter; nulo = todos os tipos
+    @Column(name = "event_type")
+    public LogEventType eventType;
+
+    @Column(name = "channel_id", nullable = false)
+    public Long channelId;
+
+    // Administrador que fez a última alteração
+    @Column(name = "updated_by")
+    public Long updatedBy;
+
+    @Column(name = "updated_at")
+    public OffsetDateTime updatedAt;
+}
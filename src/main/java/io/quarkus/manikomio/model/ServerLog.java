@@ -1,71 +1,151 @@
 package io.quarkus.manikomio.model;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.Column;
+import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Getter;
 import lombok.Setter;
 import java.time.OffsetDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "server_logs")
+// O InnoDB inclui o id (PK) em todo índice secundário, então cada índice já cobre (coluna, created_at, id)
+// A chave de ingestão torna o replay do spool idempotente; o MySQL exige a coluna de partição na chave única
+@Table(name = "server_logs",
+    uniqueConstraints = @UniqueConstraint(name = "uk_server_logs_ingest", columnNames = {"ingest_spool", "ingest_key", "created_at"}),
+    indexes = {
+    @Index(name = "idx_server_logs_guild_created", columnList = "guild_id, created_at"),
+    @Index(name = "idx_server_logs_user_created", columnList = "user_id, created_at"),
+    @Index(name = "idx_server_logs_channel_created", columnList = "channel_id, created_at"),
+    @Index(name = "idx_server_logs_type_created", columnList = "event_type, created_at")
+})
 @Getter
 @Setter
 public class ServerLog extends PanacheEntity {
-    public String eventType;
+    // Gravado como SMALLINT pelo LogEventTypeConverter
+    @Column(name = "event_type", nullable = false)
+    public LogEventType eventType;
     public String description;
+
+    @Column(length = 4000)
     public String message;
     
+    // IDs são snowflakes do Discord (BIGINT); nulos em eventos do sistema
     @Column(name = "user_id")
-    public String userId;
+    public Long userId;
+
+    // Nomes ficam nos dicionários user_names/channel_names e são preenchidos pelo NameDictionaryService
+    @Transient
     public String username;
     
     @Column(name = "channel_id")
-    public String channelId;
+    public Long channelId;
+
+    @Transient
     public String channelName;
     
     @Column(name = "guild_id")
-    public String guildId;
+    public Long guildId;
+    
+    // Quem baniu, expulsou, silenciou ou apagou o canal; preenchido depois pelo ModerationAuditService
+    @Column(name = "moderator_id")
+    public Long moderatorId;
     
     @Column(name = "created_at")
     public OffsetDateTime createdAt;
 
+    // Id do spool local (LogSpool) que recebeu o log; cada spool numera os registros a partir do zero
+    @Column(name = "ingest_spool")
+    public Long ingestSpool;
+
+    // Sequência do registro nesse spool
+    @Column(name = "ingest_key")
+    public Long ingestKey;
+
     public ServerLog() {
         this.createdAt = OffsetDateTime.now();
     }
 
     // Métodos de consulta usando Panache
-    public static List<ServerLog> findByEventType(String eventType) {
-        return list("eventType", eventType);
+    public static List<ServerLog> findLatestLogs(int limit) {
+        return find("ORDER BY createdAt DESC").page(0, limit).list();
     }
 
-    public static List<ServerLog> findByUserId(String userId) {
-        return list("userId", userId);
+    // Monta uma única consulta com todos os filtros; ordenação, cursor (keyset) e LIMIT ficam no banco.
+    // Busca um registro a mais para saber se existe próxima página.
+    public static LogPage findPage(LogQuery query) {
+        StringBuilder where = new StringBuilder();
+        Parameters params = new Parameters();
+        appendCondition(where, params, "guildId", query.getGuildId());
+        appendCondition(where, params, "userId", query.getUserId());
+        appendCondition(where, params, "channelId", query.getChannelId());
+        appendCondition(where, params, "eventType", query.getEventType());
+        if (query.getFrom() != null) {
+            and(where).append("createdAt >= :from");
+            params.and("from", query.getFrom());
+        }
+        if (query.getTo() != null) {
+            and(where).append("createdAt <= :to");
+            params.and("to", query.getTo());
+        }
+
+        boolean newestFirst = query.getSortOrder() == LogQuery.SortOrder.NEWEST_FIRST;
+        if (query.getCursor() != null) {
+            LogCursor cursor = LogCursor.decode(query.getCursor());
+            String op = newestFirst ? "<" : ">";
+            and(where).append("(createdAt ").append(op).append(" :cursorCreatedAt OR (createdAt = :cursorCreatedAt AND id ")
+                    .append(op).append(" :cursorId))");
+            params.and("cursorCreatedAt", cursor.createdAt()).and("cursorId", cursor.id());
+        }
+
+        Sort sort = newestFirst ? Sort.descending("createdAt", "id") : Sort.ascending("createdAt", "id");
+        int limit = query.getLimit();
+        List<ServerLog> logs = find(where.toString(), sort, params)
+                .page(0, limit + 1)
+                .list();
+        if (logs.size() <= limit) {
+            return new LogPage(logs, null);
+        }
+        List<ServerLog> page = logs.subList(0, limit);
+        return new LogPage(page, LogCursor.of(page.get(limit - 1)).encode());
     }
 
-    public static List<ServerLog> findByChannelId(String channelId) {
-        return list("channelId", channelId);
+    private static void appendCondition(StringBuilder where, Parameters params, String field, Object value) {
+        if (value != null) {
+            and(where).append(field).append(" = :").append(field);
+            params.and(field, value);
+        }
     }
 
-    public static List<ServerLog> findByDateRange(OffsetDateTime start, OffsetDateTime end) {
-        return find("createdAt BETWEEN ?1 AND ?2", start, end).list();
+    private static StringBuilder and(StringBuilder where) {
+        return where.length() > 0 ? where.append(" AND ") : where;
     }
 
-    public static List<ServerLog> findLatestLogs(int limit) {
-        return find("ORDER BY createdAt DESC").page(0, limit).list();
+    public static List<Long> findIngestKeys(long spoolId, long from, long to) {
+        return getEntityManager()
+                .createQuery("SELECT l.ingestKey FROM ServerLog l "
+                        + "WHERE l.ingestSpool = :spoolId AND l.ingestKey BETWEEN :from AND :to", Long.class)
+                .setParameter("spoolId", spoolId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
     }
 
-    public static long countByEventType(String eventType) {
+    public static long countByEventType(LogEventType eventType) {
         return count("eventType", eventType);
     }
 
-    public static long countByUserId(String userId) {
+    public static long countByUserId(Long userId) {
         return count("userId", userId);
     }
 
-    public static long countByChannelId(String channelId) {
+    public static long countByChannelId(Long channelId) {
         return count("channelId", channelId);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,30 @@
+package io.quarkus.manikomio.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Dicionário de nomes de usuário, indexado pelo snowflake. Guarda o último nome visto.
+ */
+@Entity
+@Table(name = "user_names")
+@Getter
+@Setter
+public class UserName extends PanacheEntityBase {
+
+    @Id
+    public Long id;
+
+    @Column(name = "name", length = 100, nullable = false)
+    public String name;
+
+    @Column(name = "updated_at")
+    public OffsetDateTime updatedAt;
+}
@@ -0,0 +1,630 @@
+package io.quarkus.manikomio.repository;
+
+import io.quarkus.manikomio.model.LogCursor;
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogQuery;
+import io.quarkus.manikomio.model.ServerLog;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Segmento imutável do arquivo frio de logs, em colunas: cada coluna é codificada e compactada com
+ * deflate separadamente, então uma consulta só descompacta as colunas que filtra e, se algo passar no
+ * filtro, as que monta. O arquivo é lido via mmap; no heap fica só o cabeçalho.
+ * <p>
+ * Formato (big-endian): cabeçalho com contagem de linhas, faixas de createdAt e id, máscara dos tipos
+ * presentes e o diretório das colunas; filtro de Bloom das guilds, usuários e canais; colunas. As
+ * linhas estão em ordem de (createdAt, id). IDs e datas vão como deltas em varint; guild, usuário e
+ * canal como índice num dicionário do segmento; textos como tamanho em varint + UTF-8.
+ * <p>
+ * A versão 2 acrescentou a coluna do moderador; segmentos da versão 1 continuam legíveis, com o
+ * moderador sempre nulo.
+ */
+final class ArchiveSegment {
+
+    static final int MAGIC = 0x4D4B4152;
+    static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_MODERATOR = 1;
+
+    private static final int ID = 0;
+    private static final int CREATED_AT = 1;
+    private static final int GUILD = 2;
+    private static final int USER = 3;
+    private static final int CHANNEL = 4;
+    private static final int TYPE = 5;
+    private static final int DESCRIPTION = 6;
+    private static final int MESSAGE = 7;
+    private static final int MODERATOR = 8;
+    private static final int COLUMNS = 9;
+
+    private static final int DIRECTORY_OFFSET = 64;
+    private static final int COLUMN_ENTRY_BYTES = 16;
+
+    private static final int BLOOM_BITS_PER_KEY = 10;
+    private static final int BLOOM_HASHES = 7;
+    private static final long GUILD_SALT = 0x67L;
+    private static final long USER_SALT = 0x75L;
+    private static final long CHANNEL_SALT = 0x63L;
+
+    // Valor das colunas de dicionário para campo nulo; snowflakes são sempre positivos
+    private static final long NULL_REF = Long.MIN_VALUE;
+
+    static final Comparator<ServerLog> OLDEST_FIRST =
+            Comparator.comparing((ServerLog log) -> log.createdAt.toInstant()).thenComparingLong(log -> log.id);
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int rowCount;
+    private final long minCreatedAt;
+    private final long maxCreatedAt;
+    private final long minId;
+    private final long maxId;
+    private final long typeMask;
+    private final int bloomWords;
+    private final int columns;
+    private final int headerBytes;
+
+    private ArchiveSegment(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        int version = buffer.capacity() >= DIRECTORY_OFFSET && buffer.getInt(0) == MAGIC ? buffer.getInt(4) : -1;
+        if (version != VERSION && version != VERSION_WITHOUT_MODERATOR) {
+            throw new IOException("Segmento de arquivo inválido: " + path);
+        }
+        columns = version == VERSION ? COLUMNS : MODERATOR;
+        headerBytes = headerBytes(columns);
+        if (buffer.capacity() < headerBytes) {
+            throw new IOException("Segmento de arquivo inválido: " + path);
+        }
+        rowCount = buffer.getInt(8);
+        bloomWords = buffer.getInt(12);
+        minCreatedAt = buffer.getLong(16);
+        maxCreatedAt = buffer.getLong(24);
+        minId = buffer.getLong(32);
+        maxId = buffer.getLong(40);
+        typeMask = buffer.getLong(48);
+        if (buffer.getLong(56) != buffer.capacity()) {
+            throw new IOException("Segmento de arquivo incompleto: " + path);
+        }
+    }
+
+    private static int headerBytes(int columns) {
+        return DIRECTORY_OFFSET + columns * COLUMN_ENTRY_BYTES;
+    }
+
+    static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Segmento de arquivo maior que 2GB: " + path);
+            }
+            return new ArchiveSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Grava os logs no arquivo, com fsync antes de retornar. Os logs precisam de id e createdAt.
+     */
+    static void write(Path path, List<ServerLog> logs) throws IOException {
+        ServerLog[] rows = logs.toArray(new ServerLog[0]);
+        Arrays.sort(rows, OLDEST_FIRST);
+
+        ColumnWriter[] columns = new ColumnWriter[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            columns[i] = new ColumnWriter();
+        }
+        Dictionary guilds = new Dictionary();
+        Dictionary users = new Dictionary();
+        Dictionary channels = new Dictionary();
+        Dictionary moderators = new Dictionary();
+        Set<Long> bloomKeys = new HashSet<>();
+        long previousId = 0;
+        long previousCreatedAt = 0;
+        long typeMask = 0;
+        for (ServerLog log : rows) {
+            long createdAt = micros(log.createdAt);
+            columns[ID].writeSignedVarLong(log.id - previousId);
+            columns[CREATED_AT].writeSignedVarLong(createdAt - previousCreatedAt);
+            previousId = log.id;
+            previousCreatedAt = createdAt;
+            columns[GUILD].writeVarLong(guilds.ref(log.guildId));
+            columns[USER].writeVarLong(users.ref(log.userId));
+            columns[CHANNEL].writeVarLong(channels.ref(log.channelId));
+            columns[TYPE].writeVarLong(log.eventType.code());
+            columns[DESCRIPTION].writeString(log.description);
+            columns[MESSAGE].writeString(log.message);
+            columns[MODERATOR].writeVarLong(moderators.ref(log.moderatorId));
+            typeMask |= 1L << log.eventType.code();
+            addKey(bloomKeys, GUILD_SALT, log.guildId);
+            addKey(bloomKeys, USER_SALT, log.userId);
+            addKey(bloomKeys, CHANNEL_SALT, log.channelId);
+        }
+
+        byte[][] raw = new byte[COLUMNS][];
+        for (int i = 0; i < COLUMNS; i++) {
+            raw[i] = columns[i].toByteArray();
+        }
+        raw[GUILD] = guilds.prepend(raw[GUILD]);
+        raw[USER] = users.prepend(raw[USER]);
+        raw[CHANNEL] = channels.prepend(raw[CHANNEL]);
+        raw[MODERATOR] = moderators.prepend(raw[MODERATOR]);
+
+        long[] bloom = new long[Math.max(1, (bloomKeys.size() * BLOOM_BITS_PER_KEY + 63) / 64)];
+        for (long key : bloomKeys) {
+            long h1 = mix(key);
+            long h2 = mix(h1) | 1;
+            long bits = bloom.length * 64L;
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+                bloom[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+
+        byte[][] compressed = new byte[COLUMNS][];
+        long dataOffset = headerBytes(COLUMNS) + bloom.length * 8L;
+        long fileSize = dataOffset;
+        for (int i = 0; i < COLUMNS; i++) {
+            compressed[i] = deflate(raw[i]);
+            fileSize += compressed[i].length;
+        }
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Segmento de arquivo maior que 2GB: " + path);
+        }
+
+        try (FileOutputStream file = new FileOutputStream(path.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows.length);
+            out.writeInt(bloom.length);
+            out.writeLong(rows.length == 0 ? 0 : micros(rows[0].createdAt));
+            out.writeLong(rows.length == 0 ? 0 : micros(rows[rows.length - 1].createdAt));
+            out.writeLong(Arrays.stream(rows).mapToLong(log -> log.id).min().orElse(0));
+            out.writeLong(Arrays.stream(rows).mapToLong(log -> log.id).max().orElse(0));
+            out.writeLong(typeMask);
+            out.writeLong(fileSize);
+            long offset = dataOffset;
+            for (int i = 0; i < COLUMNS; i++) {
+                out.writeLong(offset);
+                out.writeInt(compressed[i].length);
+                out.writeInt(raw[i].length);
+                offset += compressed[i].length;
+            }
+            for (long word : bloom) {
+                out.writeLong(word);
+            }
+            for (byte[] column : compressed) {
+                out.write(column);
+            }
+            out.flush();
+            file.getChannel().force(true);
+        }
+    }
+
+    private static void addKey(Set<Long> keys, long salt, Long value) {
+        if (value != null) {
+            keys.add(key(salt, value));
+        }
+    }
+
+    private static long key(long salt, long value) {
+        return value * 0x9E3779B97F4A7C15L + salt;
+    }
+
+    // Finalizador do SplitMix64: espalha os bits dos snowflakes, que variam pouco nos bits baixos
+    private static long mix(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static long micros(OffsetDateTime time) {
+        Instant instant = time.toInstant();
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    private static OffsetDateTime time(long micros) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                Math.floorMod(micros, 1_000_000L) * 1_000L), ZoneOffset.UTC);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    OffsetDateTime minCreatedAt() {
+        return time(minCreatedAt);
+    }
+
+    OffsetDateTime maxCreatedAt() {
+        return time(maxCreatedAt);
+    }
+
+    boolean containsType(LogEventType type) {
+        return (typeMask & 1L << type.code()) != 0;
+    }
+
+    Set<LogEventType> types() {
+        Set<LogEventType> types = new HashSet<>();
+        for (LogEventType type : LogEventType.values()) {
+            if (containsType(type)) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    // Todas as linhas, na ordem do segmento
+    List<ServerLog> rows() {
+        return find(new LogQuery().sort(LogQuery.SortOrder.OLDEST_FIRST), null, rowCount);
+    }
+
+    boolean mightContainId(long id) {
+        return id >= minId && id <= maxId;
+    }
+
+    /**
+     * Decide pelo cabeçalho e pelo filtro de Bloom, sem descompactar nada, se o segmento pode ter
+     * linhas da consulta.
+     */
+    boolean mightMatch(LogQuery query, LogCursor cursor) {
+        if (rowCount == 0) {
+            return false;
+        }
+        if (query.getFrom() != null && maxCreatedAt < micros(query.getFrom())
+                || query.getTo() != null && minCreatedAt > micros(query.getTo())) {
+            return false;
+        }
+        if (cursor != null) {
+            long position = micros(cursor.createdAt());
+            boolean newestFirst = query.getSortOrder() == LogQuery.SortOrder.NEWEST_FIRST;
+            if (newestFirst ? minCreatedAt > position : maxCreatedAt < position) {
+                return false;
+            }
+        }
+        if (query.getEventType() != null && !containsType(query.getEventType())) {
+            return false;
+        }
+        return mightContainKey(GUILD_SALT, query.getGuildId())
+                && mightContainKey(USER_SALT, query.getUserId())
+                && mightContainKey(CHANNEL_SALT, query.getChannelId());
+    }
+
+    private boolean mightContainKey(long salt, Long value) {
+        if (value == null) {
+            return true;
+        }
+        long h1 = mix(key(salt, value));
+        long h2 = mix(h1) | 1;
+        long bits = bloomWords * 64L;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((buffer.getLong(headerBytes + (int) (bit >>> 6) * 8) & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Até {@code max} linhas da consulta a partir do cursor, na ordem pedida.
+     */
+    List<ServerLog> find(LogQuery query, LogCursor cursor, int max) {
+        long[] createdAt = deltas(CREATED_AT);
+        long[] ids = deltas(ID);
+        long[] guilds = query.getGuildId() != null ? refs(GUILD) : null;
+        long[] users = query.getUserId() != null ? refs(USER) : null;
+        long[] channels = query.getChannelId() != null ? refs(CHANNEL) : null;
+        short[] types = query.getEventType() != null ? typeCodes() : null;
+
+        long from = query.getFrom() != null ? micros(query.getFrom()) : Long.MIN_VALUE;
+        long to = query.getTo() != null ? micros(query.getTo()) : Long.MAX_VALUE;
+        long cursorCreatedAt = cursor != null ? micros(cursor.createdAt()) : 0;
+        boolean newestFirst = query.getSortOrder() == LogQuery.SortOrder.NEWEST_FIRST;
+        int[] matches = new int[Math.min(max, rowCount)];
+        int count = 0;
+        for (int n = 0; n < rowCount && count < matches.length; n++) {
+            int row = newestFirst ? rowCount - 1 - n : n;
+            long time = createdAt[row];
+            // As linhas estão em ordem de createdAt: passado o intervalo, nada mais serve
+            if (newestFirst ? time < from : time > to) {
+                break;
+            }
+            if (time < from || time > to) {
+                continue;
+            }
+            if (cursor != null) {
+                int comparison = time != cursorCreatedAt ? Long.compare(time, cursorCreatedAt) : Long.compare(ids[row], cursor.id());
+                if (newestFirst ? comparison >= 0 : comparison <= 0) {
+                    continue;
+                }
+            }
+            if (guilds != null && guilds[row] != query.getGuildId()
+                    || users != null && users[row] != query.getUserId()
+                    || channels != null && channels[row] != query.getChannelId()
+                    || types != null && types[row] != query.getEventType().code()) {
+                continue;
+            }
+            matches[count++] = row;
+        }
+        return materialize(Arrays.copyOf(matches, count), createdAt, ids, guilds, users, channels, types);
+    }
+
+    /**
+     * Linhas com os ids pedidos que estão no segmento.
+     */
+    List<ServerLog> findByIds(Set<Long> wanted) {
+        long[] ids = deltas(ID);
+        int[] matches = new int[Math.min(wanted.size(), rowCount)];
+        int count = 0;
+        for (int row = 0; row < rowCount && count < matches.length; row++) {
+            if (wanted.contains(ids[row])) {
+                matches[count++] = row;
+            }
+        }
+        if (count == 0) {
+            return List.of();
+        }
+        return materialize(Arrays.copyOf(matches, count), deltas(CREATED_AT), ids, null, null, null, null);
+    }
+
+    // Monta as entidades das linhas escolhidas, descompactando só as colunas que ainda faltam
+    private List<ServerLog> materialize(int[] rows, long[] createdAt, long[] ids, long[] guilds, long[] users,
+                                        long[] channels, short[] types) {
+        if (rows.length == 0) {
+            return List.of();
+        }
+        guilds = guilds != null ? guilds : refs(GUILD);
+        users = users != null ? users : refs(USER);
+        channels = channels != null ? channels : refs(CHANNEL);
+        types = types != null ? types : typeCodes();
+        Map<Integer, String> descriptions = strings(DESCRIPTION, rows);
+        Map<Integer, String> messages = strings(MESSAGE, rows);
+        long[] moderators = columns > MODERATOR ? refs(MODERATOR) : null;
+        ServerLog[] logs = new ServerLog[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            ServerLog log = new ServerLog();
+            log.id = ids[row];
+            log.createdAt = time(createdAt[row]);
+            log.guildId = ref(guilds[row]);
+            log.userId = ref(users[row]);
+            log.channelId = ref(channels[row]);
+            log.eventType = LogEventType.fromCode(types[row]);
+            log.description = descriptions.get(row);
+            log.message = messages.get(row);
+            log.moderatorId = moderators != null ? ref(moderators[row]) : null;
+            logs[i] = log;
+        }
+        return List.of(logs);
+    }
+
+    private static Long ref(long value) {
+        return value == NULL_REF ? null : value;
+    }
+
+    private long[] deltas(int column) {
+        ColumnReader in = column(column);
+        long[] values = new long[rowCount];
+        long value = 0;
+        for (int row = 0; row < rowCount; row++) {
+            value += in.readSignedVarLong();
+            values[row] = value;
+        }
+        return values;
+    }
+
+    private long[] refs(int column) {
+        ColumnReader in = column(column);
+        long[] dictionary = new long[(int) in.readVarLong() + 1];
+        dictionary[0] = NULL_REF;
+        for (int i = 1; i < dictionary.length; i++) {
+            dictionary[i] = in.readLong();
+        }
+        long[] values = new long[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            values[row] = dictionary[(int) in.readVarLong()];
+        }
+        return values;
+    }
+
+    private short[] typeCodes() {
+        ColumnReader in = column(TYPE);
+        short[] values = new short[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            values[row] = (short) in.readVarLong();
+        }
+        return values;
+    }
+
+    // Os textos têm tamanho variável: a coluna é percorrida em ordem, decodificando só as linhas pedidas
+    private Map<Integer, String> strings(int column, int[] rows) {
+        int[] sorted = rows.clone();
+        Arrays.sort(sorted);
+        ColumnReader in = column(column);
+        Map<Integer, String> values = new HashMap<>(rows.length * 2);
+        int next = 0;
+        for (int row = 0; row <= sorted[sorted.length - 1]; row++) {
+            if (row == sorted[next]) {
+                values.put(row, in.readString());
+                next++;
+            } else {
+                in.skipString();
+            }
+        }
+        return values;
+    }
+
+    private ColumnReader column(int column) {
+        int entry = DIRECTORY_OFFSET + column * COLUMN_ENTRY_BYTES;
+        int offset = (int) buffer.getLong(entry);
+        int compressed = buffer.getInt(entry + 8);
+        byte[] raw = new byte[buffer.getInt(entry + 12)];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice(offset, compressed));
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                read += inflater.inflate(raw, read, raw.length - read);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Coluna corrompida no segmento de arquivo " + path, e);
+        } finally {
+            inflater.end();
+        }
+        return new ColumnReader(raw);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] chunk = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Valores distintos da coluna; o índice 0 é reservado para nulo.
+     */
+    private static final class Dictionary {
+
+        private final Map<Long, Integer> refs = new HashMap<>();
+        private final ColumnWriter values = new ColumnWriter();
+
+        int ref(Long value) {
+            if (value == null) {
+                return 0;
+            }
+            return refs.computeIfAbsent(value, v -> {
+                values.writeLong(v);
+                return refs.size() + 1;
+            });
+        }
+
+        byte[] prepend(byte[] column) {
+            ColumnWriter out = new ColumnWriter();
+            out.writeVarLong(refs.size());
+            out.write(values.toByteArray(), 0, values.size());
+            out.write(column, 0, column.length);
+            return out.toByteArray();
+        }
+    }
+
+    private static final class ColumnWriter extends ByteArrayOutputStream {
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        // Zigzag: deltas negativos pequenos também ocupam poucos bytes
+        void writeSignedVarLong(long value) {
+            writeVarLong(value << 1 ^ value >> 63);
+        }
+
+        void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        // Tamanho + 1 (0 para nulo) seguido dos bytes UTF-8
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static final class ColumnReader {
+
+        private final byte[] data;
+        private int position;
+
+        ColumnReader(byte[] data) {
+            this.data = data;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        long readSignedVarLong() {
+            long value = readVarLong();
+            return value >>> 1 ^ -(value & 1);
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = value << 8 | data[position++] & 0xFF;
+            }
+            return value;
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            String value = new String(data, position, length - 1, StandardCharsets.UTF_8);
+            position += length - 1;
+            return value;
+        }
+
+        void skipString() {
+            int length = (int) readVarLong();
+            position += Math.max(0, length - 1);
+        }
+    }
+}
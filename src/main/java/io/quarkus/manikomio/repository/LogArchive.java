@@ -0,0 +1,321 @@
+package io.quarkus.manikomio.repository;
+
+import io.quarkus.manikomio.model.LogCursor;
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogQuery;
+import io.quarkus.manikomio.model.ServerLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Camada fria de server_logs: segmentos imutáveis em {@code logs.archive.directory}, gravados pelo
+ * LogArchiveService com as linhas antigas retiradas do banco. As consultas do ServerLogRepository
+ * passam por aqui também; os segmentos que não podem ter resultado são descartados pelo cabeçalho.
+ */
+@ApplicationScoped
+public class LogArchive {
+
+    private static final Logger LOGGER = Logger.getLogger(LogArchive.class);
+
+    static final String SEGMENT_PREFIX = "archive-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    @ConfigProperty(name = "logs.archive.directory", defaultValue = "data/archive")
+    String directory;
+
+    private Path root;
+    private final List<ArchiveSegment> segments = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    void init() {
+        root = Paths.get(directory);
+        try {
+            Files.createDirectories(root);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "*.part")) {
+                // Segmentos que não terminaram de ser gravados: as linhas continuam no banco
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(root, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    segments.add(ArchiveSegment.open(file));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao abrir o arquivo de logs em " + root, e);
+        }
+        if (!segments.isEmpty()) {
+            LOGGER.info("Arquivo de logs: " + segments.size() + " segmentos, " + getRowCount() + " logs");
+        }
+    }
+
+    /**
+     * Grava os logs num segmento novo e retorna o arquivo, ou null se não havia logs. O arquivo só
+     * aparece com o nome final depois do fsync, então um segmento visível está sempre completo.
+     */
+    public Path append(List<ServerLog> logs) throws IOException {
+        if (logs.isEmpty()) {
+            return null;
+        }
+        long first = logs.stream().mapToLong(log -> ArchiveSegment.micros(log.createdAt)).min().getAsLong();
+        Path file = root.resolve(String.format("%s%d-%d%s", SEGMENT_PREFIX, first,
+                logs.stream().mapToLong(log -> log.id).min().getAsLong(), SEGMENT_SUFFIX));
+        ArchiveSegment segment = write(file, logs);
+        segments.removeIf(existing -> existing.path().equals(file));
+        segments.add(segment);
+        LOGGER.info("Segmento " + file.getFileName() + " gravado: " + logs.size() + " logs, " + Files.size(file) + " bytes");
+        return file;
+    }
+
+    // Desfaz um append cujas linhas continuaram no banco
+    public void discard(Path file) throws IOException {
+        segments.removeIf(existing -> existing.path().equals(file));
+        Files.deleteIfExists(file);
+        LOGGER.warn("Segmento " + file.getFileName() + " descartado");
+    }
+
+    // Grava num arquivo temporário e renomeia por cima do nome final, substituindo um segmento que já exista
+    private static ArchiveSegment write(Path file, List<ServerLog> logs) throws IOException {
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        try {
+            ArchiveSegment.write(partial, logs);
+            Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        return ArchiveSegment.open(file);
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    /**
+     * Até {@code max} logs da consulta, de todos os segmentos, na ordem da consulta. Um log gravado em
+     * dois segmentos (queda entre a gravação e o commit do DELETE) aparece uma vez só.
+     */
+    public List<ServerLog> find(LogQuery query, int max) {
+        LogCursor cursor = query.getCursor() != null ? LogCursor.decode(query.getCursor()) : null;
+        List<ServerLog> found = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (ArchiveSegment segment : segments) {
+            if (segment.mightMatch(query, cursor)) {
+                segment.find(query, cursor, max).stream().filter(log -> seen.add(log.id)).forEach(found::add);
+            }
+        }
+        found.sort(query.getSortOrder() == LogQuery.SortOrder.NEWEST_FIRST
+                ? ArchiveSegment.OLDEST_FIRST.reversed() : ArchiveSegment.OLDEST_FIRST);
+        return found.size() > max ? new ArrayList<>(found.subList(0, max)) : found;
+    }
+
+    /**
+     * Percorre todos os logs dos filtros da consulta em ordem (createdAt, id), lendo cada segmento uma
+     * vez só; o cursor, o limite e a ordenação da consulta são ignorados. Os segmentos entram na ordem
+     * do log mais antigo e só são lidos quando a varredura chega neles, então a memória fica limitada
+     * aos segmentos que se sobrepõem no tempo.
+     */
+    public Iterator<ServerLog> scan(LogQuery query) {
+        LogQuery filter = new LogQuery().guild(query.getGuildId()).user(query.getUserId())
+                .channel(query.getChannelId()).eventType(query.getEventType())
+                .between(query.getFrom(), query.getTo()).sort(LogQuery.SortOrder.OLDEST_FIRST);
+        List<ArchiveSegment> matching = new ArrayList<>();
+        for (ArchiveSegment segment : segments) {
+            if (segment.mightMatch(filter, null)) {
+                matching.add(segment);
+            }
+        }
+        matching.sort(Comparator.comparing(ArchiveSegment::minCreatedAt));
+        return new Scan(filter, matching);
+    }
+
+    // Data do log mais novo do arquivo, ou null se ele estiver vazio
+    public OffsetDateTime maxCreatedAt() {
+        OffsetDateTime newest = null;
+        for (ArchiveSegment segment : segments) {
+            OffsetDateTime max = segment.maxCreatedAt();
+            if (newest == null || max.isAfter(newest)) {
+                newest = max;
+            }
+        }
+        return newest;
+    }
+
+    public List<ServerLog> findByIds(Collection<Long> ids) {
+        List<ServerLog> found = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (ArchiveSegment segment : segments) {
+            Set<Long> wanted = new HashSet<>();
+            ids.stream().filter(segment::mightContainId).forEach(wanted::add);
+            if (!wanted.isEmpty()) {
+                segment.findByIds(wanted).stream().filter(log -> seen.add(log.id)).forEach(found::add);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Aplica a retenção aos segmentos. {@code cutoff} devolve, por tipo, a data antes da qual o log
+     * expira, ou null se o tipo nunca expira. Um tipo expira no segmento quando até o log mais novo do
+     * segmento passou do limite dele: o segmento em que todos os tipos expiraram é apagado, e o que
+     * ainda tem tipos mantidos é regravado só com eles. Como um segmento tem poucas classes de
+     * retenção, cada um é regravado no máximo algumas vezes. Retorna os segmentos apagados.
+     */
+    public int dropExpired(Function<LogEventType, OffsetDateTime> cutoff) {
+        int dropped = 0;
+        for (ArchiveSegment segment : segments) {
+            OffsetDateTime newest = segment.maxCreatedAt();
+            Set<LogEventType> expired = new HashSet<>();
+            for (LogEventType type : segment.types()) {
+                OffsetDateTime limit = cutoff.apply(type);
+                if (limit != null && newest.isBefore(limit)) {
+                    expired.add(type);
+                }
+            }
+            if (expired.isEmpty()) {
+                continue;
+            }
+            try {
+                if (expired.size() == segment.types().size()) {
+                    segments.remove(segment);
+                    Files.deleteIfExists(segment.path());
+                    dropped++;
+                    LOGGER.info("Segmento expirado removido: " + segment.path().getFileName());
+                } else {
+                    rewriteWithout(segment, expired);
+                }
+            } catch (IOException e) {
+                LOGGER.error("Erro ao aplicar a retenção ao segmento " + segment.path() + ": " + e.getMessage(), e);
+            }
+        }
+        return dropped;
+    }
+
+    // O segmento regravado mantém o nome, então uma queda no meio nunca deixa as linhas em dois segmentos
+    private void rewriteWithout(ArchiveSegment segment, Set<LogEventType> expired) throws IOException {
+        List<ServerLog> kept = new ArrayList<>(segment.rows());
+        int before = kept.size();
+        kept.removeIf(log -> expired.contains(log.eventType));
+        ArchiveSegment rewritten = write(segment.path(), kept);
+        segments.replaceAll(existing -> existing == segment ? rewritten : existing);
+        LOGGER.info("Segmento " + segment.path().getFileName() + " regravado sem os tipos expirados " + expired
+                + ": " + (before - kept.size()) + " logs removidos, " + kept.size() + " mantidos");
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getRowCount() {
+        return segments.stream().mapToLong(ArchiveSegment::rowCount).sum();
+    }
+
+    /**
+     * Intercala as linhas dos segmentos. Um segmento é lido quando o próximo log da varredura não é
+     * mais antigo que o início dele; antes disso, nenhuma linha dele poderia vir primeiro.
+     */
+    private static final class Scan implements Iterator<ServerLog> {
+
+        private final LogQuery filter;
+        private final Deque<ArchiveSegment> unread;
+        private final PriorityQueue<Rows> open =
+                new PriorityQueue<>(Comparator.comparing(Rows::head, ArchiveSegment.OLDEST_FIRST));
+        private ServerLog next;
+        private long lastId = Long.MIN_VALUE;
+
+        Scan(LogQuery filter, List<ArchiveSegment> segments) {
+            this.filter = filter;
+            this.unread = new ArrayDeque<>(segments);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public ServerLog next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ServerLog log = next;
+            next = null;
+            return log;
+        }
+
+        private ServerLog advance() {
+            while (true) {
+                while (!unread.isEmpty()
+                        && (open.isEmpty() || !unread.peekFirst().minCreatedAt().isAfter(open.peek().head().createdAt))) {
+                    ArchiveSegment segment = unread.pollFirst();
+                    List<ServerLog> rows = segment.find(filter, null, segment.rowCount());
+                    if (!rows.isEmpty()) {
+                        open.add(new Rows(rows));
+                    }
+                }
+                Rows rows = open.poll();
+                if (rows == null) {
+                    return null;
+                }
+                ServerLog log = rows.take();
+                if (rows.hasMore()) {
+                    open.add(rows);
+                }
+                // A mesma linha em dois segmentos sai em sequência na ordem (createdAt, id)
+                if (log.id != lastId) {
+                    lastId = log.id;
+                    return log;
+                }
+            }
+        }
+    }
+
+    private static final class Rows {
+
+        private final List<ServerLog> logs;
+        private int position;
+
+        Rows(List<ServerLog> logs) {
+            this.logs = logs;
+        }
+
+        ServerLog head() {
+            return logs.get(position);
+        }
+
+        ServerLog take() {
+            return logs.get(position++);
+        }
+
+        boolean hasMore() {
+            return position < logs.size();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package io.quarkus.manikomio.repository;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.manikomio.model.LogRollup;
+import io.quarkus.manikomio.model.LogRollupKey;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@ApplicationScoped
+public class LogRollupRepository implements PanacheRepository<LogRollup> {
+
+    // Upsert portátil: tenta somar no registro existente e cria o registro se ele ainda não existir
+    @Transactional
+    public void applyDeltas(Map<LogRollupKey, Long> deltas) {
+        for (Map.Entry<LogRollupKey, Long> entry : deltas.entrySet()) {
+            LogRollupKey key = entry.getKey();
+            int updated = getEntityManager().createQuery(
+                    "UPDATE LogRollup r SET r.eventCount = r.eventCount + :delta "
+                            + "WHERE r.granularity = :granularity AND r.bucketStart = :bucketStart "
+                            + "AND r.guildId = :guildId AND r.dimension = :dimension AND r.dimensionValue = :value")
+                    .setParameter("delta", entry.getValue())
+                    .setParameter("granularity", key.granularity())
+                    .setParameter("bucketStart", key.bucketStart())
+                    .setParameter("guildId", key.guildId())
+                    .setParameter("dimension", key.dimension())
+                    .setParameter("value", key.dimensionValue())
+                    .executeUpdate();
+            if (updated == 0) {
+                LogRollup rollup = new LogRollup();
+                rollup.setGranularity(key.granularity());
+                rollup.setBucketStart(key.bucketStart());
+                rollup.setGuildId(key.guildId());
+                rollup.setDimension(key.dimension());
+                rollup.setDimensionValue(key.dimensionValue());
+                rollup.setEventCount(entry.getValue());
+                persist(rollup);
+            }
+        }
+    }
+
+    @Transactional
+    public long deleteHourlyBefore(OffsetDateTime cutoff) {
+        return delete("granularity = ?1 AND bucketStart < ?2", LogRollup.Granularity.HOUR, cutoff);
+    }
+
+    /**
+     * Soma as contagens de uma dimensão da guild a partir de {@code from}, da maior para a menor.
+     */
+    public Map<String, Long> sumByDimension(Long guildId, LogRollup.Dimension dimension,
+                                            LogRollup.Granularity granularity, OffsetDateTime from) {
+        List<Object[]> rows = getEntityManager().createQuery(
+                "SELECT r.dimensionValue, SUM(r.eventCount) FROM LogRollup r "
+                        + "WHERE r.guildId = :guildId AND r.dimension = :dimension "
+                        + "AND r.granularity = :granularity AND r.bucketStart >= :from "
+                        + "GROUP BY r.dimensionValue ORDER BY SUM(r.eventCount) DESC", Object[].class)
+                .setParameter("guildId", guildId)
+                .setParameter("dimension", dimension)
+                .setParameter("granularity", granularity)
+                .setParameter("from", from)
+                .getResultList();
+
+        Map<String, Long> sums = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            sums.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return sums;
+    }
+
+    // Total histórico de um valor somando os rollups diários de todas as guilds
+    public long sumByValue(LogRollup.Dimension dimension, String value) {
+        Number sum = getEntityManager().createQuery(
+                "SELECT COALESCE(SUM(r.eventCount), 0) FROM LogRollup r "
+                        + "WHERE r.granularity = :granularity AND r.dimension = :dimension AND r.dimensionValue = :value",
+                        Number.class)
+                .setParameter("granularity", LogRollup.Granularity.DAY)
+                .setParameter("dimension", dimension)
+                .setParameter("value", value)
+                .getSingleResult();
+        return sum.longValue();
+    }
+}
@@ -0,0 +1,41 @@
+package io.quarkus.manikomio.repository;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogRoute;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+
+import java.time.OffsetDateTime;
+
+@ApplicationScoped
+public class LogRouteRepository implements PanacheRepository<LogRoute> {
+
+    @Transactional
+    public LogRoute save(long guildId, LogEventType type, long channelId, long updatedBy) {
+        LogRoute route = find(guildId, type);
+        if (route == null) {
+            route = new LogRoute();
+            route.setGuildId(guildId);
+            route.setEventType(type);
+        }
+        route.setChannelId(channelId);
+        route.setUpdatedBy(updatedBy);
+        route.setUpdatedAt(OffsetDateTime.now());
+        persist(route);
+        return route;
+    }
+
+    @Transactional
+    public boolean remove(long guildId, LogEventType type) {
+        return type == null
+                ? delete("guildId = ?1 AND eventType IS NULL", guildId) > 0
+                : delete("guildId = ?1 AND eventType = ?2", guildId, type) > 0;
+    }
+
+    private LogRoute find(long guildId, LogEventType type) {
+        return type == null
+                ? find("guildId = ?1 AND eventType IS NULL", guildId).firstResult()
+                : find("guildId = ?1 AND eventType = ?2", guildId, type).firstResult();
+    }
+}
@@ -0,0 +1,51 @@
+package io.quarkus.manikomio.repository;
+
+import io.quarkus.manikomio.model.ChannelName;
+import io.quarkus.manikomio.model.UserName;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+@ApplicationScoped
+public class NameDictionaryRepository {
+
+    @Inject
+    EntityManager entityManager;
+
+    @Transactional
+    public void saveNames(Map<Long, String> userNames, Map<Long, String> channelNames) {
+        OffsetDateTime now = OffsetDateTime.now();
+        userNames.forEach((id, name) -> {
+            UserName entry = new UserName();
+            entry.setId(id);
+            entry.setName(name);
+            entry.setUpdatedAt(now);
+            entityManager.merge(entry);
+        });
+        channelNames.forEach((id, name) -> {
+            ChannelName entry = new ChannelName();
+            entry.setId(id);
+            entry.setName(name);
+            entry.setUpdatedAt(now);
+            entityManager.merge(entry);
+        });
+    }
+
+    public Map<Long, String> findUserNames(Collection<Long> ids) {
+        Map<Long, String> names = new HashMap<>();
+        UserName.<UserName>list("id IN ?1", ids).forEach(entry -> names.put(entry.id, entry.name));
+        return names;
+    }
+
+    public Map<Long, String> findChannelNames(Collection<Long> ids) {
+        Map<Long, String> names = new HashMap<>();
+        ChannelName.<ChannelName>list("id IN ?1", ids).forEach(entry -> names.put(entry.id, entry.name));
+        return names;
+    }
+}
@@ -0,0 +1,124 @@
+package io.quarkus.manikomio.repository;
+
+import io.quarkus.manikomio.model.LogEventType;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Operações de manutenção das partições de server_logs (somente MySQL).
+ * As partições são por faixa de created_at e se chamam p + data inicial (pYYYYMMDD);
+ * a última, p_future, recebe tudo que passar da última faixa criada. A conversão da tabela para
+ * particionada é manual (db/migration/V010__partition_server_logs.sql).
+ */
+@ApplicationScoped
+public class ServerLogPartitionRepository {
+
+    public static final String TABLE = "server_logs";
+    public static final String FUTURE_PARTITION = "p_future";
+
+    @Inject
+    EntityManager entityManager;
+
+    @SuppressWarnings("unchecked")
+    public List<String> listPartitions() {
+        return entityManager.createNativeQuery(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = :table AND PARTITION_NAME IS NOT NULL "
+                        + "ORDER BY PARTITION_ORDINAL_POSITION")
+                .setParameter("table", TABLE)
+                .getResultList();
+    }
+
+    // RANGE COLUMNS não aceita TIMESTAMP, então o tipo da coluna decide a expressão de particionamento
+    private boolean isTimestampColumn() {
+        Object type = entityManager.createNativeQuery(
+                "SELECT DATA_TYPE FROM information_schema.COLUMNS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = :table AND COLUMN_NAME = 'created_at'")
+                .setParameter("table", TABLE)
+                .getSingleResult();
+        return "timestamp".equalsIgnoreCase(String.valueOf(type));
+    }
+
+    /**
+     * Cria a faixa [start, end) separando-a da partição p_future, que deve estar vazia nesse ponto.
+     */
+    @Transactional
+    public void addPartition(LocalDate start, LocalDate end) {
+        entityManager.createNativeQuery("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + FUTURE_PARTITION
+                + " INTO (" + partitionDefinition(start, end, isTimestampColumn()) + ", PARTITION " + FUTURE_PARTITION
+                + " VALUES LESS THAN (MAXVALUE))").executeUpdate();
+    }
+
+    @Transactional
+    public void dropPartition(String partition) {
+        entityManager.createNativeQuery("ALTER TABLE " + TABLE + " DROP PARTITION " + partition).executeUpdate();
+    }
+
+    public long countRetained(String partition, Collection<LogEventType> eventTypes, boolean typesAreRetained) {
+        String condition = typesAreRetained ? "event_type IN (:types)" : "event_type NOT IN (:types)";
+        Number count = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM " + TABLE
+                        + " PARTITION (" + partition + ") WHERE " + condition)
+                .setParameter("types", codes(eventTypes))
+                .getSingleResult();
+        return count.longValue();
+    }
+
+    /**
+     * Apaga um lote de linhas de uma partição fria. Retorna o número de linhas apagadas.
+     */
+    @Transactional
+    public int purgeBatch(String partition, Collection<LogEventType> eventTypes, boolean typesAreRetained, int batchSize) {
+        String condition = typesAreRetained ? "event_type NOT IN (:types)" : "event_type IN (:types)";
+        return entityManager.createNativeQuery("DELETE FROM " + TABLE + " PARTITION (" + partition + ") WHERE "
+                        + condition + " LIMIT " + batchSize)
+                .setParameter("types", codes(eventTypes))
+                .executeUpdate();
+    }
+
+    /**
+     * Alternativa para bancos sem particionamento (H2 em desenvolvimento): apaga por tipo e data.
+     */
+    @Transactional
+    public int deleteOlderThan(Collection<LogEventType> eventTypes, boolean typesAreRetained, OffsetDateTime cutoff) {
+        if (eventTypes.isEmpty()) {
+            if (!typesAreRetained) {
+                return 0;
+            }
+            return entityManager.createQuery("DELETE FROM ServerLog WHERE createdAt < :cutoff")
+                    .setParameter("cutoff", cutoff)
+                    .executeUpdate();
+        }
+        String condition = typesAreRetained ? "eventType NOT IN (:types)" : "eventType IN (:types)";
+        return entityManager.createQuery("DELETE FROM ServerLog WHERE createdAt < :cutoff AND " + condition)
+                .setParameter("cutoff", cutoff)
+                .setParameter("types", eventTypes)
+                .executeUpdate();
+    }
+
+    // Consultas nativas não passam pelo conversor JPA, então os tipos vão como códigos
+    private static List<Short> codes(Collection<LogEventType> eventTypes) {
+        return eventTypes.stream().map(LogEventType::code).toList();
+    }
+
+    private static String partitionDefinition(LocalDate start, LocalDate end, boolean timestamp) {
+        String bound = timestamp ? "UNIX_TIMESTAMP('" + end + " 00:00:00')" : "'" + end + " 00:00:00'";
+        return "PARTITION " + partitionName(start) + " VALUES LESS THAN (" + bound + ")";
+    }
+
+    public static String partitionName(LocalDate start) {
+        return String.format("p%04d%02d%02d", start.getYear(), start.getMonthValue(), start.getDayOfMonth());
+    }
+
+    public static LocalDate partitionStart(String partition) {
+        return LocalDate.of(Integer.parseInt(partition.substring(1, 5)),
+                Integer.parseInt(partition.substring(5, 7)),
+                Integer.parseInt(partition.substring(7, 9)));
+    }
+}
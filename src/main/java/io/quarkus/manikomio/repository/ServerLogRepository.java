@@ -1,44 +1,244 @@
 package io.quarkus.manikomio.repository;
 
+import io.quarkus.manikomio.model.LogCursor;
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogPage;
+import io.quarkus.manikomio.model.LogQuery;
 import io.quarkus.manikomio.model.ServerLog;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Logs do banco (camada quente) e do arquivo frio. As consultas abaixo juntam as duas camadas em
+ * ordem de tempo; um log que esteja nas duas (arquivamento interrompido antes do DELETE) aparece uma
+ * vez só, com a versão do banco.
+ */
 @ApplicationScoped
 public class ServerLogRepository implements PanacheRepository<ServerLog> {
+
+    private static final Logger LOGGER = Logger.getLogger(ServerLogRepository.class);
+    private static final Comparator<ServerLog> NEWEST_FIRST = ArchiveSegment.OLDEST_FIRST.reversed();
+
+    @Inject
+    LogArchive archive;
+
+    @Inject
+    TransactionSynchronizationRegistry transactions;
+
+    // Grava o lote inteiro numa única transação; o Hibernate agrupa os INSERTs em batch JDBC
+    @Transactional
+    public void persistBatch(List<ServerLog> logs) {
+        persist(logs);
+        flush();
+    }
     
-    public List<ServerLog> findByDateRange(OffsetDateTime start, OffsetDateTime end) {
-        return ServerLog.findByDateRange(start, end);
+    // As listas abaixo trazem os {@code limit} logs mais recentes do filtro, do banco e do arquivo
+    public List<ServerLog> findByDateRange(OffsetDateTime start, OffsetDateTime end, int limit) {
+        return findPage(new LogQuery().between(start, end).limit(limit)).logs();
     }
 
     public List<ServerLog> findLatestLogs(int limit) {
-        return ServerLog.findLatestLogs(limit);
+        List<ServerLog> hot = ServerLog.findLatestLogs(limit);
+        LogQuery query = new LogQuery().limit(limit);
+        if (skipsArchive(query, hot, archive.maxCreatedAt())) {
+            return hot;
+        }
+        List<ServerLog> merged = merge(hot, archive.find(query, limit), NEWEST_FIRST);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    public List<ServerLog> findByEventType(LogEventType eventType, int limit) {
+        return findPage(new LogQuery().eventType(eventType).limit(limit)).logs();
+    }
+
+    public List<ServerLog> findByUserId(Long userId, int limit) {
+        return findPage(new LogQuery().user(userId).limit(limit)).logs();
+    }
+
+    public List<ServerLog> findByChannelId(Long channelId, int limit) {
+        return findPage(new LogQuery().channel(channelId).limit(limit)).logs();
+    }
+
+    public LogPage findPage(LogQuery query) {
+        LogPage hot = ServerLog.findPage(query);
+        if (skipsArchive(query, hot.logs(), archive.maxCreatedAt())) {
+            return hot;
+        }
+        return mergePage(query, hot, archive.find(query, query.getLimit() + 1));
+    }
+
+    /**
+     * O arquivo só tem logs até {@code archiveNewest}. Ele fica de fora quando a consulta começa depois
+     * disso (o início do período ou, do mais antigo ao mais novo, o cursor) ou quando a página do banco,
+     * do mais novo ao mais antigo, já está cheia só com logs mais novos que o arquivo.
+     */
+    static boolean skipsArchive(LogQuery query, List<ServerLog> hot, OffsetDateTime archiveNewest) {
+        if (archiveNewest == null || query.getFrom() != null && query.getFrom().isAfter(archiveNewest)) {
+            return true;
+        }
+        if (query.getSortOrder() == LogQuery.SortOrder.OLDEST_FIRST) {
+            return query.getCursor() != null && LogCursor.decode(query.getCursor()).createdAt().isAfter(archiveNewest);
+        }
+        int limit = query.getLimit();
+        return hot.size() >= limit && hot.get(limit - 1).createdAt.isAfter(archiveNewest);
+    }
+
+    // Logs do arquivo na ordem (createdAt, id), numa passada só; usado pela exportação
+    public Iterator<ServerLog> scanArchive(LogQuery query) {
+        return archive.scan(query);
+    }
+
+    // Só o banco, numa transação curta: a sessão fecha no commit e as entidades não se acumulam. Usado
+    // pelo arquivamento, que lê as linhas a mover, e pela exportação, que junta o arquivo por conta própria
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public LogPage findHotChunk(LogQuery query) {
+        return ServerLog.findPage(query);
+    }
+
+    /**
+     * Grava no log já persistido o que veio do audit log. A linha é achada pela chave de ingestão
+     * (spool e sequência); a faixa de createdAt mantém a busca numa partição e tolera o arredondamento
+     * da coluna. Retorna 0 se o write-behind ainda não gravou o log.
+     */
+    @Transactional
+    public int patchModeration(ServerLog log) {
+        return update("eventType = ?1, description = ?2, message = ?3, moderatorId = ?4 "
+                        + "WHERE ingestSpool = ?5 AND ingestKey = ?6 AND createdAt BETWEEN ?7 AND ?8",
+                log.eventType, log.description, log.message, log.moderatorId, log.ingestSpool, log.ingestKey,
+                log.createdAt.minusSeconds(1), log.createdAt.plusSeconds(1));
+    }
+
+    @Transactional
+    // Guilds com logs no banco anteriores ao corte
+    public List<Long> findGuildsBefore(OffsetDateTime cutoff) {
+        return getEntityManager()
+                .createQuery("SELECT DISTINCT l.guildId FROM ServerLog l "
+                        + "WHERE l.guildId IS NOT NULL AND l.createdAt < :cutoff", Long.class)
+                .setParameter("cutoff", cutoff)
+                .getResultList();
+    }
+
+    @Transactional
+    public long deleteByIds(Collection<Long> ids) {
+        return delete("id IN ?1", ids);
+    }
+
+    /**
+     * Move os logs do banco para um segmento novo do arquivo. O DELETE e a gravação do segmento ficam
+     * na mesma transação, nessa ordem: se a gravação falhar, o DELETE volta atrás, e se o commit falhar
+     * o segmento é descartado. Só uma queda entre o fsync e o commit deixa as linhas nas duas camadas.
+     */
+    @Transactional(rollbackOn = IOException.class)
+    public void moveToArchive(List<ServerLog> logs, int chunkSize) throws IOException {
+        List<Long> ids = logs.stream().map(log -> log.id).toList();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            deleteByIds(ids.subList(from, Math.min(ids.size(), from + chunkSize)));
+        }
+        Path segment = archive.append(logs);
+        if (segment == null) {
+            return;
+        }
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    return;
+                }
+                try {
+                    archive.discard(segment);
+                } catch (IOException e) {
+                    LOGGER.error("Erro ao descartar o segmento " + segment + ": " + e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    public List<ServerLog> findByIds(Collection<Long> ids) {
+        List<ServerLog> hot = list("id IN ?1", ids);
+        if (archive.isEmpty() || hot.size() == ids.size()) {
+            return hot;
+        }
+        Set<Long> missing = new HashSet<>(ids);
+        hot.forEach(log -> missing.remove(log.id));
+        List<ServerLog> logs = new ArrayList<>(hot);
+        logs.addAll(archive.findByIds(missing));
+        return logs;
+    }
+
+    /**
+     * Junta a página do banco com os logs do arquivo que vêm depois do mesmo cursor. Cada lado já
+     * está limitado a limit + 1 na ordem pedida, então os primeiros do conjunto são a página certa.
+     */
+    static LogPage mergePage(LogQuery query, LogPage hot, List<ServerLog> archived) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Comparator<ServerLog> order = query.getSortOrder() == LogQuery.SortOrder.NEWEST_FIRST
+                ? NEWEST_FIRST : ArchiveSegment.OLDEST_FIRST;
+        List<ServerLog> merged = merge(hot.logs(), archived, order);
+        int limit = query.getLimit();
+        if (merged.size() <= limit && !hot.hasMore()) {
+            return new LogPage(merged, null);
+        }
+        List<ServerLog> page = merged.size() > limit ? merged.subList(0, limit) : merged;
+        return new LogPage(page, LogCursor.of(page.get(page.size() - 1)).encode());
     }
 
-    public List<ServerLog> findByEventType(String eventType) {
-        return ServerLog.findByEventType(eventType);
+    private static List<ServerLog> merge(List<ServerLog> hot, List<ServerLog> archived, Comparator<ServerLog> order) {
+        Set<Long> hotIds = new HashSet<>();
+        hot.forEach(log -> hotIds.add(log.id));
+        List<ServerLog> merged = new ArrayList<>(hot.size() + archived.size());
+        merged.addAll(hot);
+        archived.stream().filter(log -> !hotIds.contains(log.id)).forEach(merged::add);
+        merged.sort(order);
+        return merged;
     }
 
-    public List<ServerLog> findByUserId(String userId) {
-        return ServerLog.findByUserId(userId);
+    // Mensagens com conteúdo depois do id, em ordem de id; usado para reconstruir o índice de busca
+    @Transactional
+    public List<ServerLog> findMessagesAfter(long afterId, int limit) {
+        return find("id > ?1 AND eventType IN ?2 AND message IS NOT NULL", Sort.ascending("id"),
+                afterId, List.of(LogEventType.MESSAGE_SENT, LogEventType.MESSAGE_EDITED))
+                .page(0, limit)
+                .list();
     }
 
-    public List<ServerLog> findByChannelId(String channelId) {
-        return ServerLog.findByChannelId(channelId);
+    // Chaves de ingestão do intervalo, gravadas a partir do spool indicado, que já estão no banco
+    public List<Long> findIngestKeys(long spoolId, long from, long to) {
+        return ServerLog.findIngestKeys(spoolId, from, to);
     }
 
-    public long countByEventType(String eventType) {
+    public long countByEventType(LogEventType eventType) {
         return ServerLog.countByEventType(eventType);
     }
 
-    public long countByUserId(String userId) {
+    public long countByUserId(Long userId) {
         return ServerLog.countByUserId(userId);
     }
 
-    public long countByChannelId(String channelId) {
+    public long countByChannelId(Long channelId) {
         return ServerLog.countByChannelId(channelId);
     }
 } 
\ No newline at end of file
@@ -1,9 +1,16 @@
 package io.quarkus.manikomio.service;
 
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogQuery;
+import io.quarkus.manikomio.model.LogRollup;
+import io.quarkus.manikomio.model.LogRoute;
 import io.quarkus.manikomio.model.ServerLog;
 import io.quarkus.manikomio.repository.ServerLogRepository;
+import io.quarkus.runtime.ShutdownEvent;
 import io.quarkus.runtime.StartupEvent;
 import io.quarkus.runtime.annotations.RegisterForReflection;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Observes;
 import jakarta.enterprise.context.RequestScoped;
@@ -11,11 +18,15 @@ import jakarta.enterprise.context.control.ActivateRequestContext;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import net.dv8tion.jda.api.JDA;
-import net.dv8tion.jda.api.JDABuilder;
-import net.dv8tion.jda.api.audit.ActionType;
-import net.dv8tion.jda.api.audit.AuditLogEntry;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.events.message.MessageUpdateEvent;
 import net.dv8tion.jda.api.events.message.MessageDeleteEvent;
@@ -26,15 +37,38 @@ import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
 import net.dv8tion.jda.api.events.guild.GuildBanEvent;
 import net.dv8tion.jda.api.events.guild.member.update.GuildMemberUpdateTimeOutEvent;
 import net.dv8tion.jda.api.events.guild.GuildUnbanEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleAddEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleRemoveEvent;
+import net.dv8tion.jda.api.events.guild.override.GenericPermissionOverrideEvent;
+import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
+import net.dv8tion.jda.api.events.role.update.RoleUpdatePermissionsEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.FileUpload;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 @RegisterForReflection
@@ -54,11 +88,186 @@ public class DiscordBotService extends ListenerAdapter {
     @Inject
     LoggingService loggingService;
 
-    private JDA jda;
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    LogPaginator paginator;
+
+    @Inject
+    LogSearchService searchService;
+
+    @Inject
+    MessageContentCache messageCache;
+
+    @Inject
+    LogRoutingService routing;
+
+    @Inject
+    LogExportService exportService;
+
+    @Inject
+    LogQueryExecutor queries;
+
+    @Inject
+    ModerationAuditService moderationAudit;
+
+    @ConfigProperty(name = "discord.events.stripes", defaultValue = "64")
+    int eventStripes;
+
+    @ConfigProperty(name = "discord.events.queue-capacity", defaultValue = "1000")
+    int eventQueueCapacity;
+
+    @ConfigProperty(name = "discord.events.virtual-threads", defaultValue = "true")
+    boolean virtualThreads;
+
+    @ConfigProperty(name = "discord.commands.stripes", defaultValue = "8")
+    int commandStripes;
+
+    @ConfigProperty(name = "discord.commands.queue-capacity", defaultValue = "20")
+    int commandQueueCapacity;
+
+    @ConfigProperty(name = "discord.events.shutdown-timeout-ms", defaultValue = "5000")
+    long shutdownTimeoutMs;
+
+    @ConfigProperty(name = "discord.commands.text-enabled", defaultValue = "true")
+    boolean textCommands;
+
+    @ConfigProperty(name = "discord.shards.total", defaultValue = "1")
+    int shardsTotal;
+
+    @ConfigProperty(name = "discord.shards.range")
+    Optional<String> shardRangeConfig;
+
+    @ConfigProperty(name = "discord.startup.await-ready", defaultValue = "false")
+    boolean awaitReady;
+
+    private ShardManager shardManager;
+    private ShardRange shardRange;
+    // Um pipeline de despacho por shard deste nó, indexado pelo id do shard
+    private StripedEventManager[] eventManagers;
+    private volatile boolean mirrorDisabled;
+    private volatile boolean ready;
+    private final AtomicInteger readyShards = new AtomicInteger();
+    private long startedAt;
     private static final String COMMAND_PREFIX = "!";
+    private static final Pattern ARG_SEPARATOR = Pattern.compile("\\s+");
+    private static final int LATEST_LOGS_LIMIT = 5;
+    private static final int MAX_PAGE_SIZE = 10;
+    private static final int STATS_TOP_ENTRIES = 5;
+    private static final int MAX_TITLE_TERMS = 100;
+    // Caches do JDA mantidos pelo perfil leve (ver onStart); o GuildCacheBenchmark usa os mesmos
+    static final EnumSet<CacheFlag> CACHE_FLAGS = EnumSet.of(CacheFlag.VOICE_STATE, CacheFlag.MEMBER_OVERRIDES);
+    static final MemberCachePolicy MEMBER_CACHE_POLICY = MemberCachePolicy.VOICE;
+    // Guilds acima disso não mandam a lista de membros offline no GUILD_CREATE
+    private static final int LARGE_THRESHOLD = 50;
+
+    public ShardManager getShardManager() {
+        return shardManager;
+    }
+
+    /**
+     * Procura o canal em todos os shards deste nó; null se ele for de uma guild atendida por outro nó.
+     */
+    public TextChannel getTextChannelById(String channelId) {
+        return shardManager != null ? shardManager.getTextChannelById(channelId) : null;
+    }
+
+    /**
+     * O canal de logs é de uma guild atendida por outro nó (o espelhamento fica com aquele nó) ou não
+     * passou na verificação feita quando os shards ficaram prontos.
+     */
+    public boolean isMirrorDisabled() {
+        return mirrorDisabled;
+    }
+
+    /**
+     * Todos os shards deste nó conectaram e o canal de logs já foi verificado.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<Integer> getLocalShards() {
+        return shardRange.ids().boxed().toList();
+    }
+
+    StripedEventManager getEventManager(int shardId) {
+        return eventManagers[shardId];
+    }
+
+    int shardOf(long guildId) {
+        return ShardRange.shardOf(guildId, shardsTotal);
+    }
+
+    // A guild está num shard deste nó, que responde os comandos dela
+    boolean isLocalGuild(long guildId) {
+        return shardRange.contains(shardOf(guildId));
+    }
+
+    boolean isLocalShard(int shardId) {
+        return shardRange.contains(shardId);
+    }
+
+    @PostConstruct
+    void startDispatch() {
+        shardRange = ShardRange.parse(shardRangeConfig, shardsTotal);
+        // As faixas configuradas valem para o nó inteiro e são divididas entre os shards locais
+        int shardEventStripes = Math.max(1, eventStripes / shardRange.count());
+        int shardCommandStripes = Math.max(1, commandStripes / shardRange.count());
+        eventManagers = new StripedEventManager[shardsTotal];
+        boolean virtual = false;
+        for (int shardId = shardRange.first(); shardId <= shardRange.last(); shardId++) {
+            StripedExecutor events = new StripedExecutor("discord-events-" + shardId, shardEventStripes,
+                    eventQueueCapacity, virtualThreads);
+            StripedExecutor commands = new StripedExecutor("discord-commands-" + shardId, shardCommandStripes,
+                    commandQueueCapacity, virtualThreads);
+            eventManagers[shardId] = new StripedEventManager(events, commands, textCommands ? COMMAND_PREFIX : null);
+            eventManagers[shardId].register(this);
+            virtual = events.usesVirtualThreads();
+        }
+        LOGGER.info("Despacho de eventos: shards " + shardRange + ", " + shardEventStripes + " faixas de "
+                + eventQueueCapacity + " eventos por shard, " + (virtual ? "threads virtuais" : "threads de plataforma"));
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        int abandoned = localEventManagers().mapToInt(manager -> manager.close(shutdownTimeoutMs)).sum();
+        if (abandoned > 0) {
+            LOGGER.warn(abandoned + " eventos do Discord não foram processados antes do desligamento");
+        }
+    }
+
+    private Stream<StripedEventManager> localEventManagers() {
+        return shardRange.ids().mapToObj(shardId -> eventManagers[shardId]);
+    }
+
+    public int getPendingEvents() {
+        return localEventManagers().mapToInt(StripedEventManager::getPendingEvents).sum();
+    }
+
+    public int getPendingEvents(int shardId) {
+        return eventManagers[shardId].getPendingEvents();
+    }
+
+    public int getPendingCommands(int shardId) {
+        return eventManagers[shardId].getPendingCommands();
+    }
+
+    public long getDispatchedEvents(int shardId) {
+        return eventManagers[shardId].getDispatchedEvents();
+    }
 
-    public JDA getJda() {
-        return jda;
+    public long getBlockedDispatches(int shardId) {
+        return eventManagers[shardId].getBlockedDispatches();
+    }
+
+    public long getRejectedCommands(int shardId) {
+        return eventManagers[shardId].getRejectedCommands();
+    }
+
+    public double getGatewayPing(int shardId) {
+        JDA shard = shardManager != null ? shardManager.getShardById(shardId) : null;
+        return shard != null ? shard.getGatewayPing() : Double.NaN;
     }
 
     void onStart(@Observes StartupEvent ev) {
@@ -89,58 +298,113 @@ public class DiscordBotService extends ListenerAdapter {
             
             LOGGER.info("Configurando bot com as seguintes intents: " + intents);
             
-            // Inicializa o bot
-            jda = JDABuilder.createDefault(botToken)
-                    .enableIntents(intents)
-                    .addEventListeners(this)
+            // Inicializa os shards deste nó; cada um entrega os eventos ao seu StripedEventManager,
+            // onde este serviço já está registrado. O perfil leve só guarda o que os listeners leem:
+            // VOICE_STATE para saber de qual canal de voz o membro saiu e MEMBER_OVERRIDES para o
+            // canTalk() do canal de logs. Membros ficam em cache só enquanto estão em voz, sem chunking.
+            LOGGER.info("Conectando os shards " + shardRange + "...");
+            startedAt = System.nanoTime();
+            shardManager = DefaultShardManagerBuilder.createLight(botToken, intents)
+                    .enableCache(CACHE_FLAGS)
+                    .setMemberCachePolicy(MEMBER_CACHE_POLICY)
+                    .setChunkingFilter(ChunkingFilter.NONE)
+                    .setLargeThreshold(LARGE_THRESHOLD)
+                    .setShardsTotal(shardsTotal)
+                    .setShards(shardRange.first(), shardRange.last())
+                    .setEventManagerProvider(shardId -> eventManagers[shardId])
                     .build();
-            
+
+            if (!awaitReady) {
+                // O Quarkus sobe sem esperar o gateway; o canal de logs é verificado no onReady
+                LOGGER.info("Shards conectando em segundo plano");
+                return;
+            }
+
             LOGGER.info("Aguardando o bot ficar pronto...");
             try {
-                jda.awaitReady();
+                for (JDA shard : shardManager.getShards()) {
+                    shard.awaitReady();
+                }
             } catch (InterruptedException e) {
                 LOGGER.error("Erro ao aguardar o bot ficar pronto: " + e.getMessage(), e);
                 Thread.currentThread().interrupt();
                 throw new RuntimeException("Erro ao aguardar o bot ficar pronto", e);
             }
-            
-            // Verifica se o canal de logs existe e se o bot tem permissão
-            LOGGER.info("Verificando canal de logs (ID: " + logChannelId + ")...");
-            TextChannel logChannel = jda.getTextChannelById(logChannelId);
-            
-            if (logChannel == null) {
-                LOGGER.error("Canal de logs não encontrado! ID: " + logChannelId);
-                throw new IllegalStateException("Canal de logs não encontrado");
-            }
-            
-            if (!logChannel.canTalk()) {
-                LOGGER.error("Bot não tem permissão para enviar mensagens no canal de logs!");
-                throw new IllegalStateException("Bot não tem permissão para enviar mensagens no canal de logs");
-            }
-            
-            LOGGER.info("Canal de logs verificado com sucesso: " + logChannel.getName());
-            
-            // Envia mensagem de teste
-            LOGGER.info("Enviando mensagem de teste para o canal de logs...");
-            logChannel.sendMessage("✅ Bot iniciado com sucesso! Sistema de logs ativo.").queue(
-                success -> LOGGER.info("Mensagem de teste enviada com sucesso!"),
-                error -> LOGGER.error("Erro ao enviar mensagem de teste: " + error.getMessage())
-            );
-            
-            LOGGER.info("Bot iniciado com sucesso!");
+            finishStartup();
         } catch (Exception e) {
             LOGGER.error("Erro ao iniciar o bot: " + e.getMessage(), e);
             throw e;
         }
     }
 
+    @Override
+    public void onReady(ReadyEvent event) {
+        // No modo bloqueante o onStart conclui a inicialização depois do awaitReady; senão só o
+        // ReadyEvent do último shard local conclui, e eventos repetidos depois dele não reiniciam nada
+        if (awaitReady || readyShards.incrementAndGet() != shardRange.count()) {
+            return;
+        }
+        try {
+            finishStartup();
+        } catch (Exception e) {
+            // Sem o StartupEvent para abortar, o nó segue gravando no banco sem espelhar no Discord
+            mirrorDisabled = true;
+            ready = true;
+            LOGGER.error("Espelhamento no canal de logs desativado: " + e.getMessage(), e);
+        }
+    }
+
+    private void finishStartup() {
+        // Os comandos são globais da aplicação: basta um nó registrá-los
+        if (shardRange.contains(0)) {
+            shardManager.getShardById(0).updateCommands().addCommands(LogSlashCommands.definition(MAX_PAGE_SIZE)).queue(
+                commands -> LOGGER.info("Slash commands registrados: " + commands.size()),
+                error -> LOGGER.error("Erro ao registrar slash commands: " + error.getMessage())
+            );
+        }
+        verifyLogChannel();
+        ready = true;
+        LOGGER.info("Bot pronto em " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) + " ms");
+    }
+
+    private void verifyLogChannel() {
+        // Verifica se o canal de logs existe e se o bot tem permissão
+        LOGGER.info("Verificando canal de logs (ID: " + logChannelId + ")...");
+        TextChannel logChannel = shardManager.getTextChannelById(logChannelId);
+        
+        if (logChannel == null && !shardRange.isComplete()) {
+            // A guild do canal pode estar num shard de outro nó
+            mirrorDisabled = true;
+            LOGGER.warn("Canal de logs não está nos shards " + shardRange + "; este nó só grava os eventos no banco");
+            return;
+        }
+        if (logChannel == null) {
+            LOGGER.error("Canal de logs não encontrado! ID: " + logChannelId);
+            throw new IllegalStateException("Canal de logs não encontrado");
+        }
+        
+        if (!logChannel.canTalk()) {
+            LOGGER.error("Bot não tem permissão para enviar mensagens no canal de logs!");
+            throw new IllegalStateException("Bot não tem permissão para enviar mensagens no canal de logs");
+        }
+        
+        LOGGER.info("Canal de logs verificado com sucesso: " + logChannel.getName());
+        
+        // Envia mensagem de teste
+        LOGGER.info("Enviando mensagem de teste para o canal de logs...");
+        logChannel.sendMessage("✅ Bot iniciado com sucesso! Sistema de logs ativo.").queue(
+            success -> LOGGER.info("Mensagem de teste enviada com sucesso!"),
+            error -> LOGGER.error("Erro ao enviar mensagem de teste: " + error.getMessage())
+        );
+    }
+
     private void processCommand(MessageReceivedEvent event) {
         String message = event.getMessage().getContentRaw();
         if (!message.startsWith(COMMAND_PREFIX)) {
             return;
         }
 
-        String[] args = message.substring(1).split("\\s+");
+        String[] args = splitCommand(message);
         String command = args[0].toLowerCase();
 
         try {
@@ -148,9 +412,22 @@ public class DiscordBotService extends ListenerAdapter {
                 case "testlog":
                     handleTestLogCommand(event);
                     break;
-                case "logs":
-                    handleLogsCommand(event, args);
+                case "logs": {
+                    // A latência vai até a resposta sair, inclusive quando a consulta roda no pool
+                    long start = System.nanoTime();
+                    String subCommand = args.length < 2 ? "latest" : args[1].toLowerCase();
+                    Uni.createFrom().deferred(() -> handleLogsCommand(event, args))
+                            .onTermination().invoke(() -> metrics.recordCommand(subCommand, start))
+                            .subscribe().with(done -> { }, error -> {
+                                if (error instanceof RejectedExecutionException) {
+                                    event.getChannel().sendMessage(error.getMessage()).queue();
+                                    return;
+                                }
+                                LOGGER.error("Erro ao processar comando: " + error.getMessage(), error);
+                                event.getChannel().sendMessage("❌ Erro ao processar comando: " + error.getMessage()).queue();
+                            });
                     break;
+                }
                 default:
                     // Comando desconhecido
                     event.getChannel().sendMessage("❌ Comando desconhecido. Use !logs para ver os comandos disponíveis.").queue();
@@ -162,16 +439,31 @@ public class DiscordBotService extends ListenerAdapter {
         }
     }
 
+    // Separa "!logs filter user:@x" em {"logs", "filter", "user:@x"}
+    static String[] splitCommand(String message) {
+        return ARG_SEPARATOR.split(message.substring(COMMAND_PREFIX.length()));
+    }
+
     private void handleTestLogCommand(MessageReceivedEvent event) {
         event.getChannel().sendMessage("✅ Sistema de logs funcionando!").queue();
     }
 
-    private void handleLogsCommand(MessageReceivedEvent event, String[] args) {
+    /**
+     * Responde ao !logs. As consultas ao banco voltam como Uni e a resposta é enviada quando ele
+     * termina; os subcomandos que não consultam o banco respondem na hora e devolvem um Uni vazio.
+     */
+    private Uni<Void> handleLogsCommand(MessageReceivedEvent event, String[] args) {
+        if (!event.isFromGuild()) {
+            event.getChannel().sendMessage("❌ Os comandos de logs só funcionam dentro de um servidor.").queue();
+            return Uni.createFrom().voidItem();
+        }
+        long guildId = event.getGuild().getIdLong();
+
         if (args.length < 2) {
             // Mostra os últimos logs
-            List<ServerLog> logs = loggingService.getLatestLogs(5);
-            sendLogsResponse(event, logs, "Últimos 5 logs");
-            return;
+            return queries.submit(() -> loggingService.getLogs(LogQuery.forGuild(guildId).limit(LATEST_LOGS_LIMIT)))
+                    .invoke(page -> sendLogsResponse(event, page.logs(), "Últimos " + LATEST_LOGS_LIMIT + " logs"))
+                    .replaceWithVoid();
         }
 
         String subCommand = args[1].toLowerCase();
@@ -180,135 +472,400 @@ public class DiscordBotService extends ListenerAdapter {
             case "user":
                 if (args.length < 3) {
                     event.getChannel().sendMessage("❌ Por favor, mencione um usuário. Exemplo: !logs user @usuario").queue();
-                    return;
+                    return Uni.createFrom().voidItem();
                 }
-                handleUserLogsCommand(event, args[2]);
-                break;
+                return handleUserLogsCommand(event, guildId, args[2], args.length > 3 ? args[3] : null);
                 
             case "type":
                 if (args.length < 3) {
                     event.getChannel().sendMessage("❌ Por favor, especifique um tipo de log. Exemplo: !logs type MESSAGE").queue();
-                    return;
+                    return Uni.createFrom().voidItem();
                 }
-                handleTypeLogsCommand(event, args[2]);
-                break;
+                return handleTypeLogsCommand(event, guildId, args[2], args.length > 3 ? args[3] : null);
 
             case "period":
                 if (args.length < 4) {
                     event.getChannel().sendMessage("❌ Por favor, especifique o período. Exemplo: !logs period 1h 5").queue();
-                    return;
+                    return Uni.createFrom().voidItem();
                 }
-                handlePeriodLogsCommand(event, args[2], args[3]);
+                return handlePeriodLogsCommand(event, guildId, args[2], args[3]);
+
+            case "filter":
+                return handleFilterLogsCommand(event, guildId, args);
+
+            case "stats":
+                return handleStatsLogsCommand(event, guildId, args.length > 2 ? args[2] : "24h");
+
+            case "search":
+                return handleSearchLogsCommand(event, guildId, args);
+
+            case "route":
+                handleRouteCommand(event, args);
+                break;
+
+            case "routes":
+                event.getChannel().sendMessage(describeRoutes(guildId)).queue();
+                break;
+
+            case "export":
+                handleExportCommand(event, guildId, args);
                 break;
                 
             default:
                 event.getChannel().sendMessage("❌ Subcomando desconhecido. Use:\n" +
                     "!logs - Mostra os últimos logs\n" +
-                    "!logs user @usuario - Mostra logs de um usuário\n" +
-                    "!logs type tipo - Mostra logs de um tipo específico\n" +
-                    "!logs period tempo limite - Mostra logs do período (ex: 1h 5)").queue();
+                    "!logs user @usuario [cursor] - Mostra logs de um usuário\n" +
+                    "!logs type tipo [cursor] - Mostra logs de um tipo específico\n" +
+                    "!logs period tempo limite - Mostra logs do período (ex: 1h 5)\n" +
+                    LogFilterParser.USAGE + " - Combina filtros\n" +
+                    "!logs stats [período] - Estatísticas do período (ex: 24h, 7d)\n" +
+                    "!logs search [#canal] termos - Busca no conteúdo das mensagens\n" +
+                    "!logs route #canal|off [tipo] - Define ou remove o canal que recebe os logs\n" +
+                    "!logs routes - Mostra as rotas de logs do servidor\n" +
+                    LogFilterParser.EXPORT_USAGE + " - Exporta o histórico compactado").queue();
                 break;
         }
+        return Uni.createFrom().voidItem();
     }
 
-    private void handlePeriodLogsCommand(MessageReceivedEvent event, String period, String limit) {
-        try {
-            int hours = Integer.parseInt(period.replace("h", ""));
-            int maxResults = Integer.parseInt(limit);
-            
-            if (maxResults > 10) {
-                event.getChannel().sendMessage("❌ O limite máximo de resultados é 10.").queue();
-                return;
-            }
+    private void handleRouteCommand(MessageReceivedEvent event, String[] args) {
+        if (args.length < 3) {
+            event.getChannel().sendMessage("❌ Informe o canal. Exemplo: !logs route #logs [tipo] ou !logs route off [tipo]").queue();
+            return;
+        }
+        Long channelId = "off".equalsIgnoreCase(args[2]) ? null : LogFilterParser.parseSnowflake(args[2]);
+        LogEventType type = args.length > 3 ? LogEventType.parse(args[3]) : null;
+        event.getChannel().sendMessage(changeRoute(event.getMember(), event.getGuild(), channelId, type)).queue();
+    }
 
-            OffsetDateTime end = OffsetDateTime.now();
-            OffsetDateTime start = end.minusHours(hours);
-            
-            List<ServerLog> logs = loggingService.getLogsByDateRange(start, end);
-            if (logs.size() > maxResults) {
-                logs = logs.subList(0, maxResults);
+    // Sem canal, remove a rota; só quem gerencia o servidor muda o destino dos logs
+    private String changeRoute(Member member, Guild guild, Long channelId, LogEventType type) {
+        if (member == null || !member.hasPermission(Permission.MANAGE_SERVER)) {
+            return "❌ Só quem pode gerenciar o servidor altera as rotas de logs.";
+        }
+        String scope = type != null ? "Logs do tipo " + type : "Logs do servidor";
+        if (channelId == null) {
+            return routing.removeRoute(guild.getIdLong(), type)
+                    ? "✅ " + scope + " voltaram para o destino anterior."
+                    : "❌ Não há rota para remover.";
+        }
+        TextChannel channel = guild.getTextChannelById(channelId);
+        if (channel == null) {
+            return "❌ Escolha um canal de texto deste servidor.";
+        }
+        if (!channel.canTalk()) {
+            return "❌ O bot não tem permissão para enviar mensagens em " + channel.getAsMention() + ".";
+        }
+        routing.setRoute(guild.getIdLong(), type, channelId, member.getIdLong());
+        return "✅ " + scope + " agora vão para " + channel.getAsMention() + ".";
+    }
+
+    private String describeRoutes(long guildId) {
+        List<LogRoute> routes = routing.getRoutes(guildId);
+        if (routes.isEmpty()) {
+            return "📍 Nenhuma rota configurada: os logs vão para o canal padrão do bot.";
+        }
+        StringBuilder response = new StringBuilder("📍 **Rotas de logs:**\n");
+        routes.stream()
+                .sorted(Comparator.comparing(route -> route.eventType == null ? "" : route.eventType.name()))
+                .forEach(route -> response.append("• ")
+                        .append(route.eventType == null ? "Todos os eventos" : route.eventType.emoji() + " " + route.eventType)
+                        .append(" → <#").append(route.channelId).append(">\n"));
+        return response.toString();
+    }
+
+    // O arquivo é gerado fora do executor de comandos; a resposta chega quando ele fica pronto
+    private void handleExportCommand(MessageReceivedEvent event, long guildId, String[] args) {
+        Member member = event.getMember();
+        if (member == null || !member.hasPermission(Permission.MANAGE_SERVER)) {
+            event.getChannel().sendMessage("❌ Só quem pode gerenciar o servidor exporta os logs.").queue();
+            return;
+        }
+        if (args.length < 4) {
+            event.getChannel().sendMessage("❌ Informe o intervalo. Use: " + LogFilterParser.EXPORT_USAGE).queue();
+            return;
+        }
+        CompletableFuture<LogExportService.Result> export;
+        try {
+            export = exportService.submit(LogFilterParser.parseExport(guildId, args[2], args[3],
+                    Arrays.asList(args).subList(4, args.length)));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            event.getChannel().sendMessage("❌ " + e.getMessage()).queue();
+            return;
+        }
+        event.getChannel().sendMessage("⏳ Exportando os logs; o arquivo será enviado aqui quando ficar pronto.").queue();
+        export.whenComplete((result, error) -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                LOGGER.error("Erro na exportação de logs: " + cause.getMessage(), cause);
+                event.getChannel().sendMessage("❌ Erro na exportação: " + cause.getMessage()).queue();
+            } else if (result.rows() == 0) {
+                event.getChannel().sendMessage("📦 Nenhum log no intervalo.").queue();
+            } else if (exportService.fitsAttachment(result)) {
+                event.getChannel().sendMessage("📦 " + result.rows() + " logs exportados.")
+                        .addFiles(FileUpload.fromData(result.file().toFile()))
+                        .queue();
+            } else {
+                event.getChannel().sendMessage("📦 " + result.rows() + " logs exportados. O arquivo tem "
+                        + result.bytes() / (1024 * 1024) + " MB, acima do limite de anexos, e ficou no servidor: "
+                        + result.file().getFileName()).queue();
             }
+        });
+    }
 
-            sendLogsResponse(event, logs, String.format("Logs das últimas %d horas (limitado a %d resultados)", hours, maxResults));
-        } catch (NumberFormatException e) {
+    private Uni<Void> handlePeriodLogsCommand(MessageReceivedEvent event, long guildId, String period, String limit) {
+        Duration duration;
+        int maxResults;
+        try {
+            duration = LogFilterParser.parsePeriod(period);
+            maxResults = Integer.parseInt(limit);
+        } catch (IllegalArgumentException e) {
             event.getChannel().sendMessage("❌ Formato inválido. Use: !logs period 1h 5 (onde 1h é o período e 5 é o limite)").queue();
+            return Uni.createFrom().voidItem();
+        }
+
+        if (maxResults > MAX_PAGE_SIZE) {
+            event.getChannel().sendMessage("❌ O limite máximo de resultados é " + MAX_PAGE_SIZE + ".").queue();
+            return Uni.createFrom().voidItem();
         }
+
+        OffsetDateTime end = OffsetDateTime.now();
+        OffsetDateTime start = end.minus(duration);
+
+        // O LIMIT e a ordenação são aplicados no banco
+        return queries.submit(() -> loggingService.getLogs(LogQuery.forGuild(guildId).between(start, end).limit(maxResults)))
+                .invoke(page -> sendLogsResponse(event, page.logs(),
+                        String.format("Logs do período de %s (limitado a %d resultados)", period, maxResults)))
+                .replaceWithVoid();
     }
 
-    private void sendLogsResponse(MessageReceivedEvent event, List<ServerLog> logs, String title) {
-        if (logs.isEmpty()) {
-            event.getChannel().sendMessage("📝 Nenhum log encontrado.").queue();
-            return;
+    private Uni<Void> handleFilterLogsCommand(MessageReceivedEvent event, long guildId, String[] args) {
+        LogQuery query;
+        try {
+            query = LogFilterParser.parse(guildId, args, 2, MAX_PAGE_SIZE);
+        } catch (IllegalArgumentException e) {
+            event.getChannel().sendMessage("❌ " + e.getMessage()).queue();
+            return Uni.createFrom().voidItem();
         }
 
-        StringBuilder response = new StringBuilder();
-        response.append("📝 **").append(title).append(":**\n\n");
-        
-        for (ServerLog log : logs) {
-            // Adiciona emoji baseado no tipo de evento
-            String eventEmoji = getEventEmoji(log.eventType);
-            response.append(eventEmoji).append(" **").append(log.eventType).append("**\n");
-            response.append("📄 ").append(log.description).append("\n");
-            
-            if (log.username != null) {
-                response.append("👤 Usuário: ").append(log.username).append("\n");
-            }
-            if (log.channelName != null) {
-                response.append("📺 Canal: ").append(log.channelName).append("\n");
+        return paginator.send(event, query, "Logs filtrados");
+    }
+
+    private Uni<Void> handleSearchLogsCommand(MessageReceivedEvent event, long guildId, String[] args) {
+        int start = 2;
+        Long channelId = null;
+        if (args.length > start && args[start].startsWith("<#")) {
+            channelId = LogFilterParser.parseSnowflake(args[start]);
+            start++;
+        }
+        if (args.length <= start) {
+            event.getChannel().sendMessage("❌ Informe o que buscar. Exemplo: !logs search [#canal] termos").queue();
+            return Uni.createFrom().voidItem();
+        }
+        String terms = String.join(" ", Arrays.copyOfRange(args, start, args.length));
+        Long channel = channelId;
+        return queries.submit(() -> searchLogs(guildId, channel, terms)).chain(result -> {
+            if (result.error() != null) {
+                event.getChannel().sendMessage(result.error()).queue();
+                return Uni.createFrom().voidItem();
             }
-            response.append("⏰ Data: ").append(log.createdAt).append("\n");
-            response.append("-------------------\n");
+            return paginator.send(event, result.source(), result.title());
+        });
+    }
+
+    private record LogSearchResult(LogPaginator.PageSource source, String title, String error) {
+    }
+
+    private LogSearchResult searchLogs(long guildId, Long channelId, String terms) {
+        if (!searchService.isEnabled()) {
+            return new LogSearchResult(null, null, "❌ A busca de mensagens está desativada.");
+        }
+        List<Long> ids = searchService.search(guildId, channelId, terms);
+        String shown = terms.length() > MAX_TITLE_TERMS ? terms.substring(0, MAX_TITLE_TERMS) + "…" : terms;
+        String title = "Busca por \"" + shown + "\" (" + ids.size() + (ids.size() == 1 ? " resultado)" : " resultados)");
+        return new LogSearchResult(searchService.pages(ids, MAX_PAGE_SIZE), title, null);
+    }
+
+    private Uni<Void> handleStatsLogsCommand(MessageReceivedEvent event, long guildId, String period) {
+        Duration duration;
+        try {
+            duration = LogFilterParser.parsePeriod(period);
+        } catch (IllegalArgumentException e) {
+            event.getChannel().sendMessage("❌ Período inválido. Use: !logs stats 24h ou !logs stats 7d").queue();
+            return Uni.createFrom().voidItem();
         }
 
-        // Divide a mensagem em partes se for muito grande
-        String message = response.toString();
-        if (message.length() > 2000) {
-            String[] parts = message.split("-------------------");
-            StringBuilder currentPart = new StringBuilder();
-            
-            for (String part : parts) {
-                if ((currentPart.length() + part.length() + 20) > 2000) {
-                    event.getChannel().sendMessage(currentPart.toString()).queue();
-                    currentPart = new StringBuilder();
-                }
-                currentPart.append(part).append("-------------------\n");
-            }
-            
-            if (currentPart.length() > 0) {
-                event.getChannel().sendMessage(currentPart.toString()).queue();
-            }
-        } else {
+        return queries.submit(() -> buildStatsResponse(guildId, period, duration))
+                .invoke(response -> event.getChannel().sendMessage(response).queue())
+                .replaceWithVoid();
+    }
+
+    // Responde a partir dos rollups, independente do tamanho da tabela de logs
+    private String buildStatsResponse(long guildId, String period, Duration duration) {
+        Map<String, Long> byType = loggingService.getStats(guildId, LogRollup.Dimension.EVENT_TYPE, duration);
+        Map<String, Long> byChannel = loggingService.getStats(guildId, LogRollup.Dimension.CHANNEL, duration);
+        Map<String, Long> byUser = loggingService.getStats(guildId, LogRollup.Dimension.USER, duration);
+
+        long total = byType.values().stream().mapToLong(Long::longValue).sum();
+        if (total == 0) {
+            return "📊 Nenhum evento registrado no período de " + period + ".";
+        }
+
+        StringBuilder response = new StringBuilder();
+        response.append("📊 **Estatísticas do período de ").append(period).append(":**\n");
+        response.append("Total: ").append(total).append(" eventos\n\n");
+
+        response.append("**Por tipo:**\n");
+        byType.forEach((type, count) ->
+            response.append(LogEventType.parse(type).emoji()).append(" ").append(type).append(": ").append(count).append("\n"));
+
+        response.append("\n**Canais mais ativos:**\n");
+        appendTopEntries(response, byChannel, "<#", ">");
+
+        response.append("\n**Usuários mais ativos:**\n");
+        appendTopEntries(response, byUser, "<@", ">");
+
+        return response.toString();
+    }
+
+    private void appendTopEntries(StringBuilder response, Map<String, Long> counts, String mentionPrefix, String mentionSuffix) {
+        counts.entrySet().stream().limit(STATS_TOP_ENTRIES).forEach(entry ->
+            response.append("• ").append(mentionPrefix).append(entry.getKey()).append(mentionSuffix)
+                    .append(": ").append(entry.getValue()).append("\n"));
+    }
+
+    private void sendLogsResponse(MessageReceivedEvent event, List<ServerLog> logs, String title) {
+        for (String message : LogResponseFormatter.format(logs, title, null)) {
             event.getChannel().sendMessage(message).queue();
         }
     }
 
-    private String getEventEmoji(String eventType) {
-        switch (eventType) {
-            case "MESSAGE": return "💬";
-            case "MESSAGE_UPDATE": return "✏️";
-            case "MESSAGE_DELETE": return "🗑️";
-            case "CHANNEL_CREATE": return "📝";
-            case "CHANNEL_DELETE": return "❌";
-            case "VOICE_STATE_UPDATE": return "🔊";
-            case "MEMBER_KICK": return "👢";
-            case "MEMBER_BAN": return "🔨";
-            case "MEMBER_TIMEOUT": return "⏳";
-            case "MEMBER_UNBAN": return "🔓";
-            default: return "📋";
+    // A primeira página substitui o "pensando..." da resposta adiada; as demais vão como follow-ups
+    private void sendLogsResponse(InteractionHook hook, List<ServerLog> logs, String title) {
+        List<String> messages = LogResponseFormatter.format(logs, title, null);
+        hook.editOriginal(messages.get(0)).queue();
+        for (int i = 1; i < messages.size(); i++) {
+            hook.sendMessage(messages.get(i)).queue();
         }
     }
 
-    private void handleUserLogsCommand(MessageReceivedEvent event, String userMention) {
+    private Uni<Void> handleUserLogsCommand(MessageReceivedEvent event, long guildId, String userMention, String cursor) {
         // Remove os caracteres de menção do ID do usuário
-        String userId = userMention.replaceAll("[<@!>]", "");
+        long userId = LogFilterParser.parseSnowflake(userMention);
         
-        List<ServerLog> logs = loggingService.getLogsByUserId(userId);
-        sendLogsResponse(event, logs, "Logs do usuário");
+        return paginator.send(event, LogQuery.forGuild(guildId).user(userId).after(cursor).limit(MAX_PAGE_SIZE), "Logs do usuário");
     }
 
-    private void handleTypeLogsCommand(MessageReceivedEvent event, String eventType) {
-        List<ServerLog> logs = loggingService.getLogsByEventType(eventType.toUpperCase());
-        sendLogsResponse(event, logs, "Logs do tipo " + eventType.toUpperCase());
+    private Uni<Void> handleTypeLogsCommand(MessageReceivedEvent event, long guildId, String eventType, String cursor) {
+        LogEventType type = LogEventType.parse(eventType);
+        return paginator.send(event, LogQuery.forGuild(guildId).eventType(type).after(cursor).limit(MAX_PAGE_SIZE), "Logs do tipo " + type);
+    }
+
+    @Override
+    public void onButtonInteraction(ButtonInteractionEvent event) {
+        if (event.getComponentId().startsWith(LogPaginator.BUTTON_PREFIX)) {
+            paginator.handleButton(event);
+        }
+    }
+
+    @Override
+    public void onCommandAutoCompleteInteraction(CommandAutoCompleteInteractionEvent event) {
+        if (LogSlashCommands.NAME.equals(event.getName())
+                && LogSlashCommands.OPTION_TYPE.equals(event.getFocusedOption().getName())) {
+            event.replyChoices(LogSlashCommands.eventTypeChoices(event.getFocusedOption().getValue())).queue();
+        }
+    }
+
+    /**
+     * Executa o /logs fora da thread do gateway. A interação já foi confirmada com deferReply pelo
+     * StripedEventManager, então a resposta sempre sai pelo hook, sem o limite de 3 segundos. No modo
+     * ASYNC de {@code logs.persistence.mode} a faixa só agenda a consulta; o hook é editado no callback.
+     */
+    @Override
+    public void onSlashCommandInteraction(SlashCommandInteractionEvent event) {
+        if (!LogSlashCommands.NAME.equals(event.getName()) || event.getSubcommandName() == null) {
+            return;
+        }
+        InteractionHook hook = event.getHook();
+        String subCommand = event.getSubcommandName();
+        long start = System.nanoTime();
+        Uni.createFrom().deferred(() -> handleSlashCommand(event, hook, subCommand))
+                .onTermination().invoke(() -> metrics.recordCommand(subCommand, start))
+                .subscribe().with(done -> { }, error -> {
+                    if (error instanceof RejectedExecutionException) {
+                        hook.editOriginal(error.getMessage()).queue();
+                    } else if (error instanceof IllegalArgumentException) {
+                        hook.editOriginal("❌ " + error.getMessage()).queue();
+                    } else {
+                        LOGGER.error("Erro ao processar comando: " + error.getMessage(), error);
+                        hook.editOriginal("❌ Erro ao processar comando: " + error.getMessage()).queue();
+                    }
+                });
+    }
+
+    private Uni<Void> handleSlashCommand(SlashCommandInteractionEvent event, InteractionHook hook, String subCommand) {
+        if (!event.isFromGuild()) {
+            hook.editOriginal("❌ Os comandos de logs só funcionam dentro de um servidor.").queue();
+            return Uni.createFrom().voidItem();
+        }
+        long guildId = event.getGuild().getIdLong();
+        String cursor = event.getOption(LogSlashCommands.OPTION_CURSOR, OptionMapping::getAsString);
+
+        switch (subCommand) {
+            case "recent" -> {
+                int limit = event.getOption(LogSlashCommands.OPTION_LIMIT, LATEST_LOGS_LIMIT, OptionMapping::getAsInt);
+                return queries.submit(() -> loggingService.getLogs(LogQuery.forGuild(guildId).limit(limit)))
+                        .invoke(page -> sendLogsResponse(hook, page.logs(), "Últimos " + limit + " logs"))
+                        .replaceWithVoid();
+            }
+            case "user" -> {
+                long userId = event.getOption(LogSlashCommands.OPTION_USER, OptionMapping::getAsLong);
+                return paginator.send(hook, event.getUser().getIdLong(),
+                        LogQuery.forGuild(guildId).user(userId).after(cursor).limit(MAX_PAGE_SIZE), "Logs do usuário");
+            }
+            case "type" -> {
+                LogEventType type = LogEventType.parse(event.getOption(LogSlashCommands.OPTION_TYPE, OptionMapping::getAsString));
+                return paginator.send(hook, event.getUser().getIdLong(),
+                        LogQuery.forGuild(guildId).eventType(type).after(cursor).limit(MAX_PAGE_SIZE), "Logs do tipo " + type);
+            }
+            case "period" -> {
+                String period = event.getOption(LogSlashCommands.OPTION_PERIOD, OptionMapping::getAsString);
+                int limit = event.getOption(LogSlashCommands.OPTION_LIMIT, MAX_PAGE_SIZE, OptionMapping::getAsInt);
+                OffsetDateTime end = OffsetDateTime.now();
+                LogQuery query = LogQuery.forGuild(guildId).between(end.minus(LogFilterParser.parsePeriod(period)), end).limit(limit);
+                return queries.submit(() -> loggingService.getLogs(query))
+                        .invoke(page -> sendLogsResponse(hook, page.logs(),
+                                String.format("Logs do período de %s (limitado a %d resultados)", period, limit)))
+                        .replaceWithVoid();
+            }
+            case "search" -> {
+                Long channelId = event.getOption(LogSlashCommands.OPTION_CHANNEL, OptionMapping::getAsLong);
+                String terms = event.getOption(LogSlashCommands.OPTION_TERMS, OptionMapping::getAsString);
+                return queries.submit(() -> searchLogs(guildId, channelId, terms)).chain(result -> {
+                    if (result.error() != null) {
+                        hook.editOriginal(result.error()).queue();
+                        return Uni.createFrom().voidItem();
+                    }
+                    return paginator.send(hook, event.getUser().getIdLong(), result.source(), result.title());
+                });
+            }
+            case "stats" -> {
+                String period = event.getOption(LogSlashCommands.OPTION_PERIOD, "24h", OptionMapping::getAsString);
+                Duration duration = LogFilterParser.parsePeriod(period);
+                return queries.submit(() -> buildStatsResponse(guildId, period, duration))
+                        .invoke(response -> hook.editOriginal(response).queue())
+                        .replaceWithVoid();
+            }
+            case "route" -> {
+                String type = event.getOption(LogSlashCommands.OPTION_TYPE, OptionMapping::getAsString);
+                hook.editOriginal(changeRoute(event.getMember(), event.getGuild(),
+                        event.getOption(LogSlashCommands.OPTION_CHANNEL, OptionMapping::getAsLong),
+                        type != null ? LogEventType.parse(type) : null)).queue();
+            }
+            case "routes" -> hook.editOriginal(describeRoutes(guildId)).queue();
+            default -> hook.editOriginal("❌ Subcomando desconhecido.").queue();
+        }
+        return Uni.createFrom().voidItem();
     }
 
     @Override
@@ -316,80 +873,128 @@ public class DiscordBotService extends ListenerAdapter {
         if (event.getAuthor().isBot()) return;
         
         // Processa comandos
-        if (event.getMessage().getContentRaw().startsWith(COMMAND_PREFIX)) {
+        if (textCommands && event.getMessage().getContentRaw().startsWith(COMMAND_PREFIX)) {
             processCommand(event);
             return;
         }
 
         // Loga a mensagem
         loggingService.createLog(
-            event.getAuthor().getId(),
+            event.getAuthor().getIdLong(),
             event.getAuthor().getName(),
-            "MESSAGE_SENT",
+            LogEventType.MESSAGE_SENT,
             "Mensagem enviada no canal " + event.getChannel().getName(),
-            event.getChannel().getId(),
+            event.getChannel().getIdLong(),
             event.getChannel().getName(),
-            event.getGuild().getId(),
+            event.getGuild().getIdLong(),
             event.getMessage().getContentDisplay()
         );
+        // Quando ela for editada ou apagada, o Discord não manda mais o autor nem o texto antigo
+        messageCache.remember(event.getMessageIdLong(), event.getAuthor().getIdLong(),
+            event.getAuthor().getName(), event.getMessage().getContentDisplay());
     }
 
     @Override
     public void onMessageUpdate(MessageUpdateEvent event) {
         if (event.getAuthor().isBot()) return;
 
+        String content = event.getMessage().getContentDisplay();
+        String description = "Mensagem editada no canal " + event.getChannel().getName();
+        MessageContentCache.CachedMessage before = messageCache.find(event.getMessageIdLong());
+        String change = before != null ? MessageContentCache.editSummary(before.content(), content) : null;
+        if (change != null) {
+            description += ": " + change;
+        }
+
         loggingService.createLog(
-            event.getAuthor().getId(),
+            event.getAuthor().getIdLong(),
             event.getAuthor().getName(),
-            "MESSAGE_EDITED",
-            "Mensagem editada no canal " + event.getChannel().getName(),
-            event.getChannel().getId(),
+            LogEventType.MESSAGE_EDITED,
+            description,
+            event.getChannel().getIdLong(),
             event.getChannel().getName(),
-            event.getGuild().getId(),
-            event.getMessage().getContentDisplay()
+            event.getGuild().getIdLong(),
+            content
         );
+        messageCache.remember(event.getMessageIdLong(), event.getAuthor().getIdLong(),
+            event.getAuthor().getName(), content);
     }
 
     @Override
     public void onMessageDelete(MessageDeleteEvent event) {
+        // Sem a mensagem no cache (antiga ou de antes do bot iniciar), autor e conteúdo ficam desconhecidos
+        MessageContentCache.CachedMessage deleted = messageCache.take(event.getMessageIdLong());
+        boolean known = deleted != null;
         loggingService.createLog(
-            "SYSTEM",
-            "Sistema",
-            "MESSAGE_DELETED",
+            known ? deleted.authorId() : null,
+            known ? deleted.authorName() : null,
+            LogEventType.MESSAGE_DELETED,
             "Mensagem deletada no canal " + event.getChannel().getName(),
-            event.getChannel().getId(),
+            event.getChannel().getIdLong(),
             event.getChannel().getName(),
-            event.getGuild().getId(),
-            "Mensagem deletada"
+            event.getGuild().getIdLong(),
+            known && !deleted.content().isEmpty() ? deleted.content() : "Mensagem deletada"
         );
     }
 
     @Override
     public void onChannelCreate(ChannelCreateEvent event) {
         loggingService.createLog(
-            "SYSTEM",
-            "Sistema",
-            "CHANNEL_CREATED",
+            null,
+            null,
+            LogEventType.CHANNEL_CREATED,
             "Canal criado: " + event.getChannel().getName(),
-            event.getChannel().getId(),
+            event.getChannel().getIdLong(),
             event.getChannel().getName(),
-            event.getGuild().getId(),
+            event.getGuild().getIdLong(),
             "Canal criado"
         );
     }
 
     @Override
     public void onChannelDelete(ChannelDeleteEvent event) {
-        loggingService.createLog(
-            "SYSTEM",
-            "Sistema",
-            "CHANNEL_DELETED",
+        routing.invalidateChannel(event.getChannel().getIdLong());
+        ServerLog log = loggingService.createLog(
+            null,
+            null,
+            LogEventType.CHANNEL_DELETED,
             "Canal deletado: " + event.getChannel().getName(),
-            event.getChannel().getId(),
+            event.getChannel().getIdLong(),
             event.getChannel().getName(),
-            event.getGuild().getId(),
+            event.getGuild().getIdLong(),
             "Canal deletado"
         );
+        moderationAudit.enrich(event.getGuild(), log, event.getChannel().getIdLong());
+    }
+
+    // Mudanças de permissão podem tirar (ou devolver) o acesso do bot a um canal de logs
+    @Override
+    public void onGenericPermissionOverride(GenericPermissionOverrideEvent event) {
+        routing.invalidateChannel(event.getChannel().getIdLong());
+    }
+
+    @Override
+    public void onRoleUpdatePermissions(RoleUpdatePermissionsEvent event) {
+        routing.invalidateAll();
+    }
+
+    @Override
+    public void onRoleDelete(RoleDeleteEvent event) {
+        routing.invalidateAll();
+    }
+
+    @Override
+    public void onGuildMemberRoleAdd(GuildMemberRoleAddEvent event) {
+        if (event.getUser().getIdLong() == event.getJDA().getSelfUser().getIdLong()) {
+            routing.invalidateAll();
+        }
+    }
+
+    @Override
+    public void onGuildMemberRoleRemove(GuildMemberRoleRemoveEvent event) {
+        if (event.getUser().getIdLong() == event.getJDA().getSelfUser().getIdLong()) {
+            routing.invalidateAll();
+        }
     }
 
     @Override
@@ -397,37 +1002,37 @@ public class DiscordBotService extends ListenerAdapter {
         if (event.getChannelJoined() != null && event.getChannelLeft() == null) {
             // Usuário entrou em um canal de voz
             loggingService.createLog(
-                event.getMember().getId(),
+                event.getMember().getIdLong(),
                 event.getMember().getEffectiveName(),
-                "VOICE_JOINED",
+                LogEventType.VOICE_JOINED,
                 "Entrou no canal de voz: " + event.getChannelJoined().getName(),
-                event.getChannelJoined().getId(),
+                event.getChannelJoined().getIdLong(),
                 event.getChannelJoined().getName(),
-                event.getGuild().getId(),
+                event.getGuild().getIdLong(),
                 "Entrou no canal de voz"
             );
         } else if (event.getChannelJoined() == null && event.getChannelLeft() != null) {
             // Usuário saiu de um canal de voz
             loggingService.createLog(
-                event.getMember().getId(),
+                event.getMember().getIdLong(),
                 event.getMember().getEffectiveName(),
-                "VOICE_LEFT",
+                LogEventType.VOICE_LEFT,
                 "Saiu do canal de voz: " + event.getChannelLeft().getName(),
-                event.getChannelLeft().getId(),
+                event.getChannelLeft().getIdLong(),
                 event.getChannelLeft().getName(),
-                event.getGuild().getId(),
+                event.getGuild().getIdLong(),
                 "Saiu do canal de voz"
             );
         } else if (event.getChannelJoined() != null && event.getChannelLeft() != null) {
             // Usuário mudou de canal de voz
             loggingService.createLog(
-                event.getMember().getId(),
+                event.getMember().getIdLong(),
                 event.getMember().getEffectiveName(),
-                "VOICE_MOVED",
+                LogEventType.VOICE_MOVED,
                 "Mudou do canal " + event.getChannelLeft().getName() + " para " + event.getChannelJoined().getName(),
-                event.getChannelJoined().getId(),
+                event.getChannelJoined().getIdLong(),
                 event.getChannelJoined().getName(),
-                event.getGuild().getId(),
+                event.getGuild().getIdLong(),
                 "Mudou de canal de voz"
             );
         }
@@ -435,74 +1040,79 @@ public class DiscordBotService extends ListenerAdapter {
 
     @Override
     public void onGuildMemberRemove(GuildMemberRemoveEvent event) {
-        loggingService.createLog(
-            event.getUser().getId(),
+        // Expulsões chegam como saídas; o audit log decide depois se vira MEMBER_KICKED
+        ServerLog log = loggingService.createLog(
+            event.getUser().getIdLong(),
             event.getUser().getName(),
-            "MEMBER_LEFT",
+            LogEventType.MEMBER_LEFT,
             "Membro saiu do servidor",
-            "SYSTEM",
-            "Sistema",
-            event.getGuild().getId(),
+            null,
+            null,
+            event.getGuild().getIdLong(),
             "Saiu do servidor"
         );
+        moderationAudit.enrich(event.getGuild(), log, event.getUser().getIdLong());
     }
 
     @Override
     public void onGuildBan(GuildBanEvent event) {
-        loggingService.createLog(
-            event.getUser().getId(),
+        ServerLog log = loggingService.createLog(
+            event.getUser().getIdLong(),
             event.getUser().getName(),
-            "MEMBER_BANNED",
+            LogEventType.MEMBER_BANNED,
             "Membro banido do servidor",
-            "SYSTEM",
-            "Sistema",
-            event.getGuild().getId(),
+            null,
+            null,
+            event.getGuild().getIdLong(),
             "Banido do servidor"
         );
+        moderationAudit.enrich(event.getGuild(), log, event.getUser().getIdLong());
     }
 
     @Override
     public void onGuildMemberUpdateTimeOut(GuildMemberUpdateTimeOutEvent event) {
         if (event.getNewTimeOutEnd() != null) {
             Duration timeoutDuration = Duration.between(OffsetDateTime.now(), event.getNewTimeOutEnd());
-            loggingService.createLog(
-                event.getMember().getId(),
+            ServerLog log = loggingService.createLog(
+                event.getMember().getIdLong(),
                 event.getMember().getEffectiveName(),
-                "MEMBER_TIMEOUT",
+                LogEventType.MEMBER_TIMEOUT,
                 "Membro silenciado por " + timeoutDuration.toMinutes() + " minutos",
-                "SYSTEM",
-                "Sistema",
-                event.getGuild().getId(),
+                null,
+                null,
+                event.getGuild().getIdLong(),
                 "Silenciado por " + timeoutDuration.toMinutes() + " minutos"
             );
+            moderationAudit.enrich(event.getGuild(), log, event.getMember().getIdLong());
         }
     }
 
     @Override
     public void onGuildUnban(GuildUnbanEvent event) {
-        loggingService.createLog(
-            event.getUser().getId(),
+        ServerLog log = loggingService.createLog(
+            event.getUser().getIdLong(),
             event.getUser().getName(),
-            "MEMBER_UNBANNED",
+            LogEventType.MEMBER_UNBANNED,
             "Membro desbanido do servidor",
-            "SYSTEM",
-            "Sistema",
-            event.getGuild().getId(),
+            null,
+            null,
+            event.getGuild().getIdLong(),
             "Desbanido do servidor"
         );
+        moderationAudit.enrich(event.getGuild(), log, event.getUser().getIdLong());
     }
 
     protected void sendLogToChannel(String message) {
         try {
-            LOGGER.info("Tentando enviar mensagem para o canal de log: " + message);
-            TextChannel channel = jda.getTextChannelById(logChannelId);
+            LOGGER.debug("Tentando enviar mensagem para o canal de log: " + message);
+            TextChannel channel = getTextChannelById(logChannelId);
             
             if (channel == null) {
                 LOGGER.error("Canal de log não encontrado! ID: " + logChannelId);
                 return;
             }
             
-            LOGGER.info("Canal de log encontrado: " + channel.getName());
+            LOGGER.debug("Canal de log encontrado: " + channel.getName());
             
             if (!channel.canTalk()) {
                 LOGGER.error("O bot não tem permissão para enviar mensagens no canal de log!");
@@ -510,7 +1120,7 @@ public class DiscordBotService extends ListenerAdapter {
             }
             
             channel.sendMessage(message).queue(
-                success -> LOGGER.info("Mensagem enviada com sucesso para o canal de log"),
+                success -> LOGGER.debug("Mensagem enviada com sucesso para o canal de log"),
                 error -> LOGGER.error("Erro ao enviar mensagem para o canal de log: " + error.getMessage())
             );
         } catch (Exception e) {
@@ -0,0 +1,114 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogPage;
+import io.quarkus.manikomio.model.LogQuery;
+import io.quarkus.manikomio.model.ServerLog;
+import io.quarkus.manikomio.repository.ServerLogRepository;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Move os logs mais antigos que {@code logs.archive.after-days} do banco para segmentos do arquivo
+ * frio. As linhas são lidas em blocos e movidas num segmento de até {@code logs.archive.segment-rows}
+ * linhas; o DELETE pelos ids e a gravação do segmento são uma transação só (ver
+ * {@link ServerLogRepository#moveToArchive}).
+ * <p>
+ * Os segmentos ficam no disco do nó, então cada nó arquiva só as guilds dos próprios shards: são
+ * elas que ele consulta, e nós diferentes nunca disputam as mesmas linhas. Logs sem guild (eventos
+ * do sistema) ficam no banco.
+ */
+@ApplicationScoped
+public class LogArchiveService {
+
+    private static final Logger LOGGER = Logger.getLogger(LogArchiveService.class);
+
+    @Inject
+    ServerLogRepository logRepository;
+
+    @Inject
+    DiscordBotService discordBotService;
+
+    @ConfigProperty(name = "logs.archive.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "logs.archive.after-days", defaultValue = "30")
+    int afterDays;
+
+    @ConfigProperty(name = "logs.archive.segment-rows", defaultValue = "100000")
+    int segmentRows;
+
+    @ConfigProperty(name = "logs.archive.chunk-size", defaultValue = "5000")
+    int chunkSize;
+
+    private final AtomicLong archivedRows = new AtomicLong();
+
+    @Scheduled(every = "${logs.archive.interval:1h}", delayed = "${logs.archive.initial-delay:2m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void runArchiver() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // Corte no início do dia (UTC) para que cada execução feche dias inteiros
+            OffsetDateTime cutoff = LocalDate.now(ZoneOffset.UTC).minusDays(afterDays).atStartOfDay().atOffset(ZoneOffset.UTC);
+            long archived = archiveBefore(cutoff);
+            if (archived > 0) {
+                LOGGER.info("Arquivados " + archived + " logs anteriores a " + cutoff);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Erro no arquivamento dos logs: " + e.getMessage(), e);
+        }
+    }
+
+    long archiveBefore(OffsetDateTime cutoff) throws IOException {
+        // Guilds pequenas dividem o mesmo segmento: o lote acumula linhas de várias guilds
+        List<ServerLog> batch = new ArrayList<>();
+        long total = 0;
+        for (Long guildId : logRepository.findGuildsBefore(cutoff)) {
+            if (!discordBotService.isLocalGuild(guildId)) {
+                continue;
+            }
+            // O cursor fica depois das linhas já apagadas, então a leitura segue de onde parou
+            LogQuery query = new LogQuery().guild(guildId).to(cutoff.minusNanos(1_000))
+                    .sort(LogQuery.SortOrder.OLDEST_FIRST).limit(chunkSize);
+            boolean more = true;
+            while (more) {
+                LogPage page = logRepository.findHotChunk(query);
+                batch.addAll(page.logs());
+                more = page.hasMore();
+                query.after(page.nextCursor());
+                if (batch.size() >= segmentRows) {
+                    total += archive(batch);
+                }
+            }
+        }
+        return total + archive(batch);
+    }
+
+    // Move o lote para um segmento e esvazia o lote
+    private int archive(List<ServerLog> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        logRepository.moveToArchive(batch, chunkSize);
+        int archived = batch.size();
+        archivedRows.addAndGet(archived);
+        batch.clear();
+        return archived;
+    }
+
+    public long getArchivedRows() {
+        return archivedRows.get();
+    }
+}
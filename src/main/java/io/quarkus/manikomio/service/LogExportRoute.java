@@ -0,0 +1,163 @@
+package io.quarkus.manikomio.service;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * API local de exportação: {@code GET /logs/export?guild=&from=&to=[&user=&channel=&type=&format=]}
+ * responde com o arquivo gzip, escrito enquanto os blocos são lidos do banco. Só aceita conexões
+ * da própria máquina.
+ */
+@ApplicationScoped
+public class LogExportRoute {
+
+    private static final Logger LOGGER = Logger.getLogger(LogExportRoute.class);
+
+    static final String PATH = "/logs/export";
+    private static final List<String> FILTERS = List.of("user", "channel", "type", "format");
+
+    @Inject
+    LogExportService exportService;
+
+    @ConfigProperty(name = "logs.export.http-enabled", defaultValue = "true")
+    boolean enabled;
+
+    void register(@Observes Router router) {
+        if (enabled) {
+            // A exportação bloqueia esperando o banco e o cliente: roda fora do event loop
+            router.get(PATH).blockingHandler(this::export, false);
+        }
+    }
+
+    private void export(RoutingContext ctx) {
+        HttpServerResponse response = ctx.response();
+        if (!isLocal(ctx.request().remoteAddress().host())) {
+            response.setStatusCode(403).end("A exportação só aceita conexões locais.\n");
+            return;
+        }
+        LogExportService.Request request;
+        try {
+            List<String> filters = new ArrayList<>();
+            for (String name : FILTERS) {
+                String value = ctx.request().getParam(name);
+                if (value != null && !value.isBlank()) {
+                    filters.add(name + ":" + value);
+                }
+            }
+            String guild = ctx.request().getParam("guild");
+            if (guild == null || ctx.request().getParam("from") == null || ctx.request().getParam("to") == null) {
+                throw new IllegalArgumentException("Parâmetros obrigatórios: guild, from e to.");
+            }
+            request = LogFilterParser.parseExport(LogFilterParser.parseSnowflake(guild),
+                    ctx.request().getParam("from"), ctx.request().getParam("to"), filters);
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400).end(e.getMessage() + "\n");
+            return;
+        }
+
+        response.setChunked(true)
+                .putHeader("Content-Type", "application/gzip")
+                .putHeader("Content-Disposition", "attachment; filename=\""
+                        + LogExportService.fileName(request.query(), request.format()) + "\"");
+        try {
+            long rows = exportService.stream(request, new ResponseOutputStream(response));
+            response.end();
+            LOGGER.info("Exportação HTTP concluída: " + rows + " logs da guild " + request.query().getGuildId());
+        } catch (Exception e) {
+            if (!response.headWritten()) {
+                // Nada foi enviado ainda: outra exportação em andamento ou erro antes do primeiro byte
+                boolean busy = e instanceof IllegalStateException;
+                if (!busy) {
+                    LOGGER.error("Erro na exportação HTTP: " + e.getMessage(), e);
+                }
+                response.headers().remove("Content-Disposition");
+                response.setChunked(false).setStatusCode(busy ? 409 : 500)
+                        .putHeader("Content-Type", "text/plain; charset=UTF-8").end(e.getMessage() + "\n");
+                return;
+            }
+            // Com a resposta já começada não há como mudar o status: a conexão é derrubada e o gzip fica truncado
+            LOGGER.error("Erro na exportação HTTP: " + e.getMessage(), e);
+            if (!response.closed()) {
+                response.reset();
+            }
+        }
+    }
+
+    static boolean isLocal(String host) {
+        try {
+            return InetAddress.getByName(host).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Escreve no HttpServerResponse respeitando a fila de escrita: quando o cliente lê devagar, a
+     * exportação espera em vez de acumular os dados em memória.
+     */
+    static final class ResponseOutputStream extends OutputStream {
+
+        private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+        private final HttpServerResponse response;
+
+        ResponseOutputStream(HttpServerResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (response.closed()) {
+                throw new IOException("Conexão encerrada pelo cliente");
+            }
+            response.write(Buffer.buffer(Arrays.copyOfRange(bytes, offset, offset + length)));
+            if (response.writeQueueFull()) {
+                awaitDrain();
+            }
+        }
+
+        private void awaitDrain() throws IOException {
+            CountDownLatch drained = new CountDownLatch(1);
+            response.drainHandler(ignored -> drained.countDown());
+            response.closeHandler(ignored -> drained.countDown());
+            // A fila pode ter esvaziado antes de o handler ser registrado
+            if (!response.writeQueueFull()) {
+                return;
+            }
+            try {
+                if (!drained.await(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    throw new IOException("Cliente não leu a exportação em " + DRAIN_TIMEOUT_SECONDS + "s");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Exportação interrompida");
+            }
+            if (response.closed()) {
+                throw new IOException("Conexão encerrada pelo cliente");
+            }
+        }
+    }
+}
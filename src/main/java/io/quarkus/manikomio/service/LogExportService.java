@@ -0,0 +1,350 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogPage;
+import io.quarkus.manikomio.model.LogQuery;
+import io.quarkus.manikomio.model.ServerLog;
+import io.quarkus.manikomio.repository.ServerLogRepository;
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exporta o histórico de logs em NDJSON ou CSV compactados com gzip.
+ * <p>
+ * Os logs do banco são lidos em blocos de {@code logs.export.chunk-size} linhas pela paginação keyset
+ * (created_at, id), cada bloco numa transação própria, e intercalados com uma varredura única do
+ * arquivo frio na mesma ordem; cada bloco é escrito no stream antes do próximo. A memória usada não
+ * depende do tamanho do intervalo e nenhuma transação fica aberta durante a exportação inteira. Só uma
+ * exportação roda por vez.
+ */
+@ApplicationScoped
+public class LogExportService {
+
+    private static final Logger LOGGER = Logger.getLogger(LogExportService.class);
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final Comparator<ServerLog> EXPORT_ORDER =
+            Comparator.comparing((ServerLog log) -> log.createdAt.toInstant()).thenComparingLong(log -> log.id);
+    static final String CSV_HEADER = "id,created_at,guild_id,event_type,user_id,username,channel_id,channel_name,moderator_id,description,message";
+
+    public enum Format {
+        NDJSON("ndjson"),
+        CSV("csv");
+
+        final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    /**
+     * Filtros e formato pedidos no comando ou na API local.
+     */
+    public record Request(LogQuery query, Format format) {
+    }
+
+    /**
+     * Arquivo gerado por {@link #submit}, com o número de logs e o tamanho compactado.
+     */
+    public record Result(Path file, long rows, long bytes) {
+    }
+
+    @Inject
+    ServerLogRepository logRepository;
+
+    @Inject
+    NameDictionaryService nameDictionary;
+
+    @ConfigProperty(name = "logs.export.directory", defaultValue = "data/exports")
+    String directory;
+
+    @ConfigProperty(name = "logs.export.chunk-size", defaultValue = "1000")
+    int chunkSize;
+
+    @ConfigProperty(name = "logs.export.max-attachment-mb", defaultValue = "25")
+    int maxAttachmentMb;
+
+    private final Semaphore running = new Semaphore(1);
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Gera o arquivo no diretório de exportação em segundo plano. Lança IllegalStateException se já
+     * houver uma exportação em andamento.
+     */
+    public CompletableFuture<Result> submit(Request request) {
+        acquire();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return exportToFile(request.query(), request.format());
+                } catch (IOException e) {
+                    throw new IllegalStateException("Erro ao gravar a exportação: " + e.getMessage(), e);
+                } finally {
+                    running.release();
+                }
+            }, executor);
+        } catch (RuntimeException e) {
+            running.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Escreve a exportação direto no stream (usado pela API HTTP local). Não fecha o stream.
+     * Lança IllegalStateException se já houver uma exportação em andamento.
+     */
+    public long stream(Request request, OutputStream out) throws IOException {
+        acquire();
+        try {
+            return write(request.query(), request.format(), out);
+        } finally {
+            running.release();
+        }
+    }
+
+    private void acquire() {
+        if (!running.tryAcquire()) {
+            throw new IllegalStateException("Já existe uma exportação em andamento; tente de novo quando ela terminar.");
+        }
+    }
+
+    private Result exportToFile(LogQuery query, Format format) throws IOException {
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        Path file = dir.resolve(fileName(query, format));
+        // O arquivo só aparece com o nome final depois de completo
+        Path partial = dir.resolve(file.getFileName() + ".part");
+        long start = System.nanoTime();
+        long rows;
+        try (OutputStream out = Files.newOutputStream(partial)) {
+            rows = write(query, format, out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        long bytes = Files.size(file);
+        LOGGER.info("Exportação concluída: " + rows + " logs em " + file + " (" + bytes + " bytes, "
+                + (System.nanoTime() - start) / 1_000_000 + " ms)");
+        return new Result(file, rows, bytes);
+    }
+
+    static String fileName(LogQuery query, Format format) {
+        return "logs-" + query.getGuildId() + "-" + FILE_TIMESTAMP.format(query.getFrom().atZoneSameInstant(ZoneOffset.UTC))
+                + "-" + FILE_TIMESTAMP.format(query.getTo().atZoneSameInstant(ZoneOffset.UTC))
+                + "." + format.extension + ".gz";
+    }
+
+    /**
+     * Percorre os logs do filtro do mais antigo ao mais novo. Altera a ordenação, o limite e o
+     * cursor da consulta.
+     */
+    long write(LogQuery query, Format format, OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_BYTES);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_BYTES);
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        query.sort(LogQuery.SortOrder.OLDEST_FIRST).limit(chunkSize).after(null);
+        Iterator<ServerLog> archived = logRepository.scanArchive(query);
+        ServerLog nextArchived = archived.hasNext() ? archived.next() : null;
+        Deque<ServerLog> hot = new ArrayDeque<>();
+        boolean moreHot = true;
+        List<ServerLog> chunk = new ArrayList<>(chunkSize);
+        long rows = 0;
+        while (true) {
+            if (hot.isEmpty() && moreHot) {
+                LogPage page = logRepository.findHotChunk(query);
+                hot.addAll(page.logs());
+                moreHot = page.hasMore();
+                query.after(page.nextCursor());
+            }
+            ServerLog next;
+            if (!hot.isEmpty() && (nextArchived == null || EXPORT_ORDER.compare(hot.peekFirst(), nextArchived) <= 0)) {
+                next = hot.pollFirst();
+                // Log nas duas camadas (arquivamento interrompido): vale a versão do banco
+                if (nextArchived != null && nextArchived.id.equals(next.id)) {
+                    nextArchived = archived.hasNext() ? archived.next() : null;
+                }
+            } else if (nextArchived != null) {
+                next = nextArchived;
+                nextArchived = archived.hasNext() ? archived.next() : null;
+            } else {
+                break;
+            }
+            chunk.add(next);
+            if (chunk.size() == chunkSize) {
+                rows += writeChunk(writer, format, chunk);
+            }
+        }
+        rows += writeChunk(writer, format, chunk);
+        writer.flush();
+        gzip.finish();
+        return rows;
+    }
+
+    // Resolve os nomes do bloco, escreve e esvazia o bloco
+    private int writeChunk(Writer writer, Format format, List<ServerLog> chunk) throws IOException {
+        nameDictionary.resolve(chunk);
+        for (ServerLog log : chunk) {
+            if (format == Format.CSV) {
+                writeCsv(writer, log);
+            } else {
+                writeJson(writer, log);
+            }
+        }
+        int written = chunk.size();
+        chunk.clear();
+        return written;
+    }
+
+    private static void writeJson(Writer writer, ServerLog log) throws IOException {
+        writer.write("{\"id\":");
+        writer.write(String.valueOf(log.id));
+        writer.write(",\"created_at\":");
+        jsonString(writer, timestamp(log.createdAt));
+        writer.write(",\"guild_id\":");
+        writer.write(String.valueOf(log.guildId));
+        writer.write(",\"event_type\":");
+        jsonString(writer, log.eventType.name());
+        writer.write(",\"user_id\":");
+        writer.write(String.valueOf(log.userId));
+        writer.write(",\"username\":");
+        jsonString(writer, log.username);
+        writer.write(",\"channel_id\":");
+        writer.write(String.valueOf(log.channelId));
+        writer.write(",\"channel_name\":");
+        jsonString(writer, log.channelName);
+        writer.write(",\"moderator_id\":");
+        writer.write(String.valueOf(log.moderatorId));
+        writer.write(",\"description\":");
+        jsonString(writer, log.description);
+        writer.write(",\"message\":");
+        jsonString(writer, log.message);
+        writer.write("}\n");
+    }
+
+    private static void jsonString(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                }
+            }
+        }
+        writer.write('"');
+    }
+
+    private static void writeCsv(Writer writer, ServerLog log) throws IOException {
+        writer.write(String.valueOf(log.id));
+        writer.write(',');
+        writer.write(timestamp(log.createdAt));
+        writer.write(',');
+        csvValue(writer, log.guildId);
+        writer.write(',');
+        writer.write(log.eventType.name());
+        writer.write(',');
+        csvValue(writer, log.userId);
+        writer.write(',');
+        csvField(writer, log.username);
+        writer.write(',');
+        csvValue(writer, log.channelId);
+        writer.write(',');
+        csvField(writer, log.channelName);
+        writer.write(',');
+        csvValue(writer, log.moderatorId);
+        writer.write(',');
+        csvField(writer, log.description);
+        writer.write(',');
+        csvField(writer, log.message);
+        writer.write('\n');
+    }
+
+    private static void csvValue(Writer writer, Long value) throws IOException {
+        if (value != null) {
+            writer.write(value.toString());
+        }
+    }
+
+    // RFC 4180: campos com vírgula, aspas ou quebra de linha vão entre aspas, com as aspas duplicadas
+    private static void csvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String timestamp(OffsetDateTime time) {
+        return time == null ? null : DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(time.withOffsetSameInstant(ZoneOffset.UTC));
+    }
+
+    public boolean fitsAttachment(Result result) {
+        return result.bytes() <= maxAttachmentMb * 1024L * 1024L;
+    }
+}
@@ -0,0 +1,184 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogQuery;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Converte os argumentos do comando "!logs filter" em um {@link LogQuery}.
+ * Formato: chave:valor, por exemplo "user:@fulano type:MESSAGE_SENT period:24h limit:5".
+ */
+final class LogFilterParser {
+
+    static final String USAGE = "!logs filter [user:@usuario] [channel:#canal] [type:TIPO] [period:24h] [limit:N] [order:asc|desc]";
+    static final String EXPORT_USAGE = "!logs export <de> <até> [user:@usuario] [channel:#canal] [type:TIPO] [format:ndjson|csv]"
+            + " (datas como 2024-03-01 ou 2024-03-01T20:00Z)";
+
+    private LogFilterParser() {
+    }
+
+    static LogQuery parse(Long guildId, String[] args, int startIndex, int maxLimit) {
+        LogQuery query = LogQuery.forGuild(guildId);
+        for (int i = startIndex; i < args.length; i++) {
+            String arg = args[i];
+            int separator = arg.indexOf(':');
+            if (separator <= 0 || separator == arg.length() - 1) {
+                throw new IllegalArgumentException("Filtro inválido: " + arg + ". Use: " + USAGE);
+            }
+            String key = arg.substring(0, separator).toLowerCase(Locale.ROOT);
+            String value = arg.substring(separator + 1);
+
+            switch (key) {
+                case "user" -> query.user(parseSnowflake(value));
+                case "channel" -> query.channel(parseSnowflake(value));
+                case "type" -> query.eventType(LogEventType.parse(value));
+                case "period" -> {
+                    OffsetDateTime end = OffsetDateTime.now();
+                    query.between(end.minus(parsePeriod(value)), end);
+                }
+                case "limit" -> {
+                    int limit = parseNumber(value, "limite");
+                    if (limit > maxLimit) {
+                        throw new IllegalArgumentException("O limite máximo de resultados é " + maxLimit + ".");
+                    }
+                    query.limit(limit);
+                }
+                case "order" -> query.sort(value.equalsIgnoreCase("asc")
+                        ? LogQuery.SortOrder.OLDEST_FIRST
+                        : LogQuery.SortOrder.NEWEST_FIRST);
+                case "after" -> query.after(value);
+                default -> throw new IllegalArgumentException("Filtro desconhecido: " + key + ". Use: " + USAGE);
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Intervalo e filtros do "!logs export" e da API local. {@code filters} são pares chave:valor.
+     */
+    static LogExportService.Request parseExport(Long guildId, String from, String to, List<String> filters) {
+        OffsetDateTime start = parseDate(from, false);
+        OffsetDateTime end = parseDate(to, true);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("O início da exportação precisa ser antes do fim.");
+        }
+        LogQuery query = LogQuery.forGuild(guildId).between(start, end);
+        LogExportService.Format format = LogExportService.Format.NDJSON;
+        for (String filter : filters) {
+            int separator = filter.indexOf(':');
+            if (separator <= 0 || separator == filter.length() - 1) {
+                throw new IllegalArgumentException("Filtro inválido: " + filter + ". Use: " + EXPORT_USAGE);
+            }
+            String key = filter.substring(0, separator).toLowerCase(Locale.ROOT);
+            String value = filter.substring(separator + 1);
+            switch (key) {
+                case "user" -> query.user(parseSnowflake(value));
+                case "channel" -> query.channel(parseSnowflake(value));
+                case "type" -> query.eventType(LogEventType.parse(value));
+                case "format" -> format = switch (value.toLowerCase(Locale.ROOT)) {
+                    case "ndjson", "json" -> LogExportService.Format.NDJSON;
+                    case "csv" -> LogExportService.Format.CSV;
+                    default -> throw new IllegalArgumentException("Formato inválido: " + value + " (use ndjson ou csv)");
+                };
+                default -> throw new IllegalArgumentException("Filtro desconhecido: " + key + ". Use: " + EXPORT_USAGE);
+            }
+        }
+        return new LogExportService.Request(query, format);
+    }
+
+    /**
+     * Data ISO com ou sem horário; sem fuso, vale UTC. Uma data sem horário no fim do intervalo
+     * inclui o dia inteiro.
+     */
+    static OffsetDateTime parseDate(String value, boolean endOfRange) {
+        String text = value.trim();
+        try {
+            return OffsetDateTime.parse(text);
+        } catch (DateTimeParseException e) {
+            // Tenta sem fuso e só a data
+        }
+        try {
+            return LocalDateTime.parse(text).atOffset(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            // Tenta só a data
+        }
+        try {
+            LocalDate date = LocalDate.parse(text);
+            // O banco guarda microssegundos: o fim do dia é o último microssegundo antes da meia-noite
+            return endOfRange
+                    ? date.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC).minus(1, ChronoUnit.MICROS)
+                    : date.atStartOfDay().atOffset(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data inválida: " + value + " (use 2024-03-01 ou 2024-03-01T20:00Z)");
+        }
+    }
+
+    /**
+     * Interpreta períodos como "45s", "30m", "12h" ou "7d". Sem sufixo, o valor é em horas.
+     */
+    static Duration parsePeriod(String period) {
+        String value = period.trim().toLowerCase(Locale.ROOT);
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("Período vazio");
+        }
+        char unit = value.charAt(value.length() - 1);
+        String amount = Character.isDigit(unit) ? value : value.substring(0, value.length() - 1);
+        int number = parseNumber(amount, "período");
+        return switch (unit) {
+            case 's' -> Duration.ofSeconds(number);
+            case 'm' -> Duration.ofMinutes(number);
+            case 'd' -> Duration.ofDays(number);
+            case 'h' -> Duration.ofHours(number);
+            default -> {
+                if (!Character.isDigit(unit)) {
+                    throw new IllegalArgumentException("Unidade de período inválida: " + period + " (use s, m, h ou d)");
+                }
+                yield Duration.ofHours(number);
+            }
+        };
+    }
+
+    // Monta o comando da próxima página reaproveitando os filtros originais
+    static String nextPageCommand(String[] args, int startIndex, String cursor) {
+        StringBuilder command = new StringBuilder("!logs filter");
+        for (int i = startIndex; i < args.length; i++) {
+            if (!args[i].toLowerCase(Locale.ROOT).startsWith("after:")) {
+                command.append(' ').append(args[i]);
+            }
+        }
+        return command.append(" after:").append(cursor).toString();
+    }
+
+    /**
+     * Extrai o snowflake de uma menção (<@123>, <@!123>, <#123>) ou de um ID puro.
+     */
+    static long parseSnowflake(String value) {
+        String id = value.replaceAll("[<@!#&>]", "");
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("ID ou menção inválida: " + value);
+        }
+    }
+
+    private static int parseNumber(String value, String name) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number <= 0) {
+                throw new IllegalArgumentException("O " + name + " deve ser positivo: " + value);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para " + name + ": " + value);
+        }
+    }
+}
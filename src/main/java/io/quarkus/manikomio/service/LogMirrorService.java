@@ -0,0 +1,307 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.ServerLog;
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Espelha os logs no canal de logs do Discord escolhido pelo LogRoutingService.
+ * Agrupa até 10 embeds por mensagem e respeita um orçamento de requisições (token bucket) por canal
+ * de destino, como o limite de envio do Discord; quando o orçamento de um canal acaba, os eventos
+ * excedentes viram uma linha de resumo nesse canal, sem atrasar os demais.
+ */
+@ApplicationScoped
+public class LogMirrorService {
+
+    private static final Logger LOGGER = Logger.getLogger(LogMirrorService.class);
+
+    static final int MAX_EMBEDS_PER_MESSAGE = 10;
+    private static final int MAX_FIELD_LENGTH = MessageEmbed.VALUE_MAX_LENGTH;
+
+    @Inject
+    DiscordBotService discordBotService;
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    LogRoutingService routing;
+
+    @ConfigProperty(name = "logs.mirror.queue-capacity", defaultValue = "1000")
+    int queueCapacity;
+
+    @ConfigProperty(name = "logs.mirror.flush-interval-ms", defaultValue = "1000")
+    long flushIntervalMs;
+
+    @ConfigProperty(name = "logs.mirror.bucket-capacity", defaultValue = "5")
+    int bucketCapacity;
+
+    @ConfigProperty(name = "logs.mirror.refill-per-second", defaultValue = "1")
+    double refillPerSecond;
+
+    // Relógio dos token buckets; os testes avançam um relógio próprio
+    LongSupplier clock = System::nanoTime;
+
+    private BlockingQueue<ServerLog> pending;
+    // Orçamento de cada destino; sai do mapa quando a recarga das rotas descarta o destino
+    private final Map<LogRoutingService.Destination, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private Thread worker;
+    private volatile boolean running;
+
+    // Eventos que não couberam no orçamento, por destino e tipo, aguardando a linha de resumo
+    private final Map<LogRoutingService.Destination, Map<LogEventType, LongAdder>> overflow = new ConcurrentHashMap<>();
+
+    private final AtomicLong sentMessages = new AtomicLong();
+    private final AtomicLong sentEmbeds = new AtomicLong();
+    private final AtomicLong collapsedEvents = new AtomicLong();
+    private final AtomicLong failedMessages = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        pending = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::runMirror, "log-mirror");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        running = false;
+    }
+
+    public void publish(ServerLog log) {
+        // Sem destino: o canal padrão está em outro nó ou falhou na verificação
+        LogRoutingService.Destination destination = routing.route(log.guildId, log.eventType);
+        if (destination == null) {
+            return;
+        }
+        if (!pending.offer(log)) {
+            collapse(destination, log);
+        }
+    }
+
+    private void runMirror() {
+        List<ServerLog> batch = new ArrayList<>(MAX_EMBEDS_PER_MESSAGE);
+        while (running) {
+            try {
+                if (!discordBotService.isReady()) {
+                    // Os eventos esperam na fila até os shards conectarem e o canal de logs ser verificado
+                    Thread.sleep(flushIntervalMs);
+                    continue;
+                }
+                ServerLog first = pending.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (!overflow.isEmpty()) {
+                        dispatch(batch);
+                    }
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < MAX_EMBEDS_PER_MESSAGE) {
+                    pending.drainTo(batch, MAX_EMBEDS_PER_MESSAGE - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= MAX_EMBEDS_PER_MESSAGE || remaining <= 0) {
+                        break;
+                    }
+                    ServerLog next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOGGER.error("Erro no espelhamento de logs para o Discord: " + e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void dispatch(List<ServerLog> batch) {
+        // A rota é consultada de novo aqui: uma alteração feita enquanto o log estava na fila já vale
+        Map<LogRoutingService.Destination, List<ServerLog>> byDestination = new LinkedHashMap<>();
+        for (ServerLog log : batch) {
+            LogRoutingService.Destination destination = routing.route(log.guildId, log.eventType);
+            if (destination != null) {
+                byDestination.computeIfAbsent(destination, key -> new ArrayList<>(batch.size())).add(log);
+            }
+        }
+        for (LogRoutingService.Destination destination : overflow.keySet()) {
+            byDestination.putIfAbsent(destination, List.of());
+        }
+        buckets.keySet().removeIf(destination -> !routing.isActive(destination));
+        byDestination.forEach(this::dispatch);
+    }
+
+    private void dispatch(LogRoutingService.Destination destination, List<ServerLog> logs) {
+        TextChannel channel = routing.channelOf(destination);
+        if (channel == null) {
+            // Canal apagado ou sem permissão: o LogRoutingService já avisou no log
+            overflow.remove(destination);
+            return;
+        }
+        if (logs.isEmpty() && !overflow.containsKey(destination)) {
+            return;
+        }
+
+        TokenBucket bucket = buckets.computeIfAbsent(destination,
+                key -> new TokenBucket(bucketCapacity, refillPerSecond, clock));
+        if (!bucket.tryAcquire()) {
+            // Sem orçamento: em vez de enfileirar requisições, só contamos os eventos
+            logs.forEach(log -> collapse(destination, log));
+            return;
+        }
+
+        List<MessageEmbed> embeds = new ArrayList<>(logs.size());
+        int totalLength = 0;
+        for (ServerLog log : logs) {
+            MessageEmbed embed = buildEmbed(log);
+            if (totalLength + embed.getLength() > MessageEmbed.EMBED_MAX_LENGTH_BOT) {
+                collapse(destination, log);
+                continue;
+            }
+            totalLength += embed.getLength();
+            embeds.add(embed);
+        }
+
+        deliver(channel, drainOverflowSummary(destination), embeds);
+    }
+
+    /**
+     * Envia a mensagem para o canal. Sobrescrito em testes para evitar chamadas REST reais.
+     */
+    protected void deliver(TextChannel channel, String summary, List<MessageEmbed> embeds) {
+        if (embeds.isEmpty() && summary == null) {
+            return;
+        }
+        var action = embeds.isEmpty()
+                ? channel.sendMessage(summary)
+                : channel.sendMessageEmbeds(embeds);
+        if (summary != null && !embeds.isEmpty()) {
+            action.setContent(summary);
+        }
+        long start = System.nanoTime();
+        metrics.mirrorSendStarted();
+        action.queue(
+            success -> {
+                metrics.recordMirrorSend(start, true);
+                sentMessages.incrementAndGet();
+                sentEmbeds.addAndGet(embeds.size());
+            },
+            error -> {
+                metrics.recordMirrorSend(start, false);
+                failedMessages.incrementAndGet();
+                LOGGER.error("Erro ao enviar logs para o canal: " + error.getMessage());
+            }
+        );
+    }
+
+    private void collapse(LogRoutingService.Destination destination, ServerLog log) {
+        overflow.computeIfAbsent(destination, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(log.eventType, type -> new LongAdder()).increment();
+        collapsedEvents.incrementAndGet();
+    }
+
+    // Monta "+N eventos TIPO não exibidos" do destino e zera os contadores
+    private String drainOverflowSummary(LogRoutingService.Destination destination) {
+        Map<LogEventType, LongAdder> pendingCounts = overflow.remove(destination);
+        if (pendingCounts == null) {
+            return null;
+        }
+        Map<LogEventType, Long> counts = new TreeMap<>();
+        pendingCounts.forEach((type, adder) -> {
+            if (adder.sum() > 0) {
+                counts.put(type, adder.sum());
+            }
+        });
+        if (counts.isEmpty()) {
+            return null;
+        }
+        StringBuilder summary = new StringBuilder();
+        counts.forEach((type, count) -> summary.append("➕ +").append(count)
+                .append(" eventos ").append(type).append(" não exibidos\n"));
+        return summary.toString();
+    }
+
+    MessageEmbed buildEmbed(ServerLog log) {
+        EmbedBuilder embed = new EmbedBuilder()
+            .setColor(Color.BLUE)
+            .setTitle(log.eventType.emoji() + " " + log.eventType)
+            .setDescription(log.description)
+            .addField("Usuário", truncate(displayName(log.username)), true)
+            .addField("Canal", truncate(displayName(log.channelName)), true);
+
+        // Adiciona a mensagem/ação se existir
+        if (log.message != null && !log.message.isEmpty()) {
+            embed.addField("Conteúdo", truncate(log.message), false);
+        }
+
+        embed.setTimestamp(log.createdAt);
+        return embed.build();
+    }
+
+    // Eventos do sistema não têm usuário ou canal
+    private static String displayName(String name) {
+        return name != null ? name : "Sistema";
+    }
+
+    private static String truncate(String value) {
+        if (value == null || value.length() <= MAX_FIELD_LENGTH) {
+            return value;
+        }
+        int end = MAX_FIELD_LENGTH - 1;
+        if (Character.isHighSurrogate(value.charAt(end - 1))) {
+            end--;
+        }
+        return value.substring(0, end) + "…";
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getSentMessages() {
+        return sentMessages.get();
+    }
+
+    public long getSentEmbeds() {
+        return sentEmbeds.get();
+    }
+
+    public long getCollapsedEvents() {
+        return collapsedEvents.get();
+    }
+
+    public long getFailedMessages() {
+        return failedMessages.get();
+    }
+}
@@ -0,0 +1,268 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogCursor;
+import io.quarkus.manikomio.model.LogPage;
+import io.quarkus.manikomio.model.LogQuery;
+import io.quarkus.manikomio.model.ServerLog;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
+import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
+import net.dv8tion.jda.api.requests.restaction.WebhookMessageEditAction;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Respostas paginadas dos comandos !logs: uma única mensagem com botões de anterior/próxima.
+ * Cada tela é buscada de novo a partir de um cursor (keyset, ou posição na lista de resultados da busca);
+ * a sessão guarda só a origem das páginas e a pilha de cursores das telas anteriores, em memória e com
+ * prazo de validade. As consultas passam pelo LogQueryExecutor e a mensagem sai quando a tela fica pronta.
+ */
+@ApplicationScoped
+public class LogPaginator {
+
+    private static final Logger LOGGER = Logger.getLogger(LogPaginator.class);
+
+    static final String BUTTON_PREFIX = "logs:";
+    private static final String NEXT = "next";
+    private static final String PREVIOUS = "prev";
+    private static final int FOOTER_RESERVE = 32;
+
+    @Inject
+    LoggingService loggingService;
+
+    @Inject
+    LogQueryExecutor queries;
+
+    @ConfigProperty(name = "logs.pagination.max-sessions", defaultValue = "1000")
+    int maxSessions;
+
+    @ConfigProperty(name = "logs.pagination.session-ttl", defaultValue = "15m")
+    Duration sessionTtl;
+
+    private final AtomicLong sessionIds = new AtomicLong();
+    private Map<String, Session> sessions;
+
+    record Screen(String text, String nextCursor) {
+    }
+
+    private record Reply(String text, List<Button> buttons) {
+    }
+
+    /**
+     * De onde vêm as telas de uma sessão: consultas por keyset ou uma lista fixa, como os resultados da busca.
+     */
+    interface PageSource {
+        // Cursor da primeira tela
+        String start();
+
+        LogPage fetch(String cursor);
+
+        // Cursor da tela que continua logo depois do registro logs[shown - 1], quando a página não coube inteira
+        String resume(String cursor, List<ServerLog> logs, int shown);
+    }
+
+    static final class Session {
+        final String id;
+        final long ownerId;
+        final PageSource source;
+        final String title;
+        // Cursores de início das telas anteriores; null é a primeira tela
+        final Deque<String> history = new ArrayDeque<>();
+        String cursor;
+        String nextCursor;
+        long lastAccessNanos = System.nanoTime();
+
+        Session(String id, long ownerId, PageSource source, String title) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.source = source;
+            this.title = title;
+            this.cursor = source.start();
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        // Ordem de acesso: a sessão usada há mais tempo sai quando o limite é atingido
+        sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+                return size() > maxSessions;
+            }
+        };
+    }
+
+    /**
+     * Responde com a primeira tela da consulta. Só cria a sessão e os botões se houver mais de uma tela.
+     */
+    public Uni<Void> send(MessageReceivedEvent event, LogQuery query, String title) {
+        return send(event, keyset(query), title);
+    }
+
+    public Uni<Void> send(MessageReceivedEvent event, PageSource source, String title) {
+        return queries.submit(() -> open(event.getAuthor().getIdLong(), source, title)).invoke(reply -> {
+            MessageCreateAction action = event.getChannel().sendMessage(reply.text());
+            if (!reply.buttons().isEmpty()) {
+                action.setActionRow(reply.buttons());
+            }
+            action.queue();
+        }).replaceWithVoid();
+    }
+
+    /**
+     * Igual a {@link #send(MessageReceivedEvent, LogQuery, String)}, editando a resposta adiada de um slash command.
+     */
+    public Uni<Void> send(InteractionHook hook, long ownerId, LogQuery query, String title) {
+        return send(hook, ownerId, keyset(query), title);
+    }
+
+    public Uni<Void> send(InteractionHook hook, long ownerId, PageSource source, String title) {
+        return queries.submit(() -> open(ownerId, source, title)).invoke(reply -> {
+            WebhookMessageEditAction<Message> action = hook.editOriginal(reply.text());
+            if (!reply.buttons().isEmpty()) {
+                action.setActionRow(reply.buttons());
+            }
+            action.queue();
+        }).replaceWithVoid();
+    }
+
+    private Reply open(long ownerId, PageSource source, String title) {
+        Screen screen = render(source, source.start(), title, 1);
+        if (screen.nextCursor() == null) {
+            return new Reply(screen.text(), List.of());
+        }
+        Session session = new Session(Long.toString(sessionIds.incrementAndGet(), 36), ownerId, source, title);
+        session.nextCursor = screen.nextCursor();
+        synchronized (sessions) {
+            sessions.put(session.id, session);
+        }
+        return new Reply(screen.text(), buttons(session));
+    }
+
+    public void handleButton(ButtonInteractionEvent event) {
+        String[] parts = event.getComponentId().split(":");
+        Session session = parts.length == 3 ? find(parts[2]) : null;
+        if (session == null) {
+            event.reply("⌛ Esta paginação expirou. Execute o comando de novo.").setEphemeral(true).queue();
+            return;
+        }
+        if (event.getUser().getIdLong() != session.ownerId) {
+            event.reply("🔒 Só quem executou o comando pode trocar de página.").setEphemeral(true).queue();
+            return;
+        }
+
+        // A consulta pode passar dos 3s que o Discord dá para responder à interação
+        event.deferEdit().queue();
+        queries.submit(() -> {
+            synchronized (session) {
+                String target;
+                if (NEXT.equals(parts[1]) && session.nextCursor != null) {
+                    session.history.push(session.cursor != null ? session.cursor : "");
+                    target = session.nextCursor;
+                } else if (PREVIOUS.equals(parts[1]) && !session.history.isEmpty()) {
+                    String previous = session.history.pop();
+                    target = previous.isEmpty() ? null : previous;
+                } else {
+                    target = session.cursor;
+                }
+                Screen screen = render(session.source, target, session.title, session.history.size() + 1);
+                session.cursor = target;
+                session.nextCursor = screen.nextCursor();
+                return new Reply(screen.text(), buttons(session));
+            }
+        }).subscribe().with(
+                reply -> event.getHook().editOriginal(reply.text()).setActionRow(reply.buttons()).queue(),
+                error -> {
+                    LOGGER.error("Erro ao trocar de página: " + error.getMessage(), error);
+                    event.getHook().sendMessage("❌ Erro ao buscar a página: " + error.getMessage()).setEphemeral(true).queue();
+                });
+    }
+
+    // Telas por keyset: cada uma é a consulta original a partir do cursor do último registro exibido
+    PageSource keyset(LogQuery query) {
+        String start = query.getCursor();
+        return new PageSource() {
+            @Override
+            public String start() {
+                return start;
+            }
+
+            @Override
+            public LogPage fetch(String cursor) {
+                return loggingService.getLogs(query.after(cursor));
+            }
+
+            @Override
+            public String resume(String cursor, List<ServerLog> logs, int shown) {
+                ServerLog last = logs.get(shown - 1);
+                return last.id != null ? LogCursor.of(last).encode() : null;
+            }
+        };
+    }
+
+    Screen render(PageSource source, String cursor, String title, int pageNumber) {
+        LogPage page = source.fetch(cursor);
+        List<ServerLog> logs = page.logs();
+        LogResponseFormatter formatter = new LogResponseFormatter(title, FOOTER_RESERVE);
+        int shown = 0;
+        while (shown < logs.size() && formatter.append(logs.get(shown))) {
+            shown++;
+        }
+
+        // Se a página do banco não coube inteira na mensagem, a próxima tela continua do último exibido
+        String nextCursor;
+        if (shown < logs.size()) {
+            nextCursor = source.resume(cursor, logs, shown);
+        } else {
+            nextCursor = page.nextCursor();
+        }
+        boolean paginated = nextCursor != null || pageNumber > 1;
+        String footer = paginated && !formatter.isEmpty() ? "📄 Página " + pageNumber + "\n" : "";
+        return new Screen(formatter.finishPage(footer), nextCursor);
+    }
+
+    private static List<Button> buttons(Session session) {
+        return List.of(
+                Button.secondary(BUTTON_PREFIX + PREVIOUS + ":" + session.id, "◀ Anterior")
+                        .withDisabled(session.history.isEmpty()),
+                Button.secondary(BUTTON_PREFIX + NEXT + ":" + session.id, "Próxima ▶")
+                        .withDisabled(session.nextCursor == null));
+    }
+
+    private Session find(String id) {
+        synchronized (sessions) {
+            Session session = sessions.get(id);
+            if (session == null) {
+                return null;
+            }
+            long now = System.nanoTime();
+            if (now - session.lastAccessNanos > sessionTtl.toNanos()) {
+                sessions.remove(id);
+                return null;
+            }
+            session.lastAccessNanos = now;
+            return session;
+        }
+    }
+
+    int getSessionCount() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.ServerLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Regras aplicadas aos eventos antes de virarem log: manter, descartar, amostrar (1 a cada N) ou
+ * agrupar as repetições de um mesmo usuário numa janela em um único registro de resumo.
+ * <p>
+ * Cada regra em {@code logs.policy.rules} tem o formato {@code ALVO=AÇÃO}:
+ * <ul>
+ *   <li>ALVO: tipo de evento ou {@code *}, opcionalmente com {@code @guild} e/ou {@code #canal},
+ *       ex: {@code VOICE_MOVED}, {@code MESSAGE_SENT#123}, {@code *@456}</li>
+ *   <li>AÇÃO: {@code keep}, {@code drop}, {@code sample:N} ou {@code coalesce:60s}</li>
+ * </ul>
+ * Vale a regra mais específica: canal, depois guild, depois global; em cada nível o tipo exato vence o
+ * {@code *}. As regras são compiladas em tabelas na inicialização e a avaliação não aloca memória.
+ */
+@ApplicationScoped
+public class LogPolicyEngine {
+
+    private static final Logger LOGGER = Logger.getLogger(LogPolicyEngine.class);
+
+    private static final int TYPES = LogEventType.values().length;
+    // Tamanho padrão da coluna description
+    private static final int MAX_DESCRIPTION_CHARS = 255;
+
+    enum Action { KEEP, DROP, SAMPLE, COALESCE }
+
+    @ConfigProperty(name = "logs.policy.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "logs.policy.rules")
+    Optional<List<String>> rules;
+
+    @ConfigProperty(name = "logs.policy.coalesce-slots", defaultValue = "4096")
+    int coalesceSlots;
+
+    private final List<Rule> compiled = new ArrayList<>();
+    private Rule[] global = new Rule[TYPES];
+    private LongTable byGuild = new LongTable(Map.of());
+    private LongTable byChannel = new LongTable(Map.of());
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        Rule[] globals = new Rule[TYPES + 1];
+        Map<Long, Rule[]> guilds = new HashMap<>();
+        Map<Long, Rule[]> channels = new HashMap<>();
+        for (String text : rules.orElse(List.of())) {
+            Rule rule = Rule.parse(text, coalesceSlots);
+            Rule[] table = rule.channelId != 0 ? channels.computeIfAbsent(rule.channelId, id -> new Rule[TYPES + 1])
+                    : rule.guildId != 0 ? guilds.computeIfAbsent(rule.guildId, id -> new Rule[TYPES + 1])
+                    : globals;
+            // A última posição guarda a regra com *
+            int index = rule.type != null ? rule.type.ordinal() : TYPES;
+            if (table[index] != null) {
+                throw new IllegalArgumentException("Regra de ingestão repetida: " + text + " (já existe " + table[index].text + ")");
+            }
+            table[index] = rule;
+            compiled.add(rule);
+        }
+        global = resolveWildcard(globals);
+        byGuild = new LongTable(resolveWildcards(guilds));
+        byChannel = new LongTable(resolveWildcards(channels));
+        if (!compiled.isEmpty()) {
+            LOGGER.info("Regras de ingestão: " + compiled.stream().map(rule -> rule.text).toList());
+        }
+    }
+
+    private static Map<Long, Rule[]> resolveWildcards(Map<Long, Rule[]> tables) {
+        Map<Long, Rule[]> resolved = new HashMap<>();
+        tables.forEach((id, table) -> resolved.put(id, resolveWildcard(table)));
+        return resolved;
+    }
+
+    // Tipos sem regra própria herdam a regra com *, para a busca ser uma só leitura no array
+    private static Rule[] resolveWildcard(Rule[] table) {
+        Rule[] byType = new Rule[TYPES];
+        for (int i = 0; i < TYPES; i++) {
+            byType[i] = table[i] != null ? table[i] : table[TYPES];
+        }
+        return byType;
+    }
+
+    Rule match(LogEventType type, Long guildId, Long channelId) {
+        int index = type.ordinal();
+        if (channelId != null) {
+            Rule[] table = byChannel.get(channelId);
+            if (table != null && table[index] != null) {
+                return table[index];
+            }
+        }
+        if (guildId != null) {
+            Rule[] table = byGuild.get(guildId);
+            if (table != null && table[index] != null) {
+                return table[index];
+            }
+        }
+        return global[index];
+    }
+
+    /**
+     * Decide se o evento vira log. Eventos agrupados só contam para o resumo, que é entregue a
+     * {@code summaries} quando chega outro evento na mesma posição depois da janela ou por {@link #flushExpired}.
+     */
+    public boolean admit(LogEventType type, Long userId, String username, Long channelId, String channelName,
+                         Long guildId, String description, String message, long nowMillis, Consumer<ServerLog> summaries) {
+        Rule rule = match(type, guildId, channelId);
+        if (rule == null) {
+            return true;
+        }
+        long matched = rule.matched.incrementAndGet();
+        boolean admitted = switch (rule.action) {
+            case KEEP -> true;
+            case DROP -> false;
+            case SAMPLE -> (matched - 1) % rule.every == 0;
+            case COALESCE -> coalesce(rule, type, userId, username, channelId, channelName, guildId, description,
+                    message, nowMillis, summaries);
+        };
+        if (!admitted) {
+            rule.suppressed.incrementAndGet();
+        }
+        return admitted;
+    }
+
+    private static boolean coalesce(Rule rule, LogEventType type, Long userId, String username, Long channelId,
+                                    String channelName, Long guildId, String description, String message,
+                                    long nowMillis, Consumer<ServerLog> summaries) {
+        long guild = guildId != null ? guildId : 0;
+        // Eventos sem usuário são agrupados por canal
+        long actor = userId != null ? userId : channelId != null ? channelId : 0;
+        Slot slot = rule.slots[Slot.index(guild, actor, type, rule.slots.length)];
+        ServerLog summary = null;
+        boolean admitted;
+        synchronized (slot) {
+            if (slot.count > 0 && slot.is(guild, actor, type) && nowMillis - slot.windowStart < rule.windowMillis) {
+                slot.count++;
+                admitted = false;
+            } else {
+                // Janela anterior encerrada, ou outro usuário caiu na mesma posição
+                summary = slot.summary(rule);
+                slot.guild = guild;
+                slot.actor = actor;
+                slot.type = type;
+                slot.windowStart = nowMillis;
+                slot.count = 1;
+                admitted = true;
+            }
+            slot.userId = userId;
+            slot.username = username;
+            slot.channelId = channelId;
+            slot.channelName = channelName;
+            slot.guildId = guildId;
+            slot.description = description;
+            slot.message = message;
+        }
+        if (summary != null) {
+            summaries.accept(summary);
+        }
+        return admitted;
+    }
+
+    /**
+     * Entrega os resumos das janelas encerradas. Chamado periodicamente para que o resumo não espere
+     * pelo próximo evento do mesmo usuário.
+     */
+    public void flushExpired(long nowMillis, Consumer<ServerLog> summaries) {
+        for (Rule rule : compiled) {
+            if (rule.action != Action.COALESCE) {
+                continue;
+            }
+            for (Slot slot : rule.slots) {
+                ServerLog summary = null;
+                synchronized (slot) {
+                    if (slot.count > 0 && nowMillis - slot.windowStart >= rule.windowMillis) {
+                        summary = slot.summary(rule);
+                        slot.count = 0;
+                    }
+                }
+                if (summary != null) {
+                    summaries.accept(summary);
+                }
+            }
+        }
+    }
+
+    List<Rule> getRules() {
+        return compiled;
+    }
+
+    static final class Rule {
+
+        final String text;
+        final LogEventType type;
+        final long guildId;
+        final long channelId;
+        final Action action;
+        final int every;
+        final long windowMillis;
+        final Slot[] slots;
+        final AtomicLong matched = new AtomicLong();
+        final AtomicLong suppressed = new AtomicLong();
+
+        private Rule(String text, LogEventType type, long guildId, long channelId, Action action, int every,
+                     long windowMillis, int slotCount) {
+            this.text = text;
+            this.type = type;
+            this.guildId = guildId;
+            this.channelId = channelId;
+            this.action = action;
+            this.every = every;
+            this.windowMillis = windowMillis;
+            this.slots = new Slot[action == Action.COALESCE ? slotCount : 0];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = new Slot();
+            }
+        }
+
+        static Rule parse(String text, int slotCount) {
+            String rule = text.trim();
+            int separator = rule.lastIndexOf('=');
+            if (separator <= 0) {
+                throw invalid(text);
+            }
+            String target = rule.substring(0, separator).trim();
+            String action = rule.substring(separator + 1).trim().toLowerCase(Locale.ROOT);
+            try {
+                long channelId = 0;
+                int channel = target.indexOf('#');
+                if (channel >= 0) {
+                    channelId = Long.parseLong(target.substring(channel + 1).trim());
+                    target = target.substring(0, channel);
+                }
+                long guildId = 0;
+                int guild = target.indexOf('@');
+                if (guild >= 0) {
+                    guildId = Long.parseLong(target.substring(guild + 1).trim());
+                    target = target.substring(0, guild);
+                }
+                LogEventType type = target.trim().equals("*") ? null : LogEventType.parse(target);
+
+                int colon = action.indexOf(':');
+                String name = colon >= 0 ? action.substring(0, colon) : action;
+                String argument = colon >= 0 ? action.substring(colon + 1).trim() : null;
+                return switch (name) {
+                    case "keep" -> new Rule(rule, type, guildId, channelId, Action.KEEP, 1, 0, slotCount);
+                    case "drop" -> new Rule(rule, type, guildId, channelId, Action.DROP, 1, 0, slotCount);
+                    case "sample" -> {
+                        int every = Integer.parseInt(argument);
+                        if (every < 1) {
+                            throw invalid(text);
+                        }
+                        yield new Rule(rule, type, guildId, channelId, Action.SAMPLE, every, 0, slotCount);
+                    }
+                    case "coalesce" -> {
+                        Duration window = LogFilterParser.parsePeriod(argument);
+                        yield new Rule(rule, type, guildId, channelId, Action.COALESCE, 1, window.toMillis(), slotCount);
+                    }
+                    default -> throw invalid(text);
+                };
+            } catch (NumberFormatException | NullPointerException e) {
+                throw invalid(text);
+            }
+        }
+
+        private static IllegalArgumentException invalid(String text) {
+            return new IllegalArgumentException("Regra de ingestão inválida: " + text
+                    + " (use TIPO[@guild][#canal]=keep|drop|sample:N|coalesce:60s)");
+        }
+
+        long getMatched() {
+            return matched.get();
+        }
+
+        long getSuppressed() {
+            return suppressed.get();
+        }
+    }
+
+    // Janela de agrupamento de um usuário; as posições são pré-alocadas por regra
+    private static final class Slot {
+
+        long guild;
+        long actor;
+        LogEventType type;
+        long windowStart;
+        int count;
+
+        // Última ocorrência, usada no resumo
+        Long userId;
+        String username;
+        Long channelId;
+        String channelName;
+        Long guildId;
+        String description;
+        String message;
+
+        static int index(long guild, long actor, LogEventType type, int slots) {
+            long hash = guild * 31 + actor;
+            hash = hash * 31 + type.ordinal();
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return (int) Math.floorMod(hash, (long) slots);
+        }
+
+        boolean is(long guild, long actor, LogEventType type) {
+            return this.guild == guild && this.actor == actor && this.type == type;
+        }
+
+        // Só há resumo se algo foi agrupado: o primeiro evento da janela já foi registrado normalmente
+        ServerLog summary(Rule rule) {
+            if (count < 2) {
+                return null;
+            }
+            ServerLog log = new ServerLog();
+            log.setEventType(type);
+            String text = (username != null ? username : "Sistema") + ": " + type.name() + " " + count
+                    + " vezes em " + rule.windowMillis / 1000 + "s (" + (count - 1) + " agrupados). Último: " + description;
+            log.setDescription(text.length() > MAX_DESCRIPTION_CHARS ? text.substring(0, MAX_DESCRIPTION_CHARS - 1) + "…" : text);
+            log.setMessage(message);
+            log.setUserId(userId);
+            log.setUsername(username);
+            log.setChannelId(channelId);
+            log.setChannelName(channelName);
+            log.setGuildId(guildId);
+            log.setCreatedAt(OffsetDateTime.now());
+            return log;
+        }
+    }
+
+    // Tabela imutável id → regras por tipo, com endereçamento aberto para não criar Long na busca
+    private static final class LongTable {
+
+        private final long[] keys;
+        private final Rule[][] values;
+        private final int mask;
+
+        LongTable(Map<Long, Rule[]> entries) {
+            int size = 2;
+            while (size < entries.size() * 2) {
+                size <<= 1;
+            }
+            keys = new long[size];
+            values = new Rule[size][];
+            mask = size - 1;
+            entries.forEach((key, value) -> {
+                int i = slot(key);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = value;
+            });
+        }
+
+        private int slot(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            return (int) key & mask;
+        }
+
+        Rule[] get(long key) {
+            for (int i = slot(key); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ArcContainer;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.runtime.ShutdownEvent;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Onde rodam as consultas dos comandos de logs, conforme {@code logs.persistence.mode}:
+ * <ul>
+ *     <li>BLOCKING: na própria faixa de comandos, que espera o banco responder;</li>
+ *     <li>ASYNC: num pool de {@code logs.persistence.query-threads} threads, do tamanho do pool de conexões.
+ *     A faixa só agenda a consulta e volta para a fila; a resposta ao Discord sai no callback do Uni.</li>
+ * </ul>
+ * O JDBC continua bloqueante: no modo ASYNC quem espera o banco são as threads do pool, nunca mais
+ * threads do que conexões, e os comandos que não consultam o banco não ficam atrás das consultas lentas.
+ */
+@ApplicationScoped
+public class LogQueryExecutor {
+
+    private static final Logger LOGGER = Logger.getLogger(LogQueryExecutor.class);
+
+    public enum Mode {
+        BLOCKING,
+        ASYNC
+    }
+
+    @ConfigProperty(name = "logs.persistence.mode", defaultValue = "BLOCKING")
+    Mode mode;
+
+    @ConfigProperty(name = "logs.persistence.query-threads", defaultValue = "8")
+    int threads;
+
+    @ConfigProperty(name = "logs.persistence.query-queue-capacity", defaultValue = "200")
+    int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        if (mode == Mode.ASYNC) {
+            AtomicInteger counter = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, "log-query-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, (runnable, pool) -> {
+                        rejected.increment();
+                        throw new RejectedExecutionException("⏳ Muitas consultas em andamento, tente novamente em instantes.");
+                    });
+        }
+        LOGGER.info("Consultas dos comandos: modo " + mode + (executor != null ? ", " + threads + " threads" : ""));
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A consulta como Uni. No modo ASYNC ela roda no pool quando o Uni é assinado, e os callbacks
+     * seguem na thread do pool; com o pool cheio, o Uni falha com RejectedExecutionException.
+     */
+    public <T> Uni<T> submit(Supplier<T> query) {
+        Uni<T> uni = Uni.createFrom().item(() -> inRequestContext(query));
+        return executor != null ? uni.runSubscriptionOn(executor) : uni;
+    }
+
+    // Panache precisa de um contexto de requisição; nas faixas de comandos ele já está ativo
+    private static <T> T inRequestContext(Supplier<T> query) {
+        ArcContainer container = Arc.container();
+        ManagedContext requestContext = container != null ? container.requestContext() : null;
+        if (requestContext == null || requestContext.isActive()) {
+            return query.get();
+        }
+        requestContext.activate();
+        try {
+            return query.get();
+        } finally {
+            requestContext.terminate();
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getActive() {
+        return executor != null ? executor.getActiveCount() : 0;
+    }
+
+    public int getQueued() {
+        return executor != null ? executor.getQueue().size() : 0;
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,122 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.ServerLog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escreve as respostas dos comandos !logs direto em páginas de até 2000 caracteres (limite do Discord).
+ * Cada registro é montado num buffer reaproveitado e só entra na página se couber inteiro, então
+ * uma página nunca termina no meio de um registro ou de um emoji. Os dois buffers têm tamanho limitado
+ * e são reaproveitados entre registros e páginas.
+ */
+final class LogResponseFormatter {
+
+    static final int MAX_MESSAGE_LENGTH = 2000;
+    static final String EMPTY_RESPONSE = "📝 Nenhum log encontrado.";
+    private static final String SEPARATOR = "-------------------\n";
+
+    private final String header;
+    private final int pageLimit;
+    private final StringBuilder page = new StringBuilder(MAX_MESSAGE_LENGTH);
+    private final StringBuilder record = new StringBuilder(512);
+    private boolean firstPage = true;
+    private int pageRecords;
+
+    /**
+     * @param footerReserve caracteres reservados em cada página para o rodapé passado a {@link #finishPage}
+     */
+    LogResponseFormatter(String title, int footerReserve) {
+        this.header = "📝 **" + title + ":**\n\n";
+        this.pageLimit = MAX_MESSAGE_LENGTH - footerReserve;
+    }
+
+    /**
+     * Divide os logs em mensagens, com o título na primeira e o comando da próxima página na última.
+     */
+    static List<String> format(List<ServerLog> logs, String title, String nextCommand) {
+        if (logs.isEmpty()) {
+            return List.of(EMPTY_RESPONSE);
+        }
+        String footer = nextCommand != null ? "➡️ Próxima página: `" + nextCommand + "`\n" : "";
+        LogResponseFormatter formatter = new LogResponseFormatter(title, footer.length());
+        List<String> messages = new ArrayList<>();
+        for (ServerLog log : logs) {
+            if (!formatter.append(log)) {
+                messages.add(formatter.finishPage(""));
+                formatter.append(log);
+            }
+        }
+        messages.add(formatter.finishPage(footer));
+        return messages;
+    }
+
+    /**
+     * Acrescenta o log à página corrente. Retorna false, sem alterar a página, se ele não couber;
+     * numa página vazia o registro sempre entra, truncado se preciso.
+     */
+    boolean append(ServerLog log) {
+        renderRecord(log);
+        if (page.length() == 0 && firstPage) {
+            page.append(header);
+        }
+        int available = pageLimit - page.length();
+        if (record.length() > available) {
+            if (pageRecords > 0) {
+                return false;
+            }
+            truncateRecord(available);
+        }
+        page.append(record);
+        pageRecords++;
+        return true;
+    }
+
+    boolean isEmpty() {
+        return pageRecords == 0;
+    }
+
+    /**
+     * Fecha a página corrente com o rodapé e libera o buffer para a próxima.
+     */
+    String finishPage(String footer) {
+        if (pageRecords == 0 && firstPage) {
+            page.setLength(0);
+            page.append(EMPTY_RESPONSE).append('\n');
+        }
+        page.append(footer);
+        String text = page.toString();
+        page.setLength(0);
+        pageRecords = 0;
+        firstPage = false;
+        return text;
+    }
+
+    private void renderRecord(ServerLog log) {
+        record.setLength(0);
+        record.append(log.eventType.emoji()).append(" **").append(log.eventType).append("**\n");
+        record.append("📄 ").append(log.description).append('\n');
+        if (log.username != null) {
+            record.append("👤 Usuário: ").append(log.username).append('\n');
+        }
+        if (log.channelName != null) {
+            record.append("📺 Canal: ").append(log.channelName).append('\n');
+        }
+        if (log.moderatorId != null) {
+            record.append("🛡️ Moderador: <@").append(log.moderatorId).append(">\n");
+        }
+        record.append("⏰ Data: ").append(log.createdAt).append('\n');
+        record.append(SEPARATOR);
+    }
+
+    // Só acontece com registros maiores que uma página inteira; não corta um par de surrogates
+    private void truncateRecord(int available) {
+        int end = Math.max(0, available - SEPARATOR.length() - 2);
+        if (end > 0 && Character.isHighSurrogate(record.charAt(end - 1))) {
+            end--;
+        }
+        record.setLength(end);
+        record.append("…\n").append(SEPARATOR);
+    }
+}
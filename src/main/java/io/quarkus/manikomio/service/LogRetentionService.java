@@ -0,0 +1,316 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.repository.LogArchive;
+import io.quarkus.manikomio.repository.ServerLogPartitionRepository;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Particionamento por tempo de server_logs e política de retenção por tipo de evento.
+ * No MySQL as partições expiradas são removidas inteiras; quando uma partição fria ainda tem
+ * eventos que devem ser mantidos, só os tipos expirados são apagados, em lotes, dentro dela.
+ * A partição corrente nunca é tocada. Em outros bancos (H2) a retenção é feita com DELETE por data.
+ * A tabela é convertida para particionada à mão (db/migration/V010__partition_server_logs.sql);
+ * aqui só se criam as faixas seguintes, separando-as de p_future vazia, e se removem as expiradas.
+ * O banco é compartilhado pelos nós, então só o nó com o shard 0 cuida dele; é ele também que apaga
+ * os rollups horários antigos.
+ * <p>
+ * Os segmentos do arquivo frio seguem as mesmas políticas: saem inteiros quando todos os tipos
+ * expiram, ou são regravados sem os tipos expirados. Eles ficam no disco de cada nó, então todo nó
+ * aplica a retenção aos próprios segmentos.
+ */
+@ApplicationScoped
+public class LogRetentionService {
+
+    private static final Logger LOGGER = Logger.getLogger(LogRetentionService.class);
+
+    private static final int FOREVER = -1;
+
+    public enum PartitionInterval {
+        DAY,
+        WEEK,
+        MONTH;
+
+        LocalDate floor(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> date.withDayOfMonth(1);
+            };
+        }
+
+        LocalDate next(LocalDate start) {
+            return switch (this) {
+                case DAY -> start.plusDays(1);
+                case WEEK -> start.plusWeeks(1);
+                case MONTH -> start.plusMonths(1);
+            };
+        }
+    }
+
+    @Inject
+    ServerLogPartitionRepository partitionRepository;
+
+    @Inject
+    LogArchive archive;
+
+    @Inject
+    DiscordBotService discordBotService;
+
+    @Inject
+    LogRollupService rollupService;
+
+    @ConfigProperty(name = "quarkus.datasource.db-kind")
+    String dbKind;
+
+    @ConfigProperty(name = "logs.retention.enabled", defaultValue = "true")
+    boolean retentionEnabled;
+
+    @ConfigProperty(name = "logs.retention.default-days", defaultValue = "90")
+    String defaultDays;
+
+    // Formato: TIPO=dias, ou TIPO=forever para nunca expirar
+    @ConfigProperty(name = "logs.retention.policies")
+    Optional<List<String>> policies;
+
+    @ConfigProperty(name = "logs.retention.delete-batch-size", defaultValue = "5000")
+    int deleteBatchSize;
+
+    @ConfigProperty(name = "logs.partitioning.enabled", defaultValue = "true")
+    boolean partitioningEnabled;
+
+    @ConfigProperty(name = "logs.partitioning.interval", defaultValue = "MONTH")
+    PartitionInterval interval;
+
+    @ConfigProperty(name = "logs.partitioning.precreate", defaultValue = "2")
+    int precreate;
+
+    private final Map<LogEventType, Integer> retentionDays = new EnumMap<>(LogEventType.class);
+    private int defaultRetentionDays;
+
+    private final AtomicLong droppedPartitions = new AtomicLong();
+    private final AtomicLong purgedRows = new AtomicLong();
+    private final AtomicLong droppedSegments = new AtomicLong();
+    private volatile boolean warnedUnpartitioned;
+
+    @PostConstruct
+    void init() {
+        defaultRetentionDays = parseDays(defaultDays);
+        policies.orElse(List.of()).forEach(policy -> {
+            int separator = policy.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Política de retenção inválida: " + policy + " (use TIPO=dias)");
+            }
+            retentionDays.put(LogEventType.parse(policy.substring(0, separator)),
+                    parseDays(policy.substring(separator + 1)));
+        });
+    }
+
+    private static int parseDays(String value) {
+        String days = value.trim();
+        return days.equalsIgnoreCase("forever") ? FOREVER : Integer.parseInt(days);
+    }
+
+    @Scheduled(every = "${logs.retention.interval:1h}", delayed = "${logs.retention.initial-delay:1m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void runMaintenance() {
+        try {
+            if (discordBotService.isLocalShard(0)) {
+                maintainDatabase();
+                rollupService.purgeHourly();
+            }
+            if (retentionEnabled) {
+                applyRetentionToArchive();
+            }
+        } catch (Exception e) {
+            LOGGER.error("Erro na manutenção de retenção dos logs: " + e.getMessage(), e);
+        }
+    }
+
+    void maintainDatabase() {
+        if (!isPartitioningSupported()) {
+            if (retentionEnabled) {
+                applyRetentionByDelete();
+            }
+            return;
+        }
+        if (!ensurePartitions()) {
+            return;
+        }
+        if (retentionEnabled) {
+            applyRetentionToPartitions();
+        }
+    }
+
+    private boolean isPartitioningSupported() {
+        return partitioningEnabled && "mysql".equalsIgnoreCase(dbKind);
+    }
+
+    /**
+     * Garante que existam partições até {@code precreate} intervalos à frente,
+     * assim p_future fica sempre vazia e a reorganização é instantânea. Retorna false se a tabela
+     * ainda não foi particionada; converter a tabela copia todas as linhas, então isso nunca é
+     * feito aqui.
+     */
+    boolean ensurePartitions() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate horizon = interval.floor(today);
+        for (int i = 0; i < precreate; i++) {
+            horizon = interval.next(horizon);
+        }
+
+        List<String> partitions = partitionRepository.listPartitions();
+        if (partitions.isEmpty()) {
+            if (!warnedUnpartitioned) {
+                warnedUnpartitioned = true;
+                LOGGER.warn(ServerLogPartitionRepository.TABLE + " não é particionada; rode "
+                        + "db/migration/V010__partition_server_logs.sql com a aplicação parada. "
+                        + "Até lá a retenção vale só para o arquivo frio");
+            }
+            return false;
+        }
+
+        LocalDate lastStart = null;
+        for (String partition : partitions) {
+            if (!partition.equals(ServerLogPartitionRepository.FUTURE_PARTITION)) {
+                lastStart = ServerLogPartitionRepository.partitionStart(partition);
+            }
+        }
+        if (lastStart == null) {
+            return true;
+        }
+        for (LocalDate start = interval.next(lastStart); !start.isAfter(horizon); start = interval.next(start)) {
+            LOGGER.info("Criando partição " + ServerLogPartitionRepository.partitionName(start));
+            partitionRepository.addPartition(start, interval.next(start));
+        }
+        return true;
+    }
+
+    void applyRetentionToPartitions() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<String> partitions = partitionRepository.listPartitions();
+        for (int i = 0; i < partitions.size(); i++) {
+            String partition = partitions.get(i);
+            if (partition.equals(ServerLogPartitionRepository.FUTURE_PARTITION)) {
+                continue;
+            }
+            // O limite superior é o início da partição seguinte
+            LocalDate start = ServerLogPartitionRepository.partitionStart(partition);
+            String following = i + 1 < partitions.size() ? partitions.get(i + 1) : null;
+            LocalDate end = following == null || following.equals(ServerLogPartitionRepository.FUTURE_PARTITION)
+                    ? interval.next(start)
+                    : ServerLogPartitionRepository.partitionStart(following);
+            if (end.isAfter(today)) {
+                continue;
+            }
+            applyRetention(partition, end, today);
+        }
+    }
+
+    private void applyRetention(String partition, LocalDate end, LocalDate today) {
+        List<LogEventType> expiredTypes = new ArrayList<>();
+        List<LogEventType> retainedTypes = new ArrayList<>();
+        retentionDays.forEach((type, days) -> (isExpired(days, end, today) ? expiredTypes : retainedTypes).add(type));
+        boolean defaultExpired = isExpired(defaultRetentionDays, end, today);
+
+        if (defaultExpired) {
+            // Tudo expira, exceto os tipos listados que ainda devem ser mantidos
+            if (retainedTypes.isEmpty() || partitionRepository.countRetained(partition, retainedTypes, true) == 0) {
+                dropPartition(partition);
+            } else {
+                purge(partition, retainedTypes, true);
+            }
+        } else if (!expiredTypes.isEmpty()) {
+            // Só alguns tipos expiram; se não sobrar nada além deles, a partição inteira sai
+            if (partitionRepository.countRetained(partition, expiredTypes, false) == 0) {
+                dropPartition(partition);
+            } else {
+                purge(partition, expiredTypes, false);
+            }
+        }
+    }
+
+    private static boolean isExpired(int days, LocalDate end, LocalDate today) {
+        return days != FOREVER && !end.isAfter(today.minusDays(days));
+    }
+
+    private void dropPartition(String partition) {
+        LOGGER.info("Removendo partição expirada " + partition);
+        partitionRepository.dropPartition(partition);
+        droppedPartitions.incrementAndGet();
+    }
+
+    private void purge(String partition, List<LogEventType> types, boolean typesAreRetained) {
+        int deleted;
+        long total = 0;
+        do {
+            deleted = partitionRepository.purgeBatch(partition, types, typesAreRetained, deleteBatchSize);
+            total += deleted;
+        } while (deleted == deleteBatchSize);
+        if (total > 0) {
+            purgedRows.addAndGet(total);
+            LOGGER.info("Removidos " + total + " logs expirados da partição " + partition);
+        }
+    }
+
+    void applyRetentionByDelete() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        long total = 0;
+        for (Map.Entry<LogEventType, Integer> policy : retentionDays.entrySet()) {
+            if (policy.getValue() != FOREVER) {
+                total += partitionRepository.deleteOlderThan(List.of(policy.getKey()), false,
+                        now.minusDays(policy.getValue()));
+            }
+        }
+        if (defaultRetentionDays != FOREVER) {
+            // Tipos sem política própria seguem a retenção padrão
+            total += partitionRepository.deleteOlderThan(retentionDays.keySet(), true, now.minusDays(defaultRetentionDays));
+        }
+        if (total > 0) {
+            purgedRows.addAndGet(total);
+            LOGGER.info("Removidos " + total + " logs expirados");
+        }
+    }
+
+    /**
+     * Um segmento é apagado quando todos os tipos que ele contém expiraram; se ainda houver tipos
+     * mantidos (banimentos para sempre, por exemplo), ele é regravado só com esses tipos.
+     */
+    void applyRetentionToArchive() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        int dropped = archive.dropExpired(type -> {
+            int days = retentionDays.getOrDefault(type, defaultRetentionDays);
+            return days == FOREVER ? null : now.minusDays(days);
+        });
+        droppedSegments.addAndGet(dropped);
+    }
+
+    public long getDroppedPartitions() {
+        return droppedPartitions.get();
+    }
+
+    public long getPurgedRows() {
+        return purgedRows.get();
+    }
+
+    public long getDroppedSegments() {
+        return droppedSegments.get();
+    }
+}
@@ -0,0 +1,195 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogRollup;
+import io.quarkus.manikomio.model.LogRollupKey;
+import io.quarkus.manikomio.model.ServerLog;
+import io.quarkus.manikomio.repository.LogRollupRepository;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Mantém os rollups horários e diários de contagem de eventos.
+ * Os incrementos são acumulados em memória e gravados periodicamente como upserts. Os horários só
+ * servem às estatísticas das últimas 48h e são apagados depois disso pelo job de retenção.
+ */
+@ApplicationScoped
+public class LogRollupService {
+
+    private static final Logger LOGGER = Logger.getLogger(LogRollupService.class);
+
+    // Até 48h as estatísticas usam os rollups horários; acima disso, os diários
+    private static final Duration HOURLY_STATS_LIMIT = Duration.ofHours(48);
+
+    @Inject
+    LogRollupRepository rollupRepository;
+
+    private final Map<LogRollupKey, AtomicLong> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Contabiliza logs já gravados no banco.
+     */
+    public void record(Iterable<ServerLog> logs) {
+        for (ServerLog log : logs) {
+            if (log.guildId == null) {
+                continue;
+            }
+            for (LogRollup.Granularity granularity : LogRollup.Granularity.values()) {
+                increment(granularity, log, LogRollup.Dimension.EVENT_TYPE, log.eventType.name());
+                increment(granularity, log, LogRollup.Dimension.CHANNEL, idValue(log.channelId));
+                increment(granularity, log, LogRollup.Dimension.USER, idValue(log.userId));
+            }
+        }
+    }
+
+    /**
+     * Move a contagem de um log já contabilizado do tipo {@code previous} para o tipo atual dele,
+     * como quando uma saída do servidor se revela uma expulsão.
+     */
+    public void reclassify(ServerLog log, LogEventType previous) {
+        if (log.guildId == null || log.eventType == previous) {
+            return;
+        }
+        for (LogRollup.Granularity granularity : LogRollup.Granularity.values()) {
+            add(granularity, log, LogRollup.Dimension.EVENT_TYPE, previous.name(), -1);
+            add(granularity, log, LogRollup.Dimension.EVENT_TYPE, log.eventType.name(), 1);
+        }
+    }
+
+    private static String idValue(Long id) {
+        return id == null ? null : id.toString();
+    }
+
+    private void increment(LogRollup.Granularity granularity, ServerLog log, LogRollup.Dimension dimension, String value) {
+        add(granularity, log, dimension, value, 1);
+    }
+
+    private void add(LogRollup.Granularity granularity, ServerLog log, LogRollup.Dimension dimension, String value,
+                     long delta) {
+        if (value == null) {
+            return;
+        }
+        addPending(LogRollupKey.of(granularity, log.createdAt, log.guildId, dimension, value), delta);
+    }
+
+    // Soma dentro do compute: o flush só tira um contador do mapa pelo computeIfPresent, então a soma
+    // nunca cai num contador que já saiu
+    private void addPending(LogRollupKey key, long delta) {
+        pending.compute(key, (k, counter) -> {
+            AtomicLong target = counter != null ? counter : new AtomicLong();
+            target.addAndGet(delta);
+            return target;
+        });
+    }
+
+    @Scheduled(every = "${logs.rollup.flush-interval:30s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void flush() {
+        OffsetDateTime currentHour = LogRollup.Granularity.HOUR.bucketOf(OffsetDateTime.now());
+        Map<LogRollupKey, Long> deltas = new HashMap<>();
+        pending.forEach((key, counter) -> {
+            long delta = counter.getAndSet(0);
+            // Deltas negativos vêm de reclassify e também são gravados
+            if (delta != 0) {
+                deltas.put(key, delta);
+            } else if (key.bucketStart().isBefore(currentHour.minusHours(1))) {
+                // Intervalos antigos sem novos eventos saem do mapa para não crescer indefinidamente,
+                // a não ser que um incremento tenha chegado depois do getAndSet
+                pending.computeIfPresent(key, (k, c) -> c.get() == 0 ? null : c);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            rollupRepository.applyDeltas(deltas);
+            LOGGER.debug("Rollups atualizados: " + deltas.size() + " contadores");
+        } catch (Exception e) {
+            // Devolve os incrementos para a próxima tentativa
+            deltas.forEach(this::addPending);
+            LOGGER.error("Erro ao gravar rollups de logs: " + e.getMessage(), e);
+        }
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        flush();
+    }
+
+    /**
+     * Apaga os rollups horários que as estatísticas não leem mais. O corte fica uma hora antes do
+     * primeiro intervalo que countByDimension pode pedir. Retorna os registros apagados.
+     */
+    public long purgeHourly() {
+        OffsetDateTime cutoff = LogRollup.Granularity.HOUR.bucketOf(OffsetDateTime.now().minus(HOURLY_STATS_LIMIT))
+                .minusHours(1);
+        long deleted = rollupRepository.deleteHourlyBefore(cutoff);
+        if (deleted > 0) {
+            LOGGER.info("Removidos " + deleted + " rollups horários anteriores a " + cutoff);
+        }
+        return deleted;
+    }
+
+    public long countByEventType(LogEventType eventType) {
+        return countByValue(LogRollup.Dimension.EVENT_TYPE, eventType.name());
+    }
+
+    public long countByUserId(Long userId) {
+        return countByValue(LogRollup.Dimension.USER, userId.toString());
+    }
+
+    public long countByChannelId(Long channelId) {
+        return countByValue(LogRollup.Dimension.CHANNEL, channelId.toString());
+    }
+
+    private long countByValue(LogRollup.Dimension dimension, String value) {
+        long unflushed = pending.entrySet().stream()
+                .filter(e -> e.getKey().granularity() == LogRollup.Granularity.DAY
+                        && e.getKey().dimension() == dimension
+                        && e.getKey().dimensionValue().equals(value))
+                .mapToLong(e -> e.getValue().get())
+                .sum();
+        return rollupRepository.sumByValue(dimension, value) + unflushed;
+    }
+
+    /**
+     * Contagens da guild por dimensão no período, da maior para a menor, incluindo o que ainda não foi gravado.
+     * O primeiro intervalo é arredondado para baixo, então o período pode incluir até uma hora (ou um dia) a mais.
+     */
+    public Map<String, Long> countByDimension(Long guildId, LogRollup.Dimension dimension, Duration period) {
+        LogRollup.Granularity granularity = period.compareTo(HOURLY_STATS_LIMIT) <= 0
+                ? LogRollup.Granularity.HOUR
+                : LogRollup.Granularity.DAY;
+        OffsetDateTime from = granularity.bucketOf(OffsetDateTime.now().minus(period));
+
+        Map<String, Long> counts = new HashMap<>(rollupRepository.sumByDimension(guildId, dimension, granularity, from));
+        pending.forEach((key, counter) -> {
+            if (key.granularity() == granularity && key.dimension() == dimension
+                    && key.guildId().equals(guildId) && !key.bucketStart().isBefore(from)) {
+                counts.merge(key.dimensionValue(), counter.get(), Long::sum);
+            }
+        });
+
+        return counts.entrySet().stream()
+                .filter(e -> e.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    public int getPendingCounters() {
+        return pending.size();
+    }
+}
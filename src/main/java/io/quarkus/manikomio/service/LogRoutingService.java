@@ -0,0 +1,207 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogRoute;
+import io.quarkus.manikomio.repository.LogRouteRepository;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabela de rotas do espelhamento: guild (e opcionalmente tipo de evento) → canal de logs. As rotas
+ * ficam em {@code log_routes} e são recarregadas periodicamente, para que uma alteração feita em outro
+ * nó também chegue aqui. Sem rota, vale o canal de {@code discord.bot.log-channel-id}.
+ * <p>
+ * O canal de cada destino é procurado no JDA uma vez e fica guardado até ser invalidado (canal
+ * apagado, permissões alteradas ou recarga da tabela).
+ */
+@ApplicationScoped
+public class LogRoutingService {
+
+    private static final Logger LOGGER = Logger.getLogger(LogRoutingService.class);
+
+    private static final LogEventType[] TYPES = LogEventType.values();
+
+    @Inject
+    LogRouteRepository routeRepository;
+
+    @Inject
+    DiscordBotService discordBotService;
+
+    @ConfigProperty(name = "discord.bot.log-channel-id")
+    String logChannelId;
+
+    /**
+     * Canal que recebe o espelhamento. O TextChannel resolvido fica em cache até {@link #invalidate()}.
+     */
+    public static final class Destination {
+
+        final String channelId;
+        // Canal de discord.bot.log-channel-id, usado pelas guilds sem rota
+        final boolean isDefault;
+        private volatile TextChannel channel;
+        private volatile boolean resolved;
+
+        Destination(String channelId, boolean isDefault) {
+            this.channelId = channelId;
+            this.isDefault = isDefault;
+        }
+
+        public String getChannelId() {
+            return channelId;
+        }
+
+        void invalidate() {
+            resolved = false;
+        }
+    }
+
+    private Destination defaultDestination;
+    // Um destino por canal, reaproveitado entre recargas para manter o canal resolvido
+    private final Map<String, Destination> destinations = new ConcurrentHashMap<>();
+    // Por guild, o destino de cada tipo de evento (índice = ordinal), já com a rota da guild como reserva
+    private volatile Map<Long, Destination[]> routes = Map.of();
+    private volatile List<LogRoute> rows = List.of();
+
+    @PostConstruct
+    void init() {
+        defaultDestination = new Destination(logChannelId, true);
+        destinations.put(logChannelId, defaultDestination);
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        refresh();
+    }
+
+    @Scheduled(every = "${logs.routing.refresh-interval:60s}", delayed = "${logs.routing.refresh-interval:60s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @ActivateRequestContext
+    void refresh() {
+        try {
+            load(routeRepository.listAll());
+        } catch (Exception e) {
+            // Mantém a tabela anterior; a próxima recarga tenta de novo
+            LOGGER.error("Erro ao carregar as rotas de logs: " + e.getMessage(), e);
+        }
+    }
+
+    synchronized void load(List<LogRoute> loaded) {
+        Map<Long, Destination[]> table = new HashMap<>();
+        Set<Destination> used = new HashSet<>();
+        used.add(defaultDestination);
+        // Rotas da guild primeiro, para que as rotas por tipo as sobrescrevam
+        loaded.stream().filter(route -> route.eventType == null).forEach(route -> {
+            Destination[] byType = table.computeIfAbsent(route.guildId, guild -> new Destination[TYPES.length]);
+            Arrays.fill(byType, destination(route, used));
+        });
+        loaded.stream().filter(route -> route.eventType != null).forEach(route -> {
+            Destination[] byType = table.computeIfAbsent(route.guildId, guild -> new Destination[TYPES.length]);
+            byType[route.eventType.ordinal()] = destination(route, used);
+        });
+        destinations.values().retainAll(used);
+        // Canais que não existiam ou estavam sem permissão na última consulta são procurados de novo
+        used.forEach(Destination::invalidate);
+        routes = table;
+        rows = List.copyOf(loaded);
+    }
+
+    private Destination destination(LogRoute route, Set<Destination> used) {
+        Destination destination = destinations.computeIfAbsent(Long.toString(route.channelId),
+                channelId -> new Destination(channelId, false));
+        used.add(destination);
+        return destination;
+    }
+
+    /**
+     * Destino dos logs do tipo na guild; null se o canal padrão for o destino e o espelhamento nele
+     * estiver desligado (canal em outro nó ou reprovado na verificação).
+     */
+    public Destination route(Long guildId, LogEventType type) {
+        Destination[] byType = guildId != null ? routes.get(guildId) : null;
+        Destination destination = byType != null && byType[type.ordinal()] != null ? byType[type.ordinal()] : defaultDestination;
+        if (destination.isDefault && discordBotService.isMirrorDisabled()) {
+            return null;
+        }
+        return destination;
+    }
+
+    /**
+     * Canal do destino, ou null se ele não existe neste nó ou o bot não pode escrever nele.
+     */
+    public TextChannel channelOf(Destination destination) {
+        if (!destination.resolved) {
+            TextChannel channel = discordBotService.getTextChannelById(destination.channelId);
+            if (channel == null) {
+                LOGGER.warn("Canal de logs não encontrado! ID: " + destination.channelId);
+            } else if (!channel.canTalk()) {
+                LOGGER.warn("Bot não tem permissão para enviar mensagens no canal de logs " + channel.getName());
+                channel = null;
+            }
+            destination.channel = channel;
+            destination.resolved = true;
+        }
+        return destination.channel;
+    }
+
+    /**
+     * Se o destino ainda faz parte da tabela de rotas; destinos descartados numa recarga não voltam.
+     */
+    public boolean isActive(Destination destination) {
+        return destinations.get(destination.channelId) == destination;
+    }
+
+    public void invalidateChannel(long channelId) {
+        Destination destination = destinations.get(Long.toString(channelId));
+        if (destination != null) {
+            destination.invalidate();
+        }
+    }
+
+    /**
+     * Permissões de cargos ou do bot mudaram: os canais são verificados de novo no próximo envio.
+     * Mudanças assim são raras, então não vale separar os destinos por guild.
+     */
+    public void invalidateAll() {
+        destinations.values().forEach(Destination::invalidate);
+    }
+
+    /**
+     * Grava a rota e recarrega a tabela; os próximos logs já seguem a rota nova.
+     */
+    public void setRoute(long guildId, LogEventType type, long channelId, long updatedBy) {
+        routeRepository.save(guildId, type, channelId, updatedBy);
+        refresh();
+        LOGGER.info("Rota de logs alterada: guild " + guildId + (type != null ? " tipo " + type : "") + " → canal " + channelId);
+    }
+
+    public boolean removeRoute(long guildId, LogEventType type) {
+        boolean removed = routeRepository.remove(guildId, type);
+        if (removed) {
+            refresh();
+        }
+        return removed;
+    }
+
+    public List<LogRoute> getRoutes(long guildId) {
+        return rows.stream().filter(route -> route.guildId == guildId).toList();
+    }
+
+    public String getDefaultChannelId() {
+        return logChannelId;
+    }
+}
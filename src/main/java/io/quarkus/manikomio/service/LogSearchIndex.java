@@ -0,0 +1,451 @@
+package io.quarkus.manikomio.service;
+
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Índice invertido do conteúdo das mensagens, persistido em disco.
+ * Os documentos novos entram num segmento em memória; {@link #flush()} o grava como um segmento imutável
+ * (seg-GERAÇÃO.idx) lido via mmap, e {@link #merge(long)} junta os segmentos pequenos em um maior,
+ * descartando documentos expirados. O arquivo manifest lista os segmentos vivos e o checkpoint: o maior
+ * id até o qual todos os documentos já estão em disco. Depois de uma queda, quem usa o índice reindexa
+ * a partir do checkpoint com {@link #addBackfill}.
+ * <p>
+ * Um documento pode acabar indexado duas vezes (backfill depois de uma queda); a busca e o merge
+ * descartam as repetições pelo id.
+ * <p>
+ * Thread-safe. flush e merge devem ser chamados por uma única thread de manutenção.
+ */
+final class LogSearchIndex implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(LogSearchIndex.class);
+
+    private static final String SEGMENT_PREFIX = "seg-";
+    private static final String SEGMENT_SUFFIX = ".idx";
+    private static final String MANIFEST_FILE = "manifest";
+
+    // Parâmetros usuais do BM25
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    record Document(long id, long guildId, long channelId, long createdAtMillis, String text) {
+    }
+
+    record Hit(long id, double score, long createdAtMillis) {
+    }
+
+    private final Path directory;
+    private final int bufferDocs;
+    private final int mergeFactor;
+    private final int maxSegmentDocs;
+
+    // Protegidos pelo monitor
+    private MemorySearchSegment active = new MemorySearchSegment();
+    private final List<FrozenSegment> frozen = new ArrayList<>();
+    private long checkpoint;
+    private long generation;
+    private long backfillHigh;
+    private long liveLow = Long.MAX_VALUE;
+    private long liveHigh;
+    private boolean backfillDone;
+
+    // Copy-on-write: a busca lê uma cópia sem segurar o monitor
+    private volatile List<MappedSearchSegment> segments = List.of();
+
+    private record FrozenSegment(MemorySearchSegment segment, long checkpoint) {
+    }
+
+    LogSearchIndex(Path directory, int bufferDocs, int mergeFactor, int maxSegmentDocs) throws IOException {
+        this.directory = directory;
+        this.bufferDocs = bufferDocs;
+        this.mergeFactor = Math.max(2, mergeFactor);
+        this.maxSegmentDocs = maxSegmentDocs;
+        Files.createDirectories(directory);
+        open();
+    }
+
+    private void open() throws IOException {
+        Properties manifest = new Properties();
+        Path manifestFile = directory.resolve(MANIFEST_FILE);
+        if (Files.exists(manifestFile)) {
+            try (Reader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+                manifest.load(reader);
+            }
+        }
+        checkpoint = Long.parseLong(manifest.getProperty("checkpoint", "0"));
+        generation = Long.parseLong(manifest.getProperty("generation", "0"));
+        backfillHigh = checkpoint;
+
+        Set<String> live = new LinkedHashSet<>();
+        for (String name : manifest.getProperty("segments", "").split(",")) {
+            if (!name.isBlank()) {
+                live.add(name.trim());
+            }
+        }
+        List<MappedSearchSegment> opened = new ArrayList<>();
+        for (String name : live) {
+            opened.add(MappedSearchSegment.open(directory.resolve(name)));
+        }
+        segments = List.copyOf(opened);
+
+        // Segmentos fora do manifest são de um flush ou merge interrompido
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                if (!live.contains(file.getFileName().toString())) {
+                    Files.delete(file);
+                }
+            }
+        }
+        LOGGER.info("Índice de busca aberto: " + segments.size() + " segmentos, " + docCount()
+                + " documentos, checkpoint=" + checkpoint);
+    }
+
+    /**
+     * Indexa logs recém-gravados no banco, em ordem crescente de id. Ignora o que o backfill já cobriu.
+     */
+    synchronized void addLive(List<Document> documents) {
+        for (Document document : documents) {
+            if (document.id() <= backfillHigh || document.id() <= liveHigh) {
+                continue;
+            }
+            liveLow = Math.min(liveLow, document.id());
+            liveHigh = document.id();
+            addToActive(document);
+        }
+    }
+
+    /**
+     * Indexa logs antigos lidos do banco, em ordem crescente de id. Retorna false quando o backfill
+     * alcançou os logs que já chegaram pelo {@link #addLive}, e pode parar.
+     */
+    synchronized boolean addBackfill(List<Document> documents) {
+        for (Document document : documents) {
+            if (document.id() >= liveLow) {
+                return false;
+            }
+            if (document.id() > backfillHigh) {
+                backfillHigh = document.id();
+                addToActive(document);
+            }
+        }
+        return true;
+    }
+
+    synchronized void finishBackfill() {
+        backfillDone = true;
+    }
+
+    synchronized long checkpoint() {
+        return checkpoint;
+    }
+
+    private void addToActive(Document document) {
+        List<String> tokens = SearchTokenizer.tokenize(document.text());
+        if (tokens.isEmpty()) {
+            return;
+        }
+        active.add(document.id(), document.guildId(), document.channelId(), document.createdAtMillis(), tokens);
+        if (active.docCount() >= bufferDocs) {
+            freeze();
+        }
+    }
+
+    // O checkpoint só avança até onde não há buracos: durante o backfill, até o último id do backfill
+    private void freeze() {
+        if (active.docCount() == 0) {
+            return;
+        }
+        long safeCheckpoint = backfillDone ? Math.max(liveHigh, backfillHigh) : backfillHigh;
+        frozen.add(new FrozenSegment(active, safeCheckpoint));
+        active = new MemorySearchSegment();
+    }
+
+    /**
+     * Grava em disco o segmento em memória e os que já estavam aguardando.
+     */
+    void flush() throws IOException {
+        synchronized (this) {
+            freeze();
+        }
+        while (true) {
+            FrozenSegment next;
+            synchronized (this) {
+                if (frozen.isEmpty()) {
+                    return;
+                }
+                next = frozen.get(0);
+            }
+            MappedSearchSegment written = writeSegment(next.segment());
+            synchronized (this) {
+                List<MappedSearchSegment> updated = new ArrayList<>(segments);
+                updated.add(written);
+                segments = List.copyOf(updated);
+                frozen.remove(0);
+                checkpoint = Math.max(checkpoint, next.checkpoint());
+                writeManifest();
+            }
+        }
+    }
+
+    /**
+     * Remove os segmentos com todos os documentos anteriores a expireBeforeMillis e, se houver mais
+     * segmentos que o fator de merge, junta os menores. Retorna o número de segmentos removidos ou juntados.
+     */
+    int merge(long expireBeforeMillis) throws IOException {
+        List<MappedSearchSegment> current = segments;
+        List<MappedSearchSegment> expired = current.stream()
+                .filter(segment -> segment.maxCreatedAtMillis() < expireBeforeMillis)
+                .toList();
+        List<MappedSearchSegment> remaining = new ArrayList<>(current);
+        remaining.removeAll(expired);
+
+        List<MappedSearchSegment> inputs = new ArrayList<>();
+        if (remaining.size() > mergeFactor) {
+            remaining.sort(Comparator.comparingInt(MappedSearchSegment::docCount));
+            long docs = 0;
+            for (MappedSearchSegment segment : remaining) {
+                if (inputs.size() == mergeFactor || docs + segment.docCount() > maxSegmentDocs) {
+                    break;
+                }
+                inputs.add(segment);
+                docs += segment.docCount();
+            }
+            if (inputs.size() < 2) {
+                inputs.clear();
+            }
+        }
+        if (expired.isEmpty() && inputs.isEmpty()) {
+            return 0;
+        }
+
+        MappedSearchSegment merged = inputs.isEmpty() ? null : writeSegment(mergeSegments(inputs, expireBeforeMillis));
+        synchronized (this) {
+            List<MappedSearchSegment> updated = new ArrayList<>(segments);
+            updated.removeAll(expired);
+            updated.removeAll(inputs);
+            if (merged != null && merged.docCount() > 0) {
+                updated.add(merged);
+            }
+            segments = List.copyOf(updated);
+            writeManifest();
+        }
+        if (merged != null && merged.docCount() == 0) {
+            Files.deleteIfExists(merged.path());
+        }
+        // Buscas em andamento continuam lendo o mmap mesmo com o arquivo apagado
+        for (MappedSearchSegment segment : expired) {
+            Files.deleteIfExists(segment.path());
+        }
+        for (MappedSearchSegment segment : inputs) {
+            Files.deleteIfExists(segment.path());
+        }
+        LOGGER.debug("Índice de busca: " + inputs.size() + " segmentos juntados, " + expired.size() + " expirados");
+        return expired.size() + inputs.size();
+    }
+
+    private static MemorySearchSegment mergeSegments(List<MappedSearchSegment> inputs, long expireBeforeMillis) {
+        MemorySearchSegment merged = new MemorySearchSegment();
+        Set<Long> seen = new HashSet<>();
+        for (MappedSearchSegment input : inputs) {
+            int[] remap = new int[input.docCount()];
+            for (int ord = 0; ord < input.docCount(); ord++) {
+                long id = input.docId(ord);
+                if (input.createdAtMillis(ord) < expireBeforeMillis || !seen.add(id)) {
+                    remap[ord] = -1;
+                } else {
+                    remap[ord] = merged.addDocument(id, input.guildId(ord), input.channelId(ord),
+                            input.createdAtMillis(ord), input.length(ord));
+                }
+            }
+            // Cada entrada recebe ordinais maiores que as anteriores, então as postings continuam em ordem
+            input.forEachTerm((term, postings) -> {
+                for (int i = 0; i < postings.size(); i++) {
+                    int ord = remap[postings.ord(i)];
+                    if (ord >= 0) {
+                        merged.addPosting(term, ord, postings.freq(i));
+                    }
+                }
+            });
+        }
+        return merged;
+    }
+
+    private MappedSearchSegment writeSegment(MemorySearchSegment segment) throws IOException {
+        long number;
+        synchronized (this) {
+            number = ++generation;
+        }
+        Path file = directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+        MappedSearchSegment.write(file, segment);
+        return MappedSearchSegment.open(file);
+    }
+
+    // Grava em arquivo temporário e renomeia, para o manifest nunca ficar pela metade
+    private void writeManifest() throws IOException {
+        Properties manifest = new Properties();
+        manifest.setProperty("checkpoint", Long.toString(checkpoint));
+        manifest.setProperty("generation", Long.toString(generation));
+        List<String> names = new ArrayList<>();
+        segments.forEach(segment -> names.add(segment.path().getFileName().toString()));
+        manifest.setProperty("segments", String.join(",", names));
+
+        Path temp = directory.resolve(MANIFEST_FILE + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            manifest.store(writer, null);
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Documentos da guild (e do canal, se informado) que contêm todos os termos, ordenados por relevância
+     * (BM25) e, no empate, do mais recente para o mais antigo.
+     */
+    List<Hit> search(long guildId, Long channelId, List<String> terms, int limit) {
+        List<String> unique = List.copyOf(new LinkedHashSet<>(terms));
+        if (unique.isEmpty()) {
+            return List.of();
+        }
+
+        // Estatísticas globais: somatório de todos os segmentos, em disco e em memória. A lista de segmentos
+        // em disco é lida junto com os de memória para um flush no meio não esconder nem duplicar documentos.
+        List<MappedSearchSegment> onDisk;
+        long[] docFrequency = new long[unique.size()];
+        Map<Long, Hit> hits = new HashMap<>();
+        Scorer scorer;
+        synchronized (this) {
+            onDisk = segments;
+            List<SearchSegment> all = new ArrayList<>(onDisk);
+            all.add(active);
+            frozen.forEach(f -> all.add(f.segment()));
+            long docs = 0;
+            long tokens = 0;
+            for (SearchSegment segment : all) {
+                docs += segment.docCount();
+                tokens += segment.totalTokens();
+                addDocFrequencies(segment, unique, docFrequency);
+            }
+            scorer = new Scorer(docs, tokens, docFrequency);
+            for (SearchSegment segment : all.subList(onDisk.size(), all.size())) {
+                collect(segment, guildId, channelId, unique, scorer, hits);
+            }
+        }
+        for (SearchSegment segment : onDisk) {
+            collect(segment, guildId, channelId, unique, scorer, hits);
+        }
+
+        List<Hit> ranked = new ArrayList<>(hits.values());
+        ranked.sort(Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparing(Comparator.comparingLong(Hit::createdAtMillis).reversed()));
+        return ranked.size() > limit ? List.copyOf(ranked.subList(0, limit)) : ranked;
+    }
+
+    private static void addDocFrequencies(SearchSegment segment, List<String> terms, long[] docFrequency) {
+        for (int i = 0; i < terms.size(); i++) {
+            SearchSegment.Postings postings = segment.postings(terms.get(i));
+            if (postings != null) {
+                docFrequency[i] += postings.size();
+            }
+        }
+    }
+
+    // Interseção das postings, começando pelo termo mais raro do segmento
+    private static void collect(SearchSegment segment, long guildId, Long channelId, List<String> terms,
+                                Scorer scorer, Map<Long, Hit> hits) {
+        SearchSegment.Postings[] postings = new SearchSegment.Postings[terms.size()];
+        Integer[] order = new Integer[terms.size()];
+        for (int i = 0; i < terms.size(); i++) {
+            postings[i] = segment.postings(terms.get(i));
+            if (postings[i] == null) {
+                return;
+            }
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> postings[i].size()));
+
+        Map<Integer, Double> candidates = new HashMap<>();
+        SearchSegment.Postings rarest = postings[order[0]];
+        for (int i = 0; i < rarest.size(); i++) {
+            int ord = rarest.ord(i);
+            if (segment.guildId(ord) == guildId && (channelId == null || segment.channelId(ord) == channelId)) {
+                candidates.put(ord, scorer.score(order[0], rarest.freq(i), segment.length(ord)));
+            }
+        }
+        for (int t = 1; t < order.length && !candidates.isEmpty(); t++) {
+            SearchSegment.Postings termPostings = postings[order[t]];
+            Map<Integer, Double> matched = new HashMap<>();
+            for (int i = 0; i < termPostings.size(); i++) {
+                Double score = candidates.get(termPostings.ord(i));
+                if (score != null) {
+                    int ord = termPostings.ord(i);
+                    matched.put(ord, score + scorer.score(order[t], termPostings.freq(i), segment.length(ord)));
+                }
+            }
+            candidates = matched;
+        }
+
+        candidates.forEach((ord, score) -> hits.merge(segment.docId(ord),
+                new Hit(segment.docId(ord), score, segment.createdAtMillis(ord)),
+                (a, b) -> a.score() >= b.score() ? a : b));
+    }
+
+    private record Scorer(long docs, long tokens, long[] docFrequency) {
+        double score(int term, int freq, int length) {
+            double idf = Math.log(1 + (docs - docFrequency[term] + 0.5) / (docFrequency[term] + 0.5));
+            double averageLength = docs == 0 ? 1 : (double) tokens / docs;
+            return idf * freq * (K1 + 1) / (freq + K1 * (1 - B + B * length / averageLength));
+        }
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    synchronized int bufferedDocs() {
+        int buffered = active.docCount();
+        for (FrozenSegment f : frozen) {
+            buffered += f.segment().docCount();
+        }
+        return buffered;
+    }
+
+    long docCount() {
+        long docs = 0;
+        for (MappedSearchSegment segment : segments) {
+            docs += segment.docCount();
+        }
+        return docs;
+    }
+
+    /**
+     * Grava o que estiver em memória. Os segmentos mapeados são liberados pelo GC.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
@@ -0,0 +1,253 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogPage;
+import io.quarkus.manikomio.model.ServerLog;
+import io.quarkus.manikomio.repository.ServerLogRepository;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Busca textual no conteúdo das mensagens (!logs search) sobre o {@link LogSearchIndex}.
+ * O índice é alimentado pelo write-behind depois de cada lote gravado e, na inicialização, completado
+ * a partir do banco com o que ficou depois do último checkpoint. Os segmentos em memória são gravados
+ * e os pequenos juntados em segundo plano pelo job de manutenção.
+ */
+@ApplicationScoped
+public class LogSearchService {
+
+    private static final Logger LOGGER = Logger.getLogger(LogSearchService.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+    private static final long BACKFILL_RETRY_MS = 10_000;
+
+    @ConfigProperty(name = "logs.search.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "logs.search.directory", defaultValue = "data/search")
+    String directory;
+
+    @ConfigProperty(name = "logs.search.buffer-docs", defaultValue = "10000")
+    int bufferDocs;
+
+    @ConfigProperty(name = "logs.search.merge-factor", defaultValue = "10")
+    int mergeFactor;
+
+    @ConfigProperty(name = "logs.search.max-segment-docs", defaultValue = "2000000")
+    int maxSegmentDocs;
+
+    @ConfigProperty(name = "logs.search.max-hits", defaultValue = "200")
+    int maxHits;
+
+    @ConfigProperty(name = "logs.search.retention-days", defaultValue = "90")
+    int retentionDays;
+
+    @Inject
+    ServerLogRepository logRepository;
+
+    @Inject
+    NameDictionaryService nameDictionary;
+
+    private LogSearchIndex index;
+    private Thread backfill;
+    private volatile boolean running;
+
+    @PostConstruct
+    void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            index = new LogSearchIndex(Path.of(directory), bufferDocs, mergeFactor, maxSegmentDocs);
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível abrir o índice de busca em " + directory, e);
+        }
+        running = true;
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        if (index == null) {
+            return;
+        }
+        backfill = new Thread(this::runBackfill, "log-search-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        if (index == null) {
+            return;
+        }
+        running = false;
+        try {
+            index.close();
+        } catch (IOException e) {
+            LOGGER.error("Erro ao gravar o índice de busca: " + e.getMessage(), e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return index != null;
+    }
+
+    /**
+     * Indexa as mensagens de um lote já gravado no banco (com id atribuído).
+     */
+    public void index(Iterable<ServerLog> logs) {
+        if (index == null) {
+            return;
+        }
+        List<LogSearchIndex.Document> documents = new ArrayList<>();
+        for (ServerLog log : logs) {
+            if (isSearchable(log)) {
+                documents.add(toDocument(log));
+            }
+        }
+        if (!documents.isEmpty()) {
+            index.addLive(documents);
+        }
+    }
+
+    private static boolean isSearchable(ServerLog log) {
+        return log.id != null && log.guildId != null && log.message != null
+                && (log.eventType == LogEventType.MESSAGE_SENT || log.eventType == LogEventType.MESSAGE_EDITED);
+    }
+
+    private static LogSearchIndex.Document toDocument(ServerLog log) {
+        return new LogSearchIndex.Document(log.id, log.guildId, log.channelId != null ? log.channelId : 0,
+                log.createdAt.toInstant().toEpochMilli(), log.message);
+    }
+
+    // Reindexa o que foi gravado depois do último checkpoint, até encontrar o que já chegou pelo write-behind
+    private void runBackfill() {
+        long after = index.checkpoint();
+        long indexed = 0;
+        while (running) {
+            try {
+                List<ServerLog> logs = logRepository.findMessagesAfter(after, BACKFILL_BATCH_SIZE);
+                if (logs.isEmpty() || !index.addBackfill(logs.stream().map(LogSearchService::toDocument).toList())) {
+                    break;
+                }
+                after = logs.get(logs.size() - 1).id;
+                indexed += logs.size();
+            } catch (Exception e) {
+                LOGGER.error("Erro ao reconstruir o índice de busca, nova tentativa em breve: " + e.getMessage());
+                try {
+                    Thread.sleep(BACKFILL_RETRY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        index.finishBackfill();
+        if (indexed > 0) {
+            LOGGER.info("Índice de busca: " + indexed + " mensagens reindexadas a partir do banco");
+        }
+    }
+
+    @Scheduled(every = "${logs.search.maintenance-interval:10s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void maintain() {
+        if (index == null) {
+            return;
+        }
+        try {
+            index.flush();
+            long expireBefore = System.currentTimeMillis() - Duration.ofDays(retentionDays).toMillis();
+            index.merge(expireBefore);
+        } catch (Exception e) {
+            LOGGER.error("Erro na manutenção do índice de busca: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ids dos logs da guild (e do canal, se informado) com todos os termos, do mais para o menos relevante.
+     */
+    public List<Long> search(long guildId, Long channelId, String text) {
+        if (index == null) {
+            return List.of();
+        }
+        List<LogSearchIndex.Hit> hits = index.search(guildId, channelId, SearchTokenizer.tokenize(text), maxHits);
+        List<Long> ids = new ArrayList<>(hits.size());
+        hits.forEach(hit -> ids.add(hit.id()));
+        return ids;
+    }
+
+    /**
+     * Carrega os logs na ordem dos ids. Os que já saíram do banco pela retenção são ignorados.
+     */
+    public LogPage fetch(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return LogPage.empty();
+        }
+        Map<Long, ServerLog> byId = new HashMap<>();
+        logRepository.findByIds(ids).forEach(log -> byId.put(log.id, log));
+        List<ServerLog> logs = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ServerLog log = byId.get(id);
+            if (log != null) {
+                logs.add(log);
+            }
+        }
+        nameDictionary.resolve(logs);
+        return new LogPage(logs, null);
+    }
+
+    /**
+     * Telas dos resultados da busca: o cursor é a posição na lista de ids, que não muda durante a sessão.
+     */
+    LogPaginator.PageSource pages(List<Long> ids, int pageSize) {
+        return new LogPaginator.PageSource() {
+            @Override
+            public String start() {
+                return null;
+            }
+
+            @Override
+            public LogPage fetch(String cursor) {
+                int offset = offset(cursor);
+                int end = Math.min(ids.size(), offset + pageSize);
+                LogPage page = LogSearchService.this.fetch(ids.subList(offset, end));
+                return new LogPage(page.logs(), end < ids.size() ? Integer.toString(end) : null);
+            }
+
+            @Override
+            public String resume(String cursor, List<ServerLog> logs, int shown) {
+                // Logs removidos pela retenção não aparecem em logs, então a posição vem do id
+                int position = ids.indexOf(logs.get(shown - 1).id);
+                return Integer.toString(position + 1);
+            }
+
+            private int offset(String cursor) {
+                return cursor == null ? 0 : Integer.parseInt(cursor);
+            }
+        };
+    }
+
+    public int getSegmentCount() {
+        return index != null ? index.segmentCount() : 0;
+    }
+
+    public int getBufferedDocs() {
+        return index != null ? index.bufferedDocs() : 0;
+    }
+
+    public long getIndexedDocs() {
+        return index != null ? index.docCount() + index.bufferedDocs() : 0;
+    }
+}
@@ -0,0 +1,77 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Definição do comando /logs e das sugestões de autocomplete. O Discord valida os tipos e os
+ * intervalos das opções antes de o evento chegar ao bot.
+ */
+final class LogSlashCommands {
+
+    static final String NAME = "logs";
+    static final String OPTION_LIMIT = "limite";
+    static final String OPTION_USER = "usuario";
+    static final String OPTION_TYPE = "tipo";
+    static final String OPTION_PERIOD = "periodo";
+    static final String OPTION_CURSOR = "cursor";
+    static final String OPTION_TERMS = "termos";
+    static final String OPTION_CHANNEL = "canal";
+
+    private LogSlashCommands() {
+    }
+
+    static SlashCommandData definition(int maxPageSize) {
+        OptionData limit = new OptionData(OptionType.INTEGER, OPTION_LIMIT, "Quantidade de logs (máx. " + maxPageSize + ")")
+                .setRequiredRange(1, maxPageSize);
+        OptionData cursor = new OptionData(OptionType.STRING, OPTION_CURSOR, "Continuar a partir de um cursor");
+        return Commands.slash(NAME, "Consulta os logs do servidor")
+                .setGuildOnly(true)
+                .addSubcommands(
+                        new SubcommandData("recent", "Mostra os últimos logs")
+                                .addOptions(limit),
+                        new SubcommandData("user", "Mostra os logs de um usuário")
+                                .addOptions(new OptionData(OptionType.USER, OPTION_USER, "Usuário", true), cursor),
+                        new SubcommandData("type", "Mostra os logs de um tipo de evento")
+                                .addOptions(new OptionData(OptionType.STRING, OPTION_TYPE, "Tipo de evento", true)
+                                        .setAutoComplete(true), cursor),
+                        new SubcommandData("period", "Mostra os logs de um período")
+                                .addOptions(new OptionData(OptionType.STRING, OPTION_PERIOD, "Período, ex: 30m, 12h, 7d", true),
+                                        limit),
+                        new SubcommandData("search", "Busca no conteúdo das mensagens")
+                                .addOptions(new OptionData(OptionType.STRING, OPTION_TERMS, "Termos (todos precisam aparecer)", true),
+                                        new OptionData(OptionType.CHANNEL, OPTION_CHANNEL, "Só mensagens deste canal")),
+                        new SubcommandData("stats", "Estatísticas do período")
+                                .addOptions(new OptionData(OptionType.STRING, OPTION_PERIOD, "Período, ex: 24h, 7d (padrão 24h)")),
+                        new SubcommandData("route", "Define o canal que recebe os logs (sem canal, remove a rota)")
+                                .addOptions(new OptionData(OptionType.CHANNEL, OPTION_CHANNEL, "Canal de texto dos logs")
+                                                .setChannelTypes(ChannelType.TEXT),
+                                        new OptionData(OptionType.STRING, OPTION_TYPE, "Só este tipo de evento")
+                                                .setAutoComplete(true)),
+                        new SubcommandData("routes", "Mostra as rotas de logs do servidor"));
+    }
+
+    /**
+     * Tipos de evento que contêm o texto digitado, no limite de sugestões do Discord.
+     */
+    static List<Command.Choice> eventTypeChoices(String typed) {
+        String filter = typed == null ? "" : typed.trim().toUpperCase(Locale.ROOT);
+        List<Command.Choice> choices = new ArrayList<>();
+        for (LogEventType type : LogEventType.values()) {
+            if (type.name().contains(filter) && choices.size() < OptionData.MAX_CHOICES) {
+                choices.add(new Command.Choice(type.emoji() + " " + type.name(), type.name()));
+            }
+        }
+        return choices;
+    }
+}
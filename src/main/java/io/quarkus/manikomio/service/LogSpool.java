@@ -0,0 +1,561 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.ServerLog;
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Spool local, só de anexação, dos logs que ainda não foram gravados no banco.
+ * Os registros vão para segmentos (segment-SEQ.spool) via FileChannel e recebem uma sequência
+ * crescente. A chave de ingestão do log é o par (id do spool, sequência): o id é aleatório, criado
+ * junto com o diretório, e distingue spools de nós diferentes ou de um diretório recriado, que
+ * recomeçam a sequência do zero. O replayer lê em ordem e confirma o que já foi gravado com
+ * {@link #commit(long)}; o ponto de confirmação e o id do spool ficam no arquivo checkpoint.
+ * <p>
+ * Formato do registro: tamanho do payload (int), CRC32 de seq + payload (int), seq (long), payload.
+ * Na abertura, o fim do último segmento é validado e registros incompletos de uma queda são descartados.
+ * <p>
+ * Escrita thread-safe; leitura e commit devem ser feitos por uma única thread (o replayer).
+ */
+final class LogSpool implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(LogSpool.class);
+
+    enum FsyncPolicy {
+        // fsync a cada registro: nada se perde, mas cada log custa uma escrita síncrona no disco
+        ALWAYS,
+        // fsync periódico, feito por quem chama sync()
+        INTERVAL,
+        // o sistema operacional decide; sobrevive à queda do processo, não à da máquina
+        NEVER
+    }
+
+    record Entry(long seq, ServerLog log) {
+    }
+
+    static final int HEADER_BYTES = 16;
+    static final int MAX_PAYLOAD_BYTES = 1 << 20;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long maxBytes;
+    private final FsyncPolicy fsyncPolicy;
+    private final int residentCapacity;
+
+    // Segmentos pela primeira sequência que contêm
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    // Logs anexados por este processo e ainda não lidos: o replayer usa o próprio objeto e evita decodificar
+    private final Map<Long, ServerLog> resident = new ConcurrentHashMap<>();
+
+    // Escrita, protegida pelo monitor
+    private FileChannel writeChannel;
+    private long writeSegmentStart;
+    private long writeSegmentSize;
+    private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(64 * 1024);
+    private boolean dirty;
+    private volatile long nextSeq;
+
+    // Leitura, usada só pelo replayer
+    private FileChannel readChannel;
+    private long readSegmentStart = -1;
+    private long readPosition;
+    private long readSeq;
+    private final ByteBuffer readHeader = ByteBuffer.allocate(HEADER_BYTES);
+
+    private volatile long checkpoint;
+    private long spoolId;
+    private final long recoveredUntil;
+
+    LogSpool(Path directory, long segmentBytes, long maxBytes, FsyncPolicy fsyncPolicy, int residentCapacity)
+            throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.fsyncPolicy = fsyncPolicy;
+        this.residentCapacity = residentCapacity;
+
+        Files.createDirectories(directory);
+        checkpoint = readCheckpoint();
+        if (spoolId == 0) {
+            // Spool novo (ou checkpoint de uma versão sem id): o id precisa estar no disco antes do primeiro registro
+            spoolId = newSpoolId();
+            writeCheckpoint(checkpoint);
+            LOGGER.info("Spool de logs " + Long.toHexString(spoolId) + " criado em " + directory);
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                segments.put(segmentStart(file), file);
+                totalBytes.addAndGet(Files.size(file));
+            }
+        }
+
+        if (segments.isEmpty()) {
+            nextSeq = checkpoint;
+            openWriteSegment(checkpoint);
+        } else {
+            recoverLastSegment();
+            if (checkpoint > nextSeq) {
+                // Checkpoint à frente do spool (segmentos perdidos): nunca reutiliza sequências já confirmadas
+                nextSeq = checkpoint;
+                openWriteSegment(checkpoint);
+            }
+        }
+        recoveredUntil = nextSeq;
+        positionReader(Math.max(checkpoint, segments.firstKey()));
+
+        if (backlog() > 0) {
+            LOGGER.info("Spool de logs recuperado com " + backlog() + " registros pendentes em " + directory);
+        }
+    }
+
+    // Valida o último segmento do início ao fim e corta o que sobrou de uma escrita interrompida
+    private void recoverLastSegment() throws IOException {
+        Map.Entry<Long, Path> last = segments.lastEntry();
+        long seq = last.getKey();
+        long position = 0;
+        try (FileChannel channel = FileChannel.open(last.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            long next;
+            while ((next = validRecordEnd(channel, position, seq, header)) >= 0) {
+                position = next;
+                seq++;
+            }
+            long size = channel.size();
+            if (position < size) {
+                LOGGER.warn("Spool: descartando " + (size - position) + " bytes incompletos no fim de "
+                        + last.getValue().getFileName());
+                channel.truncate(position);
+                channel.force(true);
+                totalBytes.addAndGet(position - size);
+            }
+        }
+        nextSeq = seq;
+        writeSegmentStart = last.getKey();
+        writeSegmentSize = position;
+        writeChannel = FileChannel.open(last.getValue(), StandardOpenOption.WRITE);
+        writeChannel.position(position);
+    }
+
+    /**
+     * Anexa o log ao spool e define a chave de ingestão dele.
+     * Retorna a sequência do registro, ou -1 se o spool atingiu o tamanho máximo.
+     */
+    synchronized long append(ServerLog log) throws IOException {
+        long seq = nextSeq;
+        encode(seq, log);
+        int recordBytes = writeBuffer.remaining();
+        if (totalBytes.get() + recordBytes > maxBytes) {
+            return -1;
+        }
+        if (writeSegmentSize > 0 && writeSegmentSize + recordBytes > segmentBytes) {
+            rollSegment(seq);
+        }
+
+        while (writeBuffer.hasRemaining()) {
+            writeChannel.write(writeBuffer);
+        }
+        writeSegmentSize += recordBytes;
+        totalBytes.addAndGet(recordBytes);
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            writeChannel.force(false);
+        } else {
+            dirty = true;
+        }
+
+        log.ingestSpool = spoolId;
+        log.ingestKey = seq;
+        if (resident.size() < residentCapacity) {
+            resident.put(seq, log);
+        }
+        nextSeq = seq + 1;
+        notifyAll();
+        return seq;
+    }
+
+    /**
+     * Força para o disco o que foi anexado desde o último sync (política INTERVAL).
+     */
+    synchronized void sync() throws IOException {
+        if (dirty && writeChannel.isOpen()) {
+            writeChannel.force(false);
+            dirty = false;
+        }
+    }
+
+    /**
+     * Lê até {@code max} registros a partir da posição do replayer.
+     */
+    List<Entry> read(int max) throws IOException {
+        List<Entry> entries = new ArrayList<>(Math.min(max, 256));
+        while (entries.size() < max && readSeq < nextSeq) {
+            if (readPosition >= readChannel.size()) {
+                if (!advanceReadSegment()) {
+                    break;
+                }
+                continue;
+            }
+
+            readHeader.clear();
+            readFully(readChannel, readHeader, readPosition);
+            readHeader.flip();
+            int length = readHeader.getInt();
+            int crc = readHeader.getInt();
+            long seq = readHeader.getLong();
+            if (seq != readSeq || length < 0 || length > MAX_PAYLOAD_BYTES) {
+                skipCorruptSegment(seq);
+                continue;
+            }
+
+            ServerLog log = resident.remove(seq);
+            if (log == null) {
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                readFully(readChannel, payload, readPosition + HEADER_BYTES);
+                payload.flip();
+                if (checksum(seq, payload) != crc) {
+                    skipCorruptSegment(seq);
+                    continue;
+                }
+                log = decode(spoolId, seq, payload);
+            }
+            entries.add(new Entry(seq, log));
+            readPosition += HEADER_BYTES + length;
+            readSeq++;
+        }
+        return entries;
+    }
+
+    /**
+     * Espera até haver registros não lidos ou até o tempo acabar.
+     */
+    synchronized void awaitData(long timeoutMillis) throws InterruptedException {
+        if (readSeq >= nextSeq && timeoutMillis > 0) {
+            wait(timeoutMillis);
+        }
+    }
+
+    /**
+     * Confirma que todos os registros antes de {@code next} estão no banco e apaga os segmentos consumidos.
+     */
+    void commit(long next) throws IOException {
+        writeCheckpoint(next);
+        checkpoint = next;
+
+        Map.Entry<Long, Path> segment = segments.firstEntry();
+        while (segment != null) {
+            Long following = segments.higherKey(segment.getKey());
+            if (following == null || following > next || segment.getKey() == readSegmentStart) {
+                break;
+            }
+            long size = Files.size(segment.getValue());
+            Files.deleteIfExists(segment.getValue());
+            segments.remove(segment.getKey());
+            totalBytes.addAndGet(-size);
+            segment = segments.firstEntry();
+        }
+    }
+
+    // Registros anexados e ainda não confirmados no banco
+    long backlog() {
+        return nextSeq - checkpoint;
+    }
+
+    boolean hasUnread() {
+        return readSeq < nextSeq;
+    }
+
+    long sizeBytes() {
+        return totalBytes.get();
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    // Identifica este spool na chave de ingestão; sobrevive a reinícios, mas não a um diretório apagado
+    long spoolId() {
+        return spoolId;
+    }
+
+    // Registros abaixo desta sequência vieram de uma execução anterior e podem já estar no banco
+    long recoveredUntil() {
+        return recoveredUntil;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writeChannel.isOpen()) {
+            writeChannel.force(false);
+            writeChannel.close();
+        }
+        if (readChannel != null) {
+            readChannel.close();
+        }
+    }
+
+    private void rollSegment(long firstSeq) throws IOException {
+        writeChannel.force(false);
+        writeChannel.close();
+        dirty = false;
+        openWriteSegment(firstSeq);
+    }
+
+    private void openWriteSegment(long firstSeq) throws IOException {
+        Path file = directory.resolve(segmentName(firstSeq));
+        writeChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        writeChannel.position(writeChannel.size());
+        writeSegmentStart = firstSeq;
+        writeSegmentSize = writeChannel.size();
+        segments.put(firstSeq, file);
+    }
+
+    private void positionReader(long seq) throws IOException {
+        Map.Entry<Long, Path> segment = segments.floorEntry(seq);
+        openReadSegment(segment.getKey(), segment.getValue());
+        // Avança até a sequência pedida dentro do segmento
+        while (readSeq < seq && readPosition < readChannel.size()) {
+            readHeader.clear();
+            readFully(readChannel, readHeader, readPosition);
+            readHeader.flip();
+            int length = readHeader.getInt();
+            readHeader.getInt();
+            if (readHeader.getLong() != readSeq || length < 0 || length > MAX_PAYLOAD_BYTES) {
+                break;
+            }
+            readPosition += HEADER_BYTES + length;
+            readSeq++;
+        }
+        if (readSeq < seq) {
+            skipCorruptSegment(readSeq);
+        }
+    }
+
+    private boolean advanceReadSegment() throws IOException {
+        Map.Entry<Long, Path> next = segments.higherEntry(readSegmentStart);
+        if (next == null) {
+            return false;
+        }
+        openReadSegment(next.getKey(), next.getValue());
+        return true;
+    }
+
+    private void openReadSegment(long firstSeq, Path file) throws IOException {
+        if (readChannel != null) {
+            readChannel.close();
+        }
+        readChannel = FileChannel.open(file, StandardOpenOption.READ);
+        readSegmentStart = firstSeq;
+        readPosition = 0;
+        readSeq = firstSeq;
+    }
+
+    // Um registro corrompido invalida o resto do segmento, já que não há como achar o próximo registro
+    private void skipCorruptSegment(long seq) throws IOException {
+        if (readSegmentStart == writeSegmentStart) {
+            synchronized (this) {
+                rollSegment(nextSeq);
+            }
+        }
+        Map.Entry<Long, Path> next = segments.higherEntry(readSegmentStart);
+        LOGGER.error("Spool: registro corrompido perto da sequência " + seq + " em "
+                + segments.get(readSegmentStart).getFileName() + "; " + (next.getKey() - readSeq)
+                + " registros descartados");
+        openReadSegment(next.getKey(), next.getValue());
+    }
+
+    // Formato: "próxima-sequência id-do-spool"; versões antigas gravavam só a sequência
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        String[] fields = Files.readString(file).trim().split("\\s+");
+        if (fields.length > 1) {
+            spoolId = Long.parseUnsignedLong(fields[1], 16);
+        }
+        return Long.parseLong(fields[0]);
+    }
+
+    private static long newSpoolId() {
+        SecureRandom random = new SecureRandom();
+        long id;
+        do {
+            id = random.nextLong();
+        } while (id == 0);
+        return id;
+    }
+
+    // Grava em arquivo temporário e renomeia, para o checkpoint nunca ficar pela metade
+    private void writeCheckpoint(long next) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            String content = next + " " + Long.toHexString(spoolId);
+            channel.write(ByteBuffer.wrap(content.getBytes(StandardCharsets.US_ASCII)));
+            if (fsyncPolicy != FsyncPolicy.NEVER) {
+                channel.force(false);
+            }
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long validRecordEnd(FileChannel channel, long position, long expectedSeq, ByteBuffer header)
+            throws IOException {
+        long size = channel.size();
+        if (position + HEADER_BYTES > size) {
+            return -1;
+        }
+        header.clear();
+        readFully(channel, header, position);
+        header.flip();
+        int length = header.getInt();
+        int crc = header.getInt();
+        long seq = header.getLong();
+        if (seq != expectedSeq || length < 0 || length > MAX_PAYLOAD_BYTES || position + HEADER_BYTES + length > size) {
+            return -1;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(channel, payload, position + HEADER_BYTES);
+        payload.flip();
+        return checksum(seq, payload) == crc ? position + HEADER_BYTES + length : -1;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Fim inesperado do segmento do spool");
+            }
+        }
+    }
+
+    private static int checksum(long seq, ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        ByteBuffer seqBytes = ByteBuffer.allocate(Long.BYTES).putLong(0, seq);
+        crc.update(seqBytes);
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    // Serializa o registro completo (cabeçalho + payload) em writeBuffer, pronto para escrita
+    private void encode(long seq, ServerLog log) {
+        byte[] description = bytes(log.description);
+        byte[] message = bytes(log.message);
+        byte[] username = bytes(log.username);
+        byte[] channelName = bytes(log.channelName);
+        int payloadBytes = Short.BYTES + 1 + 3 * Long.BYTES + Long.BYTES + 2 * Integer.BYTES
+                + stringBytes(description) + stringBytes(message) + stringBytes(username) + stringBytes(channelName);
+        if (payloadBytes > MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("Log grande demais para o spool: " + payloadBytes + " bytes");
+        }
+        if (writeBuffer.capacity() < HEADER_BYTES + payloadBytes) {
+            writeBuffer = ByteBuffer.allocateDirect(HEADER_BYTES + payloadBytes);
+        }
+
+        writeBuffer.clear();
+        writeBuffer.position(HEADER_BYTES);
+        writeBuffer.putShort(log.eventType.code());
+        writeBuffer.put((byte) ((log.userId != null ? 1 : 0) | (log.channelId != null ? 2 : 0)
+                | (log.guildId != null ? 4 : 0)));
+        writeBuffer.putLong(log.userId != null ? log.userId : 0);
+        writeBuffer.putLong(log.channelId != null ? log.channelId : 0);
+        writeBuffer.putLong(log.guildId != null ? log.guildId : 0);
+        Instant instant = log.createdAt.toInstant();
+        writeBuffer.putLong(instant.getEpochSecond());
+        writeBuffer.putInt(instant.getNano());
+        writeBuffer.putInt(log.createdAt.getOffset().getTotalSeconds());
+        putString(description);
+        putString(message);
+        putString(username);
+        putString(channelName);
+        writeBuffer.flip();
+
+        ByteBuffer payload = writeBuffer.duplicate().position(HEADER_BYTES);
+        writeBuffer.putInt(0, payloadBytes);
+        writeBuffer.putInt(4, checksum(seq, payload));
+        writeBuffer.putLong(8, seq);
+    }
+
+    private void putString(byte[] value) {
+        if (value == null) {
+            writeBuffer.putInt(-1);
+        } else {
+            writeBuffer.putInt(value.length);
+            writeBuffer.put(value);
+        }
+    }
+
+    private static ServerLog decode(long spoolId, long seq, ByteBuffer payload) {
+        ServerLog log = new ServerLog();
+        log.ingestSpool = spoolId;
+        log.ingestKey = seq;
+        log.eventType = LogEventType.fromCode(payload.getShort());
+        byte present = payload.get();
+        long userId = payload.getLong();
+        long channelId = payload.getLong();
+        long guildId = payload.getLong();
+        log.userId = (present & 1) != 0 ? userId : null;
+        log.channelId = (present & 2) != 0 ? channelId : null;
+        log.guildId = (present & 4) != 0 ? guildId : null;
+        Instant instant = Instant.ofEpochSecond(payload.getLong(), payload.getInt());
+        log.createdAt = OffsetDateTime.ofInstant(instant, ZoneOffset.ofTotalSeconds(payload.getInt()));
+        log.description = getString(payload);
+        log.message = getString(payload);
+        log.username = getString(payload);
+        log.channelName = getString(payload);
+        return log;
+    }
+
+    private static String getString(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        payload.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringBytes(byte[] value) {
+        return Integer.BYTES + (value == null ? 0 : value.length);
+    }
+
+    static String segmentName(long firstSeq) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX);
+    }
+
+    private static long segmentStart(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
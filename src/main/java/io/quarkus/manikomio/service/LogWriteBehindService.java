@@ -0,0 +1,370 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.ServerLog;
+import io.quarkus.manikomio.repository.ServerLogRepository;
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estágio de escrita assíncrona (write-behind) dos logs.
+ * Os eventos são anexados a um spool local em disco ({@link LogSpool}) e uma thread replayer os grava
+ * em lotes no banco. Se o banco estiver lento ou fora do ar, os eventos continuam no spool e o lote é
+ * repetido com backoff; depois de uma queda do processo, o replay recomeça do último checkpoint.
+ * A chave de ingestão (sequência do spool) torna o replay idempotente.
+ */
+@ApplicationScoped
+public class LogWriteBehindService {
+
+    private static final Logger LOGGER = Logger.getLogger(LogWriteBehindService.class);
+
+    @ConfigProperty(name = "logs.write-behind.batch-size", defaultValue = "200")
+    int batchSize;
+
+    @ConfigProperty(name = "logs.write-behind.max-linger-ms", defaultValue = "250")
+    long maxLingerMs;
+
+    @ConfigProperty(name = "logs.write-behind.retry-max-backoff-ms", defaultValue = "30000")
+    long retryMaxBackoffMs;
+
+    @ConfigProperty(name = "logs.write-behind.shutdown-timeout-ms", defaultValue = "10000")
+    long shutdownTimeoutMs;
+
+    @ConfigProperty(name = "logs.spool.directory", defaultValue = "data/spool")
+    String spoolDirectory;
+
+    @ConfigProperty(name = "logs.spool.segment-size-mb", defaultValue = "64")
+    long segmentSizeMb;
+
+    @ConfigProperty(name = "logs.spool.max-size-mb", defaultValue = "1024")
+    long maxSizeMb;
+
+    @ConfigProperty(name = "logs.spool.fsync", defaultValue = "INTERVAL")
+    LogSpool.FsyncPolicy fsyncPolicy;
+
+    @ConfigProperty(name = "logs.spool.fsync-interval-ms", defaultValue = "200")
+    long fsyncIntervalMs;
+
+    @ConfigProperty(name = "logs.spool.resident-capacity", defaultValue = "10000")
+    int residentCapacity;
+
+    @Inject
+    ServerLogRepository logRepository;
+
+    @Inject
+    LogRollupService rollupService;
+
+    @Inject
+    NameDictionaryService nameDictionary;
+
+    @Inject
+    LogSearchService searchService;
+
+    @Inject
+    PipelineMetrics metrics;
+
+    private LogSpool spool;
+    private Thread writer;
+    private Thread syncer;
+    private volatile boolean running;
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong persistedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong duplicateCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        try {
+            spool = new LogSpool(Path.of(spoolDirectory), segmentSizeMb * 1024 * 1024, maxSizeMb * 1024 * 1024,
+                    fsyncPolicy, residentCapacity);
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível abrir o spool de logs em " + spoolDirectory, e);
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "log-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        if (fsyncPolicy == LogSpool.FsyncPolicy.INTERVAL) {
+            syncer = new Thread(this::runSyncer, "log-spool-sync");
+            syncer.setDaemon(true);
+            syncer.start();
+        }
+        LOGGER.info("Write-behind de logs iniciado (spool=" + spoolDirectory + ", fsync=" + fsyncPolicy
+                + ", lote=" + batchSize + ", espera máxima=" + maxLingerMs + "ms)");
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        stop();
+    }
+
+    /**
+     * Anexa o log ao spool. Não bloqueia no banco; retorna false só se o spool estiver cheio
+     * ou o disco falhar.
+     */
+    public boolean enqueue(ServerLog log) {
+        try {
+            if (spool.append(log) >= 0) {
+                enqueuedCount.incrementAndGet();
+                return true;
+            }
+            LOGGER.error("Spool de logs cheio (" + maxSizeMb + "MB), evento descartado: " + log.getEventType());
+        } catch (Exception e) {
+            LOGGER.error("Erro ao gravar log no spool, evento descartado: " + e.getMessage(), e);
+        }
+        rejectedCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Para a thread replayer. O que não chegar ao banco até o fim do prazo continua no spool
+     * e é gravado na próxima inicialização.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        LOGGER.info("Finalizando write-behind de logs (" + spool.backlog() + " pendentes)...");
+        running = false;
+        try {
+            writer.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            LOGGER.warn("Write-behind não terminou a tempo; " + spool.backlog()
+                    + " logs ficam no spool para a próxima inicialização");
+        } else {
+            LOGGER.info("Write-behind de logs finalizado (" + spool.backlog() + " logs no spool)");
+        }
+        try {
+            spool.close();
+        } catch (IOException e) {
+            LOGGER.error("Erro ao fechar o spool de logs: " + e.getMessage(), e);
+        }
+    }
+
+    private void runWriter() {
+        List<LogSpool.Entry> batch = new ArrayList<>(batchSize);
+        while (running || spool.hasUnread()) {
+            try {
+                fillBatch(batch);
+                if (!batch.isEmpty() && !flushWithRetry(batch)) {
+                    // Desligando com o banco indisponível: o restante fica no spool
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOGGER.error("Erro inesperado na thread de escrita de logs: " + e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void runSyncer() {
+        while (running) {
+            try {
+                Thread.sleep(fsyncIntervalMs);
+                spool.sync();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOGGER.error("Erro no fsync do spool de logs: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Espera o primeiro registro e segura o lote até encher ou até estourar a espera máxima
+    private void fillBatch(List<LogSpool.Entry> batch) throws InterruptedException, IOException {
+        batch.addAll(spool.read(batchSize));
+        if (batch.isEmpty()) {
+            spool.awaitData(maxLingerMs);
+            batch.addAll(spool.read(batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxLingerMs);
+        while (batch.size() < batchSize && running) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                return;
+            }
+            spool.awaitData(remaining);
+            batch.addAll(spool.read(batchSize - batch.size()));
+        }
+    }
+
+    /**
+     * Grava o lote, repetindo com backoff exponencial enquanto o banco falhar.
+     * Retorna false se o serviço foi parado antes de conseguir gravar.
+     */
+    private boolean flushWithRetry(List<LogSpool.Entry> batch) throws InterruptedException, IOException {
+        // Registros de uma execução anterior podem ter sido gravados antes do checkpoint
+        boolean uncertain = batch.get(0).seq() < spool.recoveredUntil();
+        long backoffMs = 100;
+        while (true) {
+            List<ServerLog> logs = null;
+            try {
+                logs = uncertain ? withoutIngested(batch) : toLogs(batch);
+            } catch (Exception e) {
+                LOGGER.error("Erro ao verificar logs já gravados, nova tentativa em breve: " + e.getMessage());
+            }
+            if (logs != null && flush(logs)) {
+                spool.commit(batch.get(batch.size() - 1).seq() + 1);
+                return true;
+            }
+            // A transação pode ter sido confirmada antes da falha chegar até aqui
+            uncertain = true;
+            if (logs != null) {
+                // Ids atribuídos na tentativa que falhou impediriam o persist seguinte
+                logs.forEach(log -> log.id = null);
+            }
+            if (!pause(backoffMs)) {
+                return false;
+            }
+            backoffMs = Math.min(backoffMs * 2, retryMaxBackoffMs);
+        }
+    }
+
+    private static List<ServerLog> toLogs(List<LogSpool.Entry> batch) {
+        List<ServerLog> logs = new ArrayList<>(batch.size());
+        batch.forEach(entry -> logs.add(entry.log()));
+        return logs;
+    }
+
+    private List<ServerLog> withoutIngested(List<LogSpool.Entry> batch) {
+        Set<Long> ingested = new HashSet<>(logRepository.findIngestKeys(spool.spoolId(), batch.get(0).seq(),
+                batch.get(batch.size() - 1).seq()));
+        List<ServerLog> logs = new ArrayList<>(batch.size());
+        for (LogSpool.Entry entry : batch) {
+            if (!ingested.contains(entry.seq())) {
+                logs.add(entry.log());
+            }
+        }
+        duplicateCount.addAndGet(batch.size() - logs.size());
+        return logs;
+    }
+
+    // Dorme em passos curtos para não atrasar o desligamento
+    private boolean pause(long millis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        while (running) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return true;
+            }
+            Thread.sleep(Math.min(remaining, 100));
+        }
+        return false;
+    }
+
+    private boolean flush(List<ServerLog> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            logRepository.persistBatch(batch);
+        } catch (Exception e) {
+            failedCount.addAndGet(batch.size());
+            LOGGER.error("Erro ao gravar lote de " + batch.size() + " logs, nova tentativa em breve: " + e.getMessage());
+            return false;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushCount.incrementAndGet();
+            lastFlushNanos.set(elapsed);
+            totalFlushNanos.addAndGet(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        }
+        persistedCount.addAndGet(batch.size());
+        LOGGER.debug("Lote de " + batch.size() + " logs gravado");
+        // O lote já está no banco: uma falha daqui em diante não pode provocar nova tentativa
+        afterCommit("métricas", () -> metrics.recordCommitted(batch));
+        afterCommit("rollups", () -> rollupService.record(batch));
+        afterCommit("dicionário de nomes", () -> nameDictionary.remember(batch));
+        afterCommit("índice de busca", () -> searchService.index(batch));
+        return true;
+    }
+
+    private void afterCommit(String step, Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            LOGGER.error("Erro ao atualizar " + step + " após gravar o lote: " + e.getMessage(), e);
+        }
+    }
+
+    // Registros no spool ainda não confirmados no banco
+    public long getSpoolLength() {
+        return spool.backlog();
+    }
+
+    public long getSpoolSizeBytes() {
+        return spool.sizeBytes();
+    }
+
+    public int getSpoolSegments() {
+        return spool.segmentCount();
+    }
+
+    public long getDuplicateCount() {
+        return duplicateCount.get();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueuedCount.get();
+    }
+
+    public long getPersistedCount() {
+        return persistedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public double getLastFlushLatencyMillis() {
+        return lastFlushNanos.get() / 1_000_000.0;
+    }
+
+    public double getMaxFlushLatencyMillis() {
+        return maxFlushNanos.get() / 1_000_000.0;
+    }
+
+    public double getAverageFlushLatencyMillis() {
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : totalFlushNanos.get() / 1_000_000.0 / flushes;
+    }
+}
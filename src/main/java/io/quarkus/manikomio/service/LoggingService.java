@@ -1,135 +1,142 @@
 package io.quarkus.manikomio.service;
 
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogPage;
+import io.quarkus.manikomio.model.LogRollup;
+import io.quarkus.manikomio.model.LogQuery;
 import io.quarkus.manikomio.model.ServerLog;
+import io.quarkus.manikomio.repository.ServerLogRepository;
+import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
-import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
-import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
-import java.awt.Color;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @ApplicationScoped
 public class LoggingService {
 
+    private static final Logger LOGGER = Logger.getLogger(LoggingService.class);
+
     @Inject
-    DiscordBotService discordBotService;
-
-    @ConfigProperty(name = "discord.bot.log-channel-id")
-    String logChannelId;
-
-    private String getEventEmoji(String eventType) {
-        return switch (eventType) {
-            case "MESSAGE_SENT" -> "✉️";
-            case "MESSAGE_EDITED" -> "📝";
-            case "MESSAGE_DELETED" -> "🗑️";
-            case "MEMBER_JOINED" -> "👋";
-            case "MEMBER_LEFT" -> "👋";
-            case "MEMBER_BANNED" -> "🔨";
-            case "MEMBER_UNBANNED" -> "🔓";
-            case "MEMBER_TIMEOUT" -> "⏰";
-            case "CHANNEL_CREATED" -> "📝";
-            case "CHANNEL_DELETED" -> "🗑️";
-            case "VOICE_JOINED" -> "🎤";
-            case "VOICE_LEFT" -> "🎤";
-            case "VOICE_MOVED" -> "🔄";
-            default -> "📋";
-        };
-    }
+    ServerLogRepository logRepository;
+
+    @Inject
+    LogWriteBehindService writeBehindService;
+
+    @Inject
+    LogMirrorService mirrorService;
+
+    @Inject
+    RecentLogCache recentLogCache;
+
+    @Inject
+    LogRollupService rollupService;
+
+    @Inject
+    NameDictionaryService nameDictionary;
+
+    @Inject
+    PipelineMetrics metrics;
 
-    @Transactional
-    public ServerLog createLog(String userId, String username, String eventType, String description, 
-                             String channelId, String channelName, String guildId, String message) {
-        try {
-            System.out.println("Iniciando criação de log...");
-            System.out.println("Parâmetros: userId=" + userId + ", username=" + username + ", eventType=" + eventType);
-            
-            // Criar o log no banco de dados
-            ServerLog log = new ServerLog();
-            log.setEventType(eventType);
-            log.setDescription(description);
-            log.setMessage(message);
-            log.setUserId(userId);
-            log.setUsername(username);
-            log.setChannelId(channelId);
-            log.setChannelName(channelName);
-            log.setGuildId(guildId);
-            log.setCreatedAt(OffsetDateTime.now());
-            
-            System.out.println("Persistindo log no banco de dados...");
-            log.persist();
-            System.out.println("Log persistido com sucesso!");
-
-            // Enviar mensagem para o canal de logs
-            System.out.println("Tentando enviar mensagem para o canal de logs (ID: " + logChannelId + ")...");
-            TextChannel logChannel = discordBotService.getJda().getTextChannelById(logChannelId);
-            if (logChannel != null) {
-                System.out.println("Canal de logs encontrado: " + logChannel.getName());
-                EmbedBuilder embed = new EmbedBuilder()
-                    .setColor(Color.BLUE)
-                    .setTitle(getEventEmoji(eventType) + " " + eventType)
-                    .setDescription(description)
-                    .addField("Usuário", username, true)
-                    .addField("Canal", channelName, true);
-
-                // Adiciona a mensagem/ação se existir
-                if (message != null && !message.isEmpty()) {
-                    embed.addField("Conteúdo", message, false);
-                }
-
-                embed.setTimestamp(OffsetDateTime.now());
-
-                logChannel.sendMessageEmbeds(embed.build()).queue(
-                    success -> System.out.println("Log enviado com sucesso para o canal"),
-                    error -> {
-                        System.err.println("Erro ao enviar log para o canal: " + error.getMessage());
-                        error.printStackTrace();
-                    }
-                );
-            } else {
-                System.err.println("Canal de logs não encontrado! ID: " + logChannelId);
-            }
-
-            return log;
-        } catch (Exception e) {
-            System.err.println("Erro ao criar log: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
+    @Inject
+    LogPolicyEngine policyEngine;
+
+    private final Consumer<ServerLog> publisher = this::publish;
+
+    /**
+     * Registra o evento, a menos que uma regra de ingestão o descarte ou agrupe; nesse caso retorna null.
+     */
+    public ServerLog createLog(Long userId, String username, LogEventType eventType, String description, 
+                             Long channelId, String channelName, Long guildId, String message) {
+        LOGGER.debug("Criando log: userId=" + userId + ", username=" + username + ", eventType=" + eventType);
+        metrics.recordIngested(eventType);
+        if (!policyEngine.admit(eventType, userId, username, channelId, channelName, guildId, description, message,
+                System.currentTimeMillis(), publisher)) {
+            return null;
         }
+
+        ServerLog log = new ServerLog();
+        log.setEventType(eventType);
+        log.setDescription(description);
+        log.setMessage(message);
+        log.setUserId(userId);
+        log.setUsername(username);
+        log.setChannelId(channelId);
+        log.setChannelName(channelName);
+        log.setGuildId(guildId);
+        log.setCreatedAt(OffsetDateTime.now());
+        publish(log);
+        return log;
+    }
+
+    private void publish(ServerLog log) {
+        // Vai para o spool local na hora; a gravação no banco é feita em lote pela thread de write-behind
+        writeBehindService.enqueue(log);
+        recentLogCache.add(log);
+
+        // O espelhamento no canal de logs é agrupado e limitado pelo LogMirrorService
+        mirrorService.publish(log);
+    }
+
+    // Resumos das repetições agrupadas cuja janela terminou sem um novo evento do mesmo usuário
+    @Scheduled(every = "${logs.policy.flush-interval:5s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void flushCoalesced() {
+        policyEngine.flushExpired(System.currentTimeMillis(), publisher);
     }
 
-    public List<ServerLog> getLogsByEventType(String eventType) {
-        return ServerLog.findByEventType(eventType);
+    public List<ServerLog> getLogsByEventType(LogEventType eventType, int limit) {
+        return withNames(logRepository.findByEventType(eventType, limit));
     }
 
-    public List<ServerLog> getLogsByUserId(String userId) {
-        return ServerLog.findByUserId(userId);
+    public List<ServerLog> getLogsByUserId(Long userId, int limit) {
+        return withNames(logRepository.findByUserId(userId, limit));
     }
 
-    public List<ServerLog> getLogsByChannelId(String channelId) {
-        return ServerLog.findByChannelId(channelId);
+    public List<ServerLog> getLogsByChannelId(Long channelId, int limit) {
+        return withNames(logRepository.findByChannelId(channelId, limit));
     }
 
-    public List<ServerLog> getLogsByDateRange(OffsetDateTime start, OffsetDateTime end) {
-        return ServerLog.findByDateRange(start, end);
+    public List<ServerLog> getLogsByDateRange(OffsetDateTime start, OffsetDateTime end, int limit) {
+        return withNames(logRepository.findByDateRange(start, end, limit));
     }
 
     public List<ServerLog> getLatestLogs(int limit) {
-        return ServerLog.findLatestLogs(limit);
+        return withNames(logRepository.findLatestLogs(limit));
+    }
+
+    public LogPage getLogs(LogQuery query) {
+        // Consultas recentes são respondidas da memória sem ir ao banco
+        return recentLogCache.find(query).orElseGet(() -> {
+            LogPage page = logRepository.findPage(query);
+            withNames(page.logs());
+            return page;
+        });
+    }
+
+    private List<ServerLog> withNames(List<ServerLog> logs) {
+        nameDictionary.resolve(logs);
+        return logs;
+    }
+
+    // As contagens vêm dos rollups, sem COUNT(*) na tabela de logs
+    public long countLogsByEventType(LogEventType eventType) {
+        return rollupService.countByEventType(eventType);
     }
 
-    public long countLogsByEventType(String eventType) {
-        return ServerLog.countByEventType(eventType);
+    public long countLogsByUserId(Long userId) {
+        return rollupService.countByUserId(userId);
     }
 
-    public long countLogsByUserId(String userId) {
-        return ServerLog.countByUserId(userId);
+    public long countLogsByChannelId(Long channelId) {
+        return rollupService.countByChannelId(channelId);
     }
 
-    public long countLogsByChannelId(String channelId) {
-        return ServerLog.countByChannelId(channelId);
+    public Map<String, Long> getStats(Long guildId, LogRollup.Dimension dimension, Duration period) {
+        return rollupService.countByDimension(guildId, dimension, period);
     }
-} 
\ No newline at end of file
+}
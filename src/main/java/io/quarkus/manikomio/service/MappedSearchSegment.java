@@ -0,0 +1,252 @@
+package io.quarkus.manikomio.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Segmento imutável do índice de busca, gravado uma vez e lido via mmap: nada além do cabeçalho
+ * fica no heap, e o sistema operacional mantém em cache as páginas dos termos mais buscados.
+ * <p>
+ * Formato (big-endian): cabeçalho; tabela de documentos (id, guild, canal, createdAt, tamanho);
+ * índice de termos (posição do termo, posição das postings) em ordem de bytes UTF-8; bytes dos termos
+ * (tamanho short + UTF-8); postings (quantidade int + pares ordinal/frequência).
+ * Acessos são todos absolutos, então o segmento pode ser lido por várias threads ao mesmo tempo.
+ */
+final class MappedSearchSegment implements SearchSegment {
+
+    static final int MAGIC = 0x4D4B5349;
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 72;
+    private static final int DOC_BYTES = 36;
+    private static final int TERM_ENTRY_BYTES = 12;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int docCount;
+    private final int termCount;
+    private final long totalTokens;
+    private final long maxCreatedAt;
+    private final int docsOffset;
+    private final int termIndexOffset;
+    private final int termDataOffset;
+    private final int postingsOffset;
+
+    private MappedSearchSegment(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Segmento de busca inválido: " + path);
+        }
+        docCount = buffer.getInt(8);
+        termCount = buffer.getInt(12);
+        totalTokens = buffer.getLong(16);
+        maxCreatedAt = buffer.getLong(24);
+        docsOffset = (int) buffer.getLong(32);
+        termIndexOffset = (int) buffer.getLong(40);
+        termDataOffset = (int) buffer.getLong(48);
+        postingsOffset = (int) buffer.getLong(56);
+        if (buffer.getLong(64) != buffer.capacity()) {
+            throw new IOException("Segmento de busca incompleto: " + path);
+        }
+    }
+
+    static MappedSearchSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Segmento de busca maior que 2GB: " + path);
+            }
+            return new MappedSearchSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Grava o segmento em memória no arquivo, com fsync antes de retornar.
+     */
+    static void write(Path path, MemorySearchSegment segment) throws IOException {
+        List<Map.Entry<byte[], MemorySearchSegment.PostingList>> terms = new ArrayList<>(segment.terms().size());
+        segment.terms().forEach((term, postings) -> terms.add(Map.entry(term.getBytes(StandardCharsets.UTF_8), postings)));
+        terms.sort((a, b) -> Arrays.compareUnsigned(a.getKey(), b.getKey()));
+
+        long docsOffset = HEADER_BYTES;
+        long termIndexOffset = docsOffset + (long) segment.docCount() * DOC_BYTES;
+        long termDataOffset = termIndexOffset + (long) terms.size() * TERM_ENTRY_BYTES;
+        long termDataBytes = 0;
+        long postingsBytes = 0;
+        for (Map.Entry<byte[], MemorySearchSegment.PostingList> term : terms) {
+            termDataBytes += 2 + term.getKey().length;
+            postingsBytes += 4 + 8L * term.getValue().size();
+        }
+        long postingsOffset = termDataOffset + termDataBytes;
+        long fileSize = postingsOffset + postingsBytes;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Segmento de busca maior que 2GB: " + path);
+        }
+
+        try (FileOutputStream file = new FileOutputStream(path.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(segment.docCount());
+            out.writeInt(terms.size());
+            out.writeLong(segment.totalTokens());
+            out.writeLong(segment.maxCreatedAtMillis());
+            out.writeLong(docsOffset);
+            out.writeLong(termIndexOffset);
+            out.writeLong(termDataOffset);
+            out.writeLong(postingsOffset);
+            out.writeLong(fileSize);
+
+            for (int ord = 0; ord < segment.docCount(); ord++) {
+                out.writeLong(segment.docId(ord));
+                out.writeLong(segment.guildId(ord));
+                out.writeLong(segment.channelId(ord));
+                out.writeLong(segment.createdAtMillis(ord));
+                out.writeInt(segment.length(ord));
+            }
+
+            int termPosition = 0;
+            long postingsPosition = 0;
+            for (Map.Entry<byte[], MemorySearchSegment.PostingList> term : terms) {
+                out.writeInt(termPosition);
+                out.writeLong(postingsPosition);
+                termPosition += 2 + term.getKey().length;
+                postingsPosition += 4 + 8L * term.getValue().size();
+            }
+            for (Map.Entry<byte[], MemorySearchSegment.PostingList> term : terms) {
+                out.writeShort(term.getKey().length);
+                out.write(term.getKey());
+            }
+            for (Map.Entry<byte[], MemorySearchSegment.PostingList> term : terms) {
+                MemorySearchSegment.PostingList postings = term.getValue();
+                out.writeInt(postings.size());
+                for (int i = 0; i < postings.size(); i++) {
+                    out.writeInt(postings.ord(i));
+                    out.writeInt(postings.freq(i));
+                }
+            }
+            out.flush();
+            file.getChannel().force(true);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public int docCount() {
+        return docCount;
+    }
+
+    @Override
+    public long totalTokens() {
+        return totalTokens;
+    }
+
+    @Override
+    public long maxCreatedAtMillis() {
+        return maxCreatedAt;
+    }
+
+    @Override
+    public long docId(int ord) {
+        return buffer.getLong(docsOffset + ord * DOC_BYTES);
+    }
+
+    @Override
+    public long guildId(int ord) {
+        return buffer.getLong(docsOffset + ord * DOC_BYTES + 8);
+    }
+
+    @Override
+    public long channelId(int ord) {
+        return buffer.getLong(docsOffset + ord * DOC_BYTES + 16);
+    }
+
+    @Override
+    public long createdAtMillis(int ord) {
+        return buffer.getLong(docsOffset + ord * DOC_BYTES + 24);
+    }
+
+    @Override
+    public int length(int ord) {
+        return buffer.getInt(docsOffset + ord * DOC_BYTES + 32);
+    }
+
+    @Override
+    public Postings postings(String term) {
+        byte[] key = term.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareTerm(middle, key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return postingsAt(middle);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void forEachTerm(BiConsumer<String, Postings> action) {
+        for (int i = 0; i < termCount; i++) {
+            int position = termDataOffset + buffer.getInt(termIndexOffset + i * TERM_ENTRY_BYTES);
+            byte[] term = new byte[buffer.getShort(position)];
+            buffer.get(position + 2, term);
+            action.accept(new String(term, StandardCharsets.UTF_8), postingsAt(i));
+        }
+    }
+
+    // Compara o termo de índice i com a chave, byte a byte sem sinal, sem copiar o termo para o heap
+    private int compareTerm(int index, byte[] key) {
+        int position = termDataOffset + buffer.getInt(termIndexOffset + index * TERM_ENTRY_BYTES);
+        int length = buffer.getShort(position);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int comparison = Integer.compare(buffer.get(position + 2 + i) & 0xFF, key[i] & 0xFF);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private Postings postingsAt(int index) {
+        int base = postingsOffset + (int) buffer.getLong(termIndexOffset + index * TERM_ENTRY_BYTES + 4);
+        int size = buffer.getInt(base);
+        return new Postings() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public int ord(int i) {
+                return buffer.getInt(base + 4 + i * 8);
+            }
+
+            @Override
+            public int freq(int i) {
+                return buffer.getInt(base + 8 + i * 8);
+            }
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package io.quarkus.manikomio.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Segmento em memória, que recebe os logs à medida que são gravados no banco e depois é gravado
+ * em disco como um {@link MappedSearchSegment}. Também é usado para montar o resultado dos merges.
+ * Não é thread-safe: o {@link LogSearchIndex} protege o acesso.
+ */
+final class MemorySearchSegment implements SearchSegment {
+
+    private long[] ids = new long[256];
+    private long[] guilds = new long[256];
+    private long[] channels = new long[256];
+    private long[] createdAt = new long[256];
+    private int[] lengths = new int[256];
+    private int docCount;
+    private long totalTokens;
+    private long maxCreatedAt = Long.MIN_VALUE;
+    private long maxDocId;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+
+    /**
+     * Indexa um documento já tokenizado e retorna o seu ordinal.
+     */
+    int add(long id, long guildId, long channelId, long createdAtMillis, List<String> tokens) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        int ord = addDocument(id, guildId, channelId, createdAtMillis, tokens.size());
+        frequencies.forEach((term, freq) -> addPosting(term, ord, freq));
+        return ord;
+    }
+
+    int addDocument(long id, long guildId, long channelId, long createdAtMillis, int length) {
+        if (docCount == ids.length) {
+            int capacity = docCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            guilds = Arrays.copyOf(guilds, capacity);
+            channels = Arrays.copyOf(channels, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        int ord = docCount++;
+        ids[ord] = id;
+        guilds[ord] = guildId;
+        channels[ord] = channelId;
+        createdAt[ord] = createdAtMillis;
+        lengths[ord] = length;
+        totalTokens += length;
+        maxCreatedAt = Math.max(maxCreatedAt, createdAtMillis);
+        maxDocId = Math.max(maxDocId, id);
+        return ord;
+    }
+
+    // Os ordinais de um termo precisam chegar em ordem crescente
+    void addPosting(String term, int ord, int freq) {
+        postings.computeIfAbsent(term, t -> new PostingList()).add(ord, freq);
+    }
+
+    Map<String, PostingList> terms() {
+        return postings;
+    }
+
+    long maxDocId() {
+        return maxDocId;
+    }
+
+    @Override
+    public int docCount() {
+        return docCount;
+    }
+
+    @Override
+    public long totalTokens() {
+        return totalTokens;
+    }
+
+    @Override
+    public long maxCreatedAtMillis() {
+        return maxCreatedAt;
+    }
+
+    @Override
+    public long docId(int ord) {
+        return ids[ord];
+    }
+
+    @Override
+    public long guildId(int ord) {
+        return guilds[ord];
+    }
+
+    @Override
+    public long channelId(int ord) {
+        return channels[ord];
+    }
+
+    @Override
+    public long createdAtMillis(int ord) {
+        return createdAt[ord];
+    }
+
+    @Override
+    public int length(int ord) {
+        return lengths[ord];
+    }
+
+    @Override
+    public Postings postings(String term) {
+        return postings.get(term);
+    }
+
+    @Override
+    public void forEachTerm(BiConsumer<String, Postings> action) {
+        postings.forEach(action);
+    }
+
+    // Pares (ordinal, frequência) intercalados num único array
+    static final class PostingList implements Postings {
+        private int[] data = new int[4];
+        private int size;
+
+        void add(int ord, int freq) {
+            if (size * 2 == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size * 2] = ord;
+            data[size * 2 + 1] = freq;
+            size++;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int ord(int index) {
+            return data[index * 2];
+        }
+
+        @Override
+        public int freq(int index) {
+            return data[index * 2 + 1];
+        }
+    }
+}
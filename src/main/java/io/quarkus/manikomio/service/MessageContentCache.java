@@ -0,0 +1,351 @@
+package io.quarkus.manikomio.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Conteúdo e autor das mensagens recentes, por id da mensagem. Quando o Discord avisa que uma mensagem
+ * foi apagada ou editada ele não manda mais o texto antigo, então os logs de exclusão e edição vêm daqui.
+ * <p>
+ * As mensagens ficam num buffer circular de bytes (fora do heap por padrão) e o índice id → posição é
+ * uma tabela de longs; o total dos dois nunca passa de {@code discord.message-cache.max-size-mb}.
+ * Quando falta espaço, as mais antigas são descartadas primeiro; também expiram após
+ * {@code discord.message-cache.ttl}. Uma edição regrava a mensagem no fim do buffer.
+ */
+@ApplicationScoped
+public class MessageContentCache {
+
+    private static final Logger LOGGER = Logger.getLogger(MessageContentCache.class);
+
+    // Registro: tamanho (int), id da mensagem, id do autor, gravado em (long), tamanho do nome (short), nome, conteúdo
+    private static final int LENGTH = 0;
+    private static final int MESSAGE_ID = 4;
+    private static final int AUTHOR_ID = 12;
+    private static final int STORED_AT = 20;
+    private static final int NAME_LENGTH = 28;
+    private static final int HEADER_BYTES = 30;
+    // Marca o resto do buffer, que não coube um registro, antes de voltar ao início
+    private static final int WRAP = -1;
+
+    private static final int MAX_NAME_CHARS = 100;
+    private static final int MAX_CONTENT_CHARS = 4000;
+    // Cabe pelo menos uma mensagem do tamanho máximo
+    static final int MIN_BUFFER_BYTES = HEADER_BYTES + 4 * (MAX_NAME_CHARS + MAX_CONTENT_CHARS);
+
+    private static final int MAX_FRAGMENT_CHARS = 50;
+
+    public record CachedMessage(long authorId, String authorName, String content) {
+    }
+
+    @ConfigProperty(name = "discord.message-cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "discord.message-cache.max-size-mb", defaultValue = "64")
+    int maxSizeMb;
+
+    @ConfigProperty(name = "discord.message-cache.max-messages", defaultValue = "500000")
+    int maxMessages;
+
+    @ConfigProperty(name = "discord.message-cache.ttl", defaultValue = "24h")
+    Duration ttl;
+
+    @ConfigProperty(name = "discord.message-cache.off-heap", defaultValue = "true")
+    boolean offHeap;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    private ByteBuffer buffer;
+    private int capacity;
+    private long ttlMillis;
+
+    // Posições lógicas (só crescem): os registros vivos ficam em [tail, head)
+    private long head;
+    private long tail;
+
+    // Endereçamento aberto com sondagem linear; id 0 marca posição livre
+    private long[] keys;
+    private long[] positions;
+    private int mask;
+    private int size;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        int slots = tableSize(maxMessages);
+        long budget = maxSizeMb * 1024L * 1024L;
+        long bufferBytes = Math.min(budget - slots * 16L, Integer.MAX_VALUE - 8);
+        if (bufferBytes < MIN_BUFFER_BYTES) {
+            throw new IllegalStateException("discord.message-cache.max-size-mb=" + maxSizeMb
+                    + " não comporta o índice de " + maxMessages + " mensagens");
+        }
+        capacity = (int) bufferBytes;
+        buffer = offHeap ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        keys = new long[slots];
+        positions = new long[slots];
+        mask = slots - 1;
+        ttlMillis = ttl.toMillis();
+        LOGGER.info("Cache de mensagens: " + (capacity >> 20) + " MB para conteúdo, índice para "
+                + maxMessages + " mensagens" + (offHeap ? " (fora do heap)" : ""));
+    }
+
+    private static int tableSize(int maxMessages) {
+        int slots = 2;
+        while (slots < 2L * maxMessages) {
+            slots <<= 1;
+        }
+        return slots;
+    }
+
+    public synchronized void remember(long messageId, long authorId, String authorName, String content) {
+        if (buffer == null || messageId <= 0) {
+            return;
+        }
+        byte[] name = utf8(authorName, MAX_NAME_CHARS);
+        byte[] text = utf8(content, MAX_CONTENT_CHARS);
+        int length = HEADER_BYTES + name.length + text.length;
+        long now = clock.getAsLong();
+        expire(now);
+
+        if (positionOf(messageId) < 0) {
+            while (size >= maxMessages && tail < head) {
+                evictOldest();
+            }
+        }
+
+        int position = physical(head);
+        long start = capacity - position < length ? head + (capacity - position) : head;
+        long end = start + length;
+        while (end - tail > capacity && tail < head) {
+            evictOldest();
+        }
+        if (end - tail > capacity) {
+            tail = start;
+        }
+        if (start != head && capacity - position >= 4) {
+            buffer.putInt(position, WRAP);
+        }
+
+        int offset = physical(start);
+        buffer.putInt(offset + LENGTH, length);
+        buffer.putLong(offset + MESSAGE_ID, messageId);
+        buffer.putLong(offset + AUTHOR_ID, authorId);
+        buffer.putLong(offset + STORED_AT, now);
+        buffer.putShort(offset + NAME_LENGTH, (short) name.length);
+        buffer.put(offset + HEADER_BYTES, name);
+        buffer.put(offset + HEADER_BYTES + name.length, text);
+        head = end;
+        insert(messageId, start);
+    }
+
+    /**
+     * Mensagem guardada com esse id, ou null se ela não passou pelo bot ou já foi descartada.
+     */
+    public synchronized CachedMessage find(long messageId) {
+        if (buffer == null) {
+            return null;
+        }
+        long start = positionOf(messageId);
+        if (start < 0) {
+            misses++;
+            return null;
+        }
+        int offset = physical(start);
+        if (clock.getAsLong() - buffer.getLong(offset + STORED_AT) > ttlMillis) {
+            remove(messageId);
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        int length = buffer.getInt(offset + LENGTH);
+        int nameLength = buffer.getShort(offset + NAME_LENGTH);
+        return new CachedMessage(buffer.getLong(offset + AUTHOR_ID),
+                string(offset + HEADER_BYTES, nameLength),
+                string(offset + HEADER_BYTES + nameLength, length - HEADER_BYTES - nameLength));
+    }
+
+    /**
+     * Como {@link #find}, mas também esquece a mensagem (usado quando ela é apagada).
+     */
+    public synchronized CachedMessage take(long messageId) {
+        CachedMessage message = find(messageId);
+        if (message != null) {
+            remove(messageId);
+        }
+        return message;
+    }
+
+    private void expire(long now) {
+        while (tail < head) {
+            int offset = physical(tail);
+            if (!isWrap(offset) && now - buffer.getLong(offset + STORED_AT) <= ttlMillis) {
+                return;
+            }
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        int offset = physical(tail);
+        if (isWrap(offset)) {
+            tail += capacity - offset;
+            return;
+        }
+        long messageId = buffer.getLong(offset + MESSAGE_ID);
+        // Registros de mensagens editadas ou apagadas depois já não estão no índice
+        if (positionOf(messageId) == tail) {
+            remove(messageId);
+            evictions++;
+        }
+        tail += buffer.getInt(offset + LENGTH);
+    }
+
+    private boolean isWrap(int offset) {
+        return capacity - offset < 4 || buffer.getInt(offset + LENGTH) == WRAP;
+    }
+
+    private int physical(long position) {
+        return (int) (position % capacity);
+    }
+
+    private String string(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String text, int maxChars) {
+        if (text == null) {
+            return new byte[0];
+        }
+        if (text.length() > maxChars) {
+            int end = Character.isHighSurrogate(text.charAt(maxChars - 1)) ? maxChars - 1 : maxChars;
+            text = text.substring(0, end);
+        }
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private int slot(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+
+    private long positionOf(long key) {
+        for (int i = slot(key); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return positions[i];
+            }
+        }
+        return -1;
+    }
+
+    private void insert(long key, long position) {
+        int i = slot(key);
+        while (keys[i] != 0 && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == 0) {
+            keys[i] = key;
+            size++;
+        }
+        positions[i] = position;
+    }
+
+    private void remove(long key) {
+        int i = slot(key);
+        while (keys[i] != key) {
+            if (keys[i] == 0) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        // Puxa para trás as chaves seguintes que pararam depois da posição liberada
+        for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            boolean movable = i <= j ? home <= i || home > j : home <= i && home > j;
+            if (movable) {
+                keys[i] = keys[j];
+                positions[i] = positions[j];
+                i = j;
+            }
+        }
+        keys[i] = 0;
+        size--;
+    }
+
+    /**
+     * Trecho alterado entre as duas versões, sem o começo e o fim em comum, ex: {@code "…gato…" → "…cachorro…"}.
+     * Null se o texto não mudou (edições que só mexem em anexos ou embeds).
+     */
+    static String editSummary(String before, String after) {
+        if (before.equals(after)) {
+            return null;
+        }
+        int common = Math.min(before.length(), after.length());
+        int prefix = 0;
+        while (prefix < common && before.charAt(prefix) == after.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < common - prefix
+                && before.charAt(before.length() - 1 - suffix) == after.charAt(after.length() - 1 - suffix)) {
+            suffix++;
+        }
+        // Mostra palavras inteiras: "gato" → "cachorro" em vez de "gat" → "cachorr"
+        while (prefix > 0 && Character.isLetterOrDigit(before.charAt(prefix - 1))) {
+            prefix--;
+        }
+        while (suffix > 0 && Character.isLetterOrDigit(before.charAt(before.length() - suffix))) {
+            suffix--;
+        }
+        return fragment(before, prefix, before.length() - suffix) + " → " + fragment(after, prefix, after.length() - suffix);
+    }
+
+    private static String fragment(String text, int start, int end) {
+        String middle = text.substring(start, end);
+        if (middle.length() > MAX_FRAGMENT_CHARS) {
+            middle = middle.substring(0, MAX_FRAGMENT_CHARS) + "…";
+            end = text.length();
+        }
+        return "\"" + (start > 0 ? "…" : "") + middle + (end < text.length() ? "…" : "") + "\"";
+    }
+
+    public synchronized int getSize() {
+        return size;
+    }
+
+    public synchronized long getUsedBytes() {
+        return head - tail;
+    }
+
+    public long getCapacityBytes() {
+        return buffer != null ? capacity + keys.length * 16L : 0;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
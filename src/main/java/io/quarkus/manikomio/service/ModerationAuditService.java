@@ -0,0 +1,365 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.ServerLog;
+import io.quarkus.manikomio.repository.ServerLogRepository;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.audit.ActionType;
+import net.dv8tion.jda.api.audit.AuditLogKey;
+import net.dv8tion.jda.api.entities.Guild;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Completa os logs de moderação com o audit log do Discord: quem baniu, desbaniu, silenciou ou apagou
+ * o canal, e se uma saída do servidor foi uma expulsão. O log é gravado na hora, sem moderador, e
+ * atualizado no banco quando a entrada aparece; o objeto já publicado (spool, cache de recentes,
+ * espelhamento) não é alterado.
+ * <p>
+ * Para não gastar o rate limit com uma requisição por evento, os pedidos de uma guild que chegam dentro
+ * de {@code logs.audit.batch-delay} são atendidos por uma única leitura das últimas entradas, e as
+ * entradas lidas ficam em cache por {@code logs.audit.cache-ttl} para os eventos seguintes.
+ */
+@ApplicationScoped
+public class ModerationAuditService {
+
+    private static final Logger LOGGER = Logger.getLogger(ModerationAuditService.class);
+
+    @Inject
+    ServerLogRepository logRepository;
+
+    @Inject
+    LogRollupService rollupService;
+
+    @ConfigProperty(name = "logs.audit.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "logs.audit.batch-delay", defaultValue = "1500ms")
+    Duration batchDelay;
+
+    @ConfigProperty(name = "logs.audit.cache-ttl", defaultValue = "30s")
+    Duration cacheTtl;
+
+    @ConfigProperty(name = "logs.audit.match-window", defaultValue = "30s")
+    Duration matchWindow;
+
+    @ConfigProperty(name = "logs.audit.fetch-limit", defaultValue = "50")
+    int fetchLimit;
+
+    @ConfigProperty(name = "logs.audit.max-attempts", defaultValue = "2")
+    int maxAttempts;
+
+    @ConfigProperty(name = "logs.audit.patch-retries", defaultValue = "10")
+    int patchRetries;
+
+    /**
+     * O que interessa de uma entrada do audit log. {@code moderatorId} é nulo quando o Discord não
+     * informa o autor.
+     */
+    record AuditEntry(long id, ActionType type, long targetId, Long moderatorId, OffsetDateTime createdAt, String reason) {
+    }
+
+    // Leitura das últimas entradas do audit log da guild; substituída nos testes
+    Function<Guild, CompletableFuture<List<AuditEntry>>> fetcher = this::retrieve;
+
+    private final Map<Long, GuildAudit> guilds = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder fetchFailures = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder attributed = new LongAdder();
+    private final LongAdder unmatched = new LongAdder();
+    private final LongAdder patched = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Ação do audit log que explica o tipo de evento, ou null se o tipo não é de moderação.
+     */
+    static ActionType actionFor(LogEventType type) {
+        return switch (type) {
+            case MEMBER_LEFT -> ActionType.KICK;
+            case MEMBER_BANNED -> ActionType.BAN;
+            case MEMBER_UNBANNED -> ActionType.UNBAN;
+            case MEMBER_TIMEOUT -> ActionType.MEMBER_UPDATE;
+            case CHANNEL_DELETED -> ActionType.CHANNEL_DELETE;
+            default -> null;
+        };
+    }
+
+    /**
+     * Procura o moderador do log, que já foi publicado. {@code targetId} é o usuário ou canal afetado.
+     * Não bloqueia: a resposta vem do cache ou de uma leitura agendada para a guild.
+     */
+    public void enrich(Guild guild, ServerLog log, long targetId) {
+        if (!enabled || log == null) {
+            return;
+        }
+        ActionType action = actionFor(log.eventType);
+        if (action == null || !guild.getSelfMember().hasPermission(Permission.VIEW_AUDIT_LOGS)) {
+            return;
+        }
+        Pending pending = new Pending(log, action, targetId, log.createdAt.toInstant().toEpochMilli());
+        GuildAudit audit = guilds.computeIfAbsent(guild.getIdLong(), id -> new GuildAudit());
+        AuditEntry entry = null;
+        synchronized (audit) {
+            if (System.currentTimeMillis() - audit.fetchedAt < cacheTtl.toMillis()) {
+                entry = audit.match(pending, matchWindow.toMillis());
+                if (entry == null && audit.fetchedAt >= pending.eventMillis) {
+                    // A leitura em cache já é posterior ao evento e não trouxe a entrada
+                    pending.attempts++;
+                }
+            }
+            if (entry == null) {
+                if (pending.attempts >= maxAttempts) {
+                    unmatched.increment();
+                    return;
+                }
+                audit.pending.add(pending);
+                if (!audit.scheduled) {
+                    audit.scheduled = true;
+                    scheduleFetch(guild, audit);
+                }
+                return;
+            }
+        }
+        cacheHits.increment();
+        apply(pending, entry);
+    }
+
+    private void scheduleFetch(Guild guild, GuildAudit audit) {
+        scheduler.schedule(() -> fetch(guild, audit), batchDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void fetch(Guild guild, GuildAudit audit) {
+        long started = System.currentTimeMillis();
+        fetches.increment();
+        CompletableFuture<List<AuditEntry>> entries;
+        try {
+            entries = fetcher.apply(guild);
+        } catch (RuntimeException e) {
+            entries = CompletableFuture.failedFuture(e);
+        }
+        entries.whenComplete((result, error) -> onFetched(guild, audit, started, result, error));
+    }
+
+    // Casa as entradas lidas com os pedidos pendentes; os que ficaram sem entrada esperam a próxima leitura
+    private void onFetched(Guild guild, GuildAudit audit, long started, List<AuditEntry> entries, Throwable error) {
+        List<Pending> found = new ArrayList<>();
+        List<AuditEntry> foundEntries = new ArrayList<>();
+        synchronized (audit) {
+            if (error != null) {
+                fetchFailures.increment();
+                LOGGER.warn("Erro ao ler o audit log da guild " + guild.getIdLong() + ": " + error.getMessage());
+            } else {
+                audit.refresh(entries, started);
+            }
+            Iterator<Pending> iterator = audit.pending.iterator();
+            while (iterator.hasNext()) {
+                Pending pending = iterator.next();
+                AuditEntry entry = error == null ? audit.match(pending, matchWindow.toMillis()) : null;
+                if (entry != null) {
+                    iterator.remove();
+                    found.add(pending);
+                    foundEntries.add(entry);
+                } else if ((error != null || started >= pending.eventMillis) && ++pending.attempts >= maxAttempts) {
+                    // Uma saída sem entrada de KICK foi saída mesmo; os demais ficam sem moderador
+                    iterator.remove();
+                    unmatched.increment();
+                }
+            }
+            if (audit.pending.isEmpty()) {
+                audit.scheduled = false;
+            } else {
+                scheduleFetch(guild, audit);
+            }
+        }
+        for (int i = 0; i < found.size(); i++) {
+            apply(found.get(i), foundEntries.get(i));
+        }
+    }
+
+    private void apply(Pending pending, AuditEntry entry) {
+        attributed.increment();
+        // O log original está no cache de recentes e, se ainda não foi gravado, no spool residente, lido
+        // por outras threads: as alterações vão numa cópia usada só para atualizar a linha no banco
+        ServerLog original = pending.log;
+        ServerLog log = new ServerLog();
+        log.ingestSpool = original.ingestSpool;
+        log.ingestKey = original.ingestKey;
+        log.createdAt = original.createdAt;
+        log.guildId = original.guildId;
+        log.channelId = original.channelId;
+        log.userId = original.userId;
+        log.eventType = original.eventType;
+        log.description = original.description;
+        log.message = original.message;
+        if (pending.action == ActionType.KICK) {
+            log.eventType = LogEventType.MEMBER_KICKED;
+            log.description = "Membro expulso do servidor";
+            log.message = "Expulso do servidor";
+        }
+        if (entry.reason() != null && !entry.reason().isBlank()) {
+            log.message = (log.message != null ? log.message + " | " : "") + "Motivo: " + entry.reason();
+        }
+        log.moderatorId = entry.moderatorId();
+        scheduler.execute(() -> patch(log, original.eventType, 0));
+    }
+
+    // A linha pode ainda estar no spool esperando o write-behind: tenta de novo até patch-retries vezes
+    private void patch(ServerLog log, LogEventType recordedType, int attempt) {
+        try {
+            if (logRepository.patchModeration(log) > 0) {
+                patched.increment();
+                if (log.eventType != recordedType) {
+                    // A linha foi contada nos rollups com o tipo original
+                    rollupService.reclassify(log, recordedType);
+                }
+                return;
+            }
+        } catch (Exception e) {
+            LOGGER.error("Erro ao gravar o moderador do log " + log.ingestKey + ": " + e.getMessage(), e);
+        }
+        if (attempt + 1 < patchRetries) {
+            scheduler.schedule(() -> patch(log, recordedType, attempt + 1), batchDelay.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        } else {
+            LOGGER.warn("Moderador do log " + log.ingestKey + " não gravado: o log não chegou ao banco a tempo");
+        }
+    }
+
+    private CompletableFuture<List<AuditEntry>> retrieve(Guild guild) {
+        return guild.retrieveAuditLogs().limit(fetchLimit).submit().thenApply(entries -> entries.stream()
+                // De MEMBER_UPDATE só interessam os silenciamentos
+                .filter(entry -> entry.getType() != ActionType.MEMBER_UPDATE
+                        || entry.getChangeByKey(AuditLogKey.MEMBER_TIME_OUT) != null)
+                .map(entry -> new AuditEntry(entry.getIdLong(), entry.getType(), entry.getTargetIdLong(),
+                        entry.getUserIdLong() != 0 ? entry.getUserIdLong() : null, entry.getTimeCreated(), entry.getReason()))
+                .toList());
+    }
+
+    // Guilds sem pedidos pendentes e com o cache vencido
+    @Scheduled(every = "${logs.audit.cleanup-interval:1m}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void evictIdle() {
+        long now = System.currentTimeMillis();
+        guilds.values().removeIf(audit -> {
+            synchronized (audit) {
+                return !audit.scheduled && now - audit.fetchedAt >= cacheTtl.toMillis();
+            }
+        });
+    }
+
+    private static final class Pending {
+        final ServerLog log;
+        final ActionType action;
+        final long targetId;
+        final long eventMillis;
+        int attempts;
+
+        Pending(ServerLog log, ActionType action, long targetId, long eventMillis) {
+            this.log = log;
+            this.action = action;
+            this.targetId = targetId;
+            this.eventMillis = eventMillis;
+        }
+    }
+
+    /**
+     * Estado de uma guild: a última leitura do audit log e os pedidos esperando a próxima. Acesso
+     * sincronizado no próprio objeto.
+     */
+    private static final class GuildAudit {
+        final List<Pending> pending = new ArrayList<>();
+        List<AuditEntry> entries = List.of();
+        // Entradas já atribuídas a um log, para não dar o mesmo moderador a dois eventos
+        final Set<Long> used = new HashSet<>();
+        long fetchedAt;
+        boolean scheduled;
+
+        void refresh(List<AuditEntry> fetched, long at) {
+            entries = fetched;
+            fetchedAt = at;
+            Set<Long> ids = new HashSet<>();
+            fetched.forEach(entry -> ids.add(entry.id()));
+            used.retainAll(ids);
+        }
+
+        // Entrada da mesma ação e do mesmo alvo mais próxima do evento, dentro da janela
+        AuditEntry match(Pending pending, long windowMillis) {
+            AuditEntry best = null;
+            long bestDistance = Long.MAX_VALUE;
+            for (AuditEntry entry : entries) {
+                if (entry.type() != pending.action || entry.targetId() != pending.targetId || used.contains(entry.id())) {
+                    continue;
+                }
+                long distance = Math.abs(entry.createdAt().toInstant().toEpochMilli() - pending.eventMillis);
+                if (distance <= windowMillis && distance < bestDistance) {
+                    best = entry;
+                    bestDistance = distance;
+                }
+            }
+            if (best != null) {
+                used.add(best.id());
+            }
+            return best;
+        }
+    }
+
+    public long getFetches() {
+        return fetches.sum();
+    }
+
+    public long getFetchFailures() {
+        return fetchFailures.sum();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getAttributed() {
+        return attributed.sum();
+    }
+
+    public long getUnmatched() {
+        return unmatched.sum();
+    }
+
+    public long getPatched() {
+        return patched.sum();
+    }
+}
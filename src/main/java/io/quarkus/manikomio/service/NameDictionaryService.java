@@ -0,0 +1,110 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.ServerLog;
+import io.quarkus.manikomio.repository.NameDictionaryRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolve nomes de usuários e canais a partir dos dicionários user_names/channel_names,
+ * com um cache em memória na frente. Os logs guardam só os snowflakes; o nome exibido
+ * é o último conhecido, não necessariamente o da época do evento.
+ */
+@ApplicationScoped
+public class NameDictionaryService {
+
+    private static final Logger LOGGER = Logger.getLogger(NameDictionaryService.class);
+
+    @Inject
+    NameDictionaryRepository nameRepository;
+
+    @ConfigProperty(name = "logs.names.cache-size", defaultValue = "100000")
+    int cacheSize;
+
+    private final Map<Long, String> userNames = new ConcurrentHashMap<>();
+    private final Map<Long, String> channelNames = new ConcurrentHashMap<>();
+
+    /**
+     * Grava no dicionário apenas os nomes novos ou alterados do lote.
+     */
+    public void remember(Iterable<ServerLog> logs) {
+        Map<Long, String> changedUsers = new HashMap<>();
+        Map<Long, String> changedChannels = new HashMap<>();
+        for (ServerLog log : logs) {
+            collectChange(userNames, log.userId, log.username, changedUsers);
+            collectChange(channelNames, log.channelId, log.channelName, changedChannels);
+        }
+        if (changedUsers.isEmpty() && changedChannels.isEmpty()) {
+            return;
+        }
+        try {
+            nameRepository.saveNames(changedUsers, changedChannels);
+            cacheAll(userNames, changedUsers);
+            cacheAll(channelNames, changedChannels);
+        } catch (Exception e) {
+            LOGGER.error("Erro ao gravar dicionário de nomes: " + e.getMessage(), e);
+        }
+    }
+
+    private static void collectChange(Map<Long, String> cache, Long id, String name, Map<Long, String> changes) {
+        if (id != null && name != null && !Objects.equals(cache.get(id), name)) {
+            changes.put(id, name);
+        }
+    }
+
+    /**
+     * Preenche username e channelName dos logs carregados do banco.
+     */
+    public void resolve(Iterable<ServerLog> logs) {
+        Set<Long> missingUsers = new HashSet<>();
+        Set<Long> missingChannels = new HashSet<>();
+        for (ServerLog log : logs) {
+            if (log.userId != null && log.username == null && !userNames.containsKey(log.userId)) {
+                missingUsers.add(log.userId);
+            }
+            if (log.channelId != null && log.channelName == null && !channelNames.containsKey(log.channelId)) {
+                missingChannels.add(log.channelId);
+            }
+        }
+        if (!missingUsers.isEmpty()) {
+            cacheAll(userNames, nameRepository.findUserNames(missingUsers));
+        }
+        if (!missingChannels.isEmpty()) {
+            cacheAll(channelNames, nameRepository.findChannelNames(missingChannels));
+        }
+
+        for (ServerLog log : logs) {
+            if (log.userId != null && log.username == null) {
+                log.username = userNames.get(log.userId);
+            }
+            if (log.channelId != null && log.channelName == null) {
+                log.channelName = channelNames.get(log.channelId);
+            }
+        }
+    }
+
+    // Limite simples de memória: ao estourar, o cache recomeça do zero e é recarregado sob demanda
+    private void cacheAll(Map<Long, String> cache, Map<Long, String> names) {
+        if (cache.size() + names.size() > cacheSize) {
+            cache.clear();
+        }
+        cache.putAll(names);
+    }
+
+    public int getCachedUserNames() {
+        return userNames.size();
+    }
+
+    public int getCachedChannelNames() {
+        return channelNames.size();
+    }
+}
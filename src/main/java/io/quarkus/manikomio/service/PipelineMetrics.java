@@ -0,0 +1,279 @@
+package io.quarkus.manikomio.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.ServerLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Métricas do pipeline de logs (ingestão, gravação, espelhamento e comandos), expostas
+ * pelo Micrometer em /q/metrics na porta HTTP da aplicação.
+ */
+@ApplicationScoped
+public class PipelineMetrics {
+
+    private static final String PREFIX = "manikomio.";
+
+    static final Set<String> LOGS_SUBCOMMANDS = Set.of("latest", "recent", "user", "type", "period", "filter", "search", "stats",
+            "export", "route", "routes");
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    LogWriteBehindService writeBehindService;
+
+    @Inject
+    LogMirrorService mirrorService;
+
+    @Inject
+    RecentLogCache recentLogCache;
+
+    @Inject
+    LogRollupService rollupService;
+
+    @Inject
+    LogSearchService searchService;
+
+    @Inject
+    MessageContentCache messageCache;
+
+    @Inject
+    LogPolicyEngine policyEngine;
+
+    @Inject
+    DiscordBotService discordBotService;
+
+    @Inject
+    LogQueryExecutor queryExecutor;
+
+    @Inject
+    ModerationAuditService moderationAudit;
+
+    private final Map<LogEventType, Counter> ingested = new EnumMap<>(LogEventType.class);
+    private final AtomicInteger mirrorInFlight = new AtomicInteger();
+    private Timer commitLatency;
+    private Timer mirrorSuccess;
+    private Timer mirrorFailure;
+
+    @PostConstruct
+    void register() {
+        for (LogEventType type : LogEventType.values()) {
+            ingested.put(type, Counter.builder(PREFIX + "logs.ingested")
+                    .description("Eventos recebidos do gateway, por tipo")
+                    .tag("type", type.name())
+                    .register(registry));
+        }
+
+        // Do evento chegar ao bot até o COMMIT do lote que o contém
+        commitLatency = Timer.builder(PREFIX + "logs.commit.latency")
+                .description("Latência do evento do gateway até o commit no banco")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(10))
+                .register(registry);
+
+        mirrorSuccess = mirrorTimer("success");
+        mirrorFailure = mirrorTimer("failure");
+
+        // Escrita (spool + write-behind)
+        Gauge.builder(PREFIX + "spool.length", writeBehindService, LogWriteBehindService::getSpoolLength)
+                .description("Eventos no spool ainda não gravados no banco")
+                .register(registry);
+        Gauge.builder(PREFIX + "spool.size", writeBehindService, LogWriteBehindService::getSpoolSizeBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder(PREFIX + "spool.segments", writeBehindService, LogWriteBehindService::getSpoolSegments)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "logs.persisted", writeBehindService, LogWriteBehindService::getPersistedCount)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "logs.rejected", writeBehindService, LogWriteBehindService::getRejectedCount)
+                .description("Eventos descartados porque o spool estava cheio ou o disco falhou")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "logs.persist.failures", writeBehindService, LogWriteBehindService::getFailedCount)
+                .description("Eventos em lotes que falharam ao gravar (serão repetidos)")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "logs.duplicates", writeBehindService, LogWriteBehindService::getDuplicateCount)
+                .register(registry);
+        Gauge.builder(PREFIX + "logs.flush.latency.max", writeBehindService, LogWriteBehindService::getMaxFlushLatencyMillis)
+                .baseUnit("milliseconds")
+                .register(registry);
+
+        // Espelhamento no Discord
+        Gauge.builder(PREFIX + "mirror.pending", mirrorService, LogMirrorService::getPendingCount)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "mirror.embeds", mirrorService, LogMirrorService::getSentEmbeds)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "mirror.collapsed", mirrorService, LogMirrorService::getCollapsedEvents)
+                .description("Eventos que viraram linha de resumo por falta de orçamento de requisições")
+                .register(registry);
+
+        // Consultas e rollups
+        FunctionCounter.builder(PREFIX + "cache.requests", recentLogCache, RecentLogCache::getHits)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "cache.requests", recentLogCache, RecentLogCache::getMisses)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder(PREFIX + "rollups.pending", rollupService, LogRollupService::getPendingCounters)
+                .register(registry);
+
+        // Índice de busca
+        Gauge.builder(PREFIX + "search.segments", searchService, LogSearchService::getSegmentCount)
+                .register(registry);
+        Gauge.builder(PREFIX + "search.buffered", searchService, LogSearchService::getBufferedDocs)
+                .description("Mensagens indexadas só em memória, aguardando a gravação do segmento")
+                .register(registry);
+
+        // Cache do conteúdo das mensagens (logs de edição e exclusão)
+        FunctionCounter.builder(PREFIX + "message-cache.requests", messageCache, MessageContentCache::getHits)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "message-cache.requests", messageCache, MessageContentCache::getMisses)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "message-cache.evictions", messageCache, MessageContentCache::getEvictions)
+                .description("Mensagens descartadas por falta de espaço ou pelo TTL")
+                .register(registry);
+        Gauge.builder(PREFIX + "message-cache.entries", messageCache, MessageContentCache::getSize)
+                .register(registry);
+        Gauge.builder(PREFIX + "message-cache.size", messageCache, MessageContentCache::getUsedBytes)
+                .description("Bytes ocupados no buffer de conteúdo")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder(PREFIX + "message-cache.capacity", messageCache, MessageContentCache::getCapacityBytes)
+                .description("Memória reservada pelo cache (buffer mais índice)")
+                .baseUnit("bytes")
+                .register(registry);
+
+        // Regras de ingestão: quanto cada uma descartou, deixou fora da amostra ou agrupou
+        for (LogPolicyEngine.Rule rule : policyEngine.getRules()) {
+            FunctionCounter.builder(PREFIX + "policy.matched", rule, LogPolicyEngine.Rule::getMatched)
+                    .tag("rule", rule.text)
+                    .register(registry);
+            FunctionCounter.builder(PREFIX + "policy.suppressed", rule, LogPolicyEngine.Rule::getSuppressed)
+                    .description("Eventos que não viraram log por causa da regra")
+                    .tag("rule", rule.text)
+                    .register(registry);
+        }
+
+        // Despacho dos eventos do gateway e ping, por shard deste nó
+        for (int shardId : discordBotService.getLocalShards()) {
+            registerShard(shardId);
+        }
+
+        // Consultas dos comandos no pool do modo ASYNC (zeradas no modo BLOCKING)
+        Gauge.builder(PREFIX + "queries.active", queryExecutor, LogQueryExecutor::getActive)
+                .description("Consultas de comandos rodando no pool")
+                .register(registry);
+        Gauge.builder(PREFIX + "queries.queued", queryExecutor, LogQueryExecutor::getQueued)
+                .description("Consultas de comandos esperando uma thread do pool")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "queries.rejected", queryExecutor, LogQueryExecutor::getRejected)
+                .description("Consultas recusadas com a fila do pool cheia")
+                .register(registry);
+
+        // Audit log: leituras feitas, de onde veio o moderador e os eventos que ficaram sem ele
+        FunctionCounter.builder(PREFIX + "audit.fetches", moderationAudit, ModerationAuditService::getFetches)
+                .description("Leituras do audit log, uma por lote de eventos da guild")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "audit.fetch.failures", moderationAudit, ModerationAuditService::getFetchFailures)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "audit.attributed", moderationAudit, ModerationAuditService::getCacheHits)
+                .tag("source", "cache")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "audit.attributed", moderationAudit,
+                        audit -> audit.getAttributed() - audit.getCacheHits())
+                .tag("source", "fetch")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "audit.unmatched", moderationAudit, ModerationAuditService::getUnmatched)
+                .description("Eventos sem entrada no audit log (saídas que não foram expulsões, por exemplo)")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "audit.patched", moderationAudit, ModerationAuditService::getPatched)
+                .description("Logs atualizados no banco com o moderador")
+                .register(registry);
+
+        // Espelho: mensagens enviadas aos canais de log aguardando resposta
+        Gauge.builder(PREFIX + "mirror.inflight", mirrorInFlight, AtomicInteger::get)
+                .description("Mensagens do espelho enviadas aos canais de log aguardando resposta (inclui espera por rate limit)")
+                .register(registry);
+    }
+
+    private void registerShard(int shardId) {
+        String shard = Integer.toString(shardId);
+        FunctionCounter.builder(PREFIX + "events.dispatched", discordBotService, bot -> bot.getDispatchedEvents(shardId))
+                .description("Eventos do gateway recebidos pelo shard")
+                .tag("shard", shard)
+                .register(registry);
+        Gauge.builder(PREFIX + "events.pending", discordBotService, bot -> bot.getPendingEvents(shardId))
+                .description("Eventos do gateway aguardando nas filas por canal")
+                .tag("shard", shard)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "events.blocked", discordBotService, bot -> bot.getBlockedDispatches(shardId))
+                .description("Vezes em que a thread do gateway esperou por espaço numa fila cheia")
+                .tag("shard", shard)
+                .register(registry);
+        Gauge.builder(PREFIX + "commands.pending", discordBotService, bot -> bot.getPendingCommands(shardId))
+                .tag("shard", shard)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "commands.rejected", discordBotService, bot -> bot.getRejectedCommands(shardId))
+                .tag("shard", shard)
+                .register(registry);
+        Gauge.builder(PREFIX + "discord.gateway.ping", discordBotService, bot -> bot.getGatewayPing(shardId))
+                .baseUnit("milliseconds")
+                .tag("shard", shard)
+                .register(registry);
+    }
+
+    private Timer mirrorTimer(String outcome) {
+        return Timer.builder(PREFIX + "mirror.send")
+                .description("Latência do envio de mensagens ao canal de logs, da chamada até a resposta do Discord")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void recordIngested(LogEventType type) {
+        ingested.get(type).increment();
+    }
+
+    public void recordCommitted(Iterable<ServerLog> logs) {
+        OffsetDateTime now = OffsetDateTime.now();
+        for (ServerLog log : logs) {
+            commitLatency.record(Duration.between(log.createdAt, now));
+        }
+    }
+
+    public void mirrorSendStarted() {
+        mirrorInFlight.incrementAndGet();
+    }
+
+    public void recordMirrorSend(long startNanos, boolean success) {
+        mirrorInFlight.decrementAndGet();
+        (success ? mirrorSuccess : mirrorFailure).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCommand(String subcommand, long startNanos) {
+        String tag = LOGS_SUBCOMMANDS.contains(subcommand) ? subcommand : "unknown";
+        Timer.builder(PREFIX + "command.latency")
+                .tag("command", "logs")
+                .tag("subcommand", tag)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,86 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogQuery;
+import io.quarkus.manikomio.model.ServerLog;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer circular sem locks com os logs mais recentes de uma guild.
+ * Cada slot guarda a sequência junto do log; o leitor descarta slots que foram
+ * sobrescritos ou ainda não publicados durante a leitura.
+ */
+class RecentLogBuffer {
+
+    private record Slot(long sequence, ServerLog log) {
+    }
+
+    private final int capacity;
+    private final AtomicReferenceArray<Slot> slots;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final OffsetDateTime createdAt;
+
+    RecentLogBuffer(int capacity, OffsetDateTime createdAt) {
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.createdAt = createdAt;
+    }
+
+    void add(ServerLog log) {
+        long sequence = nextSequence.getAndIncrement();
+        slots.set((int) (sequence % capacity), new Slot(sequence, log));
+    }
+
+    /**
+     * Início do intervalo de tempo coberto integralmente pelo buffer. Enquanto o buffer
+     * não deu a volta, cobre tudo desde a sua criação; depois, a partir do registro mais antigo retido.
+     */
+    OffsetDateTime coverageStart() {
+        long head = nextSequence.get();
+        if (head <= capacity) {
+            return createdAt;
+        }
+        long oldest = head - capacity;
+        Slot slot = slots.get((int) (oldest % capacity));
+        if (slot == null || slot.sequence() != oldest) {
+            // O registro mais antigo acabou de ser sobrescrito; usa o seguinte, que é mais recente
+            slot = slots.get((int) ((oldest + 1) % capacity));
+        }
+        return slot != null ? slot.log().createdAt : OffsetDateTime.now();
+    }
+
+    /**
+     * Percorre do mais novo para o mais antigo coletando até {@code limit} logs que atendem aos filtros.
+     */
+    List<ServerLog> newest(LogQuery query, int limit) {
+        long head = nextSequence.get();
+        long stop = Math.max(0, head - capacity);
+        List<ServerLog> result = new ArrayList<>(Math.min(limit, capacity));
+        for (long sequence = head - 1; sequence >= stop && result.size() < limit; sequence--) {
+            Slot slot = slots.get((int) (sequence % capacity));
+            if (slot == null || slot.sequence() != sequence) {
+                continue;
+            }
+            if (matches(slot.log(), query)) {
+                result.add(slot.log());
+            }
+        }
+        return result;
+    }
+
+    int size() {
+        return (int) Math.min(nextSequence.get(), capacity);
+    }
+
+    static boolean matches(ServerLog log, LogQuery query) {
+        return (query.getUserId() == null || query.getUserId().equals(log.userId))
+                && (query.getChannelId() == null || query.getChannelId().equals(log.channelId))
+                && (query.getEventType() == null || query.getEventType().equals(log.eventType))
+                && (query.getFrom() == null || !log.createdAt.isBefore(query.getFrom()))
+                && (query.getTo() == null || !log.createdAt.isAfter(query.getTo()));
+    }
+}
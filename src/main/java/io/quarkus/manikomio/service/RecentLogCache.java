@@ -0,0 +1,129 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogCursor;
+import io.quarkus.manikomio.model.LogPage;
+import io.quarkus.manikomio.model.LogQuery;
+import io.quarkus.manikomio.model.ServerLog;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mantém em memória os últimos N logs de cada guild, alimentado pelo caminho de escrita.
+ * Consultas recentes (e de períodos cobertos pelo buffer) são respondidas sem ir ao banco.
+ * Só enxerga os eventos ingeridos por esta instância desde que ela subiu.
+ */
+@ApplicationScoped
+public class RecentLogCache {
+
+    private static final Comparator<ServerLog> NEWEST_FIRST =
+            Comparator.comparing((ServerLog log) -> log.createdAt).reversed();
+
+    @ConfigProperty(name = "logs.hot-tail.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "logs.hot-tail.capacity-per-guild", defaultValue = "500")
+    int capacityPerGuild;
+
+    @ConfigProperty(name = "logs.hot-tail.max-guilds", defaultValue = "1000")
+    int maxGuilds;
+
+    private final Map<Long, RecentLogBuffer> buffers = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public void add(ServerLog log) {
+        if (!enabled || log.guildId == null) {
+            return;
+        }
+        RecentLogBuffer buffer = buffers.get(log.guildId);
+        if (buffer == null) {
+            if (buffers.size() >= maxGuilds) {
+                return;
+            }
+            buffer = buffers.computeIfAbsent(log.guildId,
+                    id -> new RecentLogBuffer(capacityPerGuild, OffsetDateTime.now()));
+        }
+        buffer.add(log);
+    }
+
+    /**
+     * Responde a consulta a partir da memória quando o buffer garante o resultado completo;
+     * caso contrário retorna vazio e o chamador deve ir ao repositório.
+     */
+    public Optional<LogPage> find(LogQuery query) {
+        Optional<LogPage> page = serve(query);
+        if (page.isPresent()) {
+            hits.incrementAndGet();
+        } else if (enabled) {
+            misses.incrementAndGet();
+        }
+        return page;
+    }
+
+    private Optional<LogPage> serve(LogQuery query) {
+        if (!enabled || query.getGuildId() == null || query.getCursor() != null) {
+            return Optional.empty();
+        }
+        RecentLogBuffer buffer = buffers.get(query.getGuildId());
+        if (buffer == null) {
+            return Optional.empty();
+        }
+
+        boolean rangeCovered = query.getFrom() != null && !query.getFrom().isBefore(buffer.coverageStart());
+        boolean newestFirst = query.getSortOrder() == LogQuery.SortOrder.NEWEST_FIRST;
+        int limit = query.getLimit();
+
+        if (newestFirst) {
+            List<ServerLog> logs = buffer.newest(query, limit + 1);
+            // Sem o período inteiro no buffer, só dá para responder se ele tiver a página completa
+            if (!rangeCovered && logs.size() < limit) {
+                return Optional.empty();
+            }
+            logs.sort(NEWEST_FIRST);
+            boolean hasMore = logs.size() > limit || !rangeCovered;
+            return toPage(logs, limit, hasMore);
+        }
+
+        if (!rangeCovered) {
+            return Optional.empty();
+        }
+        List<ServerLog> logs = buffer.newest(query, Integer.MAX_VALUE);
+        logs.sort(NEWEST_FIRST.reversed());
+        return toPage(logs, limit, logs.size() > limit);
+    }
+
+    private static Optional<LogPage> toPage(List<ServerLog> logs, int limit, boolean hasMore) {
+        List<ServerLog> page = logs.size() > limit ? logs.subList(0, limit) : logs;
+        if (!hasMore || page.isEmpty()) {
+            return Optional.of(new LogPage(page, null));
+        }
+        // Logs ainda não gravados não têm id para o cursor; sem cursor a paginação acabaria aqui,
+        // então quem responde é o repositório
+        ServerLog last = page.get(page.size() - 1);
+        return last.id != null ? Optional.of(new LogPage(page, LogCursor.of(last).encode())) : Optional.empty();
+    }
+
+    public int getGuildCount() {
+        return buffers.size();
+    }
+
+    public long getBufferedLogCount() {
+        return buffers.values().stream().mapToLong(RecentLogBuffer::size).sum();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,44 @@
+package io.quarkus.manikomio.service;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Um segmento do índice de busca: a tabela de documentos (por ordinal) e as listas de postings por termo.
+ * Os segmentos em memória recebem os logs novos; os em disco são imutáveis e lidos via mmap.
+ */
+interface SearchSegment {
+
+    /**
+     * Documentos que contêm o termo, em ordem crescente de ordinal, com a frequência do termo em cada um.
+     */
+    interface Postings {
+        int size();
+
+        int ord(int index);
+
+        int freq(int index);
+    }
+
+    int docCount();
+
+    long totalTokens();
+
+    long maxCreatedAtMillis();
+
+    long docId(int ord);
+
+    long guildId(int ord);
+
+    long channelId(int ord);
+
+    long createdAtMillis(int ord);
+
+    int length(int ord);
+
+    /**
+     * Postings do termo, ou null se ele não aparece no segmento.
+     */
+    Postings postings(String term);
+
+    void forEachTerm(BiConsumer<String, Postings> action);
+}
@@ -0,0 +1,51 @@
+package io.quarkus.manikomio.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Quebra o conteúdo das mensagens em termos para o índice de busca: minúsculas, sem acentos,
+ * separados por qualquer caractere que não seja letra ou dígito. A busca usa o mesmo tokenizador,
+ * então "Ação" encontra "acao".
+ */
+final class SearchTokenizer {
+
+    static final int MIN_TERM_LENGTH = 2;
+    static final int MAX_TERM_LENGTH = 40;
+
+    private SearchTokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder term = new StringBuilder(MAX_TERM_LENGTH);
+        for (int i = 0; i < normalized.length(); ) {
+            int codePoint = normalized.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.getType(codePoint) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(codePoint)) {
+                term.appendCodePoint(codePoint);
+            } else {
+                addTerm(tokens, term);
+            }
+        }
+        addTerm(tokens, term);
+        return tokens;
+    }
+
+    // Termos longos demais costumam ser links ou lixo e só incham o dicionário
+    private static void addTerm(List<String> tokens, StringBuilder term) {
+        if (term.length() >= MIN_TERM_LENGTH && term.length() <= MAX_TERM_LENGTH) {
+            tokens.add(term.toString());
+        }
+        term.setLength(0);
+    }
+}
@@ -0,0 +1,63 @@
+package io.quarkus.manikomio.service;
+
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Shards do gateway atendidos por este nó, ex: 0-7 de 16. Vários nós com faixas diferentes dividem as
+ * guilds entre si e gravam no mesmo banco.
+ */
+record ShardRange(int first, int last, int total) {
+
+    ShardRange {
+        if (total < 1 || first < 0 || first > last || last >= total) {
+            throw new IllegalArgumentException("Faixa de shards inválida: " + first + "-" + last + " de " + total);
+        }
+    }
+
+    /**
+     * Interpreta "0-7" ou "3"; sem faixa, o nó atende todos os shards.
+     */
+    static ShardRange parse(Optional<String> range, int total) {
+        if (range.isEmpty() || range.get().isBlank()) {
+            return new ShardRange(0, total - 1, total);
+        }
+        String value = range.get().trim();
+        int separator = value.indexOf('-');
+        try {
+            int first = Integer.parseInt((separator >= 0 ? value.substring(0, separator) : value).trim());
+            int last = separator >= 0 ? Integer.parseInt(value.substring(separator + 1).trim()) : first;
+            return new ShardRange(first, last, total);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Faixa de shards inválida: " + value + " (use, por exemplo, 0-7)");
+        }
+    }
+
+    /**
+     * Shard que recebe os eventos da guild, pela fórmula do Discord: (guild_id >> 22) % total.
+     */
+    static int shardOf(long guildId, int total) {
+        return (int) ((guildId >>> 22) % total);
+    }
+
+    boolean contains(int shardId) {
+        return shardId >= first && shardId <= last;
+    }
+
+    boolean isComplete() {
+        return first == 0 && last == total - 1;
+    }
+
+    int count() {
+        return last - first + 1;
+    }
+
+    IntStream ids() {
+        return IntStream.rangeClosed(first, last);
+    }
+
+    @Override
+    public String toString() {
+        return first + "-" + last + " de " + total;
+    }
+}
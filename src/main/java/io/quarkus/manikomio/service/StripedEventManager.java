@@ -0,0 +1,147 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.channel.ChannelCreateEvent;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.guild.GuildBanEvent;
+import net.dv8tion.jda.api.events.guild.GuildUnbanEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.guild.member.update.GuildMemberUpdateTimeOutEvent;
+import net.dv8tion.jda.api.events.guild.voice.GuildVoiceUpdateEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.events.message.GenericMessageEvent;
+import net.dv8tion.jda.api.events.message.MessageDeleteEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.message.MessageUpdateEvent;
+import net.dv8tion.jda.api.hooks.InterfacedEventManager;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gerenciador de eventos do JDA que tira os eventos registrados da thread do gateway.
+ * Cada evento vai para a faixa do seu canal (mensagens) ou membro (voz e moderação), mantendo a ordem
+ * por chave; os comandos (de texto e /logs) e os botões de paginação vão para um executor próprio, para uma consulta lenta não atrasar a ingestão.
+ */
+class StripedEventManager extends InterfacedEventManager {
+
+    private final StripedExecutor events;
+    private final StripedExecutor commands;
+    private final String commandPrefix;
+    private final LongAdder dispatched = new LongAdder();
+
+    StripedEventManager(StripedExecutor events, StripedExecutor commands, String commandPrefix) {
+        this.events = events;
+        this.commands = commands;
+        this.commandPrefix = commandPrefix;
+    }
+
+    @Override
+    public void handle(GenericEvent event) {
+        if (event instanceof MessageReceivedEvent message && isCommand(message)) {
+            if (!commands.tryExecute(message.getChannel().getIdLong(), () -> runCommand(event))) {
+                message.getChannel().sendMessage("⏳ Muitos comandos em andamento, tente novamente em instantes.").queue();
+            }
+            return;
+        }
+        if (event instanceof SlashCommandInteractionEvent slash) {
+            // Confirma já na thread do gateway para não estourar os 3s do Discord; a resposta sai pelo hook
+            slash.deferReply().queue();
+            if (!commands.tryExecute(slash.getChannelIdLong(), () -> runCommand(event))) {
+                slash.getHook().editOriginal("⏳ Muitos comandos em andamento, tente novamente em instantes.").queue();
+            }
+            return;
+        }
+        if (event instanceof ButtonInteractionEvent button) {
+            // Trocar de página consulta o banco como um comando
+            if (!commands.tryExecute(button.getChannel().getIdLong(), () -> runCommand(event))) {
+                button.reply("⏳ Muitos comandos em andamento, tente novamente em instantes.").setEphemeral(true).queue();
+            }
+            return;
+        }
+        dispatched.increment();
+        Long key = stripeKey(event);
+        if (key == null) {
+            super.handle(event);
+            return;
+        }
+        events.execute(key, () -> super.handle(event));
+    }
+
+    // Sem prefixo os comandos de texto estão desligados e toda mensagem segue como evento
+    private boolean isCommand(MessageReceivedEvent event) {
+        return commandPrefix != null && !event.getAuthor().isBot() && event.getMessage().getContentRaw().startsWith(commandPrefix);
+    }
+
+    // Consultas ao banco fora de uma requisição HTTP precisam de um contexto de requisição ativo
+    private void runCommand(GenericEvent event) {
+        ManagedContext requestContext = Arc.container().requestContext();
+        requestContext.activate();
+        try {
+            super.handle(event);
+        } finally {
+            requestContext.terminate();
+        }
+    }
+
+    // Edição e exclusão dependem da ordem no canal; voz e punições, da ordem por membro
+    static Long stripeKey(GenericEvent event) {
+        if (event instanceof MessageReceivedEvent || event instanceof MessageUpdateEvent
+                || event instanceof MessageDeleteEvent) {
+            return ((GenericMessageEvent) event).getChannel().getIdLong();
+        }
+        if (event instanceof ChannelCreateEvent created) {
+            return created.getChannel().getIdLong();
+        }
+        if (event instanceof ChannelDeleteEvent deleted) {
+            return deleted.getChannel().getIdLong();
+        }
+        if (event instanceof GuildVoiceUpdateEvent voice) {
+            return voice.getMember().getIdLong();
+        }
+        if (event instanceof GuildMemberUpdateTimeOutEvent timeout) {
+            return timeout.getMember().getIdLong();
+        }
+        if (event instanceof GuildMemberRemoveEvent removed) {
+            return removed.getUser().getIdLong();
+        }
+        if (event instanceof GuildBanEvent ban) {
+            return ban.getUser().getIdLong();
+        }
+        if (event instanceof GuildUnbanEvent unban) {
+            return unban.getUser().getIdLong();
+        }
+        return null;
+    }
+
+    /**
+     * Espera os eventos já enfileirados até o prazo; comandos pendentes são descartados.
+     * Retorna o número de eventos que ficaram sem processar.
+     */
+    int close(long timeoutMs) {
+        commands.close(0);
+        return events.close(timeoutMs);
+    }
+
+    int getPendingEvents() {
+        return events.pending();
+    }
+
+    int getPendingCommands() {
+        return commands.pending();
+    }
+
+    long getDispatchedEvents() {
+        return dispatched.sum();
+    }
+
+    long getBlockedDispatches() {
+        return events.blockedCount();
+    }
+
+    long getRejectedCommands() {
+        return commands.rejectedCount();
+    }
+}
@@ -0,0 +1,203 @@
+package io.quarkus.manikomio.service;
+
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor com uma fila por faixa (stripe): tarefas com a mesma chave rodam em ordem, uma de cada vez,
+ * e chaves de faixas diferentes rodam em paralelo. Cada faixa tem uma fila limitada e uma thread
+ * consumidora, virtual quando o JDK suporta (21+) e de plataforma nos demais.
+ */
+final class StripedExecutor implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(StripedExecutor.class);
+
+    private static final long POLL_MS = 100;
+
+    private final String name;
+    private final Stripe[] stripes;
+    private final boolean virtualThreads;
+    private final AtomicLong blockedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private volatile boolean running = true;
+
+    StripedExecutor(String name, int stripeCount, int queueCapacity, boolean preferVirtualThreads) {
+        if (stripeCount < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Executor " + name + ": faixas e capacidade devem ser positivas");
+        }
+        this.name = name;
+        ThreadFactory factory = preferVirtualThreads ? virtualThreadFactory(name + "-") : null;
+        virtualThreads = factory != null;
+        if (factory == null) {
+            factory = platformThreadFactory(name + "-");
+        }
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(queueCapacity);
+            stripes[i].thread = factory.newThread(stripes[i]);
+            stripes[i].thread.start();
+        }
+    }
+
+    // Thread.ofVirtual() via reflexão: o projeto compila para Java 17
+    private static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> type = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = type.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) type.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Enfileira a tarefa na faixa da chave. Se a fila estiver cheia, espera por espaço
+     * (contrapressão no chamador) em vez de descartar ou quebrar a ordem.
+     */
+    void execute(long key, Runnable task) {
+        Stripe stripe = stripeFor(key);
+        checkRunning();
+        if (stripe.queue.offer(task)) {
+            return;
+        }
+        blockedCount.incrementAndGet();
+        try {
+            stripe.queue.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException("Interrompido aguardando espaço no executor " + name, e);
+        }
+    }
+
+    /**
+     * Enfileira a tarefa só se houver espaço na faixa; nunca bloqueia o chamador.
+     */
+    boolean tryExecute(long key, Runnable task) {
+        checkRunning();
+        if (stripeFor(key).queue.offer(task)) {
+            return true;
+        }
+        rejectedCount.incrementAndGet();
+        return false;
+    }
+
+    private void checkRunning() {
+        if (!running) {
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException("Executor " + name + " finalizado");
+        }
+    }
+
+    int stripeIndex(long key) {
+        // Snowflakes têm bits de sequência nas posições baixas; a multiplicação espalha a chave
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) ((mixed >>> 32) % stripes.length);
+    }
+
+    private Stripe stripeFor(long key) {
+        return stripes[stripeIndex(key)];
+    }
+
+    /**
+     * Para de aceitar tarefas e espera as filas esvaziarem até o prazo.
+     * Retorna o número de tarefas que ficaram sem executar.
+     */
+    int close(long timeoutMs) {
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        for (Stripe stripe : stripes) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            try {
+                if (remaining > 0) {
+                    stripe.thread.join(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        int abandoned = 0;
+        for (Stripe stripe : stripes) {
+            abandoned += stripe.queue.size();
+            stripe.thread.interrupt();
+        }
+        return abandoned;
+    }
+
+    @Override
+    public void close() {
+        close(0);
+    }
+
+    boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    int pending() {
+        int pending = 0;
+        for (Stripe stripe : stripes) {
+            pending += stripe.queue.size();
+        }
+        return pending;
+    }
+
+    long blockedCount() {
+        return blockedCount.get();
+    }
+
+    long rejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private final class Stripe implements Runnable {
+
+        private final BlockingQueue<Runnable> queue;
+        private Thread thread;
+
+        Stripe(int capacity) {
+            queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                Runnable task;
+                try {
+                    task = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (task == null) {
+                    continue;
+                }
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    LOGGER.error("Erro em tarefa do executor " + name + ": " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
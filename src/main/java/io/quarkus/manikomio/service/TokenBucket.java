@@ -0,0 +1,54 @@
+package io.quarkus.manikomio.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket simples usado para respeitar o limite de requisições do Discord.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final LongSupplier clock;
+
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(int capacity, double refillPerSecond) {
+        this(capacity, refillPerSecond, System::nanoTime);
+    }
+
+    TokenBucket(int capacity, double refillPerSecond, LongSupplier clock) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacidade e taxa de reposição devem ser positivas");
+        }
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000.0;
+        this.clock = clock;
+        this.tokens = capacity;
+        this.lastRefill = clock.getAsLong();
+    }
+
+    synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    synchronized int available() {
+        refill();
+        return (int) tokens;
+    }
+
+    private void refill() {
+        long now = clock.getAsLong();
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
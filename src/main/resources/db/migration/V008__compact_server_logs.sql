@@ -0,0 +1,92 @@
+-- Converte server_logs para o formato compacto (MySQL):
+--   * user_id, channel_id e guild_id passam de VARCHAR para BIGINT (snowflakes do Discord);
+--   * eventType (VARCHAR) vira event_type (SMALLINT, códigos de LogEventType);
+--   * username e channelName saem da tabela e vão para os dicionários user_names e channel_names.
+--
+-- Rode com a aplicação parada. Com quarkus.hibernate-orm.database.generation=update o Hibernate
+-- não altera o tipo de colunas existentes, por isso esta conversão é manual.
+--
+-- Para medir o ganho, anote o resultado desta consulta antes e depois da migração
+-- (rode ANALYZE TABLE server_logs antes de cada leitura):
+--   SELECT TABLE_ROWS, AVG_ROW_LENGTH, DATA_LENGTH, INDEX_LENGTH
+--   FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'server_logs';
+
+-- 1. Dicionários de nomes, preenchidos com o nome mais recente de cada ID
+CREATE TABLE IF NOT EXISTS user_names (
+    id         BIGINT       NOT NULL PRIMARY KEY,
+    name       VARCHAR(100) NOT NULL,
+    updated_at DATETIME(6)
+);
+
+CREATE TABLE IF NOT EXISTS channel_names (
+    id         BIGINT       NOT NULL PRIMARY KEY,
+    name       VARCHAR(100) NOT NULL,
+    updated_at DATETIME(6)
+);
+
+INSERT INTO user_names (id, name, updated_at)
+SELECT CAST(l.user_id AS UNSIGNED), LEFT(l.username, 100), l.created_at
+FROM server_logs l
+JOIN (SELECT MAX(id) AS last_id FROM server_logs
+      WHERE user_id REGEXP '^[0-9]+$' AND username IS NOT NULL
+      GROUP BY user_id) latest ON l.id = latest.last_id
+ON DUPLICATE KEY UPDATE name = VALUES(name), updated_at = VALUES(updated_at);
+
+INSERT INTO channel_names (id, name, updated_at)
+SELECT CAST(l.channel_id AS UNSIGNED), LEFT(l.channelName, 100), l.created_at
+FROM server_logs l
+JOIN (SELECT MAX(id) AS last_id FROM server_logs
+      WHERE channel_id REGEXP '^[0-9]+$' AND channelName IS NOT NULL
+      GROUP BY channel_id) latest ON l.id = latest.last_id
+ON DUPLICATE KEY UPDATE name = VALUES(name), updated_at = VALUES(updated_at);
+
+-- 2. Tipo de evento como código numérico (inclui os nomes antigos usados pelos emojis)
+ALTER TABLE server_logs ADD COLUMN event_type SMALLINT NULL;
+
+UPDATE server_logs SET event_type = CASE eventType
+    WHEN 'MESSAGE_SENT'    THEN 1
+    WHEN 'MESSAGE'         THEN 1
+    WHEN 'MESSAGE_EDITED'  THEN 2
+    WHEN 'MESSAGE_UPDATE'  THEN 2
+    WHEN 'MESSAGE_DELETED' THEN 3
+    WHEN 'MESSAGE_DELETE'  THEN 3
+    WHEN 'MEMBER_JOINED'   THEN 4
+    WHEN 'MEMBER_LEFT'     THEN 5
+    WHEN 'MEMBER_BANNED'   THEN 6
+    WHEN 'MEMBER_BAN'      THEN 6
+    WHEN 'MEMBER_UNBANNED' THEN 7
+    WHEN 'MEMBER_UNBAN'    THEN 7
+    WHEN 'MEMBER_TIMEOUT'  THEN 8
+    WHEN 'CHANNEL_CREATED' THEN 9
+    WHEN 'CHANNEL_CREATE'  THEN 9
+    WHEN 'CHANNEL_DELETED' THEN 10
+    WHEN 'CHANNEL_DELETE'  THEN 10
+    WHEN 'VOICE_JOINED'    THEN 11
+    WHEN 'VOICE_LEFT'      THEN 12
+    WHEN 'VOICE_MOVED'     THEN 13
+END;
+
+-- Deve retornar zero linhas; tipos desconhecidos precisam ser tratados antes do passo 3
+SELECT eventType, COUNT(*) FROM server_logs WHERE event_type IS NULL GROUP BY eventType;
+
+-- 3. IDs numéricos. Os eventos do sistema gravavam 'SYSTEM' no lugar do ID, agora é NULL
+UPDATE server_logs SET user_id = NULL WHERE user_id NOT REGEXP '^[0-9]+$';
+UPDATE server_logs SET channel_id = NULL WHERE channel_id NOT REGEXP '^[0-9]+$';
+UPDATE server_logs SET guild_id = NULL WHERE guild_id NOT REGEXP '^[0-9]+$';
+
+ALTER TABLE server_logs
+    DROP INDEX idx_server_logs_type_created,
+    DROP COLUMN eventType,
+    DROP COLUMN username,
+    DROP COLUMN channelName,
+    MODIFY event_type SMALLINT NOT NULL,
+    MODIFY user_id BIGINT NULL,
+    MODIFY channel_id BIGINT NULL,
+    MODIFY guild_id BIGINT NULL,
+    MODIFY message VARCHAR(4000) NULL,
+    ADD INDEX idx_server_logs_type_created (event_type, created_at);
+
+-- 4. Rollups: guild_id numérico e sem as linhas 'SYSTEM' das dimensões de canal e usuário
+DELETE FROM log_rollups WHERE dimension IN ('CHANNEL', 'USER') AND dimension_value NOT REGEXP '^[0-9]+$';
+DELETE FROM log_rollups WHERE guild_id NOT REGEXP '^[0-9]+$';
+ALTER TABLE log_rollups MODIFY guild_id BIGINT NOT NULL;
@@ -0,0 +1,16 @@
+-- Inclui o id do spool na chave de ingestão de server_logs (MySQL).
+--
+-- Cada nó numera os registros do próprio spool a partir do zero, então ingest_key sozinho se repete
+-- entre nós (e num diretório de spool recriado). Com quarkus.hibernate-orm.database.generation=update
+-- o Hibernate cria a coluna ingest_spool, mas não altera a chave única existente.
+--
+-- Rode com a aplicação parada, antes de subir a nova versão, e só depois de esvaziar os spools
+-- (manikomio_spool_length em zero): registros anexados pela versão anterior não têm linha com o id
+-- do spool no banco e não seriam reconhecidos como já gravados numa nova tentativa.
+
+ALTER TABLE server_logs ADD COLUMN ingest_spool BIGINT NULL;
+
+-- Linhas antigas ficam com ingest_spool NULL e nunca colidem na chave única
+ALTER TABLE server_logs
+    DROP INDEX uk_server_logs_ingest,
+    ADD UNIQUE INDEX uk_server_logs_ingest (ingest_spool, ingest_key, created_at);
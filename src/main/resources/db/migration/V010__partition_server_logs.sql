@@ -0,0 +1,31 @@
+-- Converte server_logs para particionada por created_at (MySQL).
+--
+-- As duas ALTERs copiam a tabela inteira, por isso a conversão é manual e não fica no job de
+-- retenção. Rode com a aplicação parada. Sem ela a tabela continua sem partições: o job não cria
+-- nem remove partições e a retenção vale só para o arquivo frio (os logs saem do banco pelo
+-- arquivamento, depois de logs.archive.after-days).
+--
+-- Todo o histórico vai para a partição do mês corrente, que termina no primeiro dia do mês seguinte.
+-- Ela é removida quando esse limite passar da retenção, como qualquer outra. As partições seguintes
+-- são criadas pelo job a partir de p_future, que fica vazia. Com logs.partitioning.interval=DAY ou
+-- WEEK, troque @inicio e @fim pelo início do dia/semana corrente e do seguinte.
+
+SET @inicio = DATE_FORMAT(UTC_DATE(), '%Y-%m-01');
+SET @fim = DATE_FORMAT(DATE_ADD(@inicio, INTERVAL 1 MONTH), '%Y-%m-%d');
+
+-- O MySQL exige a coluna de particionamento em todas as chaves únicas
+ALTER TABLE server_logs DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at);
+
+-- RANGE COLUMNS não aceita TIMESTAMP, então o tipo da coluna decide a expressão
+SELECT DATA_TYPE INTO @tipo FROM information_schema.COLUMNS
+WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'server_logs' AND COLUMN_NAME = 'created_at';
+
+SET @ddl = CONCAT('ALTER TABLE server_logs PARTITION BY RANGE ',
+    IF(@tipo = 'timestamp', '(UNIX_TIMESTAMP(created_at))', 'COLUMNS(created_at)'),
+    ' (PARTITION p', DATE_FORMAT(@inicio, '%Y%m%d'), ' VALUES LESS THAN (',
+    IF(@tipo = 'timestamp', CONCAT('UNIX_TIMESTAMP(''', @fim, ' 00:00:00'')'), CONCAT('''', @fim, ' 00:00:00''')),
+    '), PARTITION p_future VALUES LESS THAN (MAXVALUE))');
+
+PREPARE particionar FROM @ddl;
+EXECUTE particionar;
+DEALLOCATE PREPARE particionar;
@@ -0,0 +1,32 @@
+package io.quarkus.manikomio.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogCursorTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        // Arrange
+        OffsetDateTime createdAt = OffsetDateTime.of(2024, 3, 10, 14, 30, 5, 123_456_000, ZoneOffset.UTC);
+        LogCursor cursor = new LogCursor(createdAt, 987654321L);
+
+        // Act
+        LogCursor decoded = LogCursor.decode(cursor.encode());
+
+        // Assert
+        assertEquals(createdAt.toInstant(), decoded.createdAt().toInstant());
+        assertEquals(987654321L, decoded.id());
+    }
+
+    @Test
+    void testDecodeRejectsInvalidToken() {
+        assertThrows(IllegalArgumentException.class, () -> LogCursor.decode("abc"));
+        assertThrows(IllegalArgumentException.class, () -> LogCursor.decode("!!.??"));
+        assertThrows(IllegalArgumentException.class, () -> LogCursor.decode(null));
+    }
+}
@@ -0,0 +1,30 @@
+package io.quarkus.manikomio.repository;
+
+import io.quarkus.manikomio.service.MockDiscordBotService;
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Perfil dos testes de repositório: H2 em memória no lugar do MySQL, sem os jobs agendados, e um
+ * arquivo frio novo a cada execução.
+ */
+public class H2TestProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        Map<String, String> config = new HashMap<>();
+        config.put("quarkus.datasource.db-kind", "h2");
+        config.put("quarkus.datasource.jdbc.url", "jdbc:h2:mem:repository;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        config.put("quarkus.datasource.username", "sa");
+        config.put("quarkus.datasource.password", "");
+        config.put("quarkus.hibernate-orm.database.generation", "drop-and-create");
+        config.put("quarkus.arc.selected-alternatives", MockDiscordBotService.class.getName());
+        config.put("quarkus.scheduler.enabled", "false");
+        config.put("logs.archive.directory", "target/repository-archive/" + System.currentTimeMillis());
+        config.put("logs.partitioning.enabled", "false");
+        config.put("logs.retention.enabled", "false");
+        return config;
+    }
+}
@@ -0,0 +1,265 @@
+package io.quarkus.manikomio.repository;
+
+import io.quarkus.manikomio.model.LogCursor;
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogPage;
+import io.quarkus.manikomio.model.LogQuery;
+import io.quarkus.manikomio.model.ServerLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogArchiveTest {
+
+    private static final OffsetDateTime BASE = OffsetDateTime.parse("2024-01-01T00:00:00.123456Z");
+    private static final long GUILD = 500L;
+
+    @TempDir
+    Path directory;
+
+    private LogArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        archive = new LogArchive();
+        archive.directory = directory.toString();
+        archive.init();
+    }
+
+    private static ServerLog log(long id, int minute, LogEventType type, Long userId, String message) {
+        ServerLog log = new ServerLog();
+        log.id = id;
+        log.createdAt = BASE.plusMinutes(minute);
+        log.eventType = type;
+        log.guildId = GUILD;
+        log.userId = userId;
+        log.channelId = 700L + id % 3;
+        log.description = "evento " + id;
+        log.message = message;
+        return log;
+    }
+
+    // Dez logs por segmento, um por minuto; o usuário alterna entre 1 e 2 e os banimentos têm moderador
+    private void appendSegment(long firstId, int firstMinute) throws IOException {
+        List<ServerLog> logs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            LogEventType type = i % 5 == 0 ? LogEventType.MEMBER_BANNED : LogEventType.MESSAGE_SENT;
+            ServerLog log = log(firstId + i, firstMinute + i, type, 1L + i % 2, i == 3 ? null : "mensagem, \"" + i + "\" ✅");
+            log.moderatorId = type == LogEventType.MEMBER_BANNED ? 900L : null;
+            logs.add(log);
+        }
+        archive.append(logs);
+    }
+
+    @Test
+    void testRoundTripKeepsEveryColumn() throws IOException {
+        // Arrange
+        appendSegment(1, 0);
+
+        // Act
+        List<ServerLog> logs = archive.find(new LogQuery().sort(LogQuery.SortOrder.OLDEST_FIRST), 100);
+
+        // Assert
+        assertEquals(10, logs.size());
+        ServerLog first = logs.get(0);
+        assertEquals(1L, first.id);
+        assertEquals(BASE.toInstant(), first.createdAt.toInstant());
+        assertEquals(LogEventType.MEMBER_BANNED, first.eventType);
+        assertEquals(GUILD, first.guildId);
+        assertEquals(1L, first.userId);
+        assertEquals(701L, first.channelId);
+        assertEquals("evento 1", first.description);
+        assertEquals("mensagem, \"0\" ✅", first.message);
+        assertEquals(900L, first.moderatorId);
+        assertNull(logs.get(1).moderatorId);
+        assertNull(logs.get(3).message);
+    }
+
+    @Test
+    void testFiltersAndCursorPageAcrossSegments() throws IOException {
+        // Arrange
+        appendSegment(11, 10);
+        appendSegment(1, 0);
+        LogQuery query = LogQuery.forGuild(GUILD).user(2L).eventType(LogEventType.MESSAGE_SENT);
+
+        // Act
+        List<ServerLog> first = archive.find(query, 3);
+        List<ServerLog> second = archive.find(query.after(LogCursor.of(first.get(2)).encode()), 100);
+
+        // Assert
+        assertEquals(List.of(20L, 18L, 14L), first.stream().map(log -> log.id).toList());
+        assertEquals(List.of(12L, 10L, 8L, 4L, 2L), second.stream().map(log -> log.id).toList());
+    }
+
+    @Test
+    void testSegmentMetadataSkipsRangesTypesAndUnknownKeys() throws IOException {
+        // Arrange
+        appendSegment(1, 0);
+        ArchiveSegment segment = ArchiveSegment.open(directory.resolve(
+                LogArchive.SEGMENT_PREFIX + ArchiveSegment.micros(BASE) + "-1" + LogArchive.SEGMENT_SUFFIX));
+
+        // Act & Assert
+        assertTrue(segment.mightMatch(LogQuery.forGuild(GUILD).user(1L), null));
+        assertFalse(segment.mightMatch(LogQuery.forGuild(GUILD).from(BASE.plusHours(1)), null));
+        assertFalse(segment.mightMatch(LogQuery.forGuild(GUILD).eventType(LogEventType.VOICE_JOINED), null));
+        assertFalse(segment.mightMatch(LogQuery.forGuild(GUILD).user(123456789012345678L), null));
+        assertFalse(segment.mightMatch(LogQuery.forGuild(999L), null));
+        assertEquals(Set.of(LogEventType.MESSAGE_SENT, LogEventType.MEMBER_BANNED), segment.types());
+    }
+
+    @Test
+    void testFindByIdsAndReopen() throws IOException {
+        // Arrange
+        appendSegment(1, 0);
+        appendSegment(11, 10);
+        LogArchive reopened = new LogArchive();
+        reopened.directory = directory.toString();
+        reopened.init();
+
+        // Act
+        List<ServerLog> logs = reopened.findByIds(List.of(2L, 15L, 99L));
+
+        // Assert
+        assertEquals(2, reopened.getSegmentCount());
+        assertEquals(20, reopened.getRowCount());
+        assertEquals(Set.of(2L, 15L), Set.copyOf(logs.stream().map(log -> log.id).toList()));
+    }
+
+    @Test
+    void testLogsInTwoSegmentsAppearOnce() throws IOException {
+        // Arrange
+        appendSegment(1, 0);
+        // Queda entre o fsync e o commit: as mesmas linhas foram arquivadas de novo com outras
+        archive.append(List.of(log(3, 2, LogEventType.MESSAGE_SENT, 2L, "mensagem"),
+                log(50, 30, LogEventType.MESSAGE_SENT, 2L, "nova")));
+
+        // Act
+        List<ServerLog> logs = archive.find(LogQuery.forGuild(GUILD).limit(50), 50);
+        List<ServerLog> byIds = archive.findByIds(List.of(3L, 50L));
+
+        // Assert
+        assertEquals(11, logs.size());
+        assertEquals(1, logs.stream().filter(log -> log.id == 3L).count());
+        assertEquals(2, byIds.size());
+    }
+
+    @Test
+    void testDiscardRemovesAppendedSegment() throws IOException {
+        // Arrange
+        Path segment = archive.append(List.of(log(1, 0, LogEventType.MESSAGE_SENT, 1L, "mensagem")));
+
+        // Act
+        archive.discard(segment);
+
+        // Assert
+        assertTrue(archive.isEmpty());
+        assertFalse(segment.toFile().exists());
+    }
+
+    @Test
+    void testDropExpiredRewritesSegmentsWithRetainedTypes() throws IOException {
+        // Arrange
+        appendSegment(1, 0);
+        archive.append(List.of(log(50, 30, LogEventType.MESSAGE_SENT, 1L, "só mensagem")));
+        OffsetDateTime later = BASE.plusDays(1);
+
+        // Act
+        int dropped = archive.dropExpired(type -> type == LogEventType.MEMBER_BANNED ? null : later);
+
+        // Assert
+        assertEquals(1, dropped);
+        assertEquals(1, archive.getSegmentCount());
+        assertEquals(2, archive.getRowCount());
+        LogArchive reopened = new LogArchive();
+        reopened.directory = directory.toString();
+        reopened.init();
+        List<ServerLog> kept = reopened.find(LogQuery.forGuild(GUILD).limit(50), 50);
+        assertEquals(List.of(6L, 1L), kept.stream().map(log -> log.id).toList());
+        assertTrue(kept.stream().allMatch(log -> log.eventType == LogEventType.MEMBER_BANNED && log.moderatorId == 900L));
+    }
+
+    @Test
+    void testDropExpiredKeepsTypesWhoseNewestRowIsRetained() throws IOException {
+        // Arrange
+        appendSegment(1, 0);
+
+        // Act
+        int dropped = archive.dropExpired(type -> BASE.plusMinutes(5));
+
+        // Assert
+        assertEquals(0, dropped);
+        assertEquals(10, archive.getRowCount());
+    }
+
+    @Test
+    void testScanReadsEverySegmentOnceInOrder() throws IOException {
+        // Arrange
+        appendSegment(11, 10);
+        appendSegment(1, 0);
+        // Segmento que se sobrepõe aos dois, com uma linha repetida
+        archive.append(List.of(log(5, 4, LogEventType.MESSAGE_SENT, 1L, "repetida"),
+                log(30, 9, LogEventType.MESSAGE_SENT, 1L, "no meio")));
+
+        // Act
+        List<Long> ids = new ArrayList<>();
+        archive.scan(LogQuery.forGuild(GUILD).limit(1)).forEachRemaining(log -> ids.add(log.id));
+
+        // Assert
+        List<Long> expected = new ArrayList<>(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 30L));
+        for (long id = 11; id <= 20; id++) {
+            expected.add(id);
+        }
+        assertEquals(expected, ids);
+        assertEquals(BASE.plusMinutes(19).toInstant(), archive.maxCreatedAt().toInstant());
+    }
+
+    @Test
+    void testSkipsArchiveWhenHotPageIsNewer() {
+        // Arrange
+        OffsetDateTime newest = BASE.plusMinutes(10);
+        List<ServerLog> hot = List.of(log(40, 40, LogEventType.MESSAGE_SENT, 1L, null),
+                log(39, 11, LogEventType.MESSAGE_SENT, 1L, null));
+        List<ServerLog> reachesArchive = List.of(log(40, 40, LogEventType.MESSAGE_SENT, 1L, null),
+                log(38, 10, LogEventType.MESSAGE_SENT, 1L, null));
+
+        // Act & Assert
+        assertTrue(ServerLogRepository.skipsArchive(LogQuery.forGuild(GUILD).limit(2), hot, newest));
+        assertTrue(ServerLogRepository.skipsArchive(LogQuery.forGuild(GUILD).limit(5), List.of(), null));
+        // Página incompleta ou que chega ao período do arquivo
+        assertFalse(ServerLogRepository.skipsArchive(LogQuery.forGuild(GUILD).limit(3), hot, newest));
+        assertFalse(ServerLogRepository.skipsArchive(LogQuery.forGuild(GUILD).limit(2), reachesArchive, newest));
+        // Do mais antigo ao mais novo, só o início da consulta decide
+        LogQuery oldestFirst = LogQuery.forGuild(GUILD).limit(2).sort(LogQuery.SortOrder.OLDEST_FIRST);
+        assertFalse(ServerLogRepository.skipsArchive(oldestFirst, hot, newest));
+        assertTrue(ServerLogRepository.skipsArchive(oldestFirst.after(LogCursor.of(hot.get(1)).encode()), hot, newest));
+        assertTrue(ServerLogRepository.skipsArchive(LogQuery.forGuild(GUILD).from(newest.plusSeconds(1)), List.of(), newest));
+    }
+
+    @Test
+    void testMergePageInterleavesHotAndArchivedRows() {
+        // Arrange
+        LogQuery query = LogQuery.forGuild(GUILD).limit(3);
+        ServerLog hotNewest = log(30, 30, LogEventType.MESSAGE_SENT, 1L, "quente");
+        ServerLog hotOld = log(5, 5, LogEventType.MESSAGE_SENT, 1L, "quente");
+        LogPage hot = new LogPage(List.of(hotNewest, hotOld), null);
+        List<ServerLog> archived = List.of(log(20, 20, LogEventType.MESSAGE_SENT, 1L, null),
+                log(5, 5, LogEventType.MESSAGE_SENT, 1L, "cópia arquivada"), log(2, 2, LogEventType.MESSAGE_SENT, 1L, null));
+
+        // Act
+        LogPage page = ServerLogRepository.mergePage(query, hot, archived);
+
+        // Assert
+        assertEquals(List.of(30L, 20L, 5L), page.logs().stream().map(log -> log.id).toList());
+        assertSame(hotOld, page.logs().get(2));
+        assertEquals(LogCursor.of(hotOld).encode(), page.nextCursor());
+    }
+}
@@ -0,0 +1,39 @@
+package io.quarkus.manikomio.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServerLogPartitionRepositoryTest {
+
+    @Test
+    void testPartitionNameIsZeroPaddedDate() {
+        // Act & Assert
+        assertEquals("p20240105", ServerLogPartitionRepository.partitionName(LocalDate.of(2024, 1, 5)));
+        assertEquals("p20241231", ServerLogPartitionRepository.partitionName(LocalDate.of(2024, 12, 31)));
+    }
+
+    @Test
+    void testPartitionStartReadsTheName() {
+        // Arrange
+        LocalDate start = LocalDate.of(2025, 2, 28);
+
+        // Act
+        LocalDate parsed = ServerLogPartitionRepository.partitionStart(ServerLogPartitionRepository.partitionName(start));
+
+        // Assert
+        assertEquals(start, parsed);
+    }
+
+    @Test
+    void testPartitionNamesSortLikeTheirDates() {
+        // Arrange
+        String september = ServerLogPartitionRepository.partitionName(LocalDate.of(2024, 9, 1));
+        String october = ServerLogPartitionRepository.partitionName(LocalDate.of(2024, 10, 1));
+
+        // Act & Assert
+        assertTrue(september.compareTo(october) < 0);
+    }
+}
@@ -0,0 +1,66 @@
+package io.quarkus.manikomio.repository;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogPage;
+import io.quarkus.manikomio.model.LogQuery;
+import io.quarkus.manikomio.model.ServerLog;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+public class ServerLogRepositoryTest {
+
+    private static final long GUILD = 4242L;
+
+    @Inject
+    ServerLogRepository repository;
+
+    @Inject
+    LogArchive archive;
+
+    private static List<ServerLog> logs(int count) {
+        OffsetDateTime base = OffsetDateTime.now(ZoneOffset.UTC).minusDays(60);
+        List<ServerLog> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ServerLog log = new ServerLog();
+            log.eventType = LogEventType.MESSAGE_SENT;
+            log.guildId = GUILD;
+            log.userId = 1L;
+            log.channelId = 2L;
+            log.description = "evento " + i;
+            log.createdAt = base.plusMinutes(i);
+            logs.add(log);
+        }
+        return logs;
+    }
+
+    @Test
+    void testMoveToArchiveDeletesRowsFromDatabase() throws Exception {
+        // Arrange
+        List<ServerLog> logs = logs(5);
+        repository.persistBatch(logs);
+        List<ServerLog> moved = logs.subList(0, 3);
+        List<Long> movedIds = moved.stream().map(log -> log.id).toList();
+
+        // Act
+        repository.moveToArchive(moved, 2);
+
+        // Assert
+        assertEquals(0, repository.count("id IN ?1", movedIds));
+        assertEquals(2, repository.count("guildId", GUILD));
+        assertEquals(3, archive.findByIds(movedIds).size());
+        LogPage page = repository.findPage(LogQuery.forGuild(GUILD).limit(10));
+        assertEquals(5, page.logs().size());
+        assertNull(page.nextCursor());
+    }
+}
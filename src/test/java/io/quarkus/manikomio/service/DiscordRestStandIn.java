@@ -0,0 +1,88 @@
+package io.quarkus.manikomio.service;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Substituto local da API REST do Discord para o canal de logs: cada envio responde com sucesso
+ * depois de uma latência fixa, numa thread separada, como o callback do queue() do JDA.
+ */
+final class DiscordRestStandIn implements AutoCloseable {
+
+    private final long latencyMs;
+    private final ScheduledExecutorService responder;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final JDA jda;
+
+    DiscordRestStandIn(long latencyMs) {
+        this.latencyMs = latencyMs;
+        responder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "discord-rest-stand-in");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        MessageCreateAction action = mock(MessageCreateAction.class, withSettings().stubOnly());
+        when(action.setContent(any())).thenReturn(action);
+        doAnswer(invocation -> {
+            respond(invocation.getArgument(0));
+            return null;
+        }).when(action).queue(any(), any());
+
+        TextChannel channel = mock(TextChannel.class, withSettings().stubOnly());
+        when(channel.getName()).thenReturn("logs");
+        when(channel.canTalk()).thenReturn(true);
+        when(channel.sendMessage(anyString())).thenReturn(action);
+        when(channel.sendMessageEmbeds(anyCollection())).thenReturn(action);
+
+        jda = mock(JDA.class, withSettings().stubOnly());
+        when(jda.getTextChannelById(anyString())).thenReturn(channel);
+        when(jda.getGatewayPing()).thenReturn(latencyMs);
+    }
+
+    private void respond(Consumer<? super Message> success) {
+        requests.incrementAndGet();
+        inFlight.incrementAndGet();
+        responder.schedule(() -> {
+            inFlight.decrementAndGet();
+            if (success != null) {
+                success.accept(null);
+            }
+        }, latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    JDA jda() {
+        return jda;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        responder.shutdownNow();
+    }
+}
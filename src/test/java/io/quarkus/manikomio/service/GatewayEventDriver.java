@@ -0,0 +1,135 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.unions.AudioChannelUnion;
+import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
+import net.dv8tion.jda.api.events.guild.GuildBanEvent;
+import net.dv8tion.jda.api.events.guild.GuildUnbanEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.guild.voice.GuildVoiceUpdateEvent;
+import net.dv8tion.jda.api.events.message.MessageDeleteEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.message.MessageUpdateEvent;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Entrega eventos do harness ao {@link DiscordBotService} pelo mesmo caminho do JDA (o {@link StripedEventManager}).
+ * Cada thread de carga tem o seu driver: os eventos do JDA são mocks criados uma vez, cujos getters
+ * leem o evento corrente, para que o custo medido seja o do listener e não o da criação dos mocks.
+ */
+final class GatewayEventDriver {
+
+    static final Set<LogEventType> SUPPORTED = EnumSet.of(
+            LogEventType.MESSAGE_SENT, LogEventType.MESSAGE_EDITED, LogEventType.MESSAGE_DELETED,
+            LogEventType.VOICE_JOINED, LogEventType.VOICE_LEFT, LogEventType.VOICE_MOVED,
+            LogEventType.MEMBER_LEFT, LogEventType.MEMBER_BANNED, LogEventType.MEMBER_UNBANNED);
+
+    private final DiscordBotService bot;
+    private LoadEvent current;
+
+    private final MessageReceivedEvent messageReceived = stub(MessageReceivedEvent.class);
+    private final MessageUpdateEvent messageUpdate = stub(MessageUpdateEvent.class);
+    private final MessageDeleteEvent messageDelete = stub(MessageDeleteEvent.class);
+    private final GuildVoiceUpdateEvent voiceJoin = stub(GuildVoiceUpdateEvent.class);
+    private final GuildVoiceUpdateEvent voiceLeave = stub(GuildVoiceUpdateEvent.class);
+    private final GuildVoiceUpdateEvent voiceMove = stub(GuildVoiceUpdateEvent.class);
+    private final GuildMemberRemoveEvent memberRemove = stub(GuildMemberRemoveEvent.class);
+    private final GuildBanEvent ban = stub(GuildBanEvent.class);
+    private final GuildUnbanEvent unban = stub(GuildUnbanEvent.class);
+
+    GatewayEventDriver(DiscordBotService bot) {
+        this.bot = bot;
+
+        User user = stub(User.class);
+        when(user.isBot()).thenReturn(false);
+        when(user.getIdLong()).thenAnswer(invocation -> current.userId());
+        when(user.getName()).thenAnswer(invocation -> current.username());
+
+        Member member = stub(Member.class);
+        when(member.getUser()).thenReturn(user);
+        when(member.getIdLong()).thenAnswer(invocation -> current.userId());
+        when(member.getEffectiveName()).thenAnswer(invocation -> current.username());
+
+        Guild guild = stub(Guild.class);
+        when(guild.getIdLong()).thenAnswer(invocation -> current.guildId());
+
+        MessageChannelUnion channel = stub(MessageChannelUnion.class);
+        when(channel.getIdLong()).thenAnswer(invocation -> current.channelId());
+        when(channel.getName()).thenAnswer(invocation -> current.channelName());
+
+        AudioChannelUnion joined = stub(AudioChannelUnion.class);
+        when(joined.getIdLong()).thenAnswer(invocation -> current.channelId());
+        when(joined.getName()).thenAnswer(invocation -> current.channelName());
+
+        AudioChannelUnion left = stub(AudioChannelUnion.class);
+        when(left.getIdLong()).thenAnswer(invocation -> current.previousChannelId());
+        when(left.getName()).thenAnswer(invocation -> current.previousChannelName());
+
+        Message message = stub(Message.class);
+        when(message.getContentRaw()).thenAnswer(invocation -> current.content());
+        when(message.getContentDisplay()).thenAnswer(invocation -> current.content());
+
+        when(messageReceived.getAuthor()).thenReturn(user);
+        when(messageReceived.getMessage()).thenReturn(message);
+        when(messageReceived.getChannel()).thenReturn(channel);
+        when(messageReceived.getGuild()).thenReturn(guild);
+        when(messageReceived.isFromGuild()).thenReturn(true);
+
+        when(messageUpdate.getAuthor()).thenReturn(user);
+        when(messageUpdate.getMessage()).thenReturn(message);
+        when(messageUpdate.getChannel()).thenReturn(channel);
+        when(messageUpdate.getGuild()).thenReturn(guild);
+
+        when(messageDelete.getChannel()).thenReturn(channel);
+        when(messageDelete.getGuild()).thenReturn(guild);
+
+        for (GuildVoiceUpdateEvent voice : new GuildVoiceUpdateEvent[] {voiceJoin, voiceLeave, voiceMove}) {
+            when(voice.getMember()).thenReturn(member);
+            when(voice.getGuild()).thenReturn(guild);
+        }
+        when(voiceJoin.getChannelJoined()).thenReturn(joined);
+        when(voiceLeave.getChannelLeft()).thenReturn(left);
+        when(voiceMove.getChannelJoined()).thenReturn(joined);
+        when(voiceMove.getChannelLeft()).thenReturn(left);
+
+        when(memberRemove.getUser()).thenReturn(user);
+        when(memberRemove.getGuild()).thenReturn(guild);
+        when(ban.getUser()).thenReturn(user);
+        when(ban.getGuild()).thenReturn(guild);
+        when(unban.getUser()).thenReturn(user);
+        when(unban.getGuild()).thenReturn(guild);
+    }
+
+    // stubOnly: sem registrar as invocações, senão o Mockito guardaria milhões de chamadas
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    void dispatch(LoadEvent event) {
+        current = event;
+        // Como o gateway: cada guild chega pelo seu shard
+        StripedEventManager events = bot.getEventManager(bot.shardOf(event.guildId()));
+        switch (event.type()) {
+            case MESSAGE_SENT -> events.handle(messageReceived);
+            case MESSAGE_EDITED -> events.handle(messageUpdate);
+            case MESSAGE_DELETED -> events.handle(messageDelete);
+            case VOICE_JOINED -> events.handle(voiceJoin);
+            case VOICE_LEFT -> events.handle(voiceLeave);
+            case VOICE_MOVED -> events.handle(voiceMove);
+            case MEMBER_LEFT -> events.handle(memberRemove);
+            case MEMBER_BANNED -> events.handle(ban);
+            case MEMBER_UNBANNED -> events.handle(unban);
+            default -> throw new IllegalArgumentException("Tipo não suportado pelo harness de carga: " + event.type());
+        }
+    }
+}
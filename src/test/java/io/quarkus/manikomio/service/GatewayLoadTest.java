@@ -0,0 +1,67 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de carga do pipeline de logs, fora do build padrão: {@code mvn test -Pload-test}.
+ * O relatório vai para o log e para {@code target/load-report.txt}.
+ */
+@QuarkusTest
+@TestProfile(LoadTestProfile.class)
+@Tag("load")
+public class GatewayLoadTest {
+
+    private static final Logger LOGGER = Logger.getLogger(GatewayLoadTest.class);
+
+    // Tipos base: a classe de teste também é validada nos builds sem o LoadTestProfile
+    @Inject
+    DiscordBotService bot;
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    LogWriteBehindService writeBehindService;
+
+    @Inject
+    LogMirrorService mirrorService;
+
+    @Inject
+    LogRollupService rollupService;
+
+    @Test
+    void testPipelineKeepsUpWithGatewayLoad() throws Exception {
+        // Arrange
+        LoadSettings settings = LoadSettings.fromSystemProperties();
+        List<LoadEvent> events = LoadEventSource.load(settings);
+        LoadHarness harness = new LoadHarness(settings, (LoadDiscordBotService) bot,
+                (LoadPipelineMetrics) metrics, writeBehindService, mirrorService, rollupService);
+
+        // Act
+        LoadReport report = harness.run(events);
+
+        // Assert
+        String text = report.format();
+        LOGGER.info("\n" + text);
+        Files.createDirectories(settings.report().toAbsolutePath().getParent());
+        Files.writeString(settings.report(), text);
+
+        assertEquals(0, report.failed(), "listeners falharam durante a carga");
+        assertEquals(0, report.rejected(), "o spool rejeitou eventos");
+        assertEquals(report.dispatched(), report.persisted(), "eventos entregues que não chegaram ao banco");
+        if (settings.maxCommitP99Ms() > 0) {
+            assertTrue(report.commit().p99() / 1000 <= settings.maxCommitP99Ms(),
+                    "p99 até o commit acima do limite: " + report.commit().p99() / 1000 + " ms");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.quarkus.manikomio.service;
+
+import java.util.Arrays;
+
+/**
+ * Guarda cada latência (em microssegundos) para calcular percentis exatos no fim do teste de carga.
+ */
+final class LatencyRecorder {
+
+    record Summary(int count, long p50, long p99, long p999, long max) {
+    }
+
+    private long[] values = new long[1024];
+    private int size;
+
+    synchronized void record(long micros) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = micros;
+    }
+
+    synchronized void addAll(LatencyRecorder other) {
+        long[] source;
+        int count;
+        synchronized (other) {
+            source = other.values;
+            count = other.size;
+        }
+        if (size + count > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, size + count));
+        }
+        System.arraycopy(source, 0, values, size, count);
+        size += count;
+    }
+
+    synchronized Summary summary() {
+        if (size == 0) {
+            return new Summary(0, 0, 0, 0, 0);
+        }
+        long[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        return new Summary(size, percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                sorted[size - 1]);
+    }
+
+    // Percentil pelo método do posto mais próximo
+    private static long percentile(long[] sorted, double quantile) {
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
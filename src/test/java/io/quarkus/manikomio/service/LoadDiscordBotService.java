@@ -0,0 +1,51 @@
+package io.quarkus.manikomio.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Bot usado no teste de carga: sem conexão com o Discord, com o canal de logs respondido pelo
+ * {@link DiscordRestStandIn}.
+ */
+@Alternative
+@ApplicationScoped
+public class LoadDiscordBotService extends MockDiscordBotService {
+
+    @ConfigProperty(name = "load.rest-latency-ms", defaultValue = "80")
+    long restLatencyMs;
+
+    private DiscordRestStandIn rest;
+
+    @PostConstruct
+    void init() {
+        rest = new DiscordRestStandIn(restLatencyMs);
+    }
+
+    @PreDestroy
+    void close() {
+        rest.close();
+    }
+
+    @Override
+    public TextChannel getTextChannelById(String channelId) {
+        return rest.jda().getTextChannelById(channelId);
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public double getGatewayPing(int shardId) {
+        return rest.jda().getGatewayPing();
+    }
+
+    DiscordRestStandIn rest() {
+        return rest;
+    }
+}
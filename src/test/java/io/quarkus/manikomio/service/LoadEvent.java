@@ -0,0 +1,12 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+
+/**
+ * Evento do gateway usado pelo harness de carga. {@code offsetNanos} é o instante previsto
+ * de entrega, relativo ao início da execução.
+ */
+record LoadEvent(long offsetNanos, LogEventType type, long guildId,
+                 long channelId, String channelName, long previousChannelId, String previousChannelName,
+                 long userId, String username, String content) {
+}
@@ -0,0 +1,143 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fluxos de eventos para o harness de carga: sintético (chegadas de Poisson na taxa pedida)
+ * ou gravado (CSV exportado de server_logs, reproduzido com os intervalos originais).
+ */
+final class LoadEventSource {
+
+    private static final Logger LOGGER = Logger.getLogger(LoadEventSource.class);
+
+    private static final long GUILD_BASE = 900_000_000_000_000_000L;
+    private static final long CHANNEL_BASE = 910_000_000_000_000_000L;
+    private static final long USER_BASE = 920_000_000_000_000_000L;
+
+    private static final String[] CONTENTS = {
+        "ok",
+        "alguém vai jogar hoje à noite?",
+        "Mensagem de teste com um pouco de texto para simular uma conversa normal no servidor",
+        "https://example.com/um/link/qualquer/que/alguem/colou/no/chat",
+        "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore "
+            + "et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation ullamco laboris nisi "
+            + "ut aliquip ex ea commodo consequat."
+    };
+
+    // Nomes compartilhados por ID, como no cache de entidades do JDA
+    private final Map<Long, String> names = new HashMap<>();
+
+    private LoadEventSource() {
+    }
+
+    static List<LoadEvent> load(LoadSettings settings) throws IOException {
+        return settings.recorded()
+                ? new LoadEventSource().recorded(Path.of(settings.source()), settings.speedup())
+                : new LoadEventSource().synthetic(settings);
+    }
+
+    List<LoadEvent> synthetic(LoadSettings settings) {
+        Random random = new Random(settings.seed());
+        LogEventType[] types = settings.mix().keySet().toArray(new LogEventType[0]);
+        int[] cumulative = new int[types.length];
+        int totalWeight = 0;
+        for (int i = 0; i < types.length; i++) {
+            totalWeight += settings.mix().get(types[i]);
+            cumulative[i] = totalWeight;
+        }
+
+        long end = settings.duration().toNanos();
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        List<LoadEvent> events = new ArrayList<>((int) (settings.rate() * settings.duration().toSeconds()));
+        long offset = 0;
+        while (true) {
+            offset += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+            if (offset >= end) {
+                return events;
+            }
+            int pick = random.nextInt(totalWeight);
+            int index = 0;
+            while (cumulative[index] <= pick) {
+                index++;
+            }
+            int guild = random.nextInt(settings.guilds());
+            long channelId = CHANNEL_BASE + (long) guild * settings.channelsPerGuild()
+                    + random.nextInt(settings.channelsPerGuild());
+            long previousChannelId = CHANNEL_BASE + (long) guild * settings.channelsPerGuild()
+                    + random.nextInt(settings.channelsPerGuild());
+            long userId = USER_BASE + random.nextInt(settings.users());
+            events.add(event(offset, types[index], GUILD_BASE + guild, channelId, previousChannelId, userId,
+                    CONTENTS[random.nextInt(CONTENTS.length)]));
+        }
+    }
+
+    /**
+     * Lê um CSV {@code offset_ms,event_type,guild_id,channel_id,user_id,content}. O tipo pode ser o nome
+     * ou o código numérico; IDs vazios viram 0. O conteúdo é a última coluna e pode conter vírgulas.
+     */
+    List<LoadEvent> recorded(Path file, double speedup) throws IOException {
+        List<LoadEvent> events = new ArrayList<>();
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("offset")) {
+                    continue;
+                }
+                String[] columns = line.split(",", 6);
+                if (columns.length < 5) {
+                    throw new IllegalArgumentException("Linha inválida no fluxo gravado: " + line);
+                }
+                LogEventType type = parseType(columns[1].trim());
+                if (!GatewayEventDriver.SUPPORTED.contains(type)) {
+                    skipped++;
+                    continue;
+                }
+                long offset = (long) (TimeUnit.MILLISECONDS.toNanos(Long.parseLong(columns[0].trim())) / speedup);
+                long channelId = parseId(columns[3]);
+                events.add(event(offset, type, parseId(columns[2]), channelId, channelId + 1, parseId(columns[4]),
+                        columns.length > 5 ? columns[5] : ""));
+            }
+        }
+        if (skipped > 0) {
+            LOGGER.warn("Fluxo gravado: " + skipped + " eventos de tipos não suportados pelo harness foram ignorados");
+        }
+        events.sort((a, b) -> Long.compare(a.offsetNanos(), b.offsetNanos()));
+        return events;
+    }
+
+    private static LogEventType parseType(String value) {
+        return !value.isEmpty() && Character.isDigit(value.charAt(0))
+                ? LogEventType.fromCode(Short.parseShort(value))
+                : LogEventType.parse(value);
+    }
+
+    private static long parseId(String value) {
+        String id = value.trim();
+        return id.isEmpty() || id.equalsIgnoreCase("null") ? 0 : Long.parseLong(id);
+    }
+
+    private LoadEvent event(long offset, LogEventType type, long guildId, long channelId, long previousChannelId,
+                            long userId, String content) {
+        return new LoadEvent(offset, type, guildId,
+                channelId, name("canal-", channelId), previousChannelId, name("canal-", previousChannelId),
+                userId, name("usuario-", userId), content);
+    }
+
+    private String name(String prefix, long id) {
+        return names.computeIfAbsent(id, key -> prefix + Long.toString(key % 100_000));
+    }
+}
@@ -0,0 +1,169 @@
+package io.quarkus.manikomio.service;
+
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reproduz um fluxo de eventos do gateway nos listeners do bot, na taxa e concorrência configuradas,
+ * e mede o pipeline inteiro: latência de ingestão (instante previsto até o retorno do handle do JDA,
+ * sem omissão coordenada), latência até o commit no banco e onde a fila cresce.
+ */
+final class LoadHarness {
+
+    private static final Logger LOGGER = Logger.getLogger(LoadHarness.class);
+
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long SAMPLE_INTERVAL_MS = 1000;
+
+    private final LoadSettings settings;
+    private final LoadDiscordBotService bot;
+    private final LoadPipelineMetrics metrics;
+    private final LogWriteBehindService writeBehindService;
+    private final LogMirrorService mirrorService;
+    private final LogRollupService rollupService;
+
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final List<Worker> workers = new ArrayList<>();
+    private final List<LoadReport.Sample> samples = new ArrayList<>();
+    private long startNanos;
+
+    LoadHarness(LoadSettings settings, LoadDiscordBotService bot, LoadPipelineMetrics metrics,
+                LogWriteBehindService writeBehindService, LogMirrorService mirrorService, LogRollupService rollupService) {
+        this.settings = settings;
+        this.bot = bot;
+        this.metrics = metrics;
+        this.writeBehindService = writeBehindService;
+        this.mirrorService = mirrorService;
+        this.rollupService = rollupService;
+    }
+
+    LoadReport run(List<LoadEvent> events) throws InterruptedException {
+        // Eventos da mesma guild ficam na mesma thread, como num shard do gateway
+        List<List<LoadEvent>> partitions = new ArrayList<>();
+        for (int i = 0; i < settings.threads(); i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (LoadEvent event : events) {
+            partitions.get((int) Math.floorMod(event.guildId(), (long) settings.threads())).add(event);
+        }
+
+        long persistedBefore = writeBehindService.getPersistedCount();
+        long collapsedBefore = mirrorService.getCollapsedEvents();
+        long restBefore = bot.rest().requests();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < partitions.size(); i++) {
+            Worker worker = new Worker(partitions.get(i));
+            workers.add(worker);
+            threads.add(new Thread(worker, "load-gateway-" + i));
+        }
+        // Os mocks já foram criados: a agenda começa a contar daqui
+        startNanos = System.nanoTime() + START_DELAY_NANOS;
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::sample, SAMPLE_INTERVAL_MS, SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        LOGGER.info("Carga iniciada: " + events.size() + " eventos em " + settings.threads() + " threads");
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long loadEndNanos = System.nanoTime();
+        int loadSamples;
+        synchronized (samples) {
+            loadSamples = samples.size();
+        }
+
+        // Espera o write-behind esvaziar o spool
+        long expected = persistedBefore + dispatched.sum();
+        long deadline = System.nanoTime() + settings.drainTimeout().toNanos();
+        while (writeBehindService.getPersistedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        long drainEndNanos = System.nanoTime();
+        sampler.shutdownNow();
+        sample();
+
+        LatencyRecorder ingest = new LatencyRecorder();
+        workers.forEach(worker -> ingest.addAll(worker.ingest));
+        long maxLagMillis = workers.stream().mapToLong(worker -> worker.maxLagNanos).max().orElse(0) / 1_000_000;
+
+        synchronized (samples) {
+            return new LoadReport(settings, events.size(), dispatched.sum(), failed.sum(),
+                    writeBehindService.getPersistedCount() - persistedBefore,
+                    writeBehindService.getRejectedCount(),
+                    mirrorService.getCollapsedEvents() - collapsedBefore,
+                    bot.rest().requests() - restBefore,
+                    (loadEndNanos - startNanos) / 1e9, (drainEndNanos - startNanos) / 1e9,
+                    ingest.summary(), metrics.commitLatencies().summary(), maxLagMillis,
+                    List.copyOf(samples), loadSamples);
+        }
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        long lag = 0;
+        for (Worker worker : workers) {
+            lag = Math.max(lag, worker.lagNanos);
+        }
+        LoadReport.Sample sample = new LoadReport.Sample((now - startNanos) / 1e9, dispatched.sum(),
+                writeBehindService.getPersistedCount(), lag / 1_000_000, bot.getPendingEvents(),
+                writeBehindService.getSpoolLength(),
+                mirrorService.getPendingCount(), mirrorService.getCollapsedEvents(),
+                rollupService.getPendingCounters(), bot.rest().inFlight());
+        synchronized (samples) {
+            samples.add(sample);
+        }
+    }
+
+    private final class Worker implements Runnable {
+
+        private final List<LoadEvent> events;
+        private final LatencyRecorder ingest = new LatencyRecorder();
+        private final GatewayEventDriver driver = new GatewayEventDriver(bot);
+        // Atraso em relação à agenda: cresce quando o listener não acompanha a taxa
+        private volatile long lagNanos;
+        private volatile long maxLagNanos;
+
+        Worker(List<LoadEvent> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void run() {
+            for (LoadEvent event : events) {
+                long intended = startNanos + event.offsetNanos();
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long lag = System.nanoTime() - intended;
+                lagNanos = lag;
+                if (lag > maxLagNanos) {
+                    maxLagNanos = lag;
+                }
+                try {
+                    driver.dispatch(event);
+                    dispatched.increment();
+                } catch (Exception e) {
+                    failed.increment();
+                    LOGGER.error("Erro no listener durante o teste de carga: " + e.getMessage(), e);
+                }
+                ingest.record((System.nanoTime() - intended) / 1000);
+            }
+            lagNanos = 0;
+        }
+    }
+}
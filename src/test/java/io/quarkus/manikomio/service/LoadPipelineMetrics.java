@@ -0,0 +1,32 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.ServerLog;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Métricas do teste de carga: além do histograma do Micrometer, guarda a latência de cada
+ * evento até o commit para o harness calcular percentis exatos.
+ */
+@Alternative
+@ApplicationScoped
+public class LoadPipelineMetrics extends PipelineMetrics {
+
+    private final LatencyRecorder commitLatencies = new LatencyRecorder();
+
+    @Override
+    public void recordCommitted(Iterable<ServerLog> logs) {
+        super.recordCommitted(logs);
+        OffsetDateTime now = OffsetDateTime.now();
+        for (ServerLog log : logs) {
+            commitLatencies.record(Duration.between(log.createdAt, now).toNanos() / 1000);
+        }
+    }
+
+    LatencyRecorder commitLatencies() {
+        return commitLatencies;
+    }
+}
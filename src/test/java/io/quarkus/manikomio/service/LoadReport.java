@@ -0,0 +1,104 @@
+package io.quarkus.manikomio.service;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Resultado de uma execução do {@link LoadHarness}.
+ */
+record LoadReport(LoadSettings settings, int scheduled, long dispatched, long failed, long persisted, long rejected,
+                  long mirrorCollapsed, long restRequests, double loadSeconds, double drainSeconds,
+                  LatencyRecorder.Summary ingest, LatencyRecorder.Summary commit, long maxLagMillis,
+                  List<Sample> samples, int loadSamples) {
+
+    // Foto do pipeline tirada a cada segundo
+    record Sample(double seconds, long dispatched, long persisted, long lagMillis, int eventsPending, long spoolBacklog,
+                  int mirrorPending, long mirrorCollapsed, int rollupsPending, int restInFlight) {
+    }
+
+    double dispatchRate() {
+        return dispatched / loadSeconds;
+    }
+
+    double commitRate() {
+        return persisted / drainSeconds;
+    }
+
+    String format() {
+        StringBuilder report = new StringBuilder();
+        report.append("=== Teste de carga do pipeline de logs ===\n");
+        report.append(String.format(Locale.ROOT, "Fonte: %s | taxa pedida: %s | threads: %d | duração da carga: %.1fs%n",
+                settings.source(), settings.recorded() ? "gravada x" + settings.speedup() : settings.rate() + "/s",
+                settings.threads(), loadSeconds));
+        report.append(String.format(Locale.ROOT, "Eventos: %d agendados, %d entregues, %d com erro, %d gravados, %d rejeitados pelo spool%n",
+                scheduled, dispatched, failed, persisted, rejected));
+        report.append(String.format(Locale.ROOT, "Vazão: %.0f eventos/s entregues, %.0f eventos/s gravados (até esvaziar o spool em %.1fs)%n",
+                dispatchRate(), commitRate(), drainSeconds));
+        report.append(String.format(Locale.ROOT, "Espelhamento: %d envios ao Discord, %d eventos resumidos%n",
+                restRequests, mirrorCollapsed));
+        report.append("\nLatência (ms)              p50      p99     p999      max\n");
+        appendLatency(report, "ingestão (agenda→handle)", ingest);
+        appendLatency(report, "commit (evento→banco)", commit);
+        report.append(String.format(Locale.ROOT, "Atraso máximo da agenda: %d ms%n", maxLagMillis));
+
+        report.append("\n    t  entregues/s  gravados/s  atraso(ms)  eventos   spool  espelho  resumidos  rollups  rest\n");
+        Sample previous = null;
+        for (Sample sample : samples) {
+            long dispatchedDelta = sample.dispatched() - (previous != null ? previous.dispatched() : 0);
+            long persistedDelta = sample.persisted() - (previous != null ? previous.persisted() : 0);
+            double interval = sample.seconds() - (previous != null ? previous.seconds() : 0);
+            report.append(String.format(Locale.ROOT, "%5.1f  %11.0f  %10.0f  %10d  %7d  %6d  %7d  %9d  %7d  %4d%n",
+                    sample.seconds(), dispatchedDelta / interval, persistedDelta / interval, sample.lagMillis(),
+                    sample.eventsPending(), sample.spoolBacklog(), sample.mirrorPending(), sample.mirrorCollapsed(),
+                    sample.rollupsPending(), sample.restInFlight()));
+            previous = sample;
+        }
+
+        report.append("\nOnde a fila cresce: ").append(bottleneck()).append('\n');
+        return report.toString();
+    }
+
+    private static void appendLatency(StringBuilder report, String label, LatencyRecorder.Summary summary) {
+        report.append(String.format(Locale.ROOT, "%-26s %7.1f  %7.1f  %7.1f  %7.1f%n", label,
+                summary.p50() / 1000.0, summary.p99() / 1000.0, summary.p999() / 1000.0, summary.max() / 1000.0));
+    }
+
+    /**
+     * Aponta os estágios cuja fila ficou maior que um segundo de eventos durante a carga.
+     */
+    String bottleneck() {
+        double perSecond = Math.max(1, dispatchRate());
+        long peakLag = 0;
+        int peakEvents = 0;
+        long peakSpool = 0;
+        int peakMirror = 0;
+        int peakRollups = 0;
+        for (Sample sample : samples.subList(0, Math.min(loadSamples, samples.size()))) {
+            peakLag = Math.max(peakLag, sample.lagMillis());
+            peakEvents = Math.max(peakEvents, sample.eventsPending());
+            peakSpool = Math.max(peakSpool, sample.spoolBacklog());
+            peakMirror = Math.max(peakMirror, sample.mirrorPending());
+            peakRollups = Math.max(peakRollups, sample.rollupsPending());
+        }
+
+        StringBuilder stages = new StringBuilder();
+        if (Math.max(peakLag, maxLagMillis) > 1000) {
+            stages.append("\n  - listeners do gateway (atraso de até ").append(Math.max(peakLag, maxLagMillis))
+                    .append(" ms em relação à agenda)");
+        }
+        if (peakEvents > perSecond) {
+            stages.append("\n  - filas por canal do despacho (até ").append(peakEvents).append(" eventos)");
+        }
+        if (peakSpool > perSecond) {
+            stages.append("\n  - gravação no banco (até ").append(peakSpool).append(" eventos no spool)");
+        }
+        if (mirrorCollapsed > 0) {
+            stages.append("\n  - espelhamento no Discord (").append(mirrorCollapsed)
+                    .append(" eventos resumidos por falta de orçamento; fila máxima ").append(peakMirror).append(")");
+        }
+        if (peakRollups > perSecond * 60) {
+            stages.append("\n  - rollups (até ").append(peakRollups).append(" contadores pendentes)");
+        }
+        return stages.length() == 0 ? "nenhum estágio acumulou mais de um segundo de eventos" : stages.toString();
+    }
+}
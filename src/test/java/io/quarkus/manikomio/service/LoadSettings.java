@@ -0,0 +1,63 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Parâmetros do teste de carga, lidos das propriedades de sistema
+ * (ex.: {@code mvn test -Pload-test -Dload.rate=5000 -Dload.threads=8}).
+ */
+record LoadSettings(String source, double rate, Duration duration, int threads, int guilds,
+                    int channelsPerGuild, int users, Map<LogEventType, Integer> mix, double speedup,
+                    Duration drainTimeout, long seed, long maxCommitP99Ms, Path report) {
+
+    static final String DEFAULT_MIX = "MESSAGE_SENT=70,MESSAGE_EDITED=8,MESSAGE_DELETED=6,VOICE_JOINED=5,"
+            + "VOICE_LEFT=5,VOICE_MOVED=4,MEMBER_LEFT=1,MEMBER_BANNED=1";
+
+    static LoadSettings fromSystemProperties() {
+        return new LoadSettings(
+                property("load.source", "synthetic"),
+                Double.parseDouble(property("load.rate", "2000")),
+                Duration.ofSeconds(Long.parseLong(property("load.duration-seconds", "20"))),
+                Integer.parseInt(property("load.threads", "4")),
+                Integer.parseInt(property("load.guilds", "10")),
+                Integer.parseInt(property("load.channels-per-guild", "20")),
+                Integer.parseInt(property("load.users", "5000")),
+                parseMix(property("load.mix", DEFAULT_MIX)),
+                Double.parseDouble(property("load.speedup", "1")),
+                Duration.ofSeconds(Long.parseLong(property("load.drain-timeout-seconds", "120"))),
+                Long.parseLong(property("load.seed", "42")),
+                Long.parseLong(property("load.max-commit-p99-ms", "0")),
+                Path.of(property("load.report", "target/load-report.txt")));
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    // Formato: TIPO=peso,TIPO=peso
+    static Map<LogEventType, Integer> parseMix(String value) {
+        Map<LogEventType, Integer> mix = new EnumMap<>(LogEventType.class);
+        for (String entry : value.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Mistura de eventos inválida: " + entry + " (use TIPO=peso)");
+            }
+            LogEventType type = LogEventType.parse(entry.substring(0, separator).trim());
+            if (!GatewayEventDriver.SUPPORTED.contains(type)) {
+                throw new IllegalArgumentException("Tipo não suportado pelo harness de carga: " + type);
+            }
+            mix.put(type, Integer.parseInt(entry.substring(separator + 1).trim()));
+        }
+        return mix;
+    }
+
+    boolean recorded() {
+        return !source.equalsIgnoreCase("synthetic");
+    }
+}
@@ -0,0 +1,39 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Perfil do teste de carga: H2 em memória no lugar do MySQL, bot e métricas do harness,
+ * e um spool e um índice de busca novos a cada execução.
+ */
+public class LoadTestProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        Map<String, String> config = new HashMap<>();
+        config.put("quarkus.datasource.db-kind", "h2");
+        config.put("quarkus.datasource.jdbc.url", "jdbc:h2:mem:load;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        config.put("quarkus.datasource.username", "sa");
+        config.put("quarkus.datasource.password", "");
+        config.put("quarkus.hibernate-orm.database.generation", "drop-and-create");
+        config.put("quarkus.arc.selected-alternatives",
+                LoadDiscordBotService.class.getName() + "," + LoadPipelineMetrics.class.getName());
+        config.put("logs.spool.directory", "target/load-spool/" + System.currentTimeMillis());
+        config.put("logs.search.directory", "target/load-search/" + System.currentTimeMillis());
+        config.put("logs.archive.directory", "target/load-archive/" + System.currentTimeMillis());
+        config.put("logs.partitioning.enabled", "false");
+        config.put("logs.retention.enabled", "false");
+        // O harness espera que todo evento enviado chegue ao banco
+        config.put("logs.policy.enabled", "false");
+        // Os eventos simulados não têm audit log para consultar
+        config.put("logs.audit.enabled", "false");
+        // O log de SQL em DEBUG mediria o logger e não o pipeline
+        config.put("quarkus.log.category.\"org.hibernate.SQL\".level", "INFO");
+        config.put("quarkus.log.category.\"org.hibernate.type.descriptor.sql\".level", "INFO");
+        config.put("quarkus.log.category.\"io.quarkus.hibernate.orm\".level", "INFO");
+        return config;
+    }
+}
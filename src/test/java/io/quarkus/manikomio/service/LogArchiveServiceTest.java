@@ -0,0 +1,98 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogPage;
+import io.quarkus.manikomio.model.LogQuery;
+import io.quarkus.manikomio.model.ServerLog;
+import io.quarkus.manikomio.repository.ServerLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class LogArchiveServiceTest {
+
+    private static final OffsetDateTime CUTOFF = OffsetDateTime.parse("2024-02-01T00:00:00Z");
+    private static final long LOCAL_GUILD = 1L;
+    private static final long FOREIGN_GUILD = 2L;
+    private static final long OTHER_LOCAL_GUILD = 3L;
+
+    private LogArchiveService service;
+    private final List<List<ServerLog>> segments = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        service = new LogArchiveService();
+        service.logRepository = mock(ServerLogRepository.class);
+        service.discordBotService = mock(DiscordBotService.class);
+        service.segmentRows = 3;
+        service.chunkSize = 2;
+
+        when(service.discordBotService.isLocalGuild(anyLong())).thenAnswer(call -> (long) call.getArgument(0) != FOREIGN_GUILD);
+        when(service.logRepository.findGuildsBefore(CUTOFF)).thenReturn(List.of(LOCAL_GUILD, FOREIGN_GUILD, OTHER_LOCAL_GUILD));
+        // O lote é reaproveitado depois de movido, então o segmento é copiado na chamada
+        doAnswer(call -> segments.add(List.copyOf(call.getArgument(0)))).when(service.logRepository)
+                .moveToArchive(anyList(), anyInt());
+    }
+
+    private static ServerLog log(long id, long guildId) {
+        ServerLog log = new ServerLog();
+        log.id = id;
+        log.guildId = guildId;
+        log.eventType = LogEventType.MESSAGE_SENT;
+        log.createdAt = CUTOFF.minusDays(10).plusMinutes(id);
+        return log;
+    }
+
+    private void pages(long guildId, LogPage... pages) {
+        var stub = when(service.logRepository.findHotChunk(argThat(query -> query != null && query.getGuildId() == guildId)));
+        for (LogPage page : pages) {
+            stub = stub.thenReturn(page);
+        }
+    }
+
+    @Test
+    void testArchivesOnlyGuildsOfLocalShards() throws IOException {
+        // Arrange
+        pages(LOCAL_GUILD,
+                new LogPage(List.of(log(1, LOCAL_GUILD), log(2, LOCAL_GUILD)), "c1"),
+                new LogPage(List.of(log(3, LOCAL_GUILD), log(4, LOCAL_GUILD)), null));
+        pages(OTHER_LOCAL_GUILD, new LogPage(List.of(log(5, OTHER_LOCAL_GUILD)), null));
+
+        // Act
+        long archived = service.archiveBefore(CUTOFF);
+
+        // Assert
+        assertEquals(5, archived);
+        assertEquals(List.of(4, 1), segments.stream().map(List::size).toList());
+        assertTrue(segments.stream().flatMap(List::stream).noneMatch(log -> log.guildId == FOREIGN_GUILD));
+        verify(service.logRepository, never()).findHotChunk(argThat(query -> query.getGuildId() == FOREIGN_GUILD));
+        verify(service.logRepository, times(2)).moveToArchive(anyList(), eq(2));
+        assertEquals(5, service.getArchivedRows());
+    }
+
+    @Test
+    void testQueriesEachGuildOldestFirstBeforeCutoff() throws IOException {
+        // Arrange
+        when(service.logRepository.findGuildsBefore(CUTOFF)).thenReturn(List.of(LOCAL_GUILD));
+        pages(LOCAL_GUILD, LogPage.empty());
+
+        // Act
+        long archived = service.archiveBefore(CUTOFF);
+
+        // Assert
+        assertEquals(0, archived);
+        verify(service.logRepository).findHotChunk(argThat((LogQuery query) -> query.getSortOrder() == LogQuery.SortOrder.OLDEST_FIRST
+                && query.getTo().isBefore(CUTOFF) && query.getLimit() == 2));
+        verify(service.logRepository, never()).moveToArchive(anyList(), anyInt());
+    }
+}
@@ -0,0 +1,173 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogPage;
+import io.quarkus.manikomio.model.LogQuery;
+import io.quarkus.manikomio.model.ServerLog;
+import io.quarkus.manikomio.repository.ServerLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LogExportServiceTest {
+
+    private static final OffsetDateTime FROM = OffsetDateTime.parse("2024-03-01T00:00Z");
+    private static final OffsetDateTime TO = OffsetDateTime.parse("2024-03-02T00:00Z");
+
+    private LogExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new LogExportService();
+        exportService.logRepository = mock(ServerLogRepository.class);
+        exportService.nameDictionary = mock(NameDictionaryService.class);
+        exportService.directory = "target/test-export";
+        exportService.chunkSize = 2;
+        exportService.maxAttachmentMb = 25;
+        exportService.init();
+        when(exportService.logRepository.scanArchive(any())).thenAnswer(invocation -> Collections.emptyIterator());
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportService.onShutdown(null);
+    }
+
+    private static ServerLog log(long id, String description, String message) {
+        ServerLog log = new ServerLog();
+        log.id = id;
+        log.eventType = LogEventType.MESSAGE_SENT;
+        log.description = description;
+        log.message = message;
+        log.userId = 10L;
+        log.channelId = 20L;
+        log.guildId = 30L;
+        log.createdAt = FROM.plusMinutes(id);
+        log.username = "fulano";
+        log.channelName = "geral";
+        return log;
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void testNdjsonFollowsCursorAcrossChunks() throws IOException {
+        // Arrange
+        List<String> cursors = new ArrayList<>();
+        when(exportService.logRepository.findHotChunk(any())).thenAnswer(invocation -> {
+            LogQuery query = invocation.getArgument(0);
+            cursors.add(query.getCursor());
+            return query.getCursor() == null
+                    ? new LogPage(List.of(log(1, "a", "linha\n\"citada\""), log(2, "b", null)), "c2")
+                    : new LogPage(List.of(log(3, "c", "fim")), null);
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long rows = exportService.write(LogQuery.forGuild(30L).between(FROM, TO), LogExportService.Format.NDJSON, out);
+
+        // Assert
+        String[] lines = gunzip(out.toByteArray()).split("\n");
+        assertEquals(3, rows);
+        assertEquals(3, lines.length);
+        assertEquals(Arrays.asList(null, "c2"), cursors);
+        assertTrue(lines[0].startsWith("{\"id\":1,\"created_at\":\"2024-03-01T00:01:00Z\",\"guild_id\":30,\"event_type\":\"MESSAGE_SENT\""));
+        assertTrue(lines[0].endsWith("\"message\":\"linha\\n\\\"citada\\\"\"}"));
+        assertTrue(lines[1].endsWith("\"message\":null}"));
+    }
+
+    @Test
+    void testInterleavesArchiveInOnePass() throws IOException {
+        // Arrange
+        ServerLog hotCopy = log(3, "banco", null);
+        when(exportService.logRepository.scanArchive(any())).thenReturn(
+                List.of(log(1, "arquivo", null), log(3, "arquivo", null), log(4, "arquivo", null)).iterator());
+        when(exportService.logRepository.findHotChunk(any())).thenAnswer(invocation -> {
+            LogQuery query = invocation.getArgument(0);
+            return query.getCursor() == null
+                    ? new LogPage(List.of(log(2, "banco", null), hotCopy), "c3")
+                    : new LogPage(List.of(log(5, "banco", null)), null);
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long rows = exportService.write(LogQuery.forGuild(30L).between(FROM, TO), LogExportService.Format.CSV, out);
+
+        // Assert
+        String[] lines = gunzip(out.toByteArray()).split("\n");
+        assertEquals(5, rows);
+        assertEquals(List.of("1", "2", "3", "4", "5"),
+                Arrays.stream(lines).skip(1).map(line -> line.substring(0, line.indexOf(','))).toList());
+        // O log que está nas duas camadas sai uma vez, com a versão do banco
+        assertTrue(lines[3].contains(",banco,"));
+        verify(exportService.logRepository, times(1)).scanArchive(any());
+    }
+
+    @Test
+    void testCsvHasHeaderAndQuotesSpecialFields() throws IOException {
+        // Arrange
+        when(exportService.logRepository.findHotChunk(any()))
+                .thenReturn(new LogPage(List.of(log(1, "entrou, saiu", "disse \"oi\"")), null));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exportService.write(LogQuery.forGuild(30L).between(FROM, TO), LogExportService.Format.CSV, out);
+
+        // Assert
+        String[] lines = gunzip(out.toByteArray()).split("\n");
+        assertEquals(LogExportService.CSV_HEADER, lines[0]);
+        assertEquals("1,2024-03-01T00:01:00Z,30,MESSAGE_SENT,10,fulano,20,geral,,\"entrou, saiu\",\"disse \"\"oi\"\"\"", lines[1]);
+    }
+
+    @Test
+    void testRejectsSecondExportWhileOneIsRunning() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(exportService.logRepository.findHotChunk(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return LogPage.empty();
+        });
+        LogExportService.Request request = new LogExportService.Request(
+                LogQuery.forGuild(30L).between(FROM, TO), LogExportService.Format.NDJSON);
+
+        // Act
+        var running = exportService.submit(request);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        IllegalStateException busy = assertThrows(IllegalStateException.class,
+                () -> exportService.stream(request, new ByteArrayOutputStream()));
+        release.countDown();
+        LogExportService.Result result = running.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertNotNull(busy.getMessage());
+        assertEquals(0, result.rows());
+        assertTrue(result.file().getFileName().toString().endsWith(".ndjson.gz"));
+        assertTrue(exportService.fitsAttachment(result));
+    }
+}
@@ -0,0 +1,83 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogQuery;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogFilterParserTest {
+
+    @Test
+    void testParseCombinedFilters() {
+        // Arrange
+        String[] args = "logs filter user:<@!123> type:message_sent period:24h limit:5 order:asc".split("\\s+");
+
+        // Act
+        LogQuery query = LogFilterParser.parse(789L, args, 2, 10);
+
+        // Assert
+        assertEquals(789L, query.getGuildId());
+        assertEquals(123L, query.getUserId());
+        assertEquals(LogEventType.MESSAGE_SENT, query.getEventType());
+        assertEquals(5, query.getLimit());
+        assertEquals(LogQuery.SortOrder.OLDEST_FIRST, query.getSortOrder());
+        assertEquals(Duration.ofHours(24), Duration.between(query.getFrom(), query.getTo()));
+    }
+
+    @Test
+    void testRejectsLimitAboveMaximum() {
+        String[] args = {"logs", "filter", "limit:50"};
+        assertThrows(IllegalArgumentException.class, () -> LogFilterParser.parse(789L, args, 2, 10));
+    }
+
+    @Test
+    void testRejectsUnknownFilter() {
+        String[] args = {"logs", "filter", "foo:bar"};
+        assertThrows(IllegalArgumentException.class, () -> LogFilterParser.parse(789L, args, 2, 10));
+    }
+
+    @Test
+    void testRejectsInvalidUserAndType() {
+        assertThrows(IllegalArgumentException.class,
+                () -> LogFilterParser.parse(789L, new String[]{"logs", "filter", "user:fulano"}, 2, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> LogFilterParser.parse(789L, new String[]{"logs", "filter", "type:MESSAGE"}, 2, 10));
+    }
+
+    @Test
+    void testParsePeriodUnits() {
+        assertEquals(Duration.ofMinutes(30), LogFilterParser.parsePeriod("30m"));
+        assertEquals(Duration.ofHours(12), LogFilterParser.parsePeriod("12h"));
+        assertEquals(Duration.ofDays(7), LogFilterParser.parsePeriod("7d"));
+        assertEquals(Duration.ofHours(3), LogFilterParser.parsePeriod("3"));
+        assertThrows(IllegalArgumentException.class, () -> LogFilterParser.parsePeriod("3w"));
+    }
+
+    @Test
+    void testNextPageCommandReplacesCursor() {
+        String[] args = {"logs", "filter", "type:MESSAGE_SENT", "after:old"};
+        assertEquals("!logs filter type:MESSAGE_SENT after:new", LogFilterParser.nextPageCommand(args, 2, "new"));
+    }
+
+    @Test
+    void testParseExportRangeAndFormat() {
+        // Act
+        LogExportService.Request request = LogFilterParser.parseExport(789L, "2024-03-01", "2024-03-02",
+                List.of("type:member_banned", "format:csv"));
+
+        // Assert
+        assertEquals(LogExportService.Format.CSV, request.format());
+        assertEquals(LogEventType.MEMBER_BANNED, request.query().getEventType());
+        assertEquals(OffsetDateTime.parse("2024-03-01T00:00Z"), request.query().getFrom());
+        assertEquals(OffsetDateTime.parse("2024-03-02T23:59:59.999999Z"), request.query().getTo());
+        assertThrows(IllegalArgumentException.class,
+                () -> LogFilterParser.parseExport(789L, "2024-03-02T10:00", "2024-03-01", List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> LogFilterParser.parseExport(789L, "2024-03-01", "2024-03-02", List.of("format:xml")));
+    }
+}
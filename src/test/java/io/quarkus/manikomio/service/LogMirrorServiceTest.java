@@ -0,0 +1,169 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogRoute;
+import io.quarkus.manikomio.model.ServerLog;
+import io.quarkus.manikomio.repository.LogRouteRepository;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LogMirrorServiceTest {
+
+    private static final long GUILD = 100L;
+    private static final long OTHER_GUILD = 200L;
+
+    /**
+     * Mensagem que teria sido enviada ao canal.
+     */
+    private record Sent(TextChannel channel, String summary, List<MessageEmbed> embeds) {
+    }
+
+    private final BlockingQueue<Sent> sent = new LinkedBlockingQueue<>();
+    private final AtomicLong now = new AtomicLong();
+    private LogMirrorService mirror;
+    private TextChannel guildChannel;
+    private TextChannel otherGuildChannel;
+
+    @BeforeEach
+    void setUp() {
+        DiscordBotService bot = mock(DiscordBotService.class);
+        LogRoutingService routing = new LogRoutingService();
+        routing.routeRepository = mock(LogRouteRepository.class);
+        routing.discordBotService = bot;
+        routing.logChannelId = "999";
+        routing.init();
+        routing.load(List.of(route(GUILD, 1L), route(OTHER_GUILD, 2L)));
+        guildChannel = channel(bot, "1");
+        otherGuildChannel = channel(bot, "2");
+
+        mirror = new LogMirrorService() {
+            @Override
+            protected void deliver(TextChannel channel, String summary, List<MessageEmbed> embeds) {
+                sent.add(new Sent(channel, summary, List.copyOf(embeds)));
+            }
+        };
+        mirror.discordBotService = bot;
+        mirror.routing = routing;
+        mirror.queueCapacity = 100;
+        mirror.flushIntervalMs = 20;
+        mirror.bucketCapacity = 2;
+        mirror.refillPerSecond = 1;
+        mirror.clock = now::get;
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Para o worker do teste que chama start()
+        mirror.onShutdown(null);
+    }
+
+    private static LogRoute route(long guildId, long channelId) {
+        LogRoute route = new LogRoute();
+        route.setGuildId(guildId);
+        route.setChannelId(channelId);
+        return route;
+    }
+
+    private static TextChannel channel(DiscordBotService bot, String id) {
+        TextChannel channel = mock(TextChannel.class);
+        when(channel.canTalk()).thenReturn(true);
+        when(bot.getTextChannelById(id)).thenReturn(channel);
+        return channel;
+    }
+
+    private static ServerLog log(long guildId, String message) {
+        ServerLog log = new ServerLog();
+        log.guildId = guildId;
+        log.eventType = LogEventType.MESSAGE_SENT;
+        log.description = "mensagem enviada";
+        log.message = message;
+        return log;
+    }
+
+    private static List<ServerLog> logs(long guildId, int count, String message) {
+        List<ServerLog> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            logs.add(log(guildId, message));
+        }
+        return logs;
+    }
+
+    @Test
+    void testHoldsEventsUntilSessionIsReadyThenSendsTenPerMessage() throws InterruptedException {
+        // Arrange
+        mirror.start();
+        logs(GUILD, 12, "oi").forEach(mirror::publish);
+
+        // Act
+        Sent beforeReady = sent.poll(100, TimeUnit.MILLISECONDS);
+        int heldEvents = mirror.getPendingCount();
+        when(mirror.discordBotService.isReady()).thenReturn(true);
+        Sent first = sent.poll(5, TimeUnit.SECONDS);
+        Sent second = sent.poll(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertNull(beforeReady);
+        assertEquals(12, heldEvents);
+        assertEquals(LogMirrorService.MAX_EMBEDS_PER_MESSAGE, first.embeds().size());
+        assertEquals(2, second.embeds().size());
+        assertSame(guildChannel, first.channel());
+    }
+
+    @Test
+    void testEmbedsOverTheCharacterBudgetBecomeSummary() {
+        // Arrange
+        List<ServerLog> batch = logs(GUILD, LogMirrorService.MAX_EMBEDS_PER_MESSAGE, "x".repeat(1000));
+
+        // Act
+        mirror.dispatch(batch);
+
+        // Assert
+        Sent message = sent.poll();
+        int length = message.embeds().stream().mapToInt(MessageEmbed::getLength).sum();
+        assertTrue(length <= MessageEmbed.EMBED_MAX_LENGTH_BOT);
+        int shown = message.embeds().size();
+        assertTrue(shown > 0 && shown < LogMirrorService.MAX_EMBEDS_PER_MESSAGE);
+        assertEquals("➕ +" + (LogMirrorService.MAX_EMBEDS_PER_MESSAGE - shown) + " eventos MESSAGE_SENT não exibidos\n",
+                message.summary());
+    }
+
+    @Test
+    void testOverflowSummaryStaysWithItsDestination() {
+        // Arrange
+        mirror.dispatch(List.of(log(GUILD, "a"), log(OTHER_GUILD, "b")));
+        mirror.dispatch(List.of(log(GUILD, "a")));
+        sent.clear();
+
+        // Act
+        // O orçamento do primeiro destino acabou; o do segundo ainda tem uma mensagem
+        mirror.dispatch(List.of(log(GUILD, "a"), log(GUILD, "a"), log(OTHER_GUILD, "b")));
+        Sent other = sent.poll();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        mirror.dispatch(List.of());
+        Sent summary = sent.poll();
+
+        // Assert
+        assertSame(otherGuildChannel, other.channel());
+        assertNull(other.summary());
+        assertEquals(1, other.embeds().size());
+        assertSame(guildChannel, summary.channel());
+        assertEquals("➕ +2 eventos MESSAGE_SENT não exibidos\n", summary.summary());
+        assertTrue(summary.embeds().isEmpty());
+        assertEquals(2, mirror.getCollapsedEvents());
+        assertNull(sent.poll());
+    }
+}
@@ -0,0 +1,93 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogCursor;
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogPage;
+import io.quarkus.manikomio.model.LogQuery;
+import io.quarkus.manikomio.model.ServerLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LogPaginatorTest {
+
+    private LogPaginator paginator;
+
+    @BeforeEach
+    void setUp() {
+        paginator = new LogPaginator();
+        paginator.loggingService = mock(LoggingService.class);
+        paginator.maxSessions = 10;
+        paginator.sessionTtl = Duration.ofMinutes(15);
+        paginator.init();
+    }
+
+    private static List<ServerLog> logs(int count, int descriptionLength) {
+        List<ServerLog> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ServerLog log = new ServerLog();
+            log.id = 1000L - i;
+            log.setEventType(LogEventType.MESSAGE_SENT);
+            log.setDescription(i + " " + "x".repeat(descriptionLength));
+            log.setCreatedAt(OffsetDateTime.parse("2024-03-01T12:00:00Z").minusMinutes(i));
+            logs.add(log);
+        }
+        return logs;
+    }
+
+    @Test
+    void testScreenContinuesFromLastRecordThatFit() {
+        // Arrange
+        List<ServerLog> logs = logs(10, 500);
+        when(paginator.loggingService.getLogs(argThat(q -> q.getCursor() == null)))
+                .thenReturn(new LogPage(logs, "fim-do-banco"));
+
+        // Act
+        LogPaginator.Screen screen = paginator.render(paginator.keyset(LogQuery.forGuild(1L)), null, "Logs", 1);
+
+        // Assert
+        assertTrue(screen.text().length() <= LogResponseFormatter.MAX_MESSAGE_LENGTH);
+        assertTrue(screen.text().endsWith("📄 Página 1\n"));
+        int shown = (int) screen.text().lines().filter(line -> line.startsWith("📄 ") && line.contains("x")).count();
+        assertTrue(shown > 0 && shown < logs.size());
+        assertEquals(LogCursor.of(logs.get(shown - 1)).encode(), screen.nextCursor());
+    }
+
+    @Test
+    void testLastDatabasePageThatFitsHasNoNextScreen() {
+        // Arrange
+        when(paginator.loggingService.getLogs(argThat(q -> q.getCursor() == null)))
+                .thenReturn(new LogPage(logs(2, 10), null));
+
+        // Act
+        LogPaginator.Screen screen = paginator.render(paginator.keyset(LogQuery.forGuild(1L)), null, "Logs", 1);
+
+        // Assert
+        assertNull(screen.nextCursor());
+        assertFalse(screen.text().contains("Página"));
+        assertEquals(0, paginator.getSessionCount());
+    }
+
+    @Test
+    void testUsesDatabaseCursorWhenWholePageFits() {
+        // Arrange
+        when(paginator.loggingService.getLogs(argThat(q -> "c1".equals(q.getCursor()))))
+                .thenReturn(new LogPage(logs(3, 10), "c2"));
+
+        // Act
+        LogPaginator.Screen screen = paginator.render(paginator.keyset(LogQuery.forGuild(1L)), "c1", "Logs", 2);
+
+        // Assert
+        assertEquals("c2", screen.nextCursor());
+        assertTrue(screen.text().endsWith("📄 Página 2\n"));
+    }
+}
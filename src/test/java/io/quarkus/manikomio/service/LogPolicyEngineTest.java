@@ -0,0 +1,123 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.ServerLog;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogPolicyEngineTest {
+
+    private static final long GUILD = 1L;
+    private static final long CHANNEL = 10L;
+
+    private final List<ServerLog> summaries = new ArrayList<>();
+
+    private static LogPolicyEngine engine(String... rules) {
+        LogPolicyEngine engine = new LogPolicyEngine();
+        engine.enabled = true;
+        engine.rules = Optional.of(List.of(rules));
+        engine.coalesceSlots = 64;
+        engine.init();
+        return engine;
+    }
+
+    private boolean admit(LogPolicyEngine engine, LogEventType type, long channelId, long userId, long now) {
+        return engine.admit(type, userId, "usuario", channelId, "canal", GUILD, "descrição", "mensagem", now, summaries::add);
+    }
+
+    @Test
+    void testMostSpecificRuleWins() {
+        // Arrange
+        LogPolicyEngine engine = engine("*=drop", "MESSAGE_SENT@1=sample:2", "MESSAGE_SENT#10=keep", "*#20=drop");
+
+        // Act & Assert
+        assertEquals("MESSAGE_SENT#10=keep", engine.match(LogEventType.MESSAGE_SENT, GUILD, CHANNEL).text);
+        assertEquals("MESSAGE_SENT@1=sample:2", engine.match(LogEventType.MESSAGE_SENT, GUILD, 30L).text);
+        assertEquals("*#20=drop", engine.match(LogEventType.MESSAGE_SENT, GUILD, 20L).text);
+        assertEquals("*=drop", engine.match(LogEventType.VOICE_JOINED, GUILD, CHANNEL).text);
+        assertEquals("*=drop", engine.match(LogEventType.MESSAGE_SENT, 2L, 30L).text);
+    }
+
+    @Test
+    void testEventsWithoutRuleAreKept() {
+        // Arrange
+        LogPolicyEngine engine = engine("VOICE_MOVED=drop");
+
+        // Act & Assert
+        assertTrue(admit(engine, LogEventType.MESSAGE_SENT, CHANNEL, 5L, 0));
+        assertFalse(admit(engine, LogEventType.VOICE_MOVED, CHANNEL, 5L, 0));
+        assertEquals(1, engine.getRules().get(0).getSuppressed());
+    }
+
+    @Test
+    void testSampleKeepsOneInN() {
+        // Arrange
+        LogPolicyEngine engine = engine("MESSAGE_SENT=sample:3");
+
+        // Act
+        int kept = 0;
+        for (int i = 0; i < 9; i++) {
+            kept += admit(engine, LogEventType.MESSAGE_SENT, CHANNEL, 5L, 0) ? 1 : 0;
+        }
+
+        // Assert
+        assertEquals(3, kept);
+        assertEquals(9, engine.getRules().get(0).getMatched());
+        assertEquals(6, engine.getRules().get(0).getSuppressed());
+    }
+
+    @Test
+    void testCoalescesRepeatsIntoSummary() {
+        // Arrange
+        LogPolicyEngine engine = engine("VOICE_MOVED=coalesce:60s");
+
+        // Act
+        assertTrue(admit(engine, LogEventType.VOICE_MOVED, CHANNEL, 5L, 0));
+        for (int i = 1; i < 14; i++) {
+            assertFalse(admit(engine, LogEventType.VOICE_MOVED, CHANNEL + i, 5L, i * 1000L));
+        }
+        assertTrue(admit(engine, LogEventType.VOICE_MOVED, CHANNEL, 6L, 2000));
+        engine.flushExpired(30_000, summaries::add);
+        assertTrue(summaries.isEmpty());
+        engine.flushExpired(61_000, summaries::add);
+
+        // Assert
+        assertEquals(1, summaries.size());
+        ServerLog summary = summaries.get(0);
+        assertEquals(LogEventType.VOICE_MOVED, summary.getEventType());
+        assertEquals(5L, summary.getUserId());
+        assertEquals(CHANNEL + 13, summary.getChannelId());
+        assertTrue(summary.getDescription().startsWith("usuario: VOICE_MOVED 14 vezes em 60s (13 agrupados)"));
+        assertEquals(13, engine.getRules().get(0).getSuppressed());
+    }
+
+    @Test
+    void testNextEventAfterWindowStartsNewWindow() {
+        // Arrange
+        LogPolicyEngine engine = engine("VOICE_MOVED=coalesce:60s");
+        admit(engine, LogEventType.VOICE_MOVED, CHANNEL, 5L, 0);
+        admit(engine, LogEventType.VOICE_MOVED, CHANNEL, 5L, 1000);
+
+        // Act
+        boolean admitted = admit(engine, LogEventType.VOICE_MOVED, CHANNEL, 5L, 61_000);
+
+        // Assert
+        assertTrue(admitted);
+        assertEquals(1, summaries.size());
+        assertTrue(summaries.get(0).getDescription().contains("2 vezes"));
+    }
+
+    @Test
+    void testRejectsInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> engine("VOICE_MOVED"));
+        assertThrows(IllegalArgumentException.class, () -> engine("VOICE_MOVED=sample:0"));
+        assertThrows(IllegalArgumentException.class, () -> engine("VOICE_MOVED=coalesce"));
+        assertThrows(IllegalArgumentException.class, () -> engine("NOPE=drop"));
+        assertThrows(IllegalArgumentException.class, () -> engine("VOICE_MOVED=drop", "VOICE_MOVED=keep"));
+    }
+}
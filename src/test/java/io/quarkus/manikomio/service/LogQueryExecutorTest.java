@@ -0,0 +1,80 @@
+package io.quarkus.manikomio.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogQueryExecutorTest {
+
+    private LogQueryExecutor executor;
+
+    private LogQueryExecutor create(LogQueryExecutor.Mode mode, int threads, int queueCapacity) {
+        executor = new LogQueryExecutor();
+        executor.mode = mode;
+        executor.threads = threads;
+        executor.queueCapacity = queueCapacity;
+        executor.init();
+        return executor;
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.onShutdown(null);
+    }
+
+    @Test
+    void testBlockingModeRunsOnCallerThread() {
+        // Arrange
+        LogQueryExecutor queries = create(LogQueryExecutor.Mode.BLOCKING, 2, 2);
+
+        // Act
+        String thread = queries.submit(() -> Thread.currentThread().getName()).await().indefinitely();
+
+        // Assert
+        assertEquals(Thread.currentThread().getName(), thread);
+    }
+
+    @Test
+    void testAsyncModeRunsOnQueryPool() {
+        // Arrange
+        LogQueryExecutor queries = create(LogQueryExecutor.Mode.ASYNC, 2, 2);
+
+        // Act
+        String thread = queries.submit(() -> Thread.currentThread().getName()).await().atMost(Duration.ofSeconds(5));
+
+        // Assert
+        assertTrue(thread.startsWith("log-query-"), thread);
+    }
+
+    @Test
+    void testFullQueueFailsWithRejection() throws InterruptedException {
+        // Arrange
+        LogQueryExecutor queries = create(LogQueryExecutor.Mode.ASYNC, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        queries.submit(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 1;
+        }).subscribe().with(ignored -> { });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        queries.submit(() -> 2).subscribe().with(ignored -> { });
+
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class,
+                () -> queries.submit(() -> 3).await().atMost(Duration.ofSeconds(5)));
+        assertEquals(1, queries.getRejected());
+        assertEquals(1, queries.getQueued());
+        release.countDown();
+    }
+}
@@ -0,0 +1,94 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.ServerLog;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogResponseFormatterTest {
+
+    private static List<ServerLog> logs(int count) {
+        List<ServerLog> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ServerLog log = new ServerLog();
+            log.setEventType(LogEventType.MESSAGE_SENT);
+            log.setDescription("Mensagem enviada no canal geral " + i);
+            log.setUsername("fulano");
+            log.setChannelName("geral");
+            log.setCreatedAt(OffsetDateTime.parse("2024-03-01T12:00:00Z"));
+            logs.add(log);
+        }
+        return logs;
+    }
+
+    @Test
+    void testEmptyResult() {
+        assertEquals(List.of(LogResponseFormatter.EMPTY_RESPONSE), LogResponseFormatter.format(List.of(), "Logs", null));
+    }
+
+    @Test
+    void testSmallResultFitsInOneMessage() {
+        // Act
+        List<String> messages = LogResponseFormatter.format(logs(2), "Últimos logs", "!logs latest 2");
+
+        // Assert
+        assertEquals(1, messages.size());
+        assertTrue(messages.get(0).startsWith("📝 **Últimos logs:**"));
+        assertTrue(messages.get(0).contains("👤 Usuário: fulano"));
+        assertTrue(messages.get(0).endsWith("➡️ Próxima página: `!logs latest 2`\n"));
+    }
+
+    @Test
+    void testLargeResultIsSplitWithinDiscordLimit() {
+        // Act
+        List<String> messages = LogResponseFormatter.format(logs(100), "Logs", "!logs latest 2");
+
+        // Assert
+        assertTrue(messages.size() > 1);
+        String joined = String.join("", messages);
+        for (String message : messages) {
+            assertTrue(message.length() <= LogResponseFormatter.MAX_MESSAGE_LENGTH);
+        }
+        assertTrue(joined.contains("canal geral 0\n"));
+        assertTrue(joined.contains("canal geral 99\n"));
+        assertTrue(joined.contains("➡️ Próxima página: `!logs latest 2`"));
+    }
+
+    @Test
+    void testHeaderOnlyOnFirstPageAndRecordsNeverSplit() {
+        // Act
+        List<String> messages = LogResponseFormatter.format(logs(100), "Logs", null);
+
+        // Assert
+        assertTrue(messages.get(0).startsWith("📝 **Logs:**"));
+        for (int i = 1; i < messages.size(); i++) {
+            assertFalse(messages.get(i).contains("📝 **Logs:**"));
+            assertTrue(messages.get(i).startsWith(LogEventType.MESSAGE_SENT.emoji()));
+            assertTrue(messages.get(i).endsWith("-------------------\n"));
+        }
+    }
+
+    @Test
+    void testOversizedRecordIsTruncatedWithoutBreakingSurrogatePair() {
+        // Arrange
+        ServerLog log = logs(1).get(0);
+        log.setDescription("😀".repeat(1500));
+
+        // Act
+        LogResponseFormatter formatter = new LogResponseFormatter("Logs", 20);
+        boolean appended = formatter.append(log);
+        boolean second = formatter.append(logs(1).get(0));
+        String page = formatter.finishPage("");
+
+        // Assert
+        assertTrue(appended);
+        assertFalse(second);
+        assertTrue(page.length() <= LogResponseFormatter.MAX_MESSAGE_LENGTH - 20);
+        assertTrue(page.endsWith("😀…\n-------------------\n"));
+    }
+}
@@ -0,0 +1,176 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.repository.LogArchive;
+import io.quarkus.manikomio.repository.ServerLogPartitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class LogRetentionServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now(ZoneOffset.UTC);
+
+    private LogRetentionService retention;
+
+    @BeforeEach
+    void setUp() {
+        retention = new LogRetentionService();
+        retention.partitionRepository = mock(ServerLogPartitionRepository.class);
+        retention.archive = mock(LogArchive.class);
+        retention.discordBotService = mock(DiscordBotService.class);
+        retention.rollupService = mock(LogRollupService.class);
+        retention.dbKind = "mysql";
+        retention.retentionEnabled = true;
+        retention.defaultDays = "365";
+        retention.policies = Optional.of(List.of("MESSAGE_SENT=30", "MEMBER_BANNED= Forever "));
+        retention.deleteBatchSize = 100;
+        retention.partitioningEnabled = true;
+        retention.interval = LogRetentionService.PartitionInterval.DAY;
+        retention.precreate = 2;
+        retention.init();
+    }
+
+    private static String partition(int daysAgo) {
+        return ServerLogPartitionRepository.partitionName(TODAY.minusDays(daysAgo));
+    }
+
+    @Test
+    void testRejectsPolicyWithoutDays() {
+        // Arrange
+        retention.policies = Optional.of(List.of("MESSAGE_SENT"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, retention::init);
+    }
+
+    @Test
+    void testPartitionIntervalsFloorToTheirStart() {
+        // Arrange
+        LocalDate wednesday = LocalDate.of(2024, 3, 13);
+
+        // Act & Assert
+        assertEquals(wednesday, LogRetentionService.PartitionInterval.DAY.floor(wednesday));
+        assertEquals(LocalDate.of(2024, 3, 11), LogRetentionService.PartitionInterval.WEEK.floor(wednesday));
+        assertEquals(LocalDate.of(2024, 3, 1), LogRetentionService.PartitionInterval.MONTH.floor(wednesday));
+        assertEquals(LocalDate.of(2024, 2, 1), LogRetentionService.PartitionInterval.MONTH.next(LocalDate.of(2024, 1, 1)));
+    }
+
+    @Test
+    void testAppliesPoliciesPerPartition() {
+        // Arrange
+        when(retention.partitionRepository.listPartitions()).thenReturn(List.of(partition(400), partition(399),
+                partition(60), partition(59), partition(0), ServerLogPartitionRepository.FUTURE_PARTITION));
+        when(retention.partitionRepository.countRetained(eq(partition(399)), anyCollection(), anyBoolean())).thenReturn(3L);
+
+        // Act
+        retention.applyRetentionToPartitions();
+
+        // Assert
+        // Tudo expirou e não há banimentos: a partição sai inteira
+        verify(retention.partitionRepository).dropPartition(partition(400));
+        verify(retention.partitionRepository).countRetained(partition(400), List.of(LogEventType.MEMBER_BANNED), true);
+        // Só as mensagens expiraram; onde sobram outros tipos, elas são apagadas em lotes
+        verify(retention.partitionRepository).purgeBatch(partition(399), List.of(LogEventType.MESSAGE_SENT), false, 100);
+        verify(retention.partitionRepository).dropPartition(partition(60));
+        // Termina hoje: as mensagens ainda estão no prazo; a partição corrente nunca é tocada
+        verify(retention.partitionRepository, never()).countRetained(eq(partition(59)), anyCollection(), anyBoolean());
+        verify(retention.partitionRepository, never()).countRetained(eq(partition(0)), anyCollection(), anyBoolean());
+        verify(retention.partitionRepository, times(2)).dropPartition(anyString());
+    }
+
+    @Test
+    void testForeverDefaultKeepsTypesWithoutPolicy() {
+        // Arrange
+        retention.defaultDays = "forever";
+        retention.policies = Optional.empty();
+        retention.init();
+        when(retention.partitionRepository.listPartitions()).thenReturn(List.of(partition(1000), partition(0),
+                ServerLogPartitionRepository.FUTURE_PARTITION));
+
+        // Act
+        retention.applyRetentionToPartitions();
+
+        // Assert
+        verify(retention.partitionRepository, never()).dropPartition(anyString());
+        verify(retention.partitionRepository, never()).purgeBatch(anyString(), anyCollection(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testArchiveCutoffFollowsPolicies() {
+        // Arrange
+        ArgumentCaptor<Function<LogEventType, OffsetDateTime>> cutoff = ArgumentCaptor.forClass(Function.class);
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+
+        // Act
+        retention.applyRetentionToArchive();
+
+        // Assert
+        verify(retention.archive).dropExpired(cutoff.capture());
+        assertNull(cutoff.getValue().apply(LogEventType.MEMBER_BANNED));
+        assertTrue(Duration.between(now.minusDays(30), cutoff.getValue().apply(LogEventType.MESSAGE_SENT))
+                .abs().compareTo(Duration.ofMinutes(1)) < 0);
+        assertTrue(Duration.between(now.minusDays(365), cutoff.getValue().apply(LogEventType.CHANNEL_CREATED))
+                .abs().compareTo(Duration.ofMinutes(1)) < 0);
+    }
+
+    @Test
+    void testLeavesUnpartitionedTableAlone() {
+        // Arrange
+        when(retention.partitionRepository.listPartitions()).thenReturn(List.of());
+
+        // Act
+        retention.maintainDatabase();
+
+        // Assert
+        verify(retention.partitionRepository).listPartitions();
+        verifyNoMoreInteractions(retention.partitionRepository);
+    }
+
+    @Test
+    void testOnlyTheShardZeroNodeMaintainsTheDatabase() {
+        // Arrange
+        when(retention.discordBotService.isLocalShard(0)).thenReturn(false);
+
+        // Act
+        retention.runMaintenance();
+
+        // Assert
+        verifyNoInteractions(retention.partitionRepository, retention.rollupService);
+        // Os segmentos ficam no disco de cada nó
+        verify(retention.archive).dropExpired(any());
+    }
+
+    @Test
+    void testAddsMissingPartitionsAfterTheLastOne() {
+        // Arrange
+        when(retention.partitionRepository.listPartitions()).thenReturn(List.of(partition(1),
+                ServerLogPartitionRepository.FUTURE_PARTITION));
+
+        // Act
+        boolean partitioned = retention.ensurePartitions();
+
+        // Assert
+        assertTrue(partitioned);
+        verify(retention.partitionRepository).addPartition(TODAY, TODAY.plusDays(1));
+        verify(retention.partitionRepository).addPartition(TODAY.plusDays(1), TODAY.plusDays(2));
+        verify(retention.partitionRepository).addPartition(TODAY.plusDays(2), TODAY.plusDays(3));
+    }
+}
@@ -0,0 +1,207 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogRollup;
+import io.quarkus.manikomio.model.LogRollupKey;
+import io.quarkus.manikomio.model.ServerLog;
+import io.quarkus.manikomio.repository.LogRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+public class LogRollupServiceTest {
+
+    private static final long GUILD = 789L;
+
+    private LogRollupService rollups;
+
+    @BeforeEach
+    void setUp() {
+        rollups = new LogRollupService();
+        rollups.rollupRepository = mock(LogRollupRepository.class);
+    }
+
+    private static ServerLog log(LogEventType type, Long userId, OffsetDateTime createdAt) {
+        ServerLog log = new ServerLog();
+        log.setGuildId(GUILD);
+        log.setEventType(type);
+        log.setUserId(userId);
+        log.setChannelId(456L);
+        log.setCreatedAt(createdAt);
+        return log;
+    }
+
+    private static LogRollupKey key(LogRollup.Granularity granularity, OffsetDateTime time, LogRollup.Dimension dimension,
+                                    String value) {
+        return LogRollupKey.of(granularity, time, GUILD, dimension, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<LogRollupKey, Long> flushedDeltas() {
+        ArgumentCaptor<Map<LogRollupKey, Long>> deltas = ArgumentCaptor.forClass(Map.class);
+        verify(rollups.rollupRepository).applyDeltas(deltas.capture());
+        return deltas.getValue();
+    }
+
+    @Test
+    void testAccumulatesPerBucketAndDimension() {
+        // Arrange
+        OffsetDateTime now = OffsetDateTime.now();
+        List<ServerLog> logs = List.of(log(LogEventType.MESSAGE_SENT, 1L, now), log(LogEventType.MESSAGE_SENT, 2L, now),
+                log(LogEventType.MEMBER_JOINED, 1L, now), log(LogEventType.MESSAGE_SENT, null, now));
+
+        // Act
+        rollups.record(logs);
+        rollups.flush();
+
+        // Assert
+        Map<LogRollupKey, Long> deltas = flushedDeltas();
+        assertEquals(3L, deltas.get(key(LogRollup.Granularity.HOUR, now, LogRollup.Dimension.EVENT_TYPE, "MESSAGE_SENT")));
+        assertEquals(3L, deltas.get(key(LogRollup.Granularity.DAY, now, LogRollup.Dimension.EVENT_TYPE, "MESSAGE_SENT")));
+        assertEquals(2L, deltas.get(key(LogRollup.Granularity.HOUR, now, LogRollup.Dimension.USER, "1")));
+        assertEquals(4L, deltas.get(key(LogRollup.Granularity.DAY, now, LogRollup.Dimension.CHANNEL, "456")));
+        // Logs sem usuário não criam contador de usuário
+        assertEquals(10, deltas.size());
+    }
+
+    @Test
+    void testIgnoresLogsWithoutGuild() {
+        // Arrange
+        ServerLog system = log(LogEventType.MESSAGE_SENT, 1L, OffsetDateTime.now());
+        system.setGuildId(null);
+
+        // Act
+        rollups.record(List.of(system));
+        rollups.flush();
+
+        // Assert
+        assertEquals(0, rollups.getPendingCounters());
+        verify(rollups.rollupRepository, never()).applyDeltas(anyMap());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFailedFlushKeepsDeltasForNextAttempt() {
+        // Arrange
+        OffsetDateTime now = OffsetDateTime.now();
+        rollups.record(List.of(log(LogEventType.MESSAGE_SENT, 1L, now)));
+        doThrow(new RuntimeException("banco fora")).doNothing().when(rollups.rollupRepository).applyDeltas(anyMap());
+
+        // Act
+        rollups.flush();
+        rollups.record(List.of(log(LogEventType.MESSAGE_SENT, 1L, now)));
+        rollups.flush();
+
+        // Assert
+        ArgumentCaptor<Map<LogRollupKey, Long>> deltas = ArgumentCaptor.forClass(Map.class);
+        verify(rollups.rollupRepository, times(2)).applyDeltas(deltas.capture());
+        assertEquals(2L, deltas.getValue().get(key(LogRollup.Granularity.DAY, now, LogRollup.Dimension.EVENT_TYPE, "MESSAGE_SENT")));
+    }
+
+    @Test
+    void testFlushSkipsCountersWithoutChanges() {
+        // Arrange
+        rollups.record(List.of(log(LogEventType.MESSAGE_SENT, 1L, OffsetDateTime.now())));
+        rollups.flush();
+
+        // Act
+        rollups.flush();
+
+        // Assert
+        verify(rollups.rollupRepository, times(1)).applyDeltas(anyMap());
+    }
+
+    @Test
+    void testFlushEvictsOnlyIdleOldCounters() {
+        // Arrange
+        OffsetDateTime old = OffsetDateTime.now().minusHours(5);
+        rollups.record(List.of(log(LogEventType.MESSAGE_SENT, 1L, old)));
+        rollups.flush();
+
+        // Act
+        rollups.flush();
+        rollups.record(List.of(log(LogEventType.MESSAGE_SENT, 1L, old)));
+        rollups.flush();
+
+        // Assert
+        // Os contadores voltam a existir com o incremento tardio e o segundo delta é gravado
+        verify(rollups.rollupRepository, times(2)).applyDeltas(anyMap());
+        assertEquals(6, rollups.getPendingCounters());
+    }
+
+    @Test
+    void testPurgeHourlyKeepsTheStatsWindow() {
+        // Arrange
+        OffsetDateTime statsStart = LogRollup.Granularity.HOUR.bucketOf(OffsetDateTime.now().minusHours(48));
+        ArgumentCaptor<OffsetDateTime> cutoff = ArgumentCaptor.forClass(OffsetDateTime.class);
+
+        // Act
+        rollups.purgeHourly();
+
+        // Assert
+        verify(rollups.rollupRepository).deleteHourlyBefore(cutoff.capture());
+        assertTrue(cutoff.getValue().isBefore(statsStart));
+        assertTrue(cutoff.getValue().isAfter(statsStart.minusHours(2)));
+    }
+
+    @Test
+    void testReclassifyMovesCountBetweenTypes() {
+        // Arrange
+        OffsetDateTime now = OffsetDateTime.now();
+        ServerLog left = log(LogEventType.MEMBER_LEFT, 1L, now);
+        rollups.record(List.of(left));
+        rollups.flush();
+        reset(rollups.rollupRepository);
+        ServerLog kicked = log(LogEventType.MEMBER_KICKED, 1L, now);
+
+        // Act
+        rollups.reclassify(kicked, LogEventType.MEMBER_LEFT);
+        rollups.flush();
+
+        // Assert
+        Map<LogRollupKey, Long> deltas = flushedDeltas();
+        assertEquals(-1L, deltas.get(key(LogRollup.Granularity.HOUR, now, LogRollup.Dimension.EVENT_TYPE, "MEMBER_LEFT")));
+        assertEquals(1L, deltas.get(key(LogRollup.Granularity.HOUR, now, LogRollup.Dimension.EVENT_TYPE, "MEMBER_KICKED")));
+        // Canal e usuário não mudam
+        assertEquals(4, deltas.size());
+    }
+
+    @Test
+    void testCountByDimensionAddsUnflushedCounters() {
+        // Arrange
+        when(rollups.rollupRepository.sumByDimension(eq(GUILD), eq(LogRollup.Dimension.EVENT_TYPE),
+                eq(LogRollup.Granularity.HOUR), any())).thenReturn(Map.of("MESSAGE_SENT", 5L, "MEMBER_JOINED", 8L));
+        rollups.record(List.of(log(LogEventType.MESSAGE_SENT, 1L, OffsetDateTime.now()),
+                log(LogEventType.MESSAGE_SENT, 1L, OffsetDateTime.now())));
+
+        // Act
+        Map<String, Long> counts = rollups.countByDimension(GUILD, LogRollup.Dimension.EVENT_TYPE, Duration.ofHours(24));
+
+        // Assert
+        assertEquals(List.of("MEMBER_JOINED", "MESSAGE_SENT"), List.copyOf(counts.keySet()));
+        assertEquals(7L, counts.get("MESSAGE_SENT"));
+    }
+
+    @Test
+    void testCountByEventTypeUsesDailyTotals() {
+        // Arrange
+        when(rollups.rollupRepository.sumByValue(LogRollup.Dimension.EVENT_TYPE, "MESSAGE_SENT")).thenReturn(10L);
+        rollups.record(List.of(log(LogEventType.MESSAGE_SENT, 1L, OffsetDateTime.now())));
+
+        // Act
+        long count = rollups.countByEventType(LogEventType.MESSAGE_SENT);
+
+        // Assert
+        assertEquals(11L, count);
+    }
+}
@@ -0,0 +1,152 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogRoute;
+import io.quarkus.manikomio.repository.LogRouteRepository;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LogRoutingServiceTest {
+
+    private static final long GUILD = 100L;
+    private static final long OTHER_GUILD = 200L;
+
+    private LogRoutingService routing;
+
+    @BeforeEach
+    void setUp() {
+        routing = new LogRoutingService();
+        routing.routeRepository = mock(LogRouteRepository.class);
+        routing.discordBotService = mock(DiscordBotService.class);
+        routing.logChannelId = "999";
+        routing.init();
+    }
+
+    private static LogRoute route(long guildId, LogEventType type, long channelId) {
+        LogRoute route = new LogRoute();
+        route.setGuildId(guildId);
+        route.setEventType(type);
+        route.setChannelId(channelId);
+        return route;
+    }
+
+    private TextChannel channel(String id, boolean canTalk) {
+        TextChannel channel = mock(TextChannel.class);
+        when(channel.canTalk()).thenReturn(canTalk);
+        when(routing.discordBotService.getTextChannelById(id)).thenReturn(channel);
+        return channel;
+    }
+
+    @Test
+    void testTypeRouteWinsOverGuildRouteAndDefault() {
+        // Arrange
+        routing.load(List.of(route(GUILD, LogEventType.MEMBER_BANNED, 2L), route(GUILD, null, 1L)));
+
+        // Act & Assert
+        assertEquals("2", routing.route(GUILD, LogEventType.MEMBER_BANNED).getChannelId());
+        assertEquals("1", routing.route(GUILD, LogEventType.MESSAGE_SENT).getChannelId());
+        assertEquals("999", routing.route(OTHER_GUILD, LogEventType.MEMBER_BANNED).getChannelId());
+        assertEquals("999", routing.route(null, LogEventType.MESSAGE_SENT).getChannelId());
+    }
+
+    @Test
+    void testTypeRouteWithoutGuildRouteFallsBackToDefault() {
+        // Arrange
+        routing.load(List.of(route(GUILD, LogEventType.VOICE_JOINED, 3L)));
+
+        // Act & Assert
+        assertEquals("3", routing.route(GUILD, LogEventType.VOICE_JOINED).getChannelId());
+        assertEquals("999", routing.route(GUILD, LogEventType.VOICE_LEFT).getChannelId());
+    }
+
+    @Test
+    void testDestinationStaysActiveUntilReloadDropsIt() {
+        // Arrange
+        routing.load(List.of(route(GUILD, null, 1L), route(OTHER_GUILD, null, 2L)));
+        LogRoutingService.Destination kept = routing.route(GUILD, LogEventType.MESSAGE_SENT);
+        LogRoutingService.Destination dropped = routing.route(OTHER_GUILD, LogEventType.MESSAGE_SENT);
+
+        // Act
+        routing.load(List.of(route(GUILD, null, 1L)));
+
+        // Assert
+        assertSame(kept, routing.route(GUILD, LogEventType.MESSAGE_SENT));
+        assertTrue(routing.isActive(kept));
+        assertFalse(routing.isActive(dropped));
+        assertTrue(routing.isActive(routing.route(OTHER_GUILD, LogEventType.MESSAGE_SENT)));
+    }
+
+    @Test
+    void testDefaultIsSkippedWhenMirrorIsDisabled() {
+        // Arrange
+        routing.load(List.of(route(GUILD, null, 1L)));
+        when(routing.discordBotService.isMirrorDisabled()).thenReturn(true);
+
+        // Act & Assert
+        assertNull(routing.route(OTHER_GUILD, LogEventType.MESSAGE_SENT));
+        assertEquals("1", routing.route(GUILD, LogEventType.MESSAGE_SENT).getChannelId());
+    }
+
+    @Test
+    void testResolvedChannelIsCachedUntilInvalidated() {
+        // Arrange
+        routing.load(List.of(route(GUILD, null, 1L)));
+        TextChannel channel = channel("1", true);
+        LogRoutingService.Destination destination = routing.route(GUILD, LogEventType.MESSAGE_SENT);
+
+        // Act
+        routing.channelOf(destination);
+        routing.channelOf(destination);
+        routing.invalidateChannel(1L);
+        TextChannel resolved = routing.channelOf(destination);
+
+        // Assert
+        assertSame(channel, resolved);
+        verify(routing.discordBotService, times(2)).getTextChannelById("1");
+    }
+
+    @Test
+    void testChannelWithoutPermissionResolvesToNullUntilPermissionsChange() {
+        // Arrange
+        routing.load(List.of(route(GUILD, null, 1L)));
+        TextChannel channel = channel("1", false);
+        LogRoutingService.Destination destination = routing.route(GUILD, LogEventType.MESSAGE_SENT);
+
+        // Act
+        TextChannel denied = routing.channelOf(destination);
+        when(channel.canTalk()).thenReturn(true);
+        TextChannel stillCached = routing.channelOf(destination);
+        routing.invalidateAll();
+        TextChannel allowed = routing.channelOf(destination);
+
+        // Assert
+        assertNull(denied);
+        assertNull(stillCached);
+        assertSame(channel, allowed);
+    }
+
+    @Test
+    void testReloadKeepsDestinationForSameChannelAndDropsRemovedRoutes() {
+        // Arrange
+        routing.load(List.of(route(GUILD, null, 1L), route(OTHER_GUILD, null, 4L)));
+        LogRoutingService.Destination before = routing.route(GUILD, LogEventType.MESSAGE_SENT);
+
+        // Act
+        routing.load(List.of(route(GUILD, null, 1L)));
+
+        // Assert
+        assertSame(before, routing.route(GUILD, LogEventType.MESSAGE_SENT));
+        assertEquals("999", routing.route(OTHER_GUILD, LogEventType.MESSAGE_SENT).getChannelId());
+        assertEquals(1, routing.getRoutes(GUILD).size());
+        assertTrue(routing.getRoutes(OTHER_GUILD).isEmpty());
+    }
+}
@@ -0,0 +1,148 @@
+package io.quarkus.manikomio.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogSearchIndexTest {
+
+    private static final long GUILD = 1L;
+    private static final long NOW = 1_700_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    private LogSearchIndex open(int bufferDocs) throws IOException {
+        LogSearchIndex index = new LogSearchIndex(directory, bufferDocs, 3, 1_000_000);
+        index.finishBackfill();
+        return index;
+    }
+
+    private static LogSearchIndex.Document doc(long id, long channelId, String text) {
+        return new LogSearchIndex.Document(id, GUILD, channelId, NOW + id, text);
+    }
+
+    private static List<Long> ids(List<LogSearchIndex.Hit> hits) {
+        return hits.stream().map(LogSearchIndex.Hit::id).toList();
+    }
+
+    @Test
+    void testTokenizerIgnoresCaseAndAccents() {
+        assertEquals(List.of("acao", "proibida", "no", "canal", "42"), SearchTokenizer.tokenize("Ação PROIBIDA no #canal-42!"));
+    }
+
+    @Test
+    void testRequiresAllTermsAndRanksByRelevance() throws IOException {
+        // Arrange
+        try (LogSearchIndex index = open(100)) {
+            index.addLive(List.of(
+                    doc(1, 10, "link de convite para outro servidor"),
+                    doc(2, 10, "convite convite convite"),
+                    doc(3, 10, "bom dia a todos"),
+                    doc(4, 10, "servidor caiu")));
+
+            // Act
+            List<LogSearchIndex.Hit> both = index.search(GUILD, null, SearchTokenizer.tokenize("convite servidor"), 10);
+            List<LogSearchIndex.Hit> one = index.search(GUILD, null, SearchTokenizer.tokenize("Convite"), 10);
+
+            // Assert
+            assertEquals(List.of(1L), ids(both));
+            assertEquals(List.of(2L, 1L), ids(one));
+        }
+    }
+
+    @Test
+    void testScopesByGuildAndChannel() throws IOException {
+        // Arrange
+        try (LogSearchIndex index = open(100)) {
+            index.addLive(List.of(doc(1, 10, "spam"), doc(2, 20, "spam"),
+                    new LogSearchIndex.Document(3, 99L, 10, NOW, "spam")));
+
+            // Act & Assert
+            assertEquals(2, index.search(GUILD, null, List.of("spam"), 10).size());
+            assertEquals(List.of(2L), ids(index.search(GUILD, 20L, List.of("spam"), 10)));
+        }
+    }
+
+    @Test
+    void testFlushedSegmentsSurviveRestart() throws IOException {
+        // Arrange
+        try (LogSearchIndex index = open(2)) {
+            index.addLive(List.of(doc(1, 10, "primeira mensagem"), doc(2, 10, "segunda mensagem"),
+                    doc(3, 10, "terceira mensagem")));
+            index.flush();
+        }
+
+        // Act
+        try (LogSearchIndex reopened = open(2)) {
+            List<LogSearchIndex.Hit> hits = reopened.search(GUILD, null, List.of("mensagem"), 10);
+
+            // Assert
+            assertEquals(3, reopened.checkpoint());
+            assertEquals(2, reopened.segmentCount());
+            assertEquals(List.of(3L, 2L, 1L), ids(hits));
+        }
+    }
+
+    @Test
+    void testMergeJoinsSmallSegmentsAndDropsExpiredDocuments() throws IOException {
+        // Arrange
+        try (LogSearchIndex index = open(1)) {
+            for (long id = 1; id <= 5; id++) {
+                index.addLive(List.of(doc(id, 10, "mensagem numero " + id)));
+            }
+            index.flush();
+            assertEquals(5, index.segmentCount());
+
+            // Act
+            int changed = index.merge(NOW + 2);
+
+            // Assert
+            assertEquals(4, changed);
+            assertEquals(2, index.segmentCount());
+            assertEquals(List.of(5L, 4L, 3L, 2L), ids(index.search(GUILD, null, List.of("mensagem"), 10)));
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    void testBackfillStopsAtLiveDocumentsAndSkipsDuplicates() throws IOException {
+        // Arrange
+        try (LogSearchIndex index = new LogSearchIndex(directory, 100, 3, 1_000_000)) {
+            index.addLive(List.of(doc(5, 10, "ao vivo")));
+
+            // Act
+            boolean more = index.addBackfill(List.of(doc(3, 10, "antiga"), doc(4, 10, "antiga"), doc(5, 10, "ao vivo")));
+            index.addLive(List.of(doc(4, 10, "antiga")));
+
+            // Assert
+            assertFalse(more);
+            assertEquals(List.of(4L, 3L), ids(index.search(GUILD, null, List.of("antiga"), 10)));
+            assertEquals(1, index.search(GUILD, null, List.of("vivo"), 10).size());
+        }
+    }
+
+    @Test
+    void testCheckpointDoesNotSkipPastBackfill() throws IOException {
+        // Arrange
+        try (LogSearchIndex index = new LogSearchIndex(directory, 100, 3, 1_000_000)) {
+            index.addBackfill(List.of(doc(1, 10, "antiga")));
+            index.addLive(List.of(doc(10, 10, "nova")));
+
+            // Act
+            index.flush();
+
+            // Assert
+            assertEquals(1, index.checkpoint());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogSlashCommandsTest {
+
+    @Test
+    void testDefinitionHasTypedSubcommands() {
+        // Act
+        SlashCommandData command = LogSlashCommands.definition(10);
+
+        // Assert
+        assertEquals("logs", command.getName());
+        assertEquals(List.of("recent", "user", "type", "period", "search", "stats", "route", "routes"),
+                command.getSubcommands().stream().map(SubcommandData::getName).toList());
+        OptionData type = command.getSubcommands().get(2).getOptions().get(0);
+        assertTrue(type.isAutoComplete());
+        assertTrue(type.isRequired());
+        OptionData limit = command.getSubcommands().get(0).getOptions().get(0);
+        assertEquals(10, limit.getMaxValue().intValue());
+    }
+
+    @Test
+    void testEventTypeChoicesFilterByTypedText() {
+        // Act
+        List<Command.Choice> choices = LogSlashCommands.eventTypeChoices("voice");
+
+        // Assert
+        assertEquals(List.of("VOICE_JOINED", "VOICE_LEFT", "VOICE_MOVED"),
+                choices.stream().map(Command.Choice::getAsString).toList());
+    }
+
+    @Test
+    void testEmptyTextSuggestsAllTypes() {
+        assertEquals(LogEventType.values().length, LogSlashCommands.eventTypeChoices("").size());
+    }
+}
@@ -0,0 +1,183 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.ServerLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogSpoolTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private static ServerLog log(String message) {
+        ServerLog log = new ServerLog();
+        log.setEventType(LogEventType.MESSAGE_SENT);
+        log.setUserId(123L);
+        log.setUsername("fulano");
+        log.setGuildId(789L);
+        log.setDescription("Mensagem enviada");
+        log.setMessage(message);
+        log.setCreatedAt(OffsetDateTime.parse("2024-03-01T12:00:00.123456-03:00"));
+        return log;
+    }
+
+    private LogSpool open(long segmentBytes, int residentCapacity) throws IOException {
+        return new LogSpool(directory, segmentBytes, 64 * MB, LogSpool.FsyncPolicy.NEVER, residentCapacity);
+    }
+
+    @Test
+    void testRecoversUncommittedRecordsAfterRestart() throws IOException {
+        // Arrange
+        try (LogSpool spool = open(MB, 100)) {
+            for (int i = 0; i < 5; i++) {
+                spool.append(log("msg " + i));
+            }
+            spool.commit(spool.read(2).get(1).seq() + 1);
+        }
+
+        // Act
+        List<LogSpool.Entry> entries;
+        try (LogSpool reopened = open(MB, 100)) {
+            entries = reopened.read(10);
+
+            // Assert
+            assertEquals(3, reopened.backlog());
+            assertEquals(5, reopened.recoveredUntil());
+        }
+        assertEquals(3, entries.size());
+        ServerLog decoded = entries.get(0).log();
+        assertEquals(2, entries.get(0).seq());
+        assertEquals(2L, decoded.getIngestKey());
+        assertEquals("msg 2", decoded.getMessage());
+        assertEquals(LogEventType.MESSAGE_SENT, decoded.getEventType());
+        assertEquals(123L, decoded.getUserId());
+        assertNull(decoded.getChannelId());
+        assertEquals("fulano", decoded.getUsername());
+        assertEquals(OffsetDateTime.parse("2024-03-01T12:00:00.123456-03:00"), decoded.getCreatedAt());
+    }
+
+    @Test
+    void testTruncatesPartialRecordAtTail() throws IOException {
+        // Arrange
+        try (LogSpool spool = open(MB, 0)) {
+            spool.append(log("inteiro"));
+            spool.append(log("cortado"));
+        }
+        Path segment = directory.resolve(LogSpool.segmentName(0));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        // Act
+        try (LogSpool reopened = open(MB, 0)) {
+            List<LogSpool.Entry> entries = reopened.read(10);
+            long next = reopened.append(log("novo"));
+
+            // Assert
+            assertEquals(1, entries.size());
+            assertEquals("inteiro", entries.get(0).log().getMessage());
+            assertEquals(1, next);
+        }
+    }
+
+    @Test
+    void testRollsSegmentsAndDeletesCommittedOnes() throws IOException {
+        // Arrange
+        try (LogSpool spool = open(200, 0)) {
+            for (int i = 0; i < 6; i++) {
+                spool.append(log("msg " + i));
+            }
+            int segmentsBefore = spool.segmentCount();
+
+            // Act
+            List<LogSpool.Entry> entries = spool.read(10);
+            spool.read(1);
+            spool.commit(entries.get(entries.size() - 1).seq() + 1);
+
+            // Assert
+            assertEquals(6, entries.size());
+            assertTrue(segmentsBefore > 1);
+            assertEquals(1, spool.segmentCount());
+            assertEquals(0, spool.backlog());
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    void testSpoolIdSurvivesRestartButNotANewDirectory(@TempDir Path other) throws IOException {
+        // Arrange
+        long spoolId;
+        ServerLog appended = log("msg");
+        try (LogSpool spool = open(MB, 0)) {
+            spoolId = spool.spoolId();
+            spool.append(appended);
+        }
+
+        // Act
+        ServerLog decoded;
+        try (LogSpool reopened = open(MB, 0)) {
+            decoded = reopened.read(1).get(0).log();
+
+            // Assert
+            assertEquals(spoolId, reopened.spoolId());
+        }
+        try (LogSpool fresh = new LogSpool(other, MB, 64 * MB, LogSpool.FsyncPolicy.NEVER, 0)) {
+            assertEquals(0, fresh.append(log("msg")));
+            assertNotEquals(spoolId, fresh.spoolId());
+        }
+        assertNotEquals(0, spoolId);
+        assertEquals(spoolId, appended.getIngestSpool());
+        assertEquals(spoolId, decoded.getIngestSpool());
+        assertEquals(0L, decoded.getIngestKey());
+    }
+
+    @Test
+    void testReadsCheckpointWithoutSpoolId() throws IOException {
+        // Arrange
+        Files.writeString(directory.resolve("checkpoint"), "7");
+
+        // Act
+        try (LogSpool spool = open(MB, 0)) {
+
+            // Assert
+            assertEquals(7, spool.append(log("msg")));
+            assertNotEquals(0, spool.spoolId());
+        }
+        try (LogSpool reopened = open(MB, 0)) {
+            assertEquals(1, reopened.backlog());
+        }
+    }
+
+    @Test
+    void testResidentLogIsReturnedWithoutDecoding() throws IOException {
+        try (LogSpool spool = open(MB, 10)) {
+            ServerLog original = log("msg");
+            spool.append(original);
+            assertSame(original, spool.read(1).get(0).log());
+        }
+    }
+
+    @Test
+    void testRejectsAppendWhenFull() throws IOException {
+        try (LogSpool spool = new LogSpool(directory, MB, 150, LogSpool.FsyncPolicy.NEVER, 0)) {
+            assertEquals(0, spool.append(log("msg")));
+            assertEquals(-1, spool.append(log("msg")));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.quarkus.manikomio.service;
 
+import io.quarkus.manikomio.model.LogEventType;
 import io.quarkus.manikomio.model.ServerLog;
 import io.quarkus.manikomio.repository.ServerLogRepository;
 import io.quarkus.test.junit.QuarkusTest;
@@ -12,7 +13,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @QuarkusTest
@@ -27,50 +28,50 @@ public class LoggingServiceTest {
     @Test
     void testCreateLog() {
         // Arrange
-        String userId = "123";
+        Long userId = 123L;
         String username = "testUser";
-        String eventType = "MESSAGE_SENT";
+        LogEventType eventType = LogEventType.MESSAGE_SENT;
         String description = "Test message";
-        String channelId = "456";
+        Long channelId = 456L;
         String channelName = "test-channel";
-        String guildId = "789";
+        Long guildId = 789L;
         String message = "Test message content";
 
         // Act
         loggingService.createLog(userId, username, eventType, description, channelId, channelName, guildId, message);
 
-        // Assert
-        verify(serverLogRepository).persist(any(ServerLog.class));
+        // Assert - a gravação é assíncrona, feita em lote pelo write-behind
+        verify(serverLogRepository, timeout(5000)).persistBatch(anyList());
     }
 
     @Test
     void testGetLogsByUserId() {
         // Arrange
-        String userId = "123";
+        Long userId = 123L;
         ServerLog log1 = new ServerLog();
         log1.setUserId(userId);
         log1.setUsername("testUser");
-        log1.setEventType("MESSAGE_SENT");
+        log1.setEventType(LogEventType.MESSAGE_SENT);
         log1.setDescription("Test message 1");
-        log1.setChannelId("456");
+        log1.setChannelId(456L);
         log1.setChannelName("test-channel");
-        log1.setGuildId("789");
+        log1.setGuildId(789L);
         log1.setCreatedAt(OffsetDateTime.now());
 
         ServerLog log2 = new ServerLog();
         log2.setUserId(userId);
         log2.setUsername("testUser");
-        log2.setEventType("MESSAGE_DELETED");
+        log2.setEventType(LogEventType.MESSAGE_DELETED);
         log2.setDescription("Test message 2");
-        log2.setChannelId("456");
+        log2.setChannelId(456L);
         log2.setChannelName("test-channel");
-        log2.setGuildId("789");
+        log2.setGuildId(789L);
         log2.setCreatedAt(OffsetDateTime.now());
 
-        when(serverLogRepository.findByUserId(userId)).thenReturn(Arrays.asList(log1, log2));
+        when(serverLogRepository.findByUserId(userId, 10)).thenReturn(Arrays.asList(log1, log2));
 
         // Act
-        List<ServerLog> logs = loggingService.getLogsByUserId(userId);
+        List<ServerLog> logs = loggingService.getLogsByUserId(userId, 10);
 
         // Assert
         assertEquals(2, logs.size());
@@ -81,31 +82,31 @@ public class LoggingServiceTest {
     @Test
     void testGetLogsByEventType() {
         // Arrange
-        String eventType = "MESSAGE_SENT";
+        LogEventType eventType = LogEventType.MESSAGE_SENT;
         ServerLog log1 = new ServerLog();
-        log1.setUserId("123");
+        log1.setUserId(123L);
         log1.setUsername("testUser");
         log1.setEventType(eventType);
         log1.setDescription("Test message 1");
-        log1.setChannelId("456");
+        log1.setChannelId(456L);
         log1.setChannelName("test-channel");
-        log1.setGuildId("789");
+        log1.setGuildId(789L);
         log1.setCreatedAt(OffsetDateTime.now());
 
         ServerLog log2 = new ServerLog();
-        log2.setUserId("456");
+        log2.setUserId(456L);
         log2.setUsername("testUser2");
         log2.setEventType(eventType);
         log2.setDescription("Test message 2");
-        log2.setChannelId("789");
+        log2.setChannelId(789L);
         log2.setChannelName("test-channel-2");
-        log2.setGuildId("789");
+        log2.setGuildId(789L);
         log2.setCreatedAt(OffsetDateTime.now());
 
-        when(serverLogRepository.findByEventType(eventType)).thenReturn(Arrays.asList(log1, log2));
+        when(serverLogRepository.findByEventType(eventType, 10)).thenReturn(Arrays.asList(log1, log2));
 
         // Act
-        List<ServerLog> logs = loggingService.getLogsByEventType(eventType);
+        List<ServerLog> logs = loggingService.getLogsByEventType(eventType, 10);
 
         // Assert
         assertEquals(2, logs.size());
@@ -119,29 +120,29 @@ public class LoggingServiceTest {
         OffsetDateTime startDate = OffsetDateTime.now().minusDays(1);
         OffsetDateTime endDate = OffsetDateTime.now();
         ServerLog log1 = new ServerLog();
-        log1.setUserId("123");
+        log1.setUserId(123L);
         log1.setUsername("testUser");
-        log1.setEventType("MESSAGE_SENT");
+        log1.setEventType(LogEventType.MESSAGE_SENT);
         log1.setDescription("Test message 1");
-        log1.setChannelId("456");
+        log1.setChannelId(456L);
         log1.setChannelName("test-channel");
-        log1.setGuildId("789");
+        log1.setGuildId(789L);
         log1.setCreatedAt(startDate.plusHours(1));
 
         ServerLog log2 = new ServerLog();
-        log2.setUserId("456");
+        log2.setUserId(456L);
         log2.setUsername("testUser2");
-        log2.setEventType("MESSAGE_DELETED");
+        log2.setEventType(LogEventType.MESSAGE_DELETED);
         log2.setDescription("Test message 2");
-        log2.setChannelId("789");
+        log2.setChannelId(789L);
         log2.setChannelName("test-channel-2");
-        log2.setGuildId("789");
+        log2.setGuildId(789L);
         log2.setCreatedAt(endDate.minusHours(1));
 
-        when(serverLogRepository.findByDateRange(startDate, endDate)).thenReturn(Arrays.asList(log1, log2));
+        when(serverLogRepository.findByDateRange(startDate, endDate, 10)).thenReturn(Arrays.asList(log1, log2));
 
         // Act
-        List<ServerLog> logs = loggingService.getLogsByDateRange(startDate, endDate);
+        List<ServerLog> logs = loggingService.getLogsByDateRange(startDate, endDate, 10);
 
         // Assert
         assertEquals(2, logs.size());
@@ -154,23 +155,23 @@ public class LoggingServiceTest {
         // Arrange
         int limit = 5;
         ServerLog log1 = new ServerLog();
-        log1.setUserId("123");
+        log1.setUserId(123L);
         log1.setUsername("testUser");
-        log1.setEventType("MESSAGE_SENT");
+        log1.setEventType(LogEventType.MESSAGE_SENT);
         log1.setDescription("Test message 1");
-        log1.setChannelId("456");
+        log1.setChannelId(456L);
         log1.setChannelName("test-channel");
-        log1.setGuildId("789");
+        log1.setGuildId(789L);
         log1.setCreatedAt(OffsetDateTime.now().minusHours(2));
 
         ServerLog log2 = new ServerLog();
-        log2.setUserId("456");
+        log2.setUserId(456L);
         log2.setUsername("testUser2");
-        log2.setEventType("MESSAGE_DELETED");
+        log2.setEventType(LogEventType.MESSAGE_DELETED);
         log2.setDescription("Test message 2");
-        log2.setChannelId("789");
+        log2.setChannelId(789L);
         log2.setChannelName("test-channel-2");
-        log2.setGuildId("789");
+        log2.setGuildId(789L);
         log2.setCreatedAt(OffsetDateTime.now().minusHours(1));
 
         when(serverLogRepository.findLatestLogs(limit)).thenReturn(Arrays.asList(log1, log2));
@@ -0,0 +1,123 @@
+package io.quarkus.manikomio.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MessageContentCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private MessageContentCache cache(int maxSizeMb, int maxMessages) {
+        MessageContentCache cache = new MessageContentCache();
+        cache.enabled = true;
+        cache.maxSizeMb = maxSizeMb;
+        cache.maxMessages = maxMessages;
+        cache.ttl = Duration.ofMinutes(10);
+        cache.offHeap = true;
+        cache.clock = now::get;
+        cache.init();
+        return cache;
+    }
+
+    @Test
+    void testReturnsAuthorAndContentUntilDeleted() {
+        // Arrange
+        MessageContentCache cache = cache(1, 1000);
+        cache.remember(10L, 123L, "usuário", "olá, ação!");
+
+        // Act
+        MessageContentCache.CachedMessage found = cache.find(10L);
+        MessageContentCache.CachedMessage taken = cache.take(10L);
+
+        // Assert
+        assertEquals(new MessageContentCache.CachedMessage(123L, "usuário", "olá, ação!"), found);
+        assertEquals(found, taken);
+        assertNull(cache.find(10L));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void testEditReplacesContent() {
+        // Arrange
+        MessageContentCache cache = cache(1, 1000);
+        cache.remember(10L, 123L, "usuario", "primeira versão");
+
+        // Act
+        cache.remember(10L, 123L, "usuario", "segunda versão");
+
+        // Assert
+        assertEquals("segunda versão", cache.find(10L).content());
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void testOldestMessagesLeaveWhenBufferIsFull() {
+        // Arrange
+        MessageContentCache cache = cache(1, 1000);
+        String content = "x".repeat(4000);
+
+        // Act
+        for (long id = 1; id <= 1000; id++) {
+            cache.remember(id, id, "usuario", content);
+        }
+
+        // Assert
+        assertTrue(cache.getUsedBytes() <= cache.getCapacityBytes());
+        assertNull(cache.find(1L));
+        assertEquals(content, cache.find(1000L).content());
+        assertTrue(cache.getSize() > 100 && cache.getSize() < 1000);
+        assertEquals(1000 - cache.getSize(), cache.getEvictions());
+        for (long id = 1001 - cache.getSize(); id <= 1000; id++) {
+            assertEquals(id, cache.find(id).authorId());
+        }
+    }
+
+    @Test
+    void testMessageCountLimit() {
+        // Arrange
+        MessageContentCache cache = cache(1, 3);
+
+        // Act
+        for (long id = 1; id <= 5; id++) {
+            cache.remember(id, id, "usuario", "mensagem " + id);
+        }
+
+        // Assert
+        assertEquals(3, cache.getSize());
+        assertNull(cache.find(2L));
+        assertEquals("mensagem 3", cache.find(3L).content());
+    }
+
+    @Test
+    void testExpiresAfterTtl() {
+        // Arrange
+        MessageContentCache cache = cache(1, 1000);
+        cache.remember(10L, 123L, "usuario", "texto");
+
+        // Act
+        now.addAndGet(Duration.ofMinutes(11).toMillis());
+
+        // Assert
+        assertNull(cache.find(10L));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void testRejectsBudgetSmallerThanIndex() {
+        assertThrows(IllegalStateException.class, () -> cache(1, 100_000));
+    }
+
+    @Test
+    void testEditSummaryShowsOnlyChangedPart() {
+        assertEquals("\"…gato…\" → \"…cachorro…\"",
+                MessageContentCache.editSummary("meu gato fugiu", "meu cachorro fugiu"));
+        assertEquals("\"oi\" → \"oi de novo\"", MessageContentCache.editSummary("oi", "oi de novo"));
+        assertNull(MessageContentCache.editSummary("igual", "igual"));
+    }
+}
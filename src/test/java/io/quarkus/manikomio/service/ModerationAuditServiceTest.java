@@ -0,0 +1,169 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.ServerLog;
+import io.quarkus.manikomio.repository.ServerLogRepository;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.audit.ActionType;
+import net.dv8tion.jda.api.entities.Guild;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ModerationAuditServiceTest {
+
+    private static final long GUILD = 500L;
+    private static final long MODERATOR = 900L;
+
+    private ModerationAuditService audit;
+    private Guild guild;
+    private final List<ModerationAuditService.AuditEntry> entries = new ArrayList<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        audit = new ModerationAuditService();
+        audit.logRepository = mock(ServerLogRepository.class);
+        when(audit.logRepository.patchModeration(any())).thenReturn(1);
+        audit.rollupService = mock(LogRollupService.class);
+        audit.enabled = true;
+        audit.batchDelay = Duration.ofMillis(50);
+        audit.cacheTtl = Duration.ofSeconds(30);
+        audit.matchWindow = Duration.ofSeconds(30);
+        audit.fetchLimit = 50;
+        audit.maxAttempts = 1;
+        audit.patchRetries = 3;
+        audit.fetcher = ignored -> {
+            fetches.incrementAndGet();
+            return CompletableFuture.completedFuture(List.copyOf(entries));
+        };
+        audit.init();
+
+        guild = mock(Guild.class, RETURNS_DEEP_STUBS);
+        when(guild.getIdLong()).thenReturn(GUILD);
+        when(guild.getSelfMember().hasPermission(Permission.VIEW_AUDIT_LOGS)).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        audit.onShutdown(null);
+    }
+
+    private static ServerLog log(LogEventType type, long userId) {
+        ServerLog log = new ServerLog();
+        log.eventType = type;
+        log.userId = userId;
+        log.guildId = GUILD;
+        log.description = "evento";
+        log.message = "Saiu do servidor";
+        log.ingestSpool = 42L;
+        log.ingestKey = userId;
+        return log;
+    }
+
+    // Cópias enviadas ao banco, na ordem das chamadas
+    private List<ServerLog> patched(int times) {
+        ArgumentCaptor<ServerLog> captor = ArgumentCaptor.forClass(ServerLog.class);
+        verify(audit.logRepository, timeout(2000).times(times)).patchModeration(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private void addEntry(ActionType type, long targetId, String reason) {
+        entries.add(new ModerationAuditService.AuditEntry(entries.size() + 1, type, targetId, MODERATOR, OffsetDateTime.now(), reason));
+    }
+
+    @Test
+    void testCoalescesBurstIntoOneFetch() {
+        // Arrange
+        List<ServerLog> logs = new ArrayList<>();
+        for (long user = 1; user <= 3; user++) {
+            addEntry(ActionType.BAN, user, null);
+            logs.add(log(LogEventType.MEMBER_BANNED, user));
+        }
+
+        // Act
+        logs.forEach(log -> audit.enrich(guild, log, log.userId));
+
+        // Assert
+        List<ServerLog> patches = patched(3);
+        assertEquals(1, fetches.get());
+        patches.forEach(patch -> assertEquals(MODERATOR, patch.moderatorId));
+        verify(audit.rollupService, never()).reclassify(any(), any());
+    }
+
+    @Test
+    void testKickEntryTurnsLeaveIntoKick() {
+        // Arrange
+        addEntry(ActionType.KICK, 1L, "spam");
+        ServerLog kicked = log(LogEventType.MEMBER_LEFT, 1L);
+        ServerLog left = log(LogEventType.MEMBER_LEFT, 2L);
+
+        // Act
+        audit.enrich(guild, kicked, 1L);
+        audit.enrich(guild, left, 2L);
+
+        // Assert
+        ServerLog patch = patched(1).get(0);
+        assertNotSame(kicked, patch);
+        assertEquals(LogEventType.MEMBER_KICKED, patch.eventType);
+        assertEquals("Expulso do servidor | Motivo: spam", patch.message);
+        assertEquals(MODERATOR, patch.moderatorId);
+        assertEquals(42L, patch.ingestSpool);
+        assertEquals(1L, patch.ingestKey);
+        assertEquals(kicked.createdAt, patch.createdAt);
+        // O log publicado não muda
+        assertEquals(LogEventType.MEMBER_LEFT, kicked.eventType);
+        assertEquals("Saiu do servidor", kicked.message);
+        assertNull(kicked.moderatorId);
+        assertEquals(1, audit.getUnmatched());
+        verify(audit.rollupService, timeout(2000)).reclassify(patch, LogEventType.MEMBER_LEFT);
+    }
+
+    @Test
+    void testLaterEventIsAnsweredFromCache() {
+        // Arrange
+        addEntry(ActionType.BAN, 1L, null);
+        addEntry(ActionType.UNBAN, 1L, null);
+        audit.enrich(guild, log(LogEventType.MEMBER_BANNED, 1L), 1L);
+        verify(audit.logRepository, timeout(2000)).patchModeration(any());
+        ServerLog unban = log(LogEventType.MEMBER_UNBANNED, 1L);
+
+        // Act
+        audit.enrich(guild, unban, 1L);
+
+        // Assert
+        ServerLog patch = patched(2).get(1);
+        assertEquals(LogEventType.MEMBER_UNBANNED, patch.eventType);
+        assertEquals(MODERATOR, patch.moderatorId);
+        assertEquals(1, fetches.get());
+        assertEquals(1, audit.getCacheHits());
+    }
+
+    @Test
+    void testRetriesPatchUntilLogIsPersisted() {
+        // Arrange
+        addEntry(ActionType.CHANNEL_DELETE, 700L, null);
+        when(audit.logRepository.patchModeration(any())).thenReturn(0, 0, 1);
+        ServerLog deleted = log(LogEventType.CHANNEL_DELETED, 1L);
+
+        // Act
+        audit.enrich(guild, deleted, 700L);
+
+        // Assert
+        List<ServerLog> patches = patched(3);
+        patches.forEach(patch -> assertEquals(MODERATOR, patch.moderatorId));
+        assertEquals(1, patches.stream().distinct().count());
+    }
+}
@@ -0,0 +1,108 @@
+package io.quarkus.manikomio.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.ServerLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PipelineMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private PipelineMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new PipelineMetrics();
+        metrics.registry = registry;
+        metrics.writeBehindService = mock(LogWriteBehindService.class);
+        metrics.mirrorService = mock(LogMirrorService.class);
+        metrics.recentLogCache = mock(RecentLogCache.class);
+        metrics.rollupService = mock(LogRollupService.class);
+        metrics.searchService = mock(LogSearchService.class);
+        metrics.messageCache = mock(MessageContentCache.class);
+        metrics.policyEngine = mock(LogPolicyEngine.class);
+        metrics.discordBotService = mock(DiscordBotService.class);
+        metrics.queryExecutor = mock(LogQueryExecutor.class);
+        metrics.moderationAudit = mock(ModerationAuditService.class);
+        when(metrics.discordBotService.getLocalShards()).thenReturn(List.of(2, 3));
+        metrics.register();
+    }
+
+    @Test
+    void testCountsIngestedEventsByType() {
+        // Act
+        metrics.recordIngested(LogEventType.MESSAGE_SENT);
+        metrics.recordIngested(LogEventType.MESSAGE_SENT);
+        metrics.recordIngested(LogEventType.VOICE_JOINED);
+
+        // Assert
+        assertEquals(2, registry.get("manikomio.logs.ingested").tag("type", "MESSAGE_SENT").counter().count());
+        assertEquals(1, registry.get("manikomio.logs.ingested").tag("type", "VOICE_JOINED").counter().count());
+    }
+
+    @Test
+    void testRecordsCommitLatencyFromEventTime() {
+        // Arrange
+        ServerLog log = new ServerLog();
+        log.setCreatedAt(OffsetDateTime.now().minusSeconds(2));
+
+        // Act
+        metrics.recordCommitted(List.of(log));
+
+        // Assert
+        var timer = registry.get("manikomio.logs.commit.latency").timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.SECONDS) >= 2);
+    }
+
+    @Test
+    void testUnknownSubcommandsShareOneTag() {
+        // Act
+        metrics.recordCommand("stats", System.nanoTime());
+        metrics.recordCommand("export", System.nanoTime());
+        metrics.recordCommand("qualquer-coisa", System.nanoTime());
+
+        // Assert
+        assertEquals(1, registry.get("manikomio.command.latency").tag("subcommand", "stats").timer().count());
+        assertEquals(1, registry.get("manikomio.command.latency").tag("subcommand", "export").timer().count());
+        assertEquals(1, registry.get("manikomio.command.latency").tag("subcommand", "unknown").timer().count());
+    }
+
+    @Test
+    void testTracksInFlightMirrorSends() {
+        // Arrange
+        when(metrics.writeBehindService.getSpoolLength()).thenReturn(42L);
+
+        // Act
+        metrics.mirrorSendStarted();
+        metrics.mirrorSendStarted();
+        metrics.recordMirrorSend(System.nanoTime(), false);
+
+        // Assert
+        assertEquals(1, registry.get("manikomio.mirror.inflight").gauge().value());
+        assertEquals(1, registry.get("manikomio.mirror.send").tag("outcome", "failure").timer().count());
+        assertEquals(42, registry.get("manikomio.spool.length").gauge().value());
+    }
+
+    @Test
+    void testDispatchMetricsPerLocalShard() {
+        // Arrange
+        when(metrics.discordBotService.getPendingEvents(2)).thenReturn(7);
+        when(metrics.discordBotService.getPendingEvents(3)).thenReturn(1);
+
+        // Act & Assert
+        assertEquals(7, registry.get("manikomio.events.pending").tag("shard", "2").gauge().value());
+        assertEquals(1, registry.get("manikomio.events.pending").tag("shard", "3").gauge().value());
+        assertEquals(2, registry.get("manikomio.discord.gateway.ping").gauges().size());
+    }
+}
@@ -0,0 +1,82 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogQuery;
+import io.quarkus.manikomio.model.ServerLog;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecentLogBufferTest {
+
+    private static final OffsetDateTime START = OffsetDateTime.now().minusHours(1);
+
+    private static ServerLog log(int minute, LogEventType eventType) {
+        ServerLog log = new ServerLog();
+        log.setGuildId(789L);
+        log.setUserId(123L);
+        log.setEventType(eventType);
+        log.setCreatedAt(START.plusMinutes(minute));
+        return log;
+    }
+
+    @Test
+    void testReturnsNewestFirst() {
+        // Arrange
+        RecentLogBuffer buffer = new RecentLogBuffer(10, START);
+        for (int i = 0; i < 5; i++) {
+            buffer.add(log(i, LogEventType.MESSAGE_SENT));
+        }
+
+        // Act
+        List<ServerLog> logs = buffer.newest(LogQuery.forGuild(789L), 3);
+
+        // Assert
+        assertEquals(3, logs.size());
+        assertEquals(START.plusMinutes(4), logs.get(0).getCreatedAt());
+        assertEquals(START.plusMinutes(2), logs.get(2).getCreatedAt());
+    }
+
+    @Test
+    void testWrapAroundKeepsOnlyCapacity() {
+        // Arrange
+        RecentLogBuffer buffer = new RecentLogBuffer(4, START);
+        for (int i = 0; i < 10; i++) {
+            buffer.add(log(i, LogEventType.MESSAGE_SENT));
+        }
+
+        // Act
+        List<ServerLog> logs = buffer.newest(LogQuery.forGuild(789L), 100);
+
+        // Assert
+        assertEquals(4, buffer.size());
+        assertEquals(4, logs.size());
+        assertEquals(START.plusMinutes(6), buffer.coverageStart());
+    }
+
+    @Test
+    void testCoverageStartsAtCreationBeforeWrapping() {
+        RecentLogBuffer buffer = new RecentLogBuffer(4, START);
+        buffer.add(log(1, LogEventType.MESSAGE_SENT));
+        assertEquals(START, buffer.coverageStart());
+    }
+
+    @Test
+    void testFiltersByEventType() {
+        // Arrange
+        RecentLogBuffer buffer = new RecentLogBuffer(10, START);
+        buffer.add(log(0, LogEventType.MESSAGE_SENT));
+        buffer.add(log(1, LogEventType.VOICE_JOINED));
+        buffer.add(log(2, LogEventType.MESSAGE_SENT));
+
+        // Act
+        List<ServerLog> logs = buffer.newest(LogQuery.forGuild(789L).eventType(LogEventType.VOICE_JOINED), 10);
+
+        // Assert
+        assertEquals(1, logs.size());
+        assertEquals(LogEventType.VOICE_JOINED, logs.get(0).getEventType());
+    }
+}
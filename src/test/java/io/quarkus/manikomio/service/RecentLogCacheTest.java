@@ -0,0 +1,70 @@
+package io.quarkus.manikomio.service;
+
+import io.quarkus.manikomio.model.LogCursor;
+import io.quarkus.manikomio.model.LogEventType;
+import io.quarkus.manikomio.model.LogPage;
+import io.quarkus.manikomio.model.LogQuery;
+import io.quarkus.manikomio.model.ServerLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecentLogCacheTest {
+
+    private static final long GUILD = 789L;
+
+    private RecentLogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RecentLogCache();
+        cache.enabled = true;
+        cache.capacityPerGuild = 10;
+        cache.maxGuilds = 10;
+    }
+
+    private void add(int minutesAgo, Long id) {
+        ServerLog log = new ServerLog();
+        log.id = id;
+        log.setGuildId(GUILD);
+        log.setEventType(LogEventType.MESSAGE_SENT);
+        log.setCreatedAt(OffsetDateTime.now().minusMinutes(minutesAgo));
+        cache.add(log);
+    }
+
+    @Test
+    void testFullPageCarriesCursorOfLastLog() {
+        // Arrange
+        add(3, 1L);
+        add(2, 2L);
+        add(1, 3L);
+
+        // Act
+        Optional<LogPage> page = cache.find(LogQuery.forGuild(GUILD).limit(2));
+
+        // Assert
+        assertTrue(page.isPresent());
+        assertEquals(2, page.get().logs().size());
+        assertEquals(2L, LogCursor.decode(page.get().nextCursor()).id());
+    }
+
+    @Test
+    void testLeavesPageToRepositoryWhenLastLogHasNoId() {
+        // Arrange
+        add(3, 1L);
+        add(2, null);
+        add(1, null);
+
+        // Act
+        Optional<LogPage> page = cache.find(LogQuery.forGuild(GUILD).limit(2));
+
+        // Assert
+        // Sem cursor o paginador esconderia o botão de próxima página
+        assertTrue(page.isEmpty());
+        assertEquals(1, cache.getMisses());
+    }
+}
@@ -0,0 +1,54 @@
+package io.quarkus.manikomio.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardRangeTest {
+
+    @Test
+    void testDefaultsToAllShards() {
+        // Act
+        ShardRange range = ShardRange.parse(Optional.empty(), 16);
+
+        // Assert
+        assertEquals(0, range.first());
+        assertEquals(15, range.last());
+        assertTrue(range.isComplete());
+        assertEquals(16, range.count());
+    }
+
+    @Test
+    void testParsesPartialRange() {
+        // Act
+        ShardRange range = ShardRange.parse(Optional.of(" 8-15 "), 16);
+        ShardRange single = ShardRange.parse(Optional.of("3"), 16);
+
+        // Assert
+        assertFalse(range.isComplete());
+        assertTrue(range.contains(8) && range.contains(15));
+        assertFalse(range.contains(7));
+        assertEquals(1, single.count());
+        assertEquals(3, single.first());
+    }
+
+    @Test
+    void testRejectsRangeOutsideTotal() {
+        assertThrows(IllegalArgumentException.class, () -> ShardRange.parse(Optional.of("8-16"), 16));
+        assertThrows(IllegalArgumentException.class, () -> ShardRange.parse(Optional.of("7-3"), 16));
+        assertThrows(IllegalArgumentException.class, () -> ShardRange.parse(Optional.of("a-b"), 16));
+    }
+
+    @Test
+    void testShardOfUsesGuildTimestampBits() {
+        // Arrange
+        long guildId = 5L << 22 | 12345;
+
+        // Act & Assert
+        assertEquals(5, ShardRange.shardOf(guildId, 16));
+        assertEquals(1, ShardRange.shardOf(guildId, 4));
+        assertEquals(0, ShardRange.shardOf(guildId, 1));
+    }
+}
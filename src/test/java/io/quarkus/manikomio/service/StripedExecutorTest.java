@@ -0,0 +1,110 @@
+package io.quarkus.manikomio.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripedExecutorTest {
+
+    private StripedExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    // Primeira chave que cai numa faixa diferente da chave dada
+    private long keyInOtherStripe(long key) {
+        long other = key + 1;
+        while (executor.stripeIndex(other) == executor.stripeIndex(key)) {
+            other++;
+        }
+        return other;
+    }
+
+    @Test
+    void testKeepsOrderForSameKey() throws InterruptedException {
+        // Arrange
+        executor = new StripedExecutor("teste", 8, 2000, true);
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1000);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            int value = i;
+            executor.execute(123456789012345678L, () -> {
+                executed.add(value);
+                done.countDown();
+            });
+        }
+
+        // Assert
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, executed.get(i));
+        }
+    }
+
+    @Test
+    void testSlowKeyDoesNotBlockOtherStripes() throws InterruptedException {
+        // Arrange
+        executor = new StripedExecutor("teste", 8, 10, true);
+        long slowKey = 1L;
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherDone = new CountDownLatch(1);
+        executor.execute(slowKey, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // Act
+        executor.execute(keyInOtherStripe(slowKey), otherDone::countDown);
+
+        // Assert
+        assertTrue(otherDone.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    void testTryExecuteRejectsWhenStripeIsFull() throws InterruptedException {
+        // Arrange
+        executor = new StripedExecutor("teste", 1, 1, false);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(1L, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        boolean queued = executor.tryExecute(1L, () -> { });
+        boolean rejected = executor.tryExecute(1L, () -> { });
+
+        // Assert
+        assertTrue(queued);
+        assertFalse(rejected);
+        assertEquals(1, executor.pending());
+        assertEquals(1, executor.rejectedCount());
+        release.countDown();
+    }
+
+    @Test
+    void testUsesVirtualThreadsOnlyWhenAvailable() {
+        executor = new StripedExecutor("teste", 2, 10, true);
+        assertEquals(Runtime.version().feature() >= 21, executor.usesVirtualThreads());
+    }
+}
@@ -0,0 +1,54 @@
+package io.quarkus.manikomio.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketTest {
+
+    @Test
+    void testConsumesUpToCapacity() {
+        // Arrange
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(3, 1, clock::get);
+
+        // Act & Assert
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    void testRefillsOverTime() {
+        // Arrange
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(2, 1, clock::get);
+        bucket.tryAcquire();
+        bucket.tryAcquire();
+
+        // Act
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1500));
+
+        // Assert
+        assertEquals(1, bucket.available());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    void testNeverExceedsCapacity() {
+        // Arrange
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(5, 10, clock::get);
+
+        // Act
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        // Assert
+        assertEquals(5, bucket.available());
+    }
+}